@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.exec;
+
+import org.openjdk.jmh.annotations.*;
+import ratpack.stream.Streams;
+import ratpack.test.exec.ExecHarness;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduling of executions and their segments.
+ * <p>
+ * Each invocation starts an execution from the benchmark thread and waits for it to complete,
+ * so results include the hand off to and from the event loop.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ExecutionBenchmarks {
+
+  @Param({"1", "10", "100"})
+  int segments;
+
+  private ExecHarness harness;
+
+  @Setup
+  public void setup() {
+    harness = ExecHarness.harness(1);
+  }
+
+  @TearDown
+  public void tearDown() {
+    harness.close();
+  }
+
+  @Benchmark
+  public Integer asyncSegments() throws Exception {
+    return harness.yield(execution -> async(0, segments)).getValue();
+  }
+
+  @Benchmark
+  public Integer interceptedSegments() throws Exception {
+    return harness.yield(
+      r -> r.add(ExecInterceptor.class, (execution, execType, continuation) -> continuation.execute()),
+      execution -> async(0, segments)
+    ).getValue();
+  }
+
+  @Benchmark
+  public Integer streamedSegments() throws Exception {
+    return harness.yield(execution ->
+      Streams.yield(request -> request.getRequestNum() < segments ? request.getRequestNum() : null).toList().map(List::size)
+    ).getValue();
+  }
+
+  @Benchmark
+  public Integer forkedSegments() throws Exception {
+    return harness.yield(execution -> Promise.<Integer>async(down -> {
+      int[] remaining = {segments};
+      for (int i = 0; i < segments; ++i) {
+        Execution.fork().start(forked -> {
+          if (--remaining[0] == 0) {
+            down.success(segments);
+          }
+        });
+      }
+    })).getValue();
+  }
+
+  // each async completion schedules a new segment of the execution
+  private static Promise<Integer> async(int i, int segments) {
+    Promise<Integer> promise = Promise.async(down -> down.success(i + 1));
+    return i + 1 == segments ? promise : promise.flatMap(n -> async(n, segments));
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.exec;
+
+import org.openjdk.jmh.annotations.*;
+import ratpack.test.exec.ExecHarness;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Composition of promises within a single execution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PromiseBenchmarks {
+
+  @Param({"1", "10", "100"})
+  int length;
+
+  private ExecHarness harness;
+
+  @Setup
+  public void setup() {
+    harness = ExecHarness.harness(1);
+  }
+
+  @TearDown
+  public void tearDown() {
+    harness.close();
+  }
+
+  @Benchmark
+  public Integer map() throws Exception {
+    return harness.yield(execution -> {
+      Promise<Integer> promise = Promise.value(0);
+      for (int i = 0; i < length; ++i) {
+        promise = promise.map(n -> n + 1);
+      }
+      return promise;
+    }).getValue();
+  }
+
+  @Benchmark
+  public Integer flatMap() throws Exception {
+    return harness.yield(execution -> {
+      Promise<Integer> promise = Promise.value(0);
+      for (int i = 0; i < length; ++i) {
+        promise = promise.flatMap(n -> Promise.value(n + 1));
+      }
+      return promise;
+    }).getValue();
+  }
+
+  @Benchmark
+  public Integer cache() throws Exception {
+    return harness.yield(execution -> {
+      Promise<Integer> cached = Promise.value(1).cache();
+      Promise<Integer> promise = Promise.value(0);
+      for (int i = 0; i < length; ++i) {
+        promise = promise.flatMap(n -> cached.map(c -> n + c));
+      }
+      return promise;
+    }).getValue();
+  }
+
+  @Benchmark
+  public Integer throttled() throws Exception {
+    return harness.yield(execution -> {
+      Throttle throttle = Throttle.ofSize(1);
+      Promise<Integer> promise = Promise.value(0);
+      for (int i = 0; i < length; ++i) {
+        promise = promise.flatMap(n -> Promise.value(n + 1).throttled(throttle));
+      }
+      return promise;
+    }).getValue();
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.handling;
+
+import org.openjdk.jmh.annotations.*;
+import ratpack.exec.ExecController;
+import ratpack.exec.internal.DefaultExecController;
+import ratpack.server.internal.EmbeddedRequestChannel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatch of a request through a chain of handlers that each delegate to the next via {@link Context#next()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ChainDispatchBenchmarks {
+
+  @Param({"1", "10", "100"})
+  int handlers;
+
+  private ExecController execController;
+  private EmbeddedRequestChannel passThrough;
+  private EmbeddedRequestChannel prefixes;
+
+  @Setup
+  public void setup() throws Exception {
+    execController = new DefaultExecController(1);
+
+    Handler[] chain = new Handler[handlers + 1];
+    for (int i = 0; i < handlers; ++i) {
+      chain[i] = Context::next;
+    }
+    chain[handlers] = ctx -> ctx.getResponse().send();
+    passThrough = new EmbeddedRequestChannel(execController, Handlers.chain(chain));
+
+    // non matching path handlers, as is typical of a large application
+    Handler[] paths = new Handler[handlers + 1];
+    for (int i = 0; i < handlers; ++i) {
+      paths[i] = Handlers.path("path" + i, ctx -> ctx.getResponse().send());
+    }
+    paths[handlers] = ctx -> ctx.getResponse().send();
+    prefixes = new EmbeddedRequestChannel(execController, Handlers.chain(paths));
+  }
+
+  @TearDown
+  public void tearDown() {
+    passThrough.close();
+    prefixes.close();
+    execController.close();
+  }
+
+  @Benchmark
+  public int next() {
+    return passThrough.get("/");
+  }
+
+  @Benchmark
+  public int unmatchedPaths() {
+    return prefixes.get("/last");
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.http;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ratpack.http.internal.DefaultRequest;
+import ratpack.http.internal.NettyHeadersBackedHeaders;
+import ratpack.server.ServerConfig;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of request metadata, as performed lazily by {@link DefaultRequest}.
+ * <p>
+ * Each invocation creates a new request, as parsed values are memoized by the request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RequestParsingBenchmarks {
+
+  private static final InetSocketAddress ADDRESS = new InetSocketAddress("127.0.0.1", 5050);
+
+  private final ServerConfig serverConfig = ServerConfig.builder().port(0).build();
+  private final HttpHeaders nettyHeaders = new DefaultHttpHeaders()
+    .set("Host", "localhost:5050")
+    .set("User-Agent", "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/50.0.2661.102 Safari/537.36")
+    .set("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+    .set("Accept-Encoding", "gzip, deflate, sdch")
+    .set("Accept-Language", "en-US,en;q=0.8")
+    .set("Content-Type", "application/json; charset=utf-8")
+    .set("Cookie", "JSESSIONID=8a8b8c8d8e8f; theme=dark; _ga=GA1.1.1234567890.1234567890; lang=en");
+
+  private DefaultRequest request(String uri) {
+    return new DefaultRequest(Instant.now(), new NettyHeadersBackedHeaders(nettyHeaders), HttpMethod.GET, HttpVersion.HTTP_1_1, uri, ADDRESS, ADDRESS, serverConfig, null);
+  }
+
+  @Benchmark
+  public DefaultRequest create() {
+    return request("/foo/bar?a=1");
+  }
+
+  @Benchmark
+  public String path() {
+    return request("/api/users/123/orders?a=1").getPath();
+  }
+
+  @Benchmark
+  public Object queryParams() {
+    return request("/search?q=ratpack&page=2&sort=asc&filter=a&filter=b&filter=c&empty=").getQueryParams().get("filter");
+  }
+
+  @Benchmark
+  public Object encodedQueryParams() {
+    return request("/search?q=%E2%9C%93+ratpack%20framework&tag=caf%C3%A9").getQueryParams().get("q");
+  }
+
+  @Benchmark
+  public String oneCookie() {
+    return request("/").oneCookie("theme");
+  }
+
+  @Benchmark
+  public void headers(Blackhole blackhole) {
+    DefaultRequest request = request("/");
+    blackhole.consume(request.getHeaders().get("Accept"));
+    blackhole.consume(request.getHeaders().get("Accept-Encoding"));
+    blackhole.consume(request.getHeaders().get("Host"));
+    blackhole.consume(request.getContentType());
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.path;
+
+import org.openjdk.jmh.annotations.*;
+import ratpack.path.internal.RootPathBinding;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding of request paths by {@link PathBinder} implementations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PathBindingBenchmarks {
+
+  private final PathBinding root = new RootPathBinding("api/users/123/orders/456");
+  private final PathBinding unmatchedRoot = new RootPathBinding("static/css/app.css");
+
+  private final PathBinder literal = PathBinder.parse("api/users", false);
+  private final PathBinder tokens = PathBinder.parse("api/users/:userId/orders/:orderId", true);
+  private final PathBinder optionalTokens = PathBinder.parse("api/users/:userId?/:section?", false);
+  private final PathBinder regex = PathBinder.parse("api/::u.*/:userId:\\d+", false);
+
+  @Benchmark
+  public Optional<PathBinding> literal() {
+    return literal.bind(root);
+  }
+
+  @Benchmark
+  public Optional<PathBinding> literalMiss() {
+    return literal.bind(unmatchedRoot);
+  }
+
+  @Benchmark
+  public Optional<PathBinding> tokens() {
+    return tokens.bind(root);
+  }
+
+  @Benchmark
+  public String tokensAndLookup() {
+    return tokens.bind(root).get().getTokens().get("orderId");
+  }
+
+  @Benchmark
+  public Optional<PathBinding> optionalTokens() {
+    return optionalTokens.bind(root);
+  }
+
+  @Benchmark
+  public Optional<PathBinding> regex() {
+    return regex.bind(root);
+  }
+
+  @Benchmark
+  public PathBinder parse() {
+    return PathBinder.parse("api/users/:userId/orders/:orderId", true);
+  }
+
+}
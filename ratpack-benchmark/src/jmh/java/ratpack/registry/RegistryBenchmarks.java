@@ -0,0 +1,96 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.registry;
+
+import com.google.common.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+import ratpack.registry.internal.CachingRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups through joined registries, as performed for each request against the server, request and context registries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RegistryBenchmarks {
+
+  private static final TypeToken<String> STRING = TypeToken.of(String.class);
+  private static final TypeToken<Integer> INTEGER = TypeToken.of(Integer.class);
+  private static final TypeToken<Double> DOUBLE = TypeToken.of(Double.class);
+
+  @Param({"1", "5", "20"})
+  int depth;
+
+  private Registry single;
+  private Registry joined;
+  private Registry cached;
+
+  @Setup
+  public void setup() throws Exception {
+    single = Registry.single(String.class, "root");
+
+    // the requested type is at the root, so lookups traverse every child
+    Registry registry = Registry.builder().add(String.class, "root").add(Long.class, 1L).build();
+    for (int i = 0; i < depth; ++i) {
+      registry = registry.join(Registry.builder().add(Integer.class, i).add(Object.class, new Object()).build());
+    }
+    joined = registry;
+    cached = CachingRegistry.of(registry);
+  }
+
+  @Benchmark
+  public Optional<String> single() {
+    return single.maybeGet(STRING);
+  }
+
+  @Benchmark
+  public Optional<String> joinedRoot() {
+    return joined.maybeGet(STRING);
+  }
+
+  @Benchmark
+  public Optional<Integer> joinedLeaf() {
+    return joined.maybeGet(INTEGER);
+  }
+
+  @Benchmark
+  public Optional<Double> joinedMiss() {
+    return joined.maybeGet(DOUBLE);
+  }
+
+  @Benchmark
+  public int joinedAll() {
+    int count = 0;
+    for (Integer ignored : joined.getAll(INTEGER)) {
+      ++count;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public Optional<String> cachedRoot() {
+    return cached.maybeGet(STRING);
+  }
+
+  @Benchmark
+  public Optional<Double> cachedMiss() {
+    return cached.maybeGet(DOUBLE);
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.server;
+
+import org.openjdk.jmh.annotations.*;
+import ratpack.exec.ExecController;
+import ratpack.exec.Promise;
+import ratpack.exec.internal.DefaultExecController;
+import ratpack.handling.Handler;
+import ratpack.handling.Handlers;
+import ratpack.server.internal.EmbeddedRequestChannel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full request cycle through the Netty adapter, from decoded request to transmitted response, without a network stack.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class RequestCycleBenchmarks {
+
+  private ExecController execController;
+  private EmbeddedRequestChannel channel;
+
+  @Setup
+  public void setup() throws Exception {
+    execController = new DefaultExecController(1);
+    Handler handler = Handlers.chain(ServerConfig.builder().build(), chain -> chain
+      .get("text", ctx -> ctx.getResponse().send("ok"))
+      .get("query", ctx -> ctx.getResponse().send(ctx.getRequest().getQueryParams().get("q")))
+      .get("cookie", ctx -> ctx.getResponse().send(ctx.getRequest().oneCookie("a")))
+      .get("user/:id", ctx -> ctx.getResponse().send(ctx.getPathTokens().get("id")))
+      .get("promises", ctx -> {
+        Promise<Integer> promise = Promise.value(0);
+        for (int i = 0; i < 10; ++i) {
+          promise = promise.flatMap(n -> Promise.async(down -> down.success(n + 1)));
+        }
+        promise.then(n -> ctx.getResponse().send(n.toString()));
+      })
+    );
+    channel = new EmbeddedRequestChannel(execController, handler);
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.close();
+    execController.close();
+  }
+
+  @Benchmark
+  public int text() {
+    return channel.get("/text");
+  }
+
+  @Benchmark
+  public int query() {
+    return channel.get("/query?q=value&r=1&r=2");
+  }
+
+  @Benchmark
+  public int cookie() {
+    return channel.get("/cookie");
+  }
+
+  @Benchmark
+  public int pathTokens() {
+    return channel.get("/user/123");
+  }
+
+  @Benchmark
+  public int promises() {
+    return channel.get("/promises");
+  }
+
+  @Benchmark
+  public int notFound() {
+    return channel.get("/missing");
+  }
+
+}
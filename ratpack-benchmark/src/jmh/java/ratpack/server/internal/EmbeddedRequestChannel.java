@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.server.internal;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.util.ReferenceCountUtil;
+import ratpack.error.ClientErrorHandler;
+import ratpack.error.ServerErrorHandler;
+import ratpack.error.internal.DefaultProductionErrorHandler;
+import ratpack.exec.ExecController;
+import ratpack.handling.Handler;
+import ratpack.registry.Registry;
+import ratpack.server.ServerConfig;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Drives requests through a {@link NettyHandlerAdapter} in process, without a network stack.
+ * <p>
+ * Executions run on the embedded event loop of the channel, so each request is handled synchronously on the calling thread.
+ */
+public class EmbeddedRequestChannel implements AutoCloseable {
+
+  private static final InetSocketAddress LOCAL_ADDRESS = new InetSocketAddress("127.0.0.1", 5050);
+  private static final InetSocketAddress REMOTE_ADDRESS = new InetSocketAddress("127.0.0.1", 50505);
+
+  private final EmbeddedChannel channel;
+
+  public EmbeddedRequestChannel(ExecController execController, Handler handler) throws Exception {
+    ServerConfig serverConfig = ServerConfig.builder().port(0).build();
+    DefaultProductionErrorHandler errorHandler = new DefaultProductionErrorHandler();
+    Registry registry = Registry.builder()
+      .add(ServerConfig.class, serverConfig)
+      .add(ExecController.class, execController)
+      .add(ByteBufAllocator.class, PooledByteBufAllocator.DEFAULT)
+      .add(ClientErrorHandler.class, errorHandler)
+      .add(ServerErrorHandler.class, errorHandler)
+      .build();
+
+    this.channel = new EmbeddedChannel(new NettyHandlerAdapter(registry, handler)) {
+      @Override
+      protected SocketAddress localAddress0() {
+        return LOCAL_ADDRESS;
+      }
+
+      @Override
+      protected SocketAddress remoteAddress0() {
+        return REMOTE_ADDRESS;
+      }
+    };
+    channel.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+  }
+
+  /**
+   * Sends a GET request for the given uri, and returns the status code of the response.
+   * <p>
+   * All outbound messages written for the response are released.
+   */
+  public int get(String uri) {
+    FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+    request.headers().set(HttpHeaderNames.HOST, "localhost");
+    request.headers().set(HttpHeaderNames.COOKIE, "a=1; b=2");
+    channel.writeInbound(request);
+    channel.runPendingTasks();
+
+    int status = -1;
+    Object message = channel.readOutbound();
+    while (message != null) {
+      if (message instanceof HttpResponse) {
+        status = ((HttpResponse) message).status().code();
+      }
+      ReferenceCountUtil.release(message);
+      message = channel.readOutbound();
+    }
+    return status;
+  }
+
+  @Override
+  public void close() {
+    channel.finishAndReleaseAll();
+  }
+
+}
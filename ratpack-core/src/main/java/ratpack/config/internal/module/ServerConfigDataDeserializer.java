@@ -24,9 +24,14 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.POJONode;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ratpack.exec.BlockingPoolConfig;
+import ratpack.exec.StallDetectionConfig;
 import ratpack.file.FileSystemBinding;
+import ratpack.server.ConcurrencyLimitConfig;
 import ratpack.server.ServerConfig;
 import ratpack.server.internal.ServerConfigData;
 import ratpack.server.internal.ServerEnvironment;
@@ -35,6 +40,8 @@ import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.URI;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -100,10 +107,67 @@ public class ServerConfigDataDeserializer extends JsonDeserializer<ServerConfigD
     if (serverNode.hasNonNull("writeSpinCount")) {
       parseOptionalIntValue("writeSpinCount", serverNode.get("writeSpinCount")).ifPresent(data::setWriteSpinCount);
     }
+    if (serverNode.hasNonNull("http2")) {
+      data.setHttp2(serverNode.get("http2").asBoolean(false));
+    }
+    if (serverNode.hasNonNull("http2MaxConcurrentStreams")) {
+      data.setHttp2MaxConcurrentStreams(serverNode.get("http2MaxConcurrentStreams").asLong(ServerConfig.DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS));
+    }
+    if (serverNode.hasNonNull("http2InitialWindowSize")) {
+      data.setHttp2InitialWindowSize(serverNode.get("http2InitialWindowSize").asInt(ServerConfig.DEFAULT_HTTP2_INITIAL_WINDOW_SIZE));
+    }
+    if (serverNode.hasNonNull("compressionLevel")) {
+      data.setCompressionLevel(serverNode.get("compressionLevel").asInt(ServerConfig.DEFAULT_COMPRESSION_LEVEL));
+    }
+    if (serverNode.hasNonNull("compressionMinSize")) {
+      data.setCompressionMinSize(serverNode.get("compressionMinSize").asLong(ServerConfig.DEFAULT_COMPRESSION_MIN_SIZE));
+    }
+    if (serverNode.hasNonNull("compressionMimeTypes")) {
+      data.setCompressionMimeTypes(parseStringSet(serverNode.get("compressionMimeTypes")));
+    }
+    if (serverNode.hasNonNull("compressionExcludedMimeTypes")) {
+      data.setCompressionExcludedMimeTypes(parseStringSet(serverNode.get("compressionExcludedMimeTypes")));
+    }
+    if (serverNode.hasNonNull("blockingPool")) {
+      data.setBlockingPool(toValue(codec, serverNode.get("blockingPool"), BlockingPoolConfig.class));
+    }
+    if (serverNode.hasNonNull("blockingPools")) {
+      ImmutableMap.Builder<String, BlockingPoolConfig> pools = ImmutableMap.builder();
+      Iterator<Map.Entry<String, JsonNode>> fields = serverNode.get("blockingPools").fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        pools.put(field.getKey(), toValue(codec, field.getValue(), BlockingPoolConfig.class));
+      }
+      data.setBlockingPools(pools.build());
+    }
+    if (serverNode.hasNonNull("stallDetection")) {
+      data.setStallDetection(toValue(codec, serverNode.get("stallDetection"), StallDetectionConfig.class));
+    }
+    if (serverNode.hasNonNull("concurrencyLimit")) {
+      data.setConcurrencyLimit(toValue(codec, serverNode.get("concurrencyLimit"), ConcurrencyLimitConfig.class));
+    }
+    if (serverNode.hasNonNull("compiledRouting")) {
+      data.setCompiledRouting(serverNode.get("compiledRouting").asBoolean(false));
+    }
 
     return data;
   }
 
+  // Accepts either an array, or a comma separated string (e.g. from a system property or environment variable)
+  private static ImmutableSet<String> parseStringSet(JsonNode node) {
+    ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+    if (node.isArray()) {
+      node.forEach(element -> builder.add(element.asText().trim()));
+    } else {
+      for (String value : node.asText().split(",")) {
+        if (!value.trim().isEmpty()) {
+          builder.add(value.trim());
+        }
+      }
+    }
+    return builder.build();
+  }
+
   private int parsePort(JsonNode node) {
     return node.isInt() ? node.asInt() : ServerEnvironment.parsePortValue("config", node.asText());
   }
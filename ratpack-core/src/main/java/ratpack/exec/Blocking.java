@@ -17,15 +17,22 @@
 package ratpack.exec;
 
 import io.netty.channel.EventLoop;
+import ratpack.exec.internal.DefaultDeadline;
 import ratpack.exec.internal.DefaultExecution;
 import ratpack.exec.internal.DefaultPromise;
 import ratpack.exec.internal.ThreadBinding;
 import ratpack.func.Block;
 import ratpack.func.Factory;
+import ratpack.func.Function;
 
 import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
@@ -46,47 +53,169 @@ public abstract class Blocking {
    * The operation should do as little computation as possible.
    * It should just perform the blocking operation and immediately return the result.
    * Performing computation during the operation will degrade performance.
+   * <p>
+   * If the current execution has a {@link Deadline}, the returned promise fails with a {@link java.util.concurrent.TimeoutException} if the deadline passes before the operation completes.
+   * The operation is not started if the deadline has passed before a thread becomes available for it.
+   * <p>
+   * The operation is executed by the {@link ExecController#DEFAULT_BLOCKING_POOL default blocking pool}.
+   * If the pool is {@link BlockingPoolConfig#bounded(int, int) bounded} and at capacity, the returned promise fails with a {@link java.util.concurrent.RejectedExecutionException}.
+   * <p>
+   * If the execution is {@link Execution#cancel() cancelled} before the operation completes, the returned promise fails with an {@link ExecutionCancelledException}.
+   * The operation is not started if it is still waiting for a thread, and the thread performing it is interrupted otherwise.
    *
    * @param factory the operation that blocks
    * @param <T> the type of value created by the operation
    * @return a promise for the return value of the given blocking operation
    */
   public static <T> Promise<T> get(Factory<T> factory) {
+    return get(ExecController::getBlockingExecutor, factory);
+  }
+
+  /**
+   * Performs a blocking operation on a thread from the named blocking pool, returning a promise for its value.
+   * <p>
+   * Using separate pools for different kinds of blocking operations (e.g. for different databases)
+   * prevents a slowdown of one resource from exhausting the threads available for others.
+   * Pools are configured via {@link ratpack.server.ServerConfigBuilder#blockingPool(String, BlockingPoolConfig)}.
+   * <p>
+   * This method is otherwise identical to {@link #get(Factory)}.
+   * If there is no pool with the given name, the returned promise fails with an {@link IllegalArgumentException}.
+   *
+   * @param pool the name of the blocking pool
+   * @param factory the operation that blocks
+   * @param <T> the type of value created by the operation
+   * @return a promise for the return value of the given blocking operation
+   * @since 1.4
+   */
+  public static <T> Promise<T> get(String pool, Factory<T> factory) {
+    return get(controller -> controller.getBlockingExecutor(pool), factory);
+  }
+
+  private static <T> Promise<T> get(Function<? super ExecController, ? extends ExecutorService> executorFunction, Factory<T> factory) {
     return new DefaultPromise<>(downstream -> {
       DefaultExecution execution = DefaultExecution.require();
+      ExecutorService executor;
+      try {
+        executor = executorFunction.apply(execution.getController());
+      } catch (Exception e) {
+        downstream.error(e);
+        return;
+      }
+      Deadline deadline = execution.maybeGet(Deadline.class).orElse(null);
+      if (deadline != null && deadline.isExpired()) {
+        downstream.error(DefaultDeadline.deadlineExceeded());
+        return;
+      }
+
+      if (execution.isCancelled()) {
+        downstream.error(new ExecutionCancelledException());
+        return;
+      }
+
       EventLoop eventLoop = execution.getEventLoop();
-      execution.delimit(downstream::error, continuation ->
-        eventLoop.execute(() ->
-          CompletableFuture.supplyAsync(
-            new Supplier<Result<T>>() {
-              Result<T> result;
-
-              @Override
-              public Result<T> get() {
-                try {
-                  DefaultExecution.THREAD_BINDING.set(execution);
-                  intercept(execution, execution.getAllInterceptors().iterator(), () -> {
-                    try {
-                      result = Result.success(factory.create());
-                    } catch (Throwable e) {
-                      result = Result.error(e);
-                    }
-                  });
-                  return result;
-                } catch (Throwable e) {
-                  DefaultExecution.interceptorError(e);
-                  return result;
-                } finally {
-                  DefaultExecution.THREAD_BINDING.remove();
-                }
+      execution.delimit(downstream::error, continuation -> {
+        AtomicBoolean fired = new AtomicBoolean();
+        ScheduledFuture<?> timer = deadline == null ? null : eventLoop.schedule(() -> {
+          if (fired.compareAndSet(false, true)) {
+            continuation.resume(() -> downstream.error(DefaultDeadline.deadlineExceeded()));
+          }
+        }, deadline.getRemaining().toNanos(), TimeUnit.NANOSECONDS);
+
+        BlockingOperation<T> operation = new BlockingOperation<>(execution, factory, fired);
+        execution.onCancel(() -> {
+          if (fired.compareAndSet(false, true)) {
+            if (timer != null) {
+              timer.cancel(false);
+            }
+            operation.interrupt();
+          }
+        });
+
+        eventLoop.execute(() -> {
+          CompletableFuture<Result<T>> future;
+          try {
+            future = CompletableFuture.supplyAsync(operation, executor);
+          } catch (RejectedExecutionException e) {
+            if (fired.compareAndSet(false, true)) {
+              if (timer != null) {
+                timer.cancel(false);
               }
-            }, execution.getController().getBlockingExecutor()
-          ).thenAcceptAsync(v -> continuation.resume(() -> downstream.accept(v)), eventLoop)
-        )
-      );
+              continuation.resume(() -> downstream.error(e));
+            }
+            return;
+          }
+          future.thenAcceptAsync(v -> {
+            if (fired.compareAndSet(false, true)) {
+              if (timer != null) {
+                timer.cancel(false);
+              }
+              continuation.resume(() -> downstream.accept(v));
+            }
+          }, eventLoop);
+        });
+      });
     });
   }
 
+  private static class BlockingOperation<T> implements Supplier<Result<T>> {
+    private final DefaultExecution execution;
+    private final Factory<T> factory;
+    private final AtomicBoolean fired;
+
+    private Result<T> result;
+
+    // guarded by this
+    private Thread thread;
+    private boolean interrupted;
+
+    BlockingOperation(DefaultExecution execution, Factory<T> factory, AtomicBoolean fired) {
+      this.execution = execution;
+      this.factory = factory;
+      this.fired = fired;
+    }
+
+    @Override
+    public Result<T> get() {
+      if (fired.get()) {
+        // the deadline passed or the execution was cancelled while waiting for a thread, so don't bother
+        return null;
+      }
+      synchronized (this) {
+        thread = Thread.currentThread();
+      }
+      try {
+        DefaultExecution.THREAD_BINDING.set(execution);
+        intercept(execution, execution.getAllInterceptors().iterator(), () -> {
+          try {
+            result = Result.success(factory.create());
+          } catch (Throwable e) {
+            result = Result.error(e);
+          }
+        });
+        return result;
+      } catch (Throwable e) {
+        DefaultExecution.interceptorError(e);
+        return result;
+      } finally {
+        DefaultExecution.THREAD_BINDING.remove();
+        synchronized (this) {
+          thread = null;
+          if (interrupted) {
+            // don't leak the interrupt to the next use of the thread
+            Thread.interrupted();
+          }
+        }
+      }
+    }
+
+    synchronized void interrupt() {
+      if (thread != null) {
+        interrupted = true;
+        thread.interrupt();
+      }
+    }
+  }
+
   /**
    * Blocks execution waiting for this promise to complete and returns the promised value.
    * <p>
@@ -233,6 +362,22 @@ public abstract class Blocking {
     }).operation();
   }
 
+  /**
+   * Performs a blocking operation on a thread from the named blocking pool, returning an operation.
+   *
+   * @param pool the name of the blocking pool
+   * @param block the operation that blocks
+   * @return an operation for the given blocking operation
+   * @see #get(String, Factory)
+   * @since 1.4
+   */
+  public static Operation op(String pool, Block block) {
+    return Blocking.<Void>get(pool, () -> {
+      block.execute();
+      return null;
+    }).operation();
+  }
+
   public static void exec(Block block) {
     op(block).then();
   }
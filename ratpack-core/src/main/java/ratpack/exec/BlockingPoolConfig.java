@@ -0,0 +1,167 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+/**
+ * The configuration of a pool of threads for {@link Blocking blocking} operations.
+ * <p>
+ * By default, a pool is unbounded, creating a new thread whenever a blocking operation is started while all threads are busy.
+ * This is simple, but means that a slowdown of a blocking resource (e.g. a database) can cause an ever increasing number of threads to be created.
+ * A {@link #bounded(int, int) bounded} pool instead limits the number of threads, queues operations while all threads are busy,
+ * and rejects operations when the queue is full, failing the promise with a {@link java.util.concurrent.RejectedExecutionException}.
+ * <p>
+ * On Java runtimes that support virtual threads (Java 21 onwards), a pool can {@link #virtual() use a new virtual thread for each operation}.
+ * On other runtimes, such a pool falls back to being unbounded.
+ * <p>
+ * Pools are configured via {@link ratpack.server.ServerConfigBuilder#blockingPool(BlockingPoolConfig)} and {@link ratpack.server.ServerConfigBuilder#blockingPool(String, BlockingPoolConfig)}.
+ *
+ * @see ExecController#getBlockingPoolStats()
+ * @since 1.4
+ */
+public class BlockingPoolConfig {
+
+  /**
+   * The default size of the queue of a bounded pool.
+   * <p>
+   * Defaults to {@value}.
+   */
+  public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+  private int maxThreads;
+  private int queueSize = DEFAULT_QUEUE_SIZE;
+  private boolean virtualThreads;
+
+  /**
+   * Creates the configuration for an unbounded pool.
+   *
+   * @return the configuration for an unbounded pool
+   */
+  public static BlockingPoolConfig unbounded() {
+    return new BlockingPoolConfig();
+  }
+
+  /**
+   * Creates the configuration for a bounded pool.
+   *
+   * @param maxThreads the maximum number of threads
+   * @param queueSize the maximum number of operations to queue while all threads are busy
+   * @return the configuration for a bounded pool
+   */
+  public static BlockingPoolConfig bounded(int maxThreads, int queueSize) {
+    if (maxThreads < 1) {
+      throw new IllegalArgumentException("maxThreads must be > 0 (was " + maxThreads + ")");
+    }
+    BlockingPoolConfig config = new BlockingPoolConfig();
+    config.setMaxThreads(maxThreads);
+    config.setQueueSize(queueSize);
+    return config;
+  }
+
+  /**
+   * Creates the configuration for a pool that uses a new virtual thread for each operation.
+   *
+   * @return the configuration for a pool that uses a new virtual thread for each operation
+   */
+  public static BlockingPoolConfig virtual() {
+    BlockingPoolConfig config = new BlockingPoolConfig();
+    config.setVirtualThreads(true);
+    return config;
+  }
+
+  /**
+   * The maximum number of threads of the pool.
+   * <p>
+   * A value of {@code 0} (the default) means the pool is unbounded.
+   *
+   * @return the maximum number of threads of the pool
+   */
+  public int getMaxThreads() {
+    return maxThreads;
+  }
+
+  /**
+   * Sets the maximum number of threads of the pool.
+   *
+   * @param maxThreads the maximum number of threads, or {@code 0} for an unbounded pool
+   */
+  public void setMaxThreads(int maxThreads) {
+    if (maxThreads < 0) {
+      throw new IllegalArgumentException("maxThreads must be >= 0 (was " + maxThreads + ")");
+    }
+    this.maxThreads = maxThreads;
+  }
+
+  /**
+   * The maximum number of operations to queue while all threads of a bounded pool are busy.
+   * <p>
+   * Operations started while the queue is full are rejected.
+   * A value of {@code 0} means operations are rejected as soon as all threads are busy.
+   * Not used by unbounded pools.
+   * <p>
+   * Defaults to {@link #DEFAULT_QUEUE_SIZE}.
+   *
+   * @return the maximum number of operations to queue
+   */
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  /**
+   * Sets the maximum number of operations to queue while all threads of a bounded pool are busy.
+   *
+   * @param queueSize the maximum number of operations to queue
+   */
+  public void setQueueSize(int queueSize) {
+    if (queueSize < 0) {
+      throw new IllegalArgumentException("queueSize must be >= 0 (was " + queueSize + ")");
+    }
+    this.queueSize = queueSize;
+  }
+
+  /**
+   * Whether a new virtual thread is used for each operation, if supported by the runtime.
+   * <p>
+   * If {@code true}, {@link #getMaxThreads()} and {@link #getQueueSize()} are not used.
+   * Defaults to {@code false}.
+   *
+   * @return whether a new virtual thread is used for each operation
+   */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Sets whether a new virtual thread is used for each operation, if supported by the runtime.
+   *
+   * @param virtualThreads whether a new virtual thread is used for each operation
+   */
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
+  @Override
+  public String toString() {
+    if (virtualThreads) {
+      return "BlockingPoolConfig{virtual}";
+    } else if (maxThreads == 0) {
+      return "BlockingPoolConfig{unbounded}";
+    } else {
+      return "BlockingPoolConfig{maxThreads=" + maxThreads + ", queueSize=" + queueSize + "}";
+    }
+  }
+
+}
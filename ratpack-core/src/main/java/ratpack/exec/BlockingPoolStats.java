@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import java.time.Duration;
+
+/**
+ * Statistics of a pool of threads for {@link Blocking blocking} operations.
+ * <p>
+ * Values are read without synchronization, so are approximate while the pool is in use.
+ *
+ * @see ExecController#getBlockingPoolStats()
+ * @since 1.4
+ */
+public interface BlockingPoolStats {
+
+  /**
+   * The name of the pool.
+   *
+   * @return the name of the pool
+   */
+  String getName();
+
+  /**
+   * The configuration of the pool.
+   *
+   * @return the configuration of the pool
+   */
+  BlockingPoolConfig getConfig();
+
+  /**
+   * The number of operations waiting for a thread.
+   *
+   * @return the number of operations waiting for a thread
+   */
+  int getQueueSize();
+
+  /**
+   * The number of operations currently executing.
+   *
+   * @return the number of operations currently executing
+   */
+  int getActiveCount();
+
+  /**
+   * The number of operations that have completed.
+   *
+   * @return the number of operations that have completed
+   */
+  long getCompletedCount();
+
+  /**
+   * The number of operations that were rejected as the pool was at capacity.
+   *
+   * @return the number of operations that were rejected
+   */
+  long getRejectedCount();
+
+  /**
+   * The total time that operations have waited for a thread.
+   * <p>
+   * Sampling this along with the {@link #getCompletedCount() completed count} allows the mean wait time over a period to be calculated.
+   *
+   * @return the total time that operations have waited for a thread
+   */
+  Duration getTotalWaitTime();
+
+  /**
+   * The longest time that an operation has waited for a thread.
+   *
+   * @return the longest time that an operation has waited for a thread
+   */
+  Duration getMaxWaitTime();
+
+}
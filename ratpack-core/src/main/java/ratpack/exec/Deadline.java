@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import ratpack.exec.internal.DefaultDeadline;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * A point in time by which an execution should have completed its work.
+ * <p>
+ * A deadline is associated with an execution via {@link #set(Duration)}, typically at the edge of the application (e.g. when a request is received).
+ * Operations that wait on external resources honour the deadline of the current execution automatically,
+ * failing with a {@link java.util.concurrent.TimeoutException} if it passes before they complete.
+ * This includes {@link Blocking} operations and {@link ratpack.http.client.HttpClient} requests.
+ * As the deadline is fixed, the time available to each such operation shrinks as the execution progresses.
+ * <p>
+ * The deadline of an execution is also applied to executions {@link Execution#fork() forked} from it.
+ * <pre class="java">{@code
+ * import ratpack.exec.Blocking;
+ * import ratpack.exec.Deadline;
+ * import ratpack.test.exec.ExecHarness;
+ *
+ * import java.time.Duration;
+ * import java.util.concurrent.TimeoutException;
+ *
+ * import static org.junit.Assert.assertTrue;
+ *
+ * public class Example {
+ *   public static void main(String... args) throws Exception {
+ *     Throwable error = ExecHarness.yieldSingle(e -> {
+ *       Deadline.set(Duration.ofMillis(100));
+ *       return Blocking.get(() -> {
+ *         Thread.sleep(1000);
+ *         return "too slow";
+ *       });
+ *     }).getThrowable();
+ *
+ *     assertTrue(error instanceof TimeoutException);
+ *   }
+ * }
+ * }</pre>
+ *
+ * @see Promise#timeout(Duration)
+ * @since 1.4
+ */
+public interface Deadline {
+
+  /**
+   * Creates a deadline that is the given duration from now.
+   *
+   * @param timeout the time from now until the deadline
+   * @return a deadline
+   */
+  static Deadline of(Duration timeout) {
+    return DefaultDeadline.of(timeout);
+  }
+
+  /**
+   * The deadline of the current execution, if any.
+   * <p>
+   * Returns empty if not called on a managed thread.
+   *
+   * @return the deadline of the current execution
+   */
+  static Optional<Deadline> current() {
+    return DefaultDeadline.current();
+  }
+
+  /**
+   * Sets the deadline of the current execution to be the given duration from now.
+   * <p>
+   * If the execution already has a deadline that is sooner, it is retained.
+   * That is, a deadline can only ever be brought forward.
+   *
+   * @param timeout the time from now until the deadline
+   * @return the deadline of the current execution
+   * @throws UnmanagedThreadException if called outside of an execution
+   */
+  static Deadline set(Duration timeout) throws UnmanagedThreadException {
+    return DefaultDeadline.set(timeout);
+  }
+
+  /**
+   * The time remaining until the deadline.
+   * <p>
+   * Never negative, and zero once the deadline has passed.
+   *
+   * @return the time remaining until the deadline
+   */
+  Duration getRemaining();
+
+  /**
+   * Whether the deadline has passed.
+   *
+   * @return whether the deadline has passed
+   */
+  default boolean isExpired() {
+    return getRemaining().isZero();
+  }
+
+  /**
+   * Bounds the given promise by this deadline.
+   * <p>
+   * If the deadline has passed when the returned promise is subscribed to, it fails immediately with a {@link java.util.concurrent.TimeoutException} without subscribing to the given promise.
+   * Otherwise, this is equivalent to {@code promise.timeout(getRemaining())}, with the remaining time calculated at subscription.
+   *
+   * @param promise the promise to bound
+   * @param <T> the type of promised value
+   * @return a promise that fails if the given promise does not complete before the deadline
+   */
+  <T> Promise<T> bound(Promise<T> promise);
+
+}
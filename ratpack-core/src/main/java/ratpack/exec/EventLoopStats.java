@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.time.Duration;
+
+/**
+ * The lag and stall statistics of a compute thread's event loop.
+ * <p>
+ * Only available when {@link StallDetectionConfig stall detection} is enabled.
+ *
+ * @see ExecController#getEventLoopStats()
+ * @since 1.4
+ */
+public interface EventLoopStats {
+
+  /**
+   * The name of the event loop's thread.
+   * <p>
+   * This is {@code null} until the first probe of the event loop has run.
+   *
+   * @return the name of the event loop's thread
+   */
+  String getThreadName();
+
+  /**
+   * The number of probes that have run on the event loop.
+   *
+   * @return the number of probes that have run on the event loop
+   */
+  long getProbeCount();
+
+  /**
+   * The greatest lag of a probe, i.e. the time between it being submitted to the event loop and it running.
+   *
+   * @return the greatest lag of a probe
+   */
+  Duration getMaxLag();
+
+  /**
+   * A histogram of the lag of probes.
+   * <p>
+   * Each key is the exclusive upper bound of a bucket, which includes the lags greater than or equal to the upper bound of the previous bucket.
+   * Bucket bounds are powers of two milliseconds, with the final bucket including all greater lags.
+   * Each value is the number of probes with a lag in the bucket.
+   *
+   * @return a histogram of the lag of probes
+   */
+  ImmutableSortedMap<Duration, Long> getLagHistogram();
+
+  /**
+   * The number of times a single execution segment has executed on the thread for longer than the {@link StallDetectionConfig#getStallThreshold() stall threshold}.
+   *
+   * @return the number of stalls detected on the thread
+   */
+  long getStallCount();
+
+}
@@ -19,6 +19,8 @@ package ratpack.exec;
 import io.netty.channel.EventLoopGroup;
 import ratpack.exec.internal.ThreadBinding;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -30,6 +32,13 @@ import java.util.concurrent.ScheduledExecutorService;
  */
 public interface ExecController extends AutoCloseable {
 
+  /**
+   * The name of the default blocking pool, used by {@link Blocking#get(ratpack.func.Factory)}.
+   *
+   * @since 1.4
+   */
+  String DEFAULT_BLOCKING_POOL = "default";
+
   /**
    * Returns the execution controller bound to the current thread, if this is a Ratpack managed compute thread.
    * <p>
@@ -69,6 +78,43 @@ public interface ExecController extends AutoCloseable {
 
   ExecutorService getBlockingExecutor();
 
+  /**
+   * The executor of the named blocking pool.
+   * <p>
+   * The {@link #DEFAULT_BLOCKING_POOL default pool} is the same as {@link #getBlockingExecutor()}.
+   * Other pools are configured via {@link ratpack.server.ServerConfigBuilder#blockingPool(String, BlockingPoolConfig)}.
+   *
+   * @param pool the name of the pool
+   * @return the executor of the named blocking pool
+   * @throws IllegalArgumentException if there is no pool with the given name
+   * @see Blocking#get(String, ratpack.func.Factory)
+   * @since 1.4
+   */
+  ExecutorService getBlockingExecutor(String pool) throws IllegalArgumentException;
+
+  /**
+   * The statistics of each blocking pool, by name.
+   * <p>
+   * The returned map includes the {@link #DEFAULT_BLOCKING_POOL default pool}.
+   * The statistics are live, so can be retained and sampled periodically (e.g. by a metrics reporter).
+   *
+   * @return the statistics of each blocking pool
+   * @since 1.4
+   */
+  Map<String, ? extends BlockingPoolStats> getBlockingPoolStats();
+
+  /**
+   * The lag and stall statistics of each event loop.
+   * <p>
+   * Statistics are only recorded if {@link StallDetectionConfig stall detection} is enabled, otherwise the returned list is empty.
+   * The statistics are live, so can be retained and sampled periodically (e.g. by a metrics reporter).
+   *
+   * @return the lag and stall statistics of each event loop
+   * @see ratpack.server.ServerConfigBuilder#stallDetection(StallDetectionConfig)
+   * @since 1.4
+   */
+  List<? extends EventLoopStats> getEventLoopStats();
+
   /**
    * The event loop group used by Netty for this application.
    * <p>
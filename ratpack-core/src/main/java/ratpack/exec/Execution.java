@@ -132,6 +132,32 @@ public interface Execution extends MutableRegistry {
    */
   void onComplete(AutoCloseable closeable);
 
+  /**
+   * Cancels this execution.
+   * <p>
+   * The promise that the execution is waiting on, if any, fails with an {@link ExecutionCancelledException} and its work is abandoned where possible.
+   * That is, {@link Blocking} operations are interrupted, {@link ratpack.http.client.HttpClient} requests are aborted and {@link Throttle throttled} promises stop waiting for a slot.
+   * Any promise that the execution subsequently waits on also fails immediately, so that the error propagates to the execution's error handler.
+   * <p>
+   * The execution of a request is cancelled if the client closes the connection before a response is sent.
+   * <p>
+   * This method may be called from any thread, and has no effect if the execution has completed or is already cancelled.
+   *
+   * @see #isCancelled()
+   * @since 1.4
+   */
+  void cancel();
+
+  /**
+   * Whether this execution has been {@link #cancel() cancelled}.
+   * <p>
+   * Long running synchronous work, such as blocking operations, can periodically check this to abort early.
+   *
+   * @return whether this execution has been cancelled
+   * @since 1.4
+   */
+  boolean isCancelled();
+
   /**
    * {@inheritDoc}
    */
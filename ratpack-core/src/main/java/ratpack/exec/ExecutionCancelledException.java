@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+/**
+ * Thrown when the promise an execution is waiting on is abandoned because the execution was {@link Execution#cancel() cancelled}.
+ * <p>
+ * The execution of a request is cancelled if the client closes the connection before a response is sent.
+ *
+ * @since 1.4
+ */
+public class ExecutionCancelledException extends ExecutionException {
+
+  private static final long serialVersionUID = 0;
+
+  /**
+   * Constructor.
+   */
+  public ExecutionCancelledException() {
+    super("execution was cancelled");
+  }
+
+}
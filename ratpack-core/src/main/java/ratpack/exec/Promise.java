@@ -21,6 +21,7 @@ import ratpack.exec.internal.CachingUpstream;
 import ratpack.exec.internal.DefaultExecution;
 import ratpack.exec.internal.DefaultOperation;
 import ratpack.exec.internal.DefaultPromise;
+import ratpack.exec.internal.TimeoutUpstream;
 import ratpack.func.*;
 
 import java.time.Duration;
@@ -1487,6 +1488,48 @@ public interface Promise<T> {
     });
   }
 
+  /**
+   * Fails with a {@link java.util.concurrent.TimeoutException} if {@code this} promise does not complete within the given duration.
+   * <p>
+   * The duration is measured from when the promise is subscribed to.
+   * If the timeout elapses, the execution proceeds immediately with the error,
+   * without waiting for any asynchronous operations started by {@code this} promise.
+   * Those operations are not interrupted, but their results are discarded.
+   * <pre class="java">{@code
+   * import ratpack.exec.Promise;
+   * import ratpack.test.exec.ExecHarness;
+   *
+   * import java.time.Duration;
+   * import java.util.concurrent.TimeoutException;
+   *
+   * import static org.junit.Assert.assertEquals;
+   * import static org.junit.Assert.assertTrue;
+   *
+   * public class Example {
+   *   public static void main(String... args) throws Exception {
+   *     Throwable error = ExecHarness.yieldSingle(e ->
+   *       Promise.<String>async(down -> { }) // never completes
+   *         .timeout(Duration.ofMillis(100))
+   *     ).getThrowable();
+   *     assertTrue(error instanceof TimeoutException);
+   *
+   *     String value = ExecHarness.yieldSingle(e ->
+   *       Promise.value("foo").timeout(Duration.ofSeconds(10))
+   *     ).getValue();
+   *     assertEquals("foo", value);
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param timeout the maximum time to wait for {@code this} promise
+   * @return a promise that fails if {@code this} promise does not complete in time
+   * @see Deadline
+   * @since 1.4
+   */
+  default Promise<T> timeout(Duration timeout) {
+    return transform(up -> new TimeoutUpstream<>(up, timeout));
+  }
+
   static <T> Promise<T> wrap(Factory<? extends Promise<T>> factory) {
     try {
       return factory.create();
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import java.time.Duration;
+
+/**
+ * The configuration of the detection of stalled compute threads.
+ * <p>
+ * Compute threads must never block, as every execution bound to the thread's event loop waits while it is blocked.
+ * When stall detection is enabled, a watchdog thread periodically submits a probe task to each event loop,
+ * and records how long it takes for the task to run (i.e. the event loop lag) in a histogram available via {@link ExecController#getEventLoopStats()}.
+ * <p>
+ * The watchdog also checks how long each compute thread has been executing the current segment of an execution.
+ * If this exceeds the {@link #getStallThreshold() stall threshold}, the stack of the thread is captured and logged as a warning, so that the offending code can be identified.
+ * In development mode, stalls of a thread that is waiting in a known blocking method (e.g. {@link Thread#sleep(long)}, or reading from a socket) are logged as errors.
+ * <p>
+ * Stall detection is enabled via {@link ratpack.server.ServerConfigBuilder#stallDetection(StallDetectionConfig)}.
+ *
+ * @since 1.4
+ */
+public class StallDetectionConfig {
+
+  /**
+   * The default interval between probes of each event loop.
+   */
+  public static final Duration DEFAULT_PROBE_INTERVAL = Duration.ofMillis(100);
+
+  /**
+   * The default time that a compute thread may execute a single execution segment before it is considered stalled.
+   */
+  public static final Duration DEFAULT_STALL_THRESHOLD = Duration.ofMillis(500);
+
+  private Duration probeInterval = DEFAULT_PROBE_INTERVAL;
+  private Duration stallThreshold = DEFAULT_STALL_THRESHOLD;
+
+  /**
+   * Creates a configuration with the default probe interval and stall threshold.
+   *
+   * @return a configuration with the default probe interval and stall threshold
+   */
+  public static StallDetectionConfig defaults() {
+    return new StallDetectionConfig();
+  }
+
+  /**
+   * Creates a configuration with the given probe interval and stall threshold.
+   *
+   * @param probeInterval the interval between probes of each event loop
+   * @param stallThreshold the time that a compute thread may execute a single execution segment before it is considered stalled
+   * @return a configuration with the given probe interval and stall threshold
+   */
+  public static StallDetectionConfig of(Duration probeInterval, Duration stallThreshold) {
+    StallDetectionConfig config = new StallDetectionConfig();
+    config.setProbeInterval(probeInterval);
+    config.setStallThreshold(stallThreshold);
+    return config;
+  }
+
+  /**
+   * The interval between probes of each event loop.
+   * <p>
+   * This is also the interval at which threads are checked for stalls.
+   * Defaults to {@link #DEFAULT_PROBE_INTERVAL}.
+   *
+   * @return the interval between probes of each event loop
+   */
+  public Duration getProbeInterval() {
+    return probeInterval;
+  }
+
+  /**
+   * Sets the interval between probes of each event loop.
+   *
+   * @param probeInterval the interval between probes of each event loop
+   */
+  public void setProbeInterval(Duration probeInterval) {
+    if (probeInterval.isNegative() || probeInterval.isZero()) {
+      throw new IllegalArgumentException("probeInterval must be > 0 (was " + probeInterval + ")");
+    }
+    this.probeInterval = probeInterval;
+  }
+
+  /**
+   * The time that a compute thread may execute a single execution segment before it is considered stalled.
+   * <p>
+   * Defaults to {@link #DEFAULT_STALL_THRESHOLD}.
+   *
+   * @return the time that a compute thread may execute a single execution segment before it is considered stalled
+   */
+  public Duration getStallThreshold() {
+    return stallThreshold;
+  }
+
+  /**
+   * Sets the time that a compute thread may execute a single execution segment before it is considered stalled.
+   *
+   * @param stallThreshold the time that a compute thread may execute a single execution segment before it is considered stalled
+   */
+  public void setStallThreshold(Duration stallThreshold) {
+    if (stallThreshold.isNegative() || stallThreshold.isZero()) {
+      throw new IllegalArgumentException("stallThreshold must be > 0 (was " + stallThreshold + ")");
+    }
+    this.stallThreshold = stallThreshold;
+  }
+
+  @Override
+  public String toString() {
+    return "StallDetectionConfig{probeInterval=" + probeInterval + ", stallThreshold=" + stallThreshold + "}";
+  }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.exec.BlockingPoolConfig;
+import ratpack.exec.BlockingPoolStats;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * An executor for blocking operations, that records the statistics of the pool backing it.
+ */
+public class BlockingExecutor extends AbstractExecutorService implements BlockingPoolStats {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BlockingExecutor.class);
+
+  private static final long KEEP_ALIVE_SECONDS = 60;
+
+  private final String name;
+  private final BlockingPoolConfig config;
+  private final ExecutorService delegate;
+
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  private BlockingExecutor(String name, BlockingPoolConfig config, ExecutorService delegate) {
+    this.name = name;
+    this.config = config;
+    this.delegate = delegate;
+  }
+
+  /**
+   * Creates an executor for the given pool.
+   *
+   * @param name the name of the pool
+   * @param threadName the prefix of the names of the threads of the pool
+   * @param config the configuration of the pool
+   * @param binding decorates the work of each thread, before any operations are run on it
+   * @return an executor for the pool
+   */
+  public static BlockingExecutor of(String name, String threadName, BlockingPoolConfig config, UnaryOperator<Runnable> binding) {
+    if (config.isVirtualThreads()) {
+      ExecutorService virtual = virtualThreadPerTaskExecutor(name, threadName, binding);
+      if (virtual != null) {
+        return new BlockingExecutor(name, config, virtual);
+      }
+    }
+
+    ThreadFactory threadFactory = new DefaultThreadFactory(threadName, Thread.NORM_PRIORITY) {
+      @Override
+      public Thread newThread(Runnable r) {
+        return super.newThread(binding.apply(r));
+      }
+    };
+    ThreadPoolExecutor executor;
+    if (config.getMaxThreads() == 0) {
+      executor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    } else {
+      BlockingQueue<Runnable> queue = config.getQueueSize() == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(config.getQueueSize());
+      executor = new ThreadPoolExecutor(config.getMaxThreads(), config.getMaxThreads(), KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, threadFactory);
+      executor.allowCoreThreadTimeOut(true);
+    }
+    return new BlockingExecutor(name, config, executor);
+  }
+
+  // Reflective, as virtual threads are only available from Java 21
+  private static ExecutorService virtualThreadPerTaskExecutor(String name, String threadName, UnaryOperator<Runnable> binding) {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadName + "-", 0L);
+      ThreadFactory virtualThreadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) newThreadPerTaskExecutor.invoke(null, (ThreadFactory) r -> virtualThreadFactory.newThread(binding.apply(r)));
+    } catch (Exception | LinkageError e) {
+      LOGGER.warn("Virtual threads are not supported by this runtime, blocking pool '{}' will be unbounded instead", name);
+      return null;
+    }
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    long submitted = System.nanoTime();
+    queued.incrementAndGet();
+    try {
+      delegate.execute(() -> {
+        long waited = System.nanoTime() - submitted;
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        totalWaitNanos.add(waited);
+        if (waited > maxWaitNanos.get()) {
+          maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+        try {
+          command.run();
+        } finally {
+          active.decrementAndGet();
+          completed.increment();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      queued.decrementAndGet();
+      rejected.increment();
+      throw new RejectedExecutionException("Blocking pool '" + name + "' is at capacity (" + config + ")", e);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public BlockingPoolConfig getConfig() {
+    return config;
+  }
+
+  @Override
+  public int getQueueSize() {
+    return queued.get();
+  }
+
+  @Override
+  public int getActiveCount() {
+    return active.get();
+  }
+
+  @Override
+  public long getCompletedCount() {
+    return completed.sum();
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  @Override
+  public Duration getTotalWaitTime() {
+    return Duration.ofNanos(totalWaitNanos.sum());
+  }
+
+  @Override
+  public Duration getMaxWaitTime() {
+    return Duration.ofNanos(maxWaitNanos.get());
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return delegate.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public String toString() {
+    return "BlockingExecutor{name=" + name + ", queued=" + getQueueSize() + ", active=" + getActiveCount() + ", completed=" + getCompletedCount() + ", rejected=" + getRejectedCount() + "}";
+  }
+
+}
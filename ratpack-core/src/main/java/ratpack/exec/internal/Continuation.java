@@ -20,4 +20,13 @@ import ratpack.func.Block;
 
 public interface Continuation {
   void resume(Block rest);
+
+  /**
+   * Resumes without waiting for segments started by this segment to complete, which are abandoned.
+   * <p>
+   * Must be called on the execution's event loop.
+   *
+   * @param rest the code to resume with
+   */
+  void preempt(Block rest);
 }
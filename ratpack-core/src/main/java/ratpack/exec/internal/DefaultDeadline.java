@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import ratpack.exec.Deadline;
+import ratpack.exec.Promise;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+public class DefaultDeadline implements Deadline {
+
+  private final long deadlineNanos;
+
+  private DefaultDeadline(long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  public static Deadline of(Duration timeout) {
+    return new DefaultDeadline(System.nanoTime() + timeout.toNanos());
+  }
+
+  public static Optional<Deadline> current() {
+    DefaultExecution execution = DefaultExecution.get();
+    return execution == null ? Optional.empty() : execution.maybeGet(Deadline.class);
+  }
+
+  public static Deadline set(Duration timeout) {
+    DefaultExecution execution = DefaultExecution.require();
+    Deadline deadline = of(timeout);
+    Optional<Deadline> existing = execution.maybeGet(Deadline.class);
+    if (existing.isPresent() && existing.get().getRemaining().compareTo(timeout) <= 0) {
+      return existing.get();
+    }
+    execution.add(Deadline.class, deadline);
+    return deadline;
+  }
+
+  public static TimeoutException deadlineExceeded() {
+    return new TimeoutException("execution deadline exceeded");
+  }
+
+  @Override
+  public Duration getRemaining() {
+    return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+  }
+
+  @Override
+  public <T> Promise<T> bound(Promise<T> promise) {
+    return promise.transform(up -> down -> {
+      Duration remaining = getRemaining();
+      if (remaining.isZero()) {
+        down.error(deadlineExceeded());
+      } else {
+        new TimeoutUpstream<>(up, remaining).connect(down);
+      }
+    });
+  }
+
+  @Override
+  public String toString() {
+    return "Deadline{remaining=" + getRemaining() + '}';
+  }
+}
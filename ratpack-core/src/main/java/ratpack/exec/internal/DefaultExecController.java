@@ -17,19 +17,26 @@
 package ratpack.exec.internal;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import ratpack.exec.BlockingPoolConfig;
+import ratpack.exec.BlockingPoolStats;
+import ratpack.exec.Deadline;
+import ratpack.exec.EventLoopStats;
 import ratpack.exec.ExecInitializer;
 import ratpack.exec.ExecInterceptor;
 import ratpack.exec.ExecStarter;
 import ratpack.exec.Execution;
+import ratpack.exec.StallDetectionConfig;
 import ratpack.func.Action;
 import ratpack.registry.RegistrySpec;
 import ratpack.util.internal.ChannelImplDetector;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -39,22 +46,39 @@ public class DefaultExecController implements ExecControllerInternal {
 
   private static final Action<Throwable> LOG_UNCAUGHT = t -> DefaultExecution.LOGGER.error("Uncaught execution exception", t);
 
-  private final ExecutorService blockingExecutor;
+  private final BlockingExecutor blockingExecutor;
+  private final ImmutableMap<String, BlockingExecutor> blockingExecutors;
   private final EventLoopGroup eventLoopGroup;
   private final int numThreads;
   private final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
 
   private ImmutableList<? extends ExecInterceptor> interceptors = ImmutableList.of();
   private ImmutableList<? extends ExecInitializer> initializers = ImmutableList.of();
+  private StallDetector stallDetector;
+  private boolean guardBlockingTestApis;
 
   public DefaultExecController() {
     this(Runtime.getRuntime().availableProcessors() * 2);
   }
 
   public DefaultExecController(int numThreads) {
+    this(numThreads, BlockingPoolConfig.unbounded(), ImmutableMap.of());
+  }
+
+  public DefaultExecController(int numThreads, BlockingPoolConfig blockingPool, Map<String, BlockingPoolConfig> blockingPools) {
     this.numThreads = numThreads;
     this.eventLoopGroup = ChannelImplDetector.eventLoopGroup(numThreads, new ExecControllerBindingThreadFactory(true, "ratpack-compute", Thread.MAX_PRIORITY));
-    this.blockingExecutor = Executors.newCachedThreadPool(new ExecControllerBindingThreadFactory(false, "ratpack-blocking", Thread.NORM_PRIORITY));
+    this.blockingExecutor = BlockingExecutor.of(DEFAULT_BLOCKING_POOL, "ratpack-blocking", blockingPool, r -> bind(false, r));
+
+    ImmutableMap.Builder<String, BlockingExecutor> executors = ImmutableMap.builder();
+    executors.put(DEFAULT_BLOCKING_POOL, blockingExecutor);
+    blockingPools.forEach((name, config) -> {
+      if (name.equals(DEFAULT_BLOCKING_POOL)) {
+        throw new IllegalArgumentException("'" + DEFAULT_BLOCKING_POOL + "' is reserved for the default blocking pool");
+      }
+      executors.put(name, BlockingExecutor.of(name, "ratpack-blocking-" + name, config, r -> bind(false, r)));
+    });
+    this.blockingExecutors = executors.build();
   }
 
   @Override
@@ -77,9 +101,38 @@ public class DefaultExecController implements ExecControllerInternal {
     return initializers;
   }
 
+  public void detectStalls(StallDetectionConfig config, boolean development) {
+    if (stallDetector != null) {
+      stallDetector.close();
+    }
+    stallDetector = new StallDetector(eventLoopGroup, config, development);
+  }
+
+  @Override
+  public StallDetector getStallDetector() {
+    return stallDetector;
+  }
+
+  public void setGuardBlockingTestApis(boolean guardBlockingTestApis) {
+    this.guardBlockingTestApis = guardBlockingTestApis;
+  }
+
+  @Override
+  public boolean isGuardBlockingTestApis() {
+    return guardBlockingTestApis;
+  }
+
+  @Override
+  public List<? extends EventLoopStats> getEventLoopStats() {
+    return stallDetector == null ? ImmutableList.of() : stallDetector.getStats();
+  }
+
   public void close() {
+    if (stallDetector != null) {
+      stallDetector.close();
+    }
     eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS);
-    blockingExecutor.shutdown();
+    blockingExecutors.values().forEach(ExecutorService::shutdown);
   }
 
   @Override
@@ -92,6 +145,20 @@ public class DefaultExecController implements ExecControllerInternal {
     return blockingExecutor;
   }
 
+  @Override
+  public ExecutorService getBlockingExecutor(String pool) {
+    BlockingExecutor executor = blockingExecutors.get(pool);
+    if (executor == null) {
+      throw new IllegalArgumentException("No blocking pool named '" + pool + "' (pools: " + blockingExecutors.keySet() + ")");
+    }
+    return executor;
+  }
+
+  @Override
+  public ImmutableMap<String, ? extends BlockingPoolStats> getBlockingPoolStats() {
+    return blockingExecutors;
+  }
+
   @Override
   public EventLoopGroup getEventLoopGroup() {
     return eventLoopGroup;
@@ -107,14 +174,18 @@ public class DefaultExecController implements ExecControllerInternal {
 
     @Override
     public Thread newThread(final Runnable r) {
-      return super.newThread(() -> {
-        ThreadBinding.bind(compute, DefaultExecController.this);
-        Thread.currentThread().setContextClassLoader(contextClassLoader);
-        r.run();
-      });
+      return super.newThread(bind(compute, r));
     }
   }
 
+  private Runnable bind(boolean compute, Runnable r) {
+    return () -> {
+      ThreadBinding.bind(compute, DefaultExecController.this);
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+      r.run();
+    };
+  }
+
   @Override
   public int getNumThreads() {
     return numThreads;
@@ -128,6 +199,7 @@ public class DefaultExecController implements ExecControllerInternal {
       private Action<? super Execution> onStart = noop();
       private Action<? super RegistrySpec> registry = noop();
       private EventLoop eventLoop = getEventLoopGroup().next();
+      private final Deadline deadline = DefaultDeadline.current().orElse(null);
 
       @Override
       public ExecStarter eventLoop(EventLoop eventLoop) {
@@ -161,6 +233,7 @@ public class DefaultExecController implements ExecControllerInternal {
 
       @Override
       public void start(Action<? super Execution> initialExecutionSegment) {
+        Action<? super RegistrySpec> registry = deadline == null ? this.registry : inheritDeadline(deadline, this.registry);
         if (eventLoop.inEventLoop() && DefaultExecution.get() == null) {
           try {
             new DefaultExecution(DefaultExecController.this, eventLoop, registry, initialExecutionSegment, onError, onStart, onComplete);
@@ -176,4 +249,10 @@ public class DefaultExecController implements ExecControllerInternal {
     };
   }
 
+  private static Action<RegistrySpec> inheritDeadline(Deadline deadline, Action<? super RegistrySpec> registry) {
+    return spec -> {
+      spec.add(Deadline.class, deadline);
+      registry.execute(spec);
+    };
+  }
 }
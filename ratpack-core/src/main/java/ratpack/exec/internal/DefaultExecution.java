@@ -17,7 +17,6 @@
 package ratpack.exec.internal;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.reflect.TypeToken;
 import io.netty.channel.EventLoop;
@@ -28,6 +27,7 @@ import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import ratpack.api.Nullable;
 import ratpack.exec.*;
 import ratpack.func.Action;
 import ratpack.func.Block;
@@ -38,7 +38,7 @@ import ratpack.registry.internal.SimpleMutableRegistry;
 import ratpack.stream.TransformablePublisher;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.Supplier;
 
 public class DefaultExecution implements Execution {
@@ -47,6 +47,15 @@ public class DefaultExecution implements Execution {
 
   public final static FastThreadLocal<DefaultExecution> THREAD_BINDING = new FastThreadLocal<>();
 
+  // Segment queues that are no longer in use, for reuse by any execution of the event loop
+  private static final int MAX_SPARE_SEGMENT_QUEUES = 32;
+  private static final FastThreadLocal<ArrayDeque<ArrayDeque<Block>>> SPARE_SEGMENT_QUEUES = new FastThreadLocal<ArrayDeque<ArrayDeque<Block>>>() {
+    @Override
+    protected ArrayDeque<ArrayDeque<Block>> initialValue() throws Exception {
+      return new ArrayDeque<>(MAX_SPARE_SEGMENT_QUEUES);
+    }
+  };
+
   private ExecStream execStream;
 
   private final ExecControllerInternal controller;
@@ -58,8 +67,12 @@ public class DefaultExecution implements Execution {
 
   private final MutableRegistry registry = new SimpleMutableRegistry();
 
-  private List<ExecInterceptor> adhocInterceptors;
-  private Iterable<? extends ExecInterceptor> interceptors;
+  private final Runnable drain = this::drain;
+
+  private ImmutableList<ExecInterceptor> interceptors;
+  private Block interceptedExec; // null if there are no interceptors
+
+  private volatile boolean cancelled;
 
   public DefaultExecution(
     ExecControllerInternal controller,
@@ -80,9 +93,10 @@ public class DefaultExecution implements Execution {
 
     this.execStream = new InitialExecStream(action);
 
-    this.interceptors = Iterables.concat(
-      controller.getInterceptors(),
-      ImmutableList.copyOf(registry.getAll(ExecInterceptor.class))
+    setInterceptors(ImmutableList.<ExecInterceptor>builder()
+      .addAll(controller.getInterceptors())
+      .addAll(registry.getAll(ExecInterceptor.class))
+      .build()
     );
 
     for (ExecInitializer initializer : controller.getInitializers()) {
@@ -109,75 +123,53 @@ public class DefaultExecution implements Execution {
   }
 
   public static <T> TransformablePublisher<T> stream(Publisher<T> publisher) {
-    return subscriber -> require().delimitStream(subscriber::onError, continuation ->
-      publisher.subscribe(new Subscriber<T>() {
-        @Override
-        public void onSubscribe(final Subscription subscription) {
-          continuation.event(() ->
-            subscriber.onSubscribe(subscription)
-          );
-        }
+    return subscriber -> {
+      DefaultExecution execution = require();
+      execution.delimitStream(subscriber::onError, continuation ->
+        publisher.subscribe(new Subscriber<T>() {
+          @Override
+          public void onSubscribe(final Subscription subscription) {
+            continuation.event(() -> {
+              execution.onCancel(subscription::cancel);
+              subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                  subscription.request(n);
+                }
 
-        @Override
-        public void onNext(final T element) {
-          continuation.event(() -> subscriber.onNext(element));
-        }
+                // The publisher may not signal after a cancel, which would leave the execution waiting on the stream forever
+                @Override
+                public void cancel() {
+                  subscription.cancel();
+                  continuation.complete(Block.noop());
+                }
+              });
+            });
+          }
 
-        @Override
-        public void onComplete() {
-          continuation.complete(subscriber::onComplete);
-        }
+          @Override
+          public void onNext(final T element) {
+            continuation.event(() -> subscriber.onNext(element));
+          }
 
-        @Override
-        public void onError(final Throwable cause) {
-          continuation.complete(() -> subscriber.onError(cause));
-        }
-      })
-    );
+          @Override
+          public void onComplete() {
+            continuation.complete(subscriber::onComplete);
+          }
+
+          @Override
+          public void onError(final Throwable cause) {
+            continuation.complete(() -> subscriber.onError(cause));
+          }
+        })
+      );
+    };
   }
 
   public static <T> Upstream<T> upstream(Upstream<T> upstream) {
     return downstream -> {
-      final AtomicBoolean fired = new AtomicBoolean();
-      require().delimit(downstream::error, continuation -> {
-          try {
-            upstream.connect(new Downstream<T>() {
-              @Override
-              public void error(Throwable throwable) {
-                if (!fired.compareAndSet(false, true)) {
-                  LOGGER.error("", new OverlappingExecutionException("promise already fulfilled", throwable));
-                  return;
-                }
-                continuation.resume(() -> downstream.error(throwable));
-              }
-
-              @Override
-              public void success(T value) {
-                if (!fired.compareAndSet(false, true)) {
-                  LOGGER.error("", new OverlappingExecutionException("promise already fulfilled"));
-                  return;
-                }
-                continuation.resume(() -> downstream.success(value));
-              }
-
-              @Override
-              public void complete() {
-                if (!fired.compareAndSet(false, true)) {
-                  LOGGER.error("", new OverlappingExecutionException("promise already fulfilled"));
-                  return;
-                }
-                continuation.resume(downstream::complete);
-              }
-            });
-          } catch (Throwable throwable) {
-            if (!fired.compareAndSet(false, true)) {
-              LOGGER.error("", new OverlappingExecutionException("promise already fulfilled", throwable));
-              return;
-            }
-            continuation.resume(() -> downstream.error(throwable));
-          }
-        }
-      );
+      DefaultExecution execution = require();
+      execution.delimit(downstream::error, new AsyncDownstream<>(execution, upstream, downstream));
     };
   }
 
@@ -186,17 +178,47 @@ public class DefaultExecution implements Execution {
   }
 
   public void delimit(Action<? super Throwable> onError, Action<? super Continuation> segment) {
-    execStream.enqueue(() -> execStream = new SingleEventExecStream(execStream, onError, segment));
+    execStream.enqueue(new SingleEventExecStream(execStream, onError, segment));
     drain();
   }
 
   public void delimitStream(Action<? super Throwable> onError, Action<? super ContinuationStream> segment) {
-    execStream.enqueue(() -> execStream = new MultiEventExecStream(execStream, onError, segment));
+    execStream.enqueue(new MultiEventExecStream(execStream, onError, segment));
     drain();
   }
 
+  /**
+   * Registers code to run if this execution is cancelled while waiting on the continuation of the current segment.
+   * <p>
+   * Must be called on the event loop while the continuation is pending, typically when connecting to an asynchronous operation.
+   * The code is discarded once the continuation resumes.
+   *
+   * @param onCancel the code that abandons the pending operation
+   */
+  public void onCancel(Block onCancel) {
+    execStream.onCancel(onCancel);
+  }
+
+  @Override
+  public void cancel() {
+    // always deferred, so that no segment is executing
+    eventLoop.execute(() -> {
+      if (!cancelled && execStream != TerminalExecStream.INSTANCE) {
+        cancelled = true;
+        if (execStream.cancel()) {
+          drain();
+        }
+      }
+    });
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
   public void eventLoopDrain() {
-    eventLoop.execute(this::drain);
+    eventLoop.execute(drain);
   }
 
   private void drain() {
@@ -214,12 +236,23 @@ public class DefaultExecution implements Execution {
       return;
     }
 
+    StallDetector stallDetector = controller.getStallDetector();
     try {
       THREAD_BINDING.set(this);
-      intercept(interceptors.iterator());
+      if (stallDetector != null) {
+        stallDetector.segmentStarted();
+      }
+      if (interceptedExec == null) {
+        exec();
+      } else {
+        interceptedExec.execute();
+      }
     } catch (Throwable e) {
       interceptorError(e);
     } finally {
+      if (stallDetector != null) {
+        stallDetector.segmentEnded();
+      }
       THREAD_BINDING.remove();
     }
   }
@@ -232,11 +265,34 @@ public class DefaultExecution implements Execution {
     return interceptors;
   }
 
-  private void intercept(final Iterator<? extends ExecInterceptor> interceptors) throws Exception {
-    if (interceptors.hasNext()) {
-      interceptors.next().intercept(this, ExecInterceptor.ExecType.COMPUTE, () -> intercept(interceptors));
+  // Composes the interceptors once, instead of for each segment
+  private void setInterceptors(ImmutableList<ExecInterceptor> interceptors) {
+    this.interceptors = interceptors;
+    if (interceptors.isEmpty()) {
+      interceptedExec = null;
     } else {
-      exec();
+      Block chain = this::exec;
+      for (ExecInterceptor interceptor : interceptors.reverse()) {
+        Block next = chain;
+        chain = () -> interceptor.intercept(this, ExecInterceptor.ExecType.COMPUTE, next);
+      }
+      interceptedExec = chain;
+    }
+  }
+
+  // Spare queues are per thread, so need no synchronization (queues are released on the event loop, but may be acquired by Blocking.on())
+  private static ArrayDeque<Block> segmentQueue() {
+    ArrayDeque<Block> segments = SPARE_SEGMENT_QUEUES.get().poll();
+    return segments == null ? new ArrayDeque<>(4) : segments;
+  }
+
+  private static void releaseSegmentQueue(@Nullable ArrayDeque<Block> segments) {
+    if (segments != null) {
+      ArrayDeque<ArrayDeque<Block>> spares = SPARE_SEGMENT_QUEUES.get();
+      if (spares.size() < MAX_SPARE_SEGMENT_QUEUES) {
+        segments.clear();
+        spares.push(segments);
+      }
     }
   }
 
@@ -291,11 +347,7 @@ public class DefaultExecution implements Execution {
 
   @Override
   public void addInterceptor(ExecInterceptor execInterceptor, Block continuation) throws Exception {
-    if (adhocInterceptors == null) {
-      adhocInterceptors = Lists.newArrayList();
-      interceptors = Iterables.concat(interceptors, adhocInterceptors);
-    }
-    adhocInterceptors.add(execInterceptor);
+    setInterceptors(ImmutableList.<ExecInterceptor>builder().addAll(interceptors).add(execInterceptor).build());
     execInterceptor.intercept(this, ExecInterceptor.ExecType.COMPUTE, continuation);
   }
 
@@ -315,11 +367,53 @@ public class DefaultExecution implements Execution {
   }
 
   public abstract static class ExecStream {
+    private Block cancelHook;
+
     abstract boolean exec() throws Exception;
 
     abstract void enqueue(Block block);
 
     abstract void error(Throwable throwable);
+
+    boolean isPreempted() {
+      return false;
+    }
+
+    /**
+     * Abandons the event this stream is waiting for, if any.
+     *
+     * @return whether the stream has something to execute as a result
+     */
+    boolean cancel() {
+      return false;
+    }
+
+    void onCancel(Block hook) {
+      Block existing = cancelHook;
+      if (existing == null) {
+        cancelHook = hook;
+      } else {
+        cancelHook = () -> {
+          try {
+            existing.execute();
+          } finally {
+            hook.execute();
+          }
+        };
+      }
+    }
+
+    void runCancelHook() {
+      Block hook = cancelHook;
+      if (hook != null) {
+        cancelHook = null;
+        try {
+          hook.execute();
+        } catch (Throwable e) {
+          LOGGER.warn("exception raised while cancelling execution", e);
+        }
+      }
+    }
   }
 
   private static class TerminalExecStream extends ExecStream {
@@ -347,7 +441,7 @@ public class DefaultExecution implements Execution {
 
   private class InitialExecStream extends ExecStream {
     Action<? super Execution> initial;
-    Queue<Block> segments;
+    ArrayDeque<Block> segments;
 
     public InitialExecStream(Action<? super Execution> initial) {
       this.initial = initial;
@@ -379,7 +473,7 @@ public class DefaultExecution implements Execution {
     @Override
     void enqueue(Block segment) {
       if (segments == null) {
-        segments = new ArrayDeque<>(1);
+        segments = segmentQueue();
       }
       segments.add(segment);
     }
@@ -399,14 +493,16 @@ public class DefaultExecution implements Execution {
     }
   }
 
-  private class SingleEventExecStream extends ExecStream implements Continuation {
+  // Each stream is enqueued as the segment of its parent that starts it
+  private class SingleEventExecStream extends ExecStream implements Continuation, Block {
     final ExecStream parent;
 
     private final Action<? super Throwable> onError;
     Action<? super Continuation> initial;
     Block resume;
     boolean resumed;
-    Queue<Block> segments;
+    boolean preempted;
+    ArrayDeque<Block> segments;
 
     public SingleEventExecStream(ExecStream parent, Action<? super Throwable> onError, Action<? super Continuation> initial) {
       this.parent = parent;
@@ -414,14 +510,29 @@ public class DefaultExecution implements Execution {
       this.initial = initial;
     }
 
+    @Override
+    public void execute() {
+      execStream = this;
+    }
+
     @Override
     boolean exec() throws Exception {
+      if (parent.isPreempted()) {
+        return toParent().exec();
+      }
+      if (preempted) {
+        preempted = false;
+        releaseSegmentQueue(segments);
+        segments = null;
+      }
       if (initial == null) {
         if (segments == null || segments.isEmpty()) {
           if (resume == null) {
             if (resumed) {
-              execStream = parent;
-              return execStream.exec();
+              return toParent().exec();
+            } else if (cancelled) {
+              cancel();
+              return true;
             } else {
               return false;
             }
@@ -433,13 +544,17 @@ public class DefaultExecution implements Execution {
         } else {
           Block segment = segments.poll();
           if (segment == null) {
-            execStream = parent;
-            return execStream.exec();
+            return toParent().exec();
           } else {
             segment.execute();
             return true;
           }
         }
+      } else if (cancelled) {
+        // don't start work that no one is waiting for
+        initial = null;
+        cancel();
+        return true;
       } else {
         initial.execute(this);
         initial = null;
@@ -447,23 +562,62 @@ public class DefaultExecution implements Execution {
       }
     }
 
+    private ExecStream toParent() {
+      releaseSegmentQueue(segments);
+      segments = null;
+      execStream = parent;
+      return parent;
+    }
+
     @Override
     void enqueue(Block segment) {
       if (segments == null) {
-        segments = new ArrayDeque<>(1);
+        segments = segmentQueue();
       }
       segments.add(segment);
     }
 
+    // The state is only touched on the event loop, where cancel() reads it, so resumptions from other threads are handed over to it
     public void resume(Block action) {
-      resumed = true;
-      resume = action;
-      drain();
+      if (eventLoop.inEventLoop()) {
+        resumed = true;
+        resume = action;
+        drain();
+      } else {
+        eventLoop.execute(() -> resume(action));
+      }
+    }
+
+    public void preempt(Block action) {
+      if (eventLoop.inEventLoop()) {
+        preempted = true;
+        resume(action);
+      } else {
+        eventLoop.execute(() -> preempt(action));
+      }
+    }
+
+    @Override
+    boolean cancel() {
+      if (initial != null || resumed) {
+        return false;
+      }
+      runCancelHook();
+      if (!resumed) { // the hook may have resumed
+        resumed = true;
+        resume = Block.throwException(new ExecutionCancelledException());
+      }
+      return true;
+    }
+
+    @Override
+    boolean isPreempted() {
+      return preempted || parent.isPreempted();
     }
 
     @Override
     void error(Throwable throwable) {
-      execStream = parent;
+      toParent();
       if (resumed && resume == null) {
         execStream.error(throwable);
       } else {
@@ -476,10 +630,11 @@ public class DefaultExecution implements Execution {
     }
   }
 
-  private class MultiEventExecStream extends ExecStream implements ContinuationStream {
+  private class MultiEventExecStream extends ExecStream implements ContinuationStream, Block {
     final ExecStream parent;
     private final Action<? super Throwable> onError;
-    final Queue<Queue<Block>> events = PlatformDependent.newMpscQueue();
+    final Queue<Block> events = PlatformDependent.newMpscQueue();
+    ArrayDeque<Block> segments; // of the current event
     Block complete;
 
     public MultiEventExecStream(ExecStream parent, Action<? super Throwable> onError, Action<? super ContinuationStream> initial) {
@@ -488,10 +643,13 @@ public class DefaultExecution implements Execution {
       event(() -> initial.execute(this));
     }
 
+    @Override
+    public void execute() {
+      execStream = this;
+    }
+
     public void event(Block action) {
-      Queue<Block> event = new ArrayDeque<>();
-      event.add(action);
-      events.add(event);
+      events.add(action);
       drain();
     }
 
@@ -502,19 +660,24 @@ public class DefaultExecution implements Execution {
 
     @Override
     boolean exec() throws Exception {
-      Block nextSegment = events.peek().poll();
+      if (parent.isPreempted()) {
+        return toParent().exec();
+      }
+      Block nextSegment = segments == null ? null : segments.poll();
       if (nextSegment == null) {
-        if (events.size() == 1) {
-          if (complete == null) {
-            return false;
-          } else {
-            execStream = parent;
-            complete.execute();
+        nextSegment = events.poll();
+      }
+      if (nextSegment == null) {
+        if (complete == null) {
+          if (cancelled) {
+            cancel();
             return true;
           }
+          return false;
         } else {
-          events.poll();
-          return exec();
+          toParent();
+          complete.execute();
+          return true;
         }
       } else {
         nextSegment.execute();
@@ -522,19 +685,117 @@ public class DefaultExecution implements Execution {
       }
     }
 
+    private ExecStream toParent() {
+      releaseSegmentQueue(segments);
+      segments = null;
+      execStream = parent;
+      return parent;
+    }
+
     @Override
     void enqueue(Block segment) {
-      events.peek().add(segment);
+      if (segments == null) {
+        segments = segmentQueue();
+      }
+      segments.add(segment);
     }
 
     @Override
     void error(Throwable throwable) {
-      execStream = parent;
+      toParent();
       try {
         onError.execute(throwable);
       } catch (Exception e) {
         execStream.error(e);
       }
     }
+
+    @Override
+    boolean cancel() {
+      if (complete != null) {
+        return false;
+      }
+      runCancelHook();
+      if (complete == null) { // the hook may have completed
+        complete = () -> onError.execute(new ExecutionCancelledException());
+      }
+      return true;
+    }
+
+    @Override
+    boolean isPreempted() {
+      return parent.isPreempted();
+    }
+  }
+
+  private static final class AsyncDownstream<T> implements Downstream<T>, Action<Continuation>, Block {
+
+    private static final int PENDING = 0;
+    private static final int FIRED = 1;
+    private static final int CANCELLED = 2;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<AsyncDownstream> STATE = AtomicIntegerFieldUpdater.newUpdater(AsyncDownstream.class, "state");
+
+    private final DefaultExecution execution;
+    private final Upstream<T> upstream;
+    private final Downstream<? super T> downstream;
+    private volatile Continuation continuation;
+    private volatile int state;
+
+    AsyncDownstream(DefaultExecution execution, Upstream<T> upstream, Downstream<? super T> downstream) {
+      this.execution = execution;
+      this.upstream = upstream;
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void execute(Continuation continuation) {
+      this.continuation = continuation;
+      execution.onCancel(this);
+      try {
+        upstream.connect(this);
+      } catch (Throwable throwable) {
+        error(throwable);
+      }
+    }
+
+    // the execution was cancelled, so ignore the upstream from now on
+    @Override
+    public void execute() {
+      STATE.compareAndSet(this, PENDING, CANCELLED);
+    }
+
+    private boolean fire(@Nullable Throwable throwable) {
+      if (STATE.compareAndSet(this, PENDING, FIRED)) {
+        return true;
+      } else {
+        if (state == FIRED) {
+          LOGGER.error("", new OverlappingExecutionException("promise already fulfilled", throwable));
+        }
+        return false;
+      }
+    }
+
+    @Override
+    public void error(Throwable throwable) {
+      if (fire(throwable)) {
+        continuation.resume(() -> downstream.error(throwable));
+      }
+    }
+
+    @Override
+    public void success(T value) {
+      if (fire(null)) {
+        continuation.resume(() -> downstream.success(value));
+      }
+    }
+
+    @Override
+    public void complete() {
+      if (fire(null)) {
+        continuation.resume(downstream::complete);
+      }
+    }
   }
 }
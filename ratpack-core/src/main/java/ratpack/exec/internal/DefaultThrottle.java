@@ -49,9 +49,17 @@ public class DefaultThrottle implements Throttle {
       } else {
         active.decrementAndGet();
         Promise.<Downstream<? super T>>async(innerDown -> {
-          queue.add(() -> innerDown.success(down));
+          Runnable job = () -> innerDown.success(down);
+          queue.add(job);
+          DefaultExecution.require().onCancel(() -> {
+            if (queue.remove(job)) {
+              // released by the wiretap below when the cancellation error arrives, as if it had been active
+              waiting.decrementAndGet();
+              active.incrementAndGet();
+            }
+          });
           drain();
-        }).then(up::connect);
+        }).onError(down::error).then(up::connect);
       }
     }).wiretap(r -> {
       active.decrementAndGet();
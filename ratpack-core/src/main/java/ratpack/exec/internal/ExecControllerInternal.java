@@ -17,6 +17,7 @@
 package ratpack.exec.internal;
 
 import com.google.common.collect.ImmutableList;
+import ratpack.api.Nullable;
 import ratpack.exec.ExecController;
 import ratpack.exec.ExecInitializer;
 import ratpack.exec.ExecInterceptor;
@@ -31,4 +32,14 @@ public interface ExecControllerInternal extends ExecController {
 
   ImmutableList<? extends ExecInitializer> getInitializers();
 
+  @Nullable
+  StallDetector getStallDetector();
+
+  /**
+   * Whether Ratpack's blocking test APIs (i.e. {@code ExecHarness} and the blocking test HTTP client) fail when called from a compute thread, instead of stalling its event loop.
+   * <p>
+   * Other blocking calls are not detected, but stalls they cause are reported by the {@link #getStallDetector() stall detector}, if enabled.
+   */
+  boolean isGuardBlockingTestApis();
+
 }
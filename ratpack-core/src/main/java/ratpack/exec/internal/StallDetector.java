@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.exec.EventLoopStats;
+import ratpack.exec.StallDetectionConfig;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures the lag of each event loop with periodic probe tasks, and reports threads that execute a single execution segment for too long.
+ * <p>
+ * A single watchdog thread submits the probes and checks for stalls.
+ * Compute threads only record the start time of each segment, via {@link #segmentStarted()} and {@link #segmentEnded()}.
+ */
+public class StallDetector implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StallDetector.class);
+
+  private static final int HISTOGRAM_BUCKETS = 16; // up to 2^14ms (~16s), plus overflow
+  private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  // Top stack frames (class#method) of a thread that is blocked, rather than busy
+  private static final ImmutableSet<String> BLOCKING_FRAMES = ImmutableSet.of(
+    "java.lang.Thread#sleep",
+    "java.lang.Thread#sleep0",
+    "java.lang.Object#wait",
+    "java.lang.Object#wait0",
+    "sun.misc.Unsafe#park",
+    "jdk.internal.misc.Unsafe#park",
+    "java.net.SocketInputStream#socketRead0",
+    "sun.nio.ch.NioSocketImpl#park",
+    "java.io.FileInputStream#readBytes",
+    "java.io.FileInputStream#read0",
+    "java.io.FileOutputStream#writeBytes",
+    "sun.nio.ch.FileDispatcherImpl#read0",
+    "sun.nio.ch.FileDispatcherImpl#pread0",
+    "sun.nio.ch.FileDispatcherImpl#write0",
+    "sun.nio.ch.FileDispatcherImpl#force0",
+    "java.net.Inet6AddressImpl#lookupAllHostAddr",
+    "java.net.Inet4AddressImpl#lookupAllHostAddr"
+  );
+
+  private final FastThreadLocal<LoopMonitor> current = new FastThreadLocal<>();
+  private final long stallThresholdNanos;
+  private final boolean development;
+  private final ImmutableList<LoopMonitor> monitors;
+  private final ScheduledExecutorService watchdog;
+
+  public StallDetector(EventLoopGroup eventLoopGroup, StallDetectionConfig config, boolean development) {
+    this.stallThresholdNanos = config.getStallThreshold().toNanos();
+    this.development = development;
+
+    ImmutableList.Builder<LoopMonitor> monitors = ImmutableList.builder();
+    for (EventExecutor eventLoop : eventLoopGroup) {
+      monitors.add(new LoopMonitor(eventLoop));
+    }
+    this.monitors = monitors.build();
+
+    this.watchdog = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("ratpack-stall-detector", true));
+    long interval = config.getProbeInterval().toNanos();
+    watchdog.scheduleAtFixedRate(this::check, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  public ImmutableList<? extends EventLoopStats> getStats() {
+    return monitors;
+  }
+
+  void segmentStarted() {
+    LoopMonitor monitor = current.get();
+    if (monitor != null) {
+      monitor.segmentStart = System.nanoTime();
+    }
+  }
+
+  void segmentEnded() {
+    LoopMonitor monitor = current.get();
+    if (monitor != null) {
+      monitor.segmentStart = 0;
+    }
+  }
+
+  private void check() {
+    long now = System.nanoTime();
+    for (LoopMonitor monitor : monitors) {
+      try {
+        monitor.check(now);
+      } catch (Throwable e) {
+        LOGGER.warn("Failed to check event loop for stalls", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    watchdog.shutdownNow();
+  }
+
+  private static int bucket(long lagNanos) {
+    long millis = lagNanos / NANOS_PER_MILLI;
+    return Math.min(HISTOGRAM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+  }
+
+  private static Duration bucketUpperBound(int bucket) {
+    return bucket == HISTOGRAM_BUCKETS - 1 ? ChronoUnit.FOREVER.getDuration() : Duration.ofMillis(1L << bucket);
+  }
+
+  private class LoopMonitor implements EventLoopStats, Runnable {
+
+    private final EventExecutor eventLoop;
+    private final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+    private volatile Thread thread;
+    private volatile long segmentStart; // 0 when not executing a segment
+    private volatile long probeSubmitted;
+    private volatile boolean probePending;
+    private volatile long probeCount;
+    private volatile long maxLagNanos;
+    private volatile long stallCount;
+
+    // only accessed by the watchdog
+    private long reportedSegmentStart;
+
+    LoopMonitor(EventExecutor eventLoop) {
+      this.eventLoop = eventLoop;
+    }
+
+    void check(long now) {
+      if (!probePending) {
+        probePending = true;
+        probeSubmitted = now;
+        eventLoop.execute(this);
+      }
+
+      long start = segmentStart;
+      if (start != 0 && start != reportedSegmentStart && now - start > stallThresholdNanos) {
+        reportedSegmentStart = start;
+        ++stallCount;
+        report(Duration.ofNanos(now - start));
+      }
+    }
+
+    // the probe, run on the event loop
+    @Override
+    public void run() {
+      long lag = System.nanoTime() - probeSubmitted;
+      if (thread == null) {
+        thread = Thread.currentThread();
+        current.set(this);
+      }
+      histogram.incrementAndGet(bucket(lag));
+      if (lag > maxLagNanos) {
+        maxLagNanos = lag;
+      }
+      ++probeCount;
+      probePending = false;
+    }
+
+    private void report(Duration duration) {
+      Thread thread = this.thread;
+      StackTraceElement[] stack = thread.getStackTrace();
+      Throwable stackHolder = new Throwable("Stack of " + thread.getName());
+      stackHolder.setStackTrace(stack);
+
+      String message = "Compute thread " + thread.getName() + " has been executing a single execution segment for " + duration.toMillis() + "ms"
+        + ", delaying all executions of its event loop (compute threads must not block, use Blocking.get() for blocking operations)";
+      if (development && stack.length > 0 && BLOCKING_FRAMES.contains(stack[0].getClassName() + "#" + stack[0].getMethodName())) {
+        LOGGER.error(message + " - the thread is blocked in " + stack[0], stackHolder);
+      } else {
+        LOGGER.warn(message, stackHolder);
+      }
+    }
+
+    @Override
+    public String getThreadName() {
+      Thread thread = this.thread;
+      return thread == null ? null : thread.getName();
+    }
+
+    @Override
+    public long getProbeCount() {
+      return probeCount;
+    }
+
+    @Override
+    public Duration getMaxLag() {
+      return Duration.ofNanos(maxLagNanos);
+    }
+
+    @Override
+    public ImmutableSortedMap<Duration, Long> getLagHistogram() {
+      ImmutableSortedMap.Builder<Duration, Long> builder = ImmutableSortedMap.naturalOrder();
+      for (int i = 0; i < HISTOGRAM_BUCKETS; ++i) {
+        builder.put(bucketUpperBound(i), histogram.get(i));
+      }
+      return builder.build();
+    }
+
+    @Override
+    public long getStallCount() {
+      return stallCount;
+    }
+
+    @Override
+    public String toString() {
+      return "EventLoopStats{thread=" + getThreadName() + ", probes=" + probeCount + ", maxLag=" + getMaxLag() + ", stalls=" + stallCount + "}";
+    }
+  }
+
+}
@@ -63,6 +63,18 @@ public class ThreadBinding {
     }
   }
 
+  /**
+   * Fails if the current thread is a compute thread and {@link ExecControllerInternal#isGuardBlockingTestApis() blocking test APIs are guarded} (i.e. in development mode).
+   *
+   * @param api a description of the blocking test API being called
+   */
+  public static void guardBlockingTestApi(String api) {
+    ThreadBinding binding = STORAGE.get();
+    if (binding != null && binding.compute && binding.execController instanceof ExecControllerInternal && ((ExecControllerInternal) binding.execController).isGuardBlockingTestApis()) {
+      throw new ExecutionException(toMessage(api + " blocks the calling thread, so cannot be used on a compute thread (i.e. use Blocking.get() first)"));
+    }
+  }
+
   private static String toMessage(String message) {
     return message + " - current thread name = '" + Thread.currentThread().getName() + "'.";
   }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import ratpack.exec.Downstream;
+import ratpack.exec.Upstream;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TimeoutUpstream<T> implements Upstream<T> {
+
+  private final Upstream<? extends T> upstream;
+  private final Duration timeout;
+
+  public TimeoutUpstream(Upstream<? extends T> upstream, Duration timeout) {
+    this.upstream = upstream;
+    this.timeout = timeout;
+  }
+
+  @Override
+  public void connect(Downstream<? super T> downstream) throws Exception {
+    DefaultExecution execution = DefaultExecution.require();
+    execution.delimit(downstream::error, continuation -> {
+      AtomicBoolean fired = new AtomicBoolean();
+      ScheduledFuture<?> timer = execution.getEventLoop().schedule(() -> {
+        if (fired.compareAndSet(false, true)) {
+          continuation.preempt(() -> downstream.error(new TimeoutException("promise did not complete within " + timeout)));
+        }
+      }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+
+      try {
+        upstream.connect(new Downstream<T>() {
+          @Override
+          public void success(T value) {
+            if (fired.compareAndSet(false, true)) {
+              timer.cancel(false);
+              continuation.resume(() -> downstream.success(value));
+            }
+          }
+
+          @Override
+          public void error(Throwable throwable) {
+            if (fired.compareAndSet(false, true)) {
+              timer.cancel(false);
+              continuation.resume(() -> downstream.error(throwable));
+            }
+          }
+
+          @Override
+          public void complete() {
+            if (fired.compareAndSet(false, true)) {
+              timer.cancel(false);
+              continuation.resume(downstream::complete);
+            }
+          }
+        });
+      } catch (Throwable throwable) {
+        if (fired.compareAndSet(false, true)) {
+          timer.cancel(false);
+          continuation.resume(() -> downstream.error(throwable));
+        }
+      }
+    });
+  }
+
+}
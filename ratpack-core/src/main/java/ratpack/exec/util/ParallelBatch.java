@@ -0,0 +1,362 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.util;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.channel.EventLoop;
+import org.reactivestreams.Subscription;
+import ratpack.exec.*;
+import ratpack.func.Action;
+import ratpack.func.BiAction;
+import ratpack.stream.Streams;
+import ratpack.stream.TransformablePublisher;
+import ratpack.stream.internal.BufferingPublisher;
+import ratpack.util.Exceptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A batch of promises to be processed in parallel.
+ * <p>
+ * Each promise is subscribed to in its own {@link Execution#fork() forked execution}.
+ * The forked executions use the event loop of the execution that processes the batch, so that the results of the batch are processed on a single thread.
+ * As such, the promises run in parallel only in so far as they perform asynchronous or {@link Blocking blocking} operations.
+ * This is typically the case when fanning out to other services.
+ * <p>
+ * The batch can be processed in different ways:
+ * <ul>
+ * <li>{@link #yieldAll()} - wait for all promises, yielding their results (successful or not) in order</li>
+ * <li>{@link #yield()} - wait for all promises, yielding their values in order, or fail fast on the first error</li>
+ * <li>{@link #yieldFirst(int)} - wait for the given number of promises to succeed, yielding their values in completion order</li>
+ * <li>{@link #publisher()} - stream the values in completion order</li>
+ * </ul>
+ * <p>
+ * The number of promises that are subscribed to concurrently can be limited with a {@link Throttle} via {@link #throttled(Throttle)}.
+ * <p>
+ * Once the outcome of the batch is known (e.g. on the first error with {@link #yield()}), promises that have not yet been subscribed to
+ * (because they are waiting for the throttle) are skipped.
+ * Promises that have already been subscribed to continue, but their results are discarded.
+ *
+ * <pre class="java">{@code
+ * import ratpack.exec.Promise;
+ * import ratpack.exec.Throttle;
+ * import ratpack.exec.util.ParallelBatch;
+ * import ratpack.test.exec.ExecHarness;
+ *
+ * import java.util.ArrayList;
+ * import java.util.Arrays;
+ * import java.util.List;
+ *
+ * import static org.junit.Assert.assertEquals;
+ *
+ * public class Example {
+ *   public static void main(String... args) throws Exception {
+ *     List<Promise<String>> promises = new ArrayList<>();
+ *     for (int i = 0; i < 10; i++) {
+ *       String value = Integer.toString(i);
+ *       promises.add(Promise.value(value));
+ *     }
+ *
+ *     List<String> values = ExecHarness.yieldSingle(e ->
+ *       ParallelBatch.of(promises)
+ *         .throttled(Throttle.ofSize(2))
+ *         .yield()
+ *     ).getValue();
+ *
+ *     assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), values);
+ *   }
+ * }
+ * }</pre>
+ *
+ * @param <T> the type of value produced by each promise in the batch
+ * @since 1.4
+ */
+public final class ParallelBatch<T> {
+
+  private final List<? extends Promise<? extends T>> promises;
+  private final Throttle throttle;
+  private final Action<? super Execution> execInit;
+
+  private ParallelBatch(List<? extends Promise<? extends T>> promises, Throttle throttle, Action<? super Execution> execInit) {
+    this.promises = promises;
+    this.throttle = throttle;
+    this.execInit = execInit;
+  }
+
+  /**
+   * Creates a batch of the given promises.
+   *
+   * @param promises the promises
+   * @param <T> the type of value produced by each promise
+   * @return a batch of the given promises
+   */
+  public static <T> ParallelBatch<T> of(Iterable<? extends Promise<? extends T>> promises) {
+    return new ParallelBatch<>(ImmutableList.copyOf(promises), Throttle.unlimited(), Action.noop());
+  }
+
+  /**
+   * Creates a batch of the given promises.
+   *
+   * @param promises the promises
+   * @param <T> the type of value produced by each promise
+   * @return a batch of the given promises
+   */
+  @SafeVarargs
+  @SuppressWarnings("varargs")
+  public static <T> ParallelBatch<T> of(Promise<? extends T>... promises) {
+    return of(Arrays.asList(promises));
+  }
+
+  /**
+   * Limits the number of promises in the batch that are subscribed to concurrently, using the given throttle.
+   * <p>
+   * The throttle may be shared with other batches or operations, to limit their combined concurrency.
+   *
+   * @param throttle the throttle
+   * @return a new batch, with the given throttle
+   */
+  public ParallelBatch<T> throttled(Throttle throttle) {
+    return new ParallelBatch<>(promises, throttle, execInit);
+  }
+
+  /**
+   * Specifies an action to initialise each forked execution before the promise is subscribed to.
+   * <p>
+   * This can be used to populate the execution's registry, in the same way as {@link ExecStarter#onStart(Action)}.
+   *
+   * @param execInit the execution initializer
+   * @return a new batch, with the given execution initializer
+   */
+  public ParallelBatch<T> execInit(Action<? super Execution> execInit) {
+    return new ParallelBatch<>(promises, throttle, execInit);
+  }
+
+  /**
+   * Processes all the promises of the batch, yielding their results in the same order as the promises.
+   * <p>
+   * The returned promise never fails due to a failure of a promise in the batch.
+   * Instead, the failure is available via the corresponding result.
+   *
+   * @return a promise for the results of all the promises in the batch
+   */
+  public Promise<List<? extends ExecResult<T>>> yieldAll() {
+    if (promises.isEmpty()) {
+      return Promise.value(Collections.emptyList());
+    }
+
+    return Promise.async(down -> {
+      AtomicReferenceArray<ExecResult<T>> results = new AtomicReferenceArray<>(promises.size());
+      AtomicInteger remaining = new AtomicInteger(promises.size());
+      forkAll(new AtomicBoolean(), (i, result) -> {
+        results.set(i, result);
+        if (remaining.decrementAndGet() == 0) {
+          List<ExecResult<T>> list = new ArrayList<>(results.length());
+          for (int j = 0; j < results.length(); ++j) {
+            list.add(results.get(j));
+          }
+          down.success(list);
+        }
+      });
+    });
+  }
+
+  /**
+   * Processes all the promises of the batch, yielding their values in the same order as the promises.
+   * <p>
+   * If any promise fails, the returned promise fails immediately with the same error.
+   * If a promise completes without a value, its value is {@code null}.
+   *
+   * @return a promise for the values of all the promises in the batch
+   */
+  public Promise<List<T>> yield() {
+    if (promises.isEmpty()) {
+      return Promise.value(Collections.emptyList());
+    }
+
+    return Promise.async(down -> {
+      AtomicReferenceArray<T> values = new AtomicReferenceArray<>(promises.size());
+      AtomicInteger remaining = new AtomicInteger(promises.size());
+      AtomicBoolean done = new AtomicBoolean();
+      forkAll(done, (i, result) -> {
+        if (result.isError()) {
+          if (done.compareAndSet(false, true)) {
+            down.error(result.getThrowable());
+          }
+        } else {
+          values.set(i, result.getValue());
+          if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+            List<T> list = new ArrayList<>(values.length());
+            for (int j = 0; j < values.length(); ++j) {
+              list.add(values.get(j));
+            }
+            down.success(list);
+          }
+        }
+      });
+    });
+  }
+
+  /**
+   * Processes the promises of the batch until the given number of them have succeeded, yielding their values in the order that they succeeded.
+   * <p>
+   * Failed promises are ignored unless so many fail that the given number of successes is no longer possible,
+   * in which case the returned promise fails with the first error (with any subsequent errors suppressed).
+   * If a promise completes without a value, its value is {@code null}.
+   *
+   * @param n the number of successful values to wait for
+   * @return a promise for the first {@code n} successful values
+   * @throws IllegalArgumentException if {@code n} is less than 0 or greater than the number of promises in the batch
+   */
+  public Promise<List<T>> yieldFirst(int n) {
+    if (n < 0 || n > promises.size()) {
+      throw new IllegalArgumentException("n must be between 0 and " + promises.size() + " (was " + n + ")");
+    }
+    if (n == 0) {
+      return Promise.value(Collections.emptyList());
+    }
+
+    return Promise.async(down -> {
+      List<T> values = new ArrayList<>(n);
+      List<Throwable> errors = new ArrayList<>();
+      AtomicBoolean done = new AtomicBoolean();
+      forkAll(done, (i, result) -> {
+        synchronized (values) {
+          if (done.get()) {
+            return;
+          }
+          if (result.isError()) {
+            errors.add(result.getThrowable());
+            if (promises.size() - errors.size() < n && done.compareAndSet(false, true)) {
+              Throwable error = errors.get(0);
+              errors.subList(1, errors.size()).forEach(error::addSuppressed);
+              down.error(error);
+            }
+          } else {
+            values.add(result.getValue());
+            if (values.size() == n && done.compareAndSet(false, true)) {
+              down.success(new ArrayList<>(values));
+            }
+          }
+        }
+      });
+    });
+  }
+
+  /**
+   * Streams the values of the promises of the batch, in the order that they succeed.
+   * <p>
+   * All the promises (subject to the throttle) are subscribed to when the first item is requested, with values buffered until they are requested.
+   * If any promise fails, the stream is terminated with its error.
+   * Promises that complete without a value are not emitted.
+   * Cancelling the subscription discards any subsequent values.
+   *
+   * @return a publisher of the values of the promises in the batch
+   */
+  public TransformablePublisher<T> publisher() {
+    return Streams.bindExec(new BufferingPublisher<T>(Action.noop(), write -> {
+      AtomicInteger remaining = new AtomicInteger(promises.size());
+      AtomicBoolean done = new AtomicBoolean();
+      if (promises.isEmpty()) {
+        write.complete();
+      } else {
+        forkAll(done, (i, result) -> {
+          if (result.isError()) {
+            if (done.compareAndSet(false, true)) {
+              write.error(result.getThrowable());
+            }
+          } else if (!done.get()) {
+            if (!result.isComplete()) {
+              write.item(result.getValue());
+            }
+            if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+              write.complete();
+            }
+          }
+        });
+      }
+
+      return new Subscription() {
+        @Override
+        public void request(long n) {
+
+        }
+
+        @Override
+        public void cancel() {
+          done.set(true);
+        }
+      };
+    }));
+  }
+
+  private void forkAll(AtomicBoolean done, BiAction<Integer, ExecResult<T>> onResult) {
+    EventLoop eventLoop = Execution.current().getEventLoop();
+    for (int i = 0; i < promises.size(); ++i) {
+      int index = i;
+      Promise<? extends T> promise = promises.get(i);
+      AtomicBoolean fired = new AtomicBoolean();
+      Consumer<ExecResult<T>> resultHandler = result -> {
+        if (fired.compareAndSet(false, true)) {
+          Exceptions.uncheck(index, result, onResult);
+        }
+      };
+      Execution.fork()
+        .eventLoop(eventLoop)
+        .onStart(execInit)
+        .onError(t -> resultHandler.accept(ExecResult.of(Result.error(t))))
+        .onComplete(e -> resultHandler.accept(ExecResult.complete()))
+        .start(e ->
+          skipIfDone(promise, done)
+            .throttled(throttle)
+            .connect(new Downstream<T>() {
+              @Override
+              public void success(T value) {
+                resultHandler.accept(ExecResult.of(Result.success(value)));
+              }
+
+              @Override
+              public void error(Throwable throwable) {
+                resultHandler.accept(ExecResult.of(Result.error(throwable)));
+              }
+
+              @Override
+              public void complete() {
+                resultHandler.accept(ExecResult.complete());
+              }
+            })
+        );
+    }
+  }
+
+  private static <T> Promise<T> skipIfDone(Promise<? extends T> promise, AtomicBoolean done) {
+    return Promise.<T>async(down -> {
+      if (done.get()) {
+        down.complete();
+      } else {
+        promise.connect(down);
+      }
+    });
+  }
+
+}
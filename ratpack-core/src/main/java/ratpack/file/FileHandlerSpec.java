@@ -188,4 +188,53 @@ public interface FileHandlerSpec {
    */
   FileHandlerSpec indexFiles(String... indexFiles);
 
+  /**
+   * Caches the content of small files in memory, up to the given total size.
+   * <p>
+   * By default, the content of a file is read from disk for each request.
+   * For small, frequently requested files (e.g. scripts, stylesheets and icons),
+   * the cost of opening and reading the file on a blocking thread can dominate the cost of serving it.
+   * When enabled, files no larger than {@code maxFileSize} are held in direct memory once read and served from there,
+   * until evicted to keep the total size of cached content within {@code maxSize}.
+   * A changed file is read again, as content is cached against the file's last modified time and size.
+   * <p>
+   * Files served from the cache have a strong {@code ETag} derived from their content,
+   * allowing {@code If-None-Match} requests to be answered without reading the file.
+   *
+   * <pre class="java">{@code
+   * import ratpack.http.client.ReceivedResponse;
+   * import ratpack.test.embed.EphemeralBaseDir;
+   * import ratpack.test.embed.EmbeddedApp;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String... args) throws Exception {
+   *     EphemeralBaseDir.tmpDir().use(baseDir -> {
+   *       baseDir.write("a.txt", "a");
+   *       EmbeddedApp.of(s -> s
+   *         .serverConfig(c -> c.baseDir(baseDir.getRoot()))
+   *         .handlers(c -> c
+   *           .files(f -> f.contentCache(10 * 1024 * 1024, 64 * 1024))
+   *         )
+   *       ).test(httpClient -> {
+   *         ReceivedResponse response = httpClient.get("a.txt");
+   *         assertEquals("a", response.getBody().getText());
+   *
+   *         String etag = response.getHeaders().get("ETag");
+   *         response = httpClient.requestSpec(r -> r.getHeaders().set("If-None-Match", etag)).get("a.txt");
+   *         assertEquals(304, response.getStatusCode());
+   *       });
+   *     });
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param maxSize the maximum total size, in bytes, of cached content ({@code 0} disables caching)
+   * @param maxFileSize the maximum size, in bytes, of an individual file to cache
+   * @return {@code this}
+   * @since 1.4
+   */
+  FileHandlerSpec contentCache(long maxSize, int maxFileSize);
+
 }
@@ -29,6 +29,8 @@ public class DefaultFileHandlerSpec implements FileHandlerSpec {
   private String path;
   private String dir;
   private ImmutableList<String> indexFiles = ImmutableList.of();
+  private long contentCacheMaxSize;
+  private int contentCacheMaxFileSize;
 
   @Override
   public FileHandlerSpec path(String path) {
@@ -48,13 +50,24 @@ public class DefaultFileHandlerSpec implements FileHandlerSpec {
     return this;
   }
 
+  @Override
+  public FileHandlerSpec contentCache(long maxSize, int maxFileSize) {
+    if (maxSize < 0 || maxFileSize < 0) {
+      throw new IllegalArgumentException("'maxSize' and 'maxFileSize' must be >= 0");
+    }
+    this.contentCacheMaxSize = maxSize;
+    this.contentCacheMaxFileSize = maxFileSize;
+    return this;
+  }
+
   public static Handler build(ServerConfig serverConfig, Action<? super FileHandlerSpec> config) throws Exception {
     if (!serverConfig.isHasBaseDir()) {
       throw new BaseDirRequiredException("no base dir set for application");
     }
     DefaultFileHandlerSpec spec = new DefaultFileHandlerSpec();
     config.execute(spec);
-    Handler handler = new FileHandler(spec.indexFiles, !serverConfig.isDevelopment());
+    FileContentCache contentCache = spec.contentCacheMaxSize > 0 ? new FileContentCache(spec.contentCacheMaxSize, spec.contentCacheMaxFileSize) : null;
+    Handler handler = new FileHandler(spec.indexFiles, !serverConfig.isDevelopment(), contentCache);
     if (spec.dir != null) {
       handler = Handlers.fileSystem(serverConfig, spec.dir, handler);
     }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.file.internal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.util.IllegalReferenceCountException;
+import ratpack.exec.Blocking;
+import ratpack.file.checksummer.internal.MD5Checksummer;
+import ratpack.func.BiAction;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * A size bounded cache of the content of small files, held in direct memory.
+ * <p>
+ * Entries are keyed by path, last modified time and size, so a changed file is never served from the cache.
+ * Each entry has a strong entity tag derived from its content.
+ */
+public class FileContentCache {
+
+  private final MD5Checksummer checksummer = new MD5Checksummer();
+  private final long maxFileSize;
+  private final Cache<Key, Entry> cache;
+
+  public FileContentCache(long maxSize, int maxFileSize) {
+    this.maxFileSize = maxFileSize;
+    this.cache = Caffeine.newBuilder()
+      .maximumWeight(maxSize)
+      .<Key, Entry>weigher((key, entry) -> entry.content.capacity())
+      .removalListener((key, entry, cause) -> entry.content.release())
+      .executor(Runnable::run)
+      .build();
+  }
+
+  public boolean isCacheable(BasicFileAttributes attributes) {
+    return attributes.size() <= maxFileSize;
+  }
+
+  /**
+   * Provides the content of the given file, and its entity tag.
+   * <p>
+   * If the file is cached, the callback is invoked immediately.
+   * Otherwise, the file is read on a blocking thread and cached.
+   * The callback is responsible for releasing the given content.
+   */
+  public void get(Path file, BasicFileAttributes attributes, BiAction<? super ByteBuf, ? super String> then) throws Exception {
+    Key key = new Key(file, attributes);
+    Entry entry = cache.getIfPresent(key);
+    ByteBuf content = entry == null ? null : retain(entry.content);
+    if (content == null) {
+      Blocking.get(() -> load(file, attributes)).then(loaded -> {
+        // retain for the caller before the entry is visible to eviction
+        ByteBuf forCaller = loaded.content.duplicate().retain();
+        cache.put(key, loaded);
+        then.execute(forCaller, loaded.etag);
+      });
+    } else {
+      then.execute(content, entry.etag);
+    }
+  }
+
+  private static ByteBuf retain(ByteBuf content) {
+    try {
+      return content.duplicate().retain();
+    } catch (IllegalReferenceCountException e) {
+      // evicted and released concurrently
+      return null;
+    }
+  }
+
+  private Entry load(Path file, BasicFileAttributes attributes) throws Exception {
+    int size = (int) attributes.size();
+    ByteBuf content = Unpooled.directBuffer(size, size);
+    try {
+      try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+        ByteBuffer nioBuffer = content.nioBuffer(0, size);
+        while (nioBuffer.hasRemaining() && channel.read(nioBuffer) >= 0) {
+          // keep reading
+        }
+        content.writerIndex(nioBuffer.position());
+      }
+      String etag = "\"" + checksummer.apply(new ByteBufInputStream(content.duplicate())) + "\"";
+      return new Entry(content, etag);
+    } catch (Exception e) {
+      content.release();
+      throw e;
+    }
+  }
+
+  private static final class Entry {
+    private final ByteBuf content;
+    private final String etag;
+
+    private Entry(ByteBuf content, String etag) {
+      this.content = content;
+      this.etag = etag;
+    }
+  }
+
+  private static final class Key {
+    private final Path file;
+    private final long lastModified;
+    private final long size;
+
+    private Key(Path file, BasicFileAttributes attributes) {
+      this.file = file;
+      this.lastModified = attributes.lastModifiedTime().toMillis();
+      this.size = attributes.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return lastModified == key.lastModified && size == key.size && file.equals(key.file);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(file, lastModified, size);
+    }
+  }
+
+}
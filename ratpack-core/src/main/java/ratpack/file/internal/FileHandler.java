@@ -17,6 +17,7 @@
 package ratpack.file.internal;
 
 import com.google.common.collect.ImmutableList;
+import ratpack.api.Nullable;
 import ratpack.handling.Context;
 import ratpack.handling.Handler;
 import ratpack.http.Request;
@@ -34,10 +35,16 @@ public class FileHandler implements Handler {
 
   private final ImmutableList<String> indexFiles;
   private final boolean cacheMetadata;
+  private final FileContentCache contentCache;
 
   public FileHandler(ImmutableList<String> indexFiles, boolean cacheMetadata) {
+    this(indexFiles, cacheMetadata, null);
+  }
+
+  public FileHandler(ImmutableList<String> indexFiles, boolean cacheMetadata, @Nullable FileContentCache contentCache) {
     this.indexFiles = indexFiles;
     this.cacheMetadata = cacheMetadata;
+    this.contentCache = contentCache;
   }
 
   public void handle(Context context) throws Exception {
@@ -63,7 +70,7 @@ public class FileHandler implements Handler {
       if (attributes == null) {
         context.next();
       } else if (attributes.isRegularFile()) {
-        sendFile(context, file, attributes);
+        sendFile(context, file, attributes, cacheMetadata, contentCache);
       } else if (attributes.isDirectory()) {
         maybeSendFile(context, file, 0);
       } else {
@@ -82,7 +89,7 @@ public class FileHandler implements Handler {
         if (attributes != null && attributes.isRegularFile()) {
           String path = context.getRequest().getPath();
           if (path.endsWith("/") || path.isEmpty()) {
-            sendFile(context, indexFile, attributes);
+            sendFile(context, indexFile, attributes, cacheMetadata, contentCache);
           } else {
             context.redirect(currentUriWithTrailingSlash(context));
           }
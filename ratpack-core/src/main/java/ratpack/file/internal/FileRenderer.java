@@ -18,7 +18,9 @@ package ratpack.file.internal;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableMap;
 import io.netty.handler.codec.http.HttpHeaderNames;
+import ratpack.api.Nullable;
 import ratpack.exec.Blocking;
 import ratpack.file.MimeTypes;
 import ratpack.func.Action;
@@ -27,13 +29,13 @@ import ratpack.handling.Context;
 import ratpack.http.Response;
 import ratpack.http.internal.HttpHeaderConstants;
 import ratpack.render.RendererSupport;
+import ratpack.server.internal.IgnorableHttpContentCompressor;
 import ratpack.util.Exceptions;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Date;
-import java.util.Optional;
+import java.util.*;
 
 import static io.netty.handler.codec.http.HttpResponseStatus.NOT_MODIFIED;
 
@@ -45,6 +47,8 @@ public class FileRenderer extends RendererSupport<Path> {
     this.cacheMetadata = cacheMetadata;
   }
 
+  private static final Map<String, String> PRECOMPRESSED_EXTENSIONS = ImmutableMap.of("br", ".br", "gzip", ".gz");
+
   private static final Cache<Path, Optional<BasicFileAttributes>> CACHE = Caffeine.newBuilder()
     .maximumSize(10000)
     .build();
@@ -55,12 +59,16 @@ public class FileRenderer extends RendererSupport<Path> {
       if (attributes == null || !attributes.isRegularFile()) {
         context.clientError(404);
       } else {
-        sendFile(context, targetFile, attributes);
+        sendFile(context, targetFile, attributes, cacheMetadata, null);
       }
     });
   }
 
   public static void sendFile(Context context, Path file, BasicFileAttributes attributes) {
+    sendFile(context, file, attributes, false, null);
+  }
+
+  public static void sendFile(Context context, Path file, BasicFileAttributes attributes, boolean cacheMetadata, @Nullable FileContentCache contentCache) {
     if (!context.getRequest().getMethod().isGet()) {
       context.clientError(405);
       return;
@@ -77,15 +85,110 @@ public class FileRenderer extends RendererSupport<Path> {
       }
 
       response.contentTypeIfNotSet(() -> context.get(MimeTypes.class).getContentType(file.getFileName().toString()));
-      response.getHeaders().set(HttpHeaderConstants.CONTENT_LENGTH, Long.toString(attributes.size()));
-      try {
-        response.sendFile(file);
-      } catch (Exception e) {
-        throw Exceptions.uncheck(e);
+      if (response.getHeaders().contains(HttpHeaderConstants.CONTENT_ENCODING)) {
+        Exceptions.uncheck(() -> transmit(context, file, attributes, contentCache));
+        return;
+      }
+
+      // A pre-compressed sibling may be sent instead, depending on what the client accepts
+      IgnorableHttpContentCompressor.addVary(response.getHeaders().getNettyHeaders());
+      List<String> encodings = acceptedPrecompressedEncodings(context.getRequest().getHeaders().get(HttpHeaderConstants.ACCEPT_ENCODING));
+      if (encodings.isEmpty()) {
+        Exceptions.uncheck(() -> transmit(context, file, attributes, contentCache));
+      } else {
+        Exceptions.uncheck(() -> sendPrecompressed(context, file, attributes, cacheMetadata, contentCache, encodings, 0));
       }
     });
   }
 
+  // Sends the first pre-compressed sibling (e.g. "app.js.gz" for "app.js") that the client accepts and is not older than the file, if any
+  private static void sendPrecompressed(Context context, Path file, BasicFileAttributes attributes, boolean cacheMetadata, @Nullable FileContentCache contentCache, List<String> encodings, int i) throws Exception {
+    if (i == encodings.size()) {
+      transmit(context, file, attributes, contentCache);
+      return;
+    }
+
+    String encoding = encodings.get(i);
+    Path sibling = file.resolveSibling(file.getFileName().toString() + PRECOMPRESSED_EXTENSIONS.get(encoding));
+    readAttributes(sibling, cacheMetadata, siblingAttributes -> {
+      if (siblingAttributes != null && siblingAttributes.isRegularFile() && siblingAttributes.lastModifiedTime().compareTo(attributes.lastModifiedTime()) >= 0) {
+        Response response = context.getResponse();
+        response.getHeaders().set(HttpHeaderConstants.CONTENT_ENCODING, encoding);
+        transmit(context, sibling, siblingAttributes, contentCache);
+      } else {
+        sendPrecompressed(context, file, attributes, cacheMetadata, contentCache, encodings, i + 1);
+      }
+    });
+  }
+
+  private static void transmit(Context context, Path file, BasicFileAttributes attributes, @Nullable FileContentCache contentCache) throws Exception {
+    Response response = context.getResponse();
+    if (contentCache != null && contentCache.isCacheable(attributes)) {
+      contentCache.get(file, attributes, (content, etag) -> {
+        response.getHeaders().set(HttpHeaderNames.ETAG, etag);
+        if (matches(context.getRequest().getHeaders().get(HttpHeaderNames.IF_NONE_MATCH), etag)) {
+          content.release();
+          response.status(NOT_MODIFIED.code()).send();
+        } else {
+          response.send(content);
+        }
+      });
+    } else {
+      response.getHeaders().set(HttpHeaderConstants.CONTENT_LENGTH, Long.toString(attributes.size()));
+      response.sendFile(file);
+    }
+  }
+
+  // If-None-Match uses the weak comparison function (RFC 7232, 3.2)
+  private static boolean matches(@Nullable String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // The pre-compressed encodings accepted by the client, in order of preference
+  static List<String> acceptedPrecompressedEncodings(@Nullable String acceptEncoding) {
+    if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<String> accepted = new ArrayList<>(PRECOMPRESSED_EXTENSIONS.size());
+    for (String encoding : PRECOMPRESSED_EXTENSIONS.keySet()) {
+      for (String coding : acceptEncoding.split(",")) {
+        String[] params = coding.split(";");
+        if (params[0].trim().equalsIgnoreCase(encoding) && !isZeroQuality(params)) {
+          accepted.add(encoding);
+          break;
+        }
+      }
+    }
+    return accepted;
+  }
+
+  private static boolean isZeroQuality(String[] params) {
+    for (int i = 1; i < params.length; ++i) {
+      String param = params[i].trim();
+      if (param.startsWith("q=")) {
+        try {
+          return Double.parseDouble(param.substring(2)) <= 0;
+        } catch (NumberFormatException e) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   private static Factory<BasicFileAttributes> getter(Path file) {
     return () -> {
       if (Files.exists(file)) {
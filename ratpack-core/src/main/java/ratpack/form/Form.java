@@ -17,8 +17,13 @@
 package ratpack.form;
 
 import ratpack.api.Nullable;
+import ratpack.exec.Promise;
 import ratpack.form.internal.DefaultFormParseOpts;
+import ratpack.form.internal.FormDecoder;
+import ratpack.handling.Context;
+import ratpack.http.Request;
 import ratpack.parse.Parse;
+import ratpack.stream.TransformablePublisher;
 import ratpack.util.MultiValueMap;
 
 import java.util.List;
@@ -57,6 +62,10 @@ import java.util.List;
  * <p>
  * To include the query parameters from the request in the parsed form, use {@link Form#form(boolean)}.
  * This can be useful if you want to support both {@code GET} and {@code PUT} submission with a single handler.
+ *
+ * <p>
+ * Parsing a form requires the entire request body to be held in memory.
+ * For forms that may include large file uploads, use {@link #spooled(Context, long)} or {@link #parts(Request)} instead.
  */
 public interface Form extends MultiValueMap<String, String> {
 
@@ -105,4 +114,125 @@ public interface Form extends MultiValueMap<String, String> {
     return Parse.of(Form.class, new DefaultFormParseOpts(includeQueryParams));
   }
 
+  /**
+   * Streams the parts of a {@code multipart/form-data} request body, as it is received.
+   * <p>
+   * Unlike {@link #form() parsing} the request body, the body is not held in memory.
+   * Rather, the content of each part is {@link FormPart#getContent() streamed} as it is received from the client.
+   * The client is only read from as content is requested, providing back pressure.
+   * The request body can only be read once, so this cannot be used in conjunction with other methods of reading the body.
+   * <p>
+   * The max content length of the {@link ratpack.server.ServerConfig#getMaxContentLength() server config} applies.
+   * If the request is not a multipart request, the stream will fail with {@link io.netty.handler.codec.http.multipart.HttpPostRequestDecoder.ErrorDataDecoderException}.
+   *
+   * <pre class="java">{@code
+   * import io.netty.buffer.ByteBuf;
+   * import ratpack.form.Form;
+   * import ratpack.http.client.ReceivedResponse;
+   * import ratpack.test.embed.EmbeddedApp;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String... args) throws Exception {
+   *     EmbeddedApp.fromHandler(ctx ->
+   *       ctx.render(
+   *         Form.parts(ctx.getRequest())
+   *           .flatMap(part ->
+   *             part.getContent()
+   *               .toList()
+   *               .map(buffers -> {
+   *                 int size = 0;
+   *                 for (ByteBuf buffer : buffers) {
+   *                   size += buffer.readableBytes();
+   *                   buffer.release();
+   *                 }
+   *                 return part.getName() + ":" + size;
+   *               })
+   *           )
+   *           .toList()
+   *           .map(Object::toString)
+   *       )
+   *     ).test(httpClient -> {
+   *       ReceivedResponse response = httpClient.request(spec -> spec
+   *         .post()
+   *         .headers(h -> h.set("Content-Type", "multipart/form-data; boundary=abc"))
+   *         .body(b -> b.text(
+   *           "--abc\r\n" +
+   *           "Content-Disposition: form-data; name=\"foo\"\r\n\r\n" +
+   *           "bar\r\n" +
+   *           "--abc\r\n" +
+   *           "Content-Disposition: form-data; name=\"file\"; filename=\"file.txt\"\r\n" +
+   *           "Content-Type: text/plain\r\n\r\n" +
+   *           "file content\r\n" +
+   *           "--abc--\r\n"
+   *         ))
+   *       );
+   *       assertEquals("[foo:3, file:12]", response.getBody().getText());
+   *     });
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param request the request
+   * @return the parts of the request body
+   * @see #spooled(Context, long)
+   * @since 1.4
+   */
+  static TransformablePublisher<FormPart> parts(Request request) {
+    return FormDecoder.parts(request);
+  }
+
+  /**
+   * Streams the parts of a {@code multipart/form-data} request body, as it is received, allowing up to the given number of bytes.
+   * <p>
+   * See {@link #parts(Request)} for details.
+   *
+   * @param request the request
+   * @param maxContentLength the maximum number of bytes allowed for the request body
+   * @return the parts of the request body
+   * @since 1.4
+   */
+  static TransformablePublisher<FormPart> parts(Request request, long maxContentLength) {
+    return FormDecoder.parts(request, maxContentLength);
+  }
+
+  /**
+   * Reads the request body as a form, spooling uploaded files larger than the given threshold to disk.
+   * <p>
+   * This is an alternative to {@link #form() parsing} the request body for forms that may include large file uploads.
+   * The body is {@link #parts(Request) streamed}, instead of being held in memory in its entirety.
+   * Field values and files up to the given size are held in memory, while larger files are written to temporary files as they are received.
+   * Temporary files are deleted when the request completes.
+   * <p>
+   * Request bodies that are not {@code multipart/form-data} (i.e. url encoded forms) are read as per {@link #form()}.
+   * The max content length of the {@link ratpack.server.ServerConfig#getMaxContentLength() server config} applies,
+   * use {@link #spooled(Context, long, long)} to allow larger request bodies.
+   *
+   * @param context the request context
+   * @param fileSizeThreshold the maximum size of an uploaded file to hold in memory
+   * @return a promise for the form
+   * @since 1.4
+   */
+  static Promise<Form> spooled(Context context, long fileSizeThreshold) {
+    return FormDecoder.spooled(context, fileSizeThreshold);
+  }
+
+  /**
+   * Reads the request body as a form, spooling uploaded files larger than the given threshold to disk, allowing up to the given number of bytes.
+   * <p>
+   * See {@link #spooled(Context, long)} for details.
+   * As large file uploads typically exceed the {@link ratpack.server.ServerConfig#getMaxContentLength() server's max content length},
+   * this method allows a larger limit to be used for the form only.
+   *
+   * @param context the request context
+   * @param fileSizeThreshold the maximum size of an uploaded file to hold in memory
+   * @param maxContentLength the maximum number of bytes allowed for the request body
+   * @return a promise for the form
+   * @since 1.4
+   */
+  static Promise<Form> spooled(Context context, long fileSizeThreshold, long maxContentLength) {
+    return FormDecoder.spooled(context, fileSizeThreshold, maxContentLength);
+  }
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.form;
+
+import io.netty.buffer.ByteBuf;
+import ratpack.api.Nullable;
+import ratpack.http.Headers;
+import ratpack.http.MediaType;
+import ratpack.stream.TransformablePublisher;
+
+/**
+ * A part of a {@code multipart/form-data} request body, as it is being received.
+ * <p>
+ * Parts are obtained via {@link Form#parts(ratpack.http.Request)}.
+ * The content of each part is streamed via {@link #getContent()}, as it is received from the client.
+ * The content of a part must be consumed (or the subscription to it cancelled) before the next part is requested.
+ * If the next part is requested without subscribing to the content of the current part, the content of the current part is discarded.
+ *
+ * @see Form#parts(ratpack.http.Request)
+ * @since 1.4
+ */
+public interface FormPart {
+
+  /**
+   * The name of the form field that this part is for.
+   *
+   * @return the name of the form field that this part is for
+   */
+  String getName();
+
+  /**
+   * The name of the uploaded file, if this part is a file upload.
+   *
+   * @return the name of the uploaded file, or {@code null} if this part is not a file upload
+   */
+  @Nullable
+  String getFileName();
+
+  /**
+   * Whether this part is a file upload, as opposed to a simple form field.
+   *
+   * @return whether this part is a file upload
+   */
+  default boolean isFile() {
+    return getFileName() != null;
+  }
+
+  /**
+   * The declared content type of this part.
+   *
+   * @return the declared content type of this part, or {@code null} if none was declared
+   */
+  @Nullable
+  MediaType getContentType();
+
+  /**
+   * The headers of this part.
+   *
+   * @return the headers of this part
+   */
+  Headers getHeaders();
+
+  /**
+   * The content of this part.
+   * <p>
+   * The content may only be subscribed to once.
+   * Each emitted buffer must be released by the subscriber.
+   * Content is only read from the client as it is requested, providing back pressure to the client.
+   *
+   * @return the content of this part
+   */
+  TransformablePublisher<ByteBuf> getContent();
+
+}
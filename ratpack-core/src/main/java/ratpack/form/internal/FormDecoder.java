@@ -16,13 +16,17 @@
 
 package ratpack.form.internal;
 
+import com.google.common.collect.Iterables;
 import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.codec.http.multipart.Attribute;
 import io.netty.handler.codec.http.multipart.FileUpload;
 import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
 import io.netty.handler.codec.http.multipart.InterfaceHttpData;
+import org.reactivestreams.Publisher;
+import ratpack.exec.Promise;
 import ratpack.form.Form;
+import ratpack.form.FormPart;
 import ratpack.form.UploadedFile;
 import ratpack.handling.Context;
 import ratpack.http.MediaType;
@@ -30,6 +34,8 @@ import ratpack.http.Request;
 import ratpack.http.TypedData;
 import ratpack.http.internal.ByteBufBackedTypedData;
 import ratpack.http.internal.DefaultMediaType;
+import ratpack.http.internal.DefaultRequest;
+import ratpack.stream.TransformablePublisher;
 import ratpack.util.MultiValueMap;
 import ratpack.util.internal.ImmutableDelegatingMultiValueMap;
 
@@ -44,6 +50,41 @@ import static ratpack.util.Exceptions.uncheck;
 
 public abstract class FormDecoder {
 
+  private static final String MULTIPART_FORM = "multipart/form-data";
+
+  public static TransformablePublisher<FormPart> parts(Request request) {
+    return parts(request, request instanceof DefaultRequest ? ((DefaultRequest) request).getUnboundBodyStream() : request.getBodyStream());
+  }
+
+  public static TransformablePublisher<FormPart> parts(Request request, long maxContentLength) {
+    return parts(request, request instanceof DefaultRequest ? ((DefaultRequest) request).getUnboundBodyStream(maxContentLength) : request.getBodyStream(maxContentLength));
+  }
+
+  private static TransformablePublisher<FormPart> parts(Request request, Publisher<? extends ByteBuf> body) {
+    MediaType contentType = request.getContentType();
+    String boundary = MULTIPART_FORM.equals(contentType.getType()) ? Iterables.getFirst(contentType.getParams().get("boundary"), null) : null;
+    if (boundary == null) {
+      return subscriber -> MultipartDecoder.reject(subscriber, new HttpPostRequestDecoder.ErrorDataDecoderException("Request is not a multipart/form-data request with a boundary (content type: " + contentType + ")"));
+    } else {
+      return new MultipartDecoder(body, boundary);
+    }
+  }
+
+  public static Promise<Form> spooled(Context context, long fileSizeThreshold) {
+    return spooled(context, fileSizeThreshold, context.getServerConfig().getMaxContentLength());
+  }
+
+  public static Promise<Form> spooled(Context context, long fileSizeThreshold, long maxContentLength) {
+    Request request = context.getRequest();
+    if (MULTIPART_FORM.equals(request.getContentType().getType())) {
+      return Promise.async(downstream ->
+        parts(request, maxContentLength).subscribe(new SpoolingFormReceiver(context, fileSizeThreshold, downstream))
+      );
+    } else {
+      return request.getBody(maxContentLength).map(body -> parseForm(context, body, MultiValueMap.empty()));
+    }
+  }
+
   @SuppressWarnings("deprecation")
   public static Form parseForm(Context context, TypedData body, MultiValueMap<String, String> base) throws RuntimeException {
     Request request = context.getRequest();
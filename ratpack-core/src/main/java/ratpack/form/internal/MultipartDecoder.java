@@ -0,0 +1,543 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.form.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
+import io.netty.util.CharsetUtil;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ratpack.exec.internal.ContinuationStream;
+import ratpack.exec.internal.DefaultExecution;
+import ratpack.form.FormPart;
+import ratpack.func.Block;
+import ratpack.http.Headers;
+import ratpack.http.MediaType;
+import ratpack.http.internal.DefaultMediaType;
+import ratpack.http.internal.NettyHeadersBackedHeaders;
+import ratpack.stream.Streams;
+import ratpack.stream.TransformablePublisher;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Incrementally decodes a {@code multipart/form-data} body into parts, reading from the body stream only as content is requested.
+ * <p>
+ * Part content is emitted as slices of the received buffers, so it is not copied.
+ * Only the few bytes that may be the start of a boundary, or an incomplete part header line, are carried between received buffers.
+ * <p>
+ * The body stream must not be bound to the execution, as the parts and their content are.
+ * Otherwise, the body could not be read while the parts subscriber is waiting on the content of a part.
+ * All signals are expected to occur on the event loop of the execution.
+ */
+public class MultipartDecoder implements TransformablePublisher<FormPart> {
+
+  private static final int MAX_HEADER_SIZE = 16 * 1024;
+  private static final byte[] CRLF = {'\r', '\n'};
+
+  private enum State {
+    DELIMITER, AFTER_DELIMITER, HEADERS, PART_START, BODY, EPILOGUE
+  }
+
+  private final Publisher<? extends ByteBuf> body;
+  private final byte[] delimiter;
+
+  private Subscriber<? super FormPart> downstream;
+  private ContinuationStream continuation;
+  private boolean bodySubscribed;
+  private Subscription upstream;
+  private boolean upstreamRequested;
+  private boolean upstreamComplete;
+
+  // The body is treated as if it were preceded by a line break, so the first boundary is matched as any other delimiter
+  private ByteBuf buffer = Unpooled.wrappedBuffer(CRLF);
+  private State state = State.DELIMITER;
+  private HttpHeaders headers;
+  private int headersSize;
+  private Part part;
+
+  private long partsWanted;
+  private boolean partsCancelled;
+  private boolean done;
+
+  private boolean draining;
+  private boolean redrain;
+
+  public MultipartDecoder(Publisher<? extends ByteBuf> body, String boundary) {
+    this.body = body;
+    this.delimiter = ("\r\n--" + boundary).getBytes(CharsetUtil.US_ASCII);
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super FormPart> subscriber) {
+    if (downstream != null) {
+      reject(subscriber, new IllegalStateException("multipart body can only be subscribed to once"));
+      return;
+    }
+
+    downstream = subscriber;
+    DefaultExecution.require().delimitStream(subscriber::onError, continuation -> {
+      this.continuation = continuation;
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(long n) {
+          if (done || partsCancelled) {
+            return;
+          }
+          partsWanted = partsWanted + n < 0 ? Long.MAX_VALUE : partsWanted + n;
+          if (!bodySubscribed) {
+            bodySubscribed = true;
+            body.subscribe(new BodySubscriber());
+          } else {
+            drain();
+          }
+        }
+
+        @Override
+        public void cancel() {
+          if (!partsCancelled) {
+            partsCancelled = true;
+            continuation.complete(Block.noop());
+            drain();
+          }
+        }
+      });
+    });
+  }
+
+  private class BodySubscriber implements Subscriber<ByteBuf> {
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      upstream = subscription;
+      drain();
+    }
+
+    @Override
+    public void onNext(ByteBuf byteBuf) {
+      upstreamRequested = false;
+      if (done || state == State.EPILOGUE) {
+        byteBuf.release();
+      } else {
+        append(byteBuf);
+      }
+      drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      upstreamComplete = true;
+      drain();
+    }
+  }
+
+  static void reject(Subscriber<?> subscriber, Throwable error) {
+    subscriber.onSubscribe(new Subscription() {
+      @Override
+      public void request(long n) {
+
+      }
+
+      @Override
+      public void cancel() {
+
+      }
+    });
+    subscriber.onError(error);
+  }
+
+  private void append(ByteBuf byteBuf) {
+    if (buffer.isReadable()) {
+      ByteBuf remainder = Unpooled.copiedBuffer(buffer);
+      buffer.release();
+      buffer = Unpooled.wrappedBuffer(remainder, byteBuf);
+    } else {
+      buffer.release();
+      buffer = byteBuf;
+    }
+  }
+
+  private void drain() {
+    if (draining) {
+      redrain = true;
+      return;
+    }
+    draining = true;
+    try {
+      do {
+        redrain = false;
+        try {
+          decode();
+        } catch (Exception e) {
+          if (upstream != null) {
+            upstream.cancel();
+          }
+          fail(e);
+        }
+      } while (redrain && !done);
+    } finally {
+      draining = false;
+    }
+  }
+
+  private void decode() throws Exception {
+    if (upstream == null) {
+      return;
+    }
+    while (!done) {
+      switch (state) {
+        case DELIMITER:
+          int delimiterIndex = indexOf(buffer, delimiter);
+          if (delimiterIndex < 0) {
+            buffer.skipBytes(Math.max(0, buffer.readableBytes() - delimiter.length + 1));
+            readMore();
+            return;
+          }
+          buffer.readerIndex(delimiterIndex + delimiter.length);
+          state = State.AFTER_DELIMITER;
+          break;
+        case AFTER_DELIMITER:
+          while (buffer.isReadable() && isWhitespace(buffer.getByte(buffer.readerIndex()))) {
+            buffer.skipBytes(1);
+          }
+          if (buffer.readableBytes() < 2) {
+            readMore();
+            return;
+          }
+          byte first = buffer.readByte();
+          byte second = buffer.readByte();
+          if (first == '-' && second == '-') {
+            state = State.EPILOGUE;
+            if (!partsCancelled) {
+              continuation.complete(downstream::onComplete);
+            }
+          } else if (first == '\r' && second == '\n') {
+            if (partsCancelled) {
+              terminate();
+              return;
+            }
+            headers = new DefaultHttpHeaders();
+            headersSize = 0;
+            state = State.HEADERS;
+          } else {
+            throw new HttpPostRequestDecoder.ErrorDataDecoderException("Invalid multipart delimiter");
+          }
+          break;
+        case HEADERS:
+          int lineEnd = indexOf(buffer, CRLF);
+          if (lineEnd < 0) {
+            if (headersSize + buffer.readableBytes() > MAX_HEADER_SIZE) {
+              throw new HttpPostRequestDecoder.ErrorDataDecoderException("Multipart part headers are larger than " + MAX_HEADER_SIZE + " bytes");
+            }
+            readMore();
+            return;
+          }
+          int lineLength = lineEnd - buffer.readerIndex();
+          headersSize += lineLength + CRLF.length;
+          if (headersSize > MAX_HEADER_SIZE) {
+            throw new HttpPostRequestDecoder.ErrorDataDecoderException("Multipart part headers are larger than " + MAX_HEADER_SIZE + " bytes");
+          }
+          if (lineLength == 0) {
+            state = State.PART_START;
+          } else {
+            addHeader(buffer.toString(buffer.readerIndex(), lineLength, CharsetUtil.UTF_8));
+          }
+          buffer.skipBytes(lineLength + CRLF.length);
+          break;
+        case PART_START:
+          if (partsCancelled) {
+            terminate();
+            return;
+          }
+          if (partsWanted == 0) {
+            return;
+          }
+          --partsWanted;
+          part = createPart(headers);
+          headers = null;
+          state = State.BODY;
+          emit(part);
+          break;
+        case BODY:
+          if (part.subscriber == null && !part.discarding) {
+            return;
+          }
+          if (part.discarding && partsCancelled) {
+            terminate();
+            return;
+          }
+          if (!part.discarding && part.wanted == 0) {
+            return;
+          }
+          int contentEnd = indexOf(buffer, delimiter);
+          int contentLength = contentEnd < 0 ? buffer.readableBytes() - delimiter.length + 1 : contentEnd - buffer.readerIndex();
+          if (contentLength > 0) {
+            if (part.discarding) {
+              buffer.skipBytes(contentLength);
+            } else {
+              --part.wanted;
+              part.subscriber.onNext(buffer.readSlice(contentLength).retain());
+            }
+          }
+          if (contentEnd < 0) {
+            readMore();
+            return;
+          }
+          buffer.skipBytes(delimiter.length);
+          Part completed = part;
+          part = null;
+          state = State.AFTER_DELIMITER;
+          completed.complete();
+          break;
+        case EPILOGUE:
+          buffer.skipBytes(buffer.readableBytes());
+          if (upstreamComplete) {
+            done = true;
+            buffer.release();
+          } else if (!upstreamRequested) {
+            upstreamRequested = true;
+            upstream.request(Long.MAX_VALUE);
+          }
+          return;
+        default:
+          throw new IllegalStateException("unhandled state: " + state);
+      }
+    }
+  }
+
+  private void readMore() {
+    if (upstreamComplete) {
+      throw new HttpPostRequestDecoder.ErrorDataDecoderException("Unexpected end of multipart body");
+    }
+    if (!upstreamRequested) {
+      upstreamRequested = true;
+      upstream.request(1);
+    }
+  }
+
+  private void terminate() {
+    done = true;
+    buffer.release();
+    upstream.cancel();
+  }
+
+  private void fail(Throwable throwable) {
+    if (done) {
+      return;
+    }
+    done = true;
+    buffer.release();
+    if (part != null && part.subscriber != null && !part.discarding) {
+      part.subscriber.onError(throwable);
+    }
+    if (state != State.EPILOGUE && !partsCancelled) {
+      continuation.complete(() -> downstream.onError(throwable));
+    }
+  }
+
+  // The content of a part must be subscribed to while the part is being handled (including by any promises started while doing so),
+  // otherwise it is discarded so that subsequent parts can be received
+  private void emit(Part emitted) {
+    continuation.event(() -> downstream.onNext(emitted));
+    continuation.event(() -> {
+      if (emitted.subscriber == null && !emitted.discarding) {
+        emitted.discarding = true;
+        drain();
+      }
+    });
+  }
+
+  private void addHeader(String line) {
+    int colon = line.indexOf(':');
+    if (colon <= 0) {
+      throw new HttpPostRequestDecoder.ErrorDataDecoderException("Invalid multipart part header: " + line);
+    }
+    headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+  }
+
+  private Part createPart(HttpHeaders headers) {
+    String disposition = headers.get(HttpHeaderNames.CONTENT_DISPOSITION);
+    if (disposition == null) {
+      throw new HttpPostRequestDecoder.ErrorDataDecoderException("Multipart part has no content disposition");
+    }
+    Map<String, String> params = new HashMap<>();
+    String type = parseDisposition(disposition, params);
+    String name = params.get("name");
+    if (!type.equalsIgnoreCase("form-data") || name == null) {
+      throw new HttpPostRequestDecoder.ErrorDataDecoderException("Invalid multipart content disposition: " + disposition);
+    }
+    String contentType = headers.get(HttpHeaderNames.CONTENT_TYPE);
+    return new Part(name, params.get("filename"), contentType == null ? null : DefaultMediaType.get(contentType), new NettyHeadersBackedHeaders(headers));
+  }
+
+  // Returns the disposition type, collecting the parameters (with lower case names) into the given map
+  static String parseDisposition(String value, Map<String, String> params) {
+    int i = value.indexOf(';');
+    String type = (i < 0 ? value : value.substring(0, i)).trim();
+    while (i >= 0 && i < value.length()) {
+      int nameStart = i + 1;
+      int equals = value.indexOf('=', nameStart);
+      if (equals < 0) {
+        break;
+      }
+      String name = value.substring(nameStart, equals).trim().toLowerCase();
+      int valueStart = equals + 1;
+      while (valueStart < value.length() && isWhitespace((byte) value.charAt(valueStart))) {
+        ++valueStart;
+      }
+      StringBuilder paramValue = new StringBuilder();
+      if (valueStart < value.length() && value.charAt(valueStart) == '"') {
+        int j = valueStart + 1;
+        while (j < value.length() && value.charAt(j) != '"') {
+          char c = value.charAt(j);
+          if (c == '\\' && j + 1 < value.length()) {
+            c = value.charAt(++j);
+          }
+          paramValue.append(c);
+          ++j;
+        }
+        i = value.indexOf(';', j);
+      } else {
+        i = value.indexOf(';', valueStart);
+        paramValue.append((i < 0 ? value.substring(valueStart) : value.substring(valueStart, i)).trim());
+      }
+      params.putIfAbsent(name, paramValue.toString());
+    }
+    return type;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t';
+  }
+
+  private static int indexOf(ByteBuf haystack, byte[] needle) {
+    int last = haystack.writerIndex() - needle.length;
+    int i = haystack.readerIndex();
+    while (i <= last) {
+      i = haystack.indexOf(i, last + 1, needle[0]);
+      if (i < 0) {
+        return -1;
+      }
+      if (matches(haystack, i, needle)) {
+        return i;
+      }
+      ++i;
+    }
+    return -1;
+  }
+
+  private static boolean matches(ByteBuf haystack, int index, byte[] needle) {
+    for (int j = 1; j < needle.length; ++j) {
+      if (haystack.getByte(index + j) != needle[j]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private class Part implements FormPart {
+
+    private final String name;
+    private final String fileName;
+    private final MediaType contentType;
+    private final Headers headers;
+
+    private Subscriber<? super ByteBuf> subscriber;
+    private long wanted;
+    private boolean discarding;
+
+    Part(String name, String fileName, MediaType contentType, Headers headers) {
+      this.name = name;
+      this.fileName = fileName;
+      this.contentType = contentType;
+      this.headers = headers;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public String getFileName() {
+      return fileName;
+    }
+
+    @Override
+    public MediaType getContentType() {
+      return contentType;
+    }
+
+    @Override
+    public Headers getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public TransformablePublisher<ByteBuf> getContent() {
+      return Streams.bindExec((Publisher<ByteBuf>) this::subscribe);
+    }
+
+    private void subscribe(Subscriber<? super ByteBuf> contentSubscriber) {
+      if (subscriber != null || discarding || part != this) {
+        reject(contentSubscriber, new IllegalStateException("the content of part '" + name + "' is no longer available, as it has already been subscribed to or discarded"));
+        return;
+      }
+
+      subscriber = contentSubscriber;
+      contentSubscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(long n) {
+          if (!discarding) {
+            wanted = wanted + n < 0 ? Long.MAX_VALUE : wanted + n;
+            drain();
+          }
+        }
+
+        @Override
+        public void cancel() {
+          if (!discarding) {
+            discarding = true;
+            drain();
+          }
+        }
+      });
+    }
+
+    private void complete() {
+      if (subscriber != null && !discarding) {
+        subscriber.onComplete();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "FormPart{name='" + name + "', fileName='" + fileName + "'}";
+    }
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.form.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import ratpack.form.UploadedFile;
+import ratpack.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static ratpack.util.Exceptions.uncheck;
+
+/**
+ * An uploaded file that was spooled to disk, as it was too large to hold in memory.
+ * <p>
+ * The file is read on each access, so {@link #writeTo(OutputStream)} and {@link #getInputStream()} should be preferred.
+ */
+public class PathBackedUploadedFile implements UploadedFile {
+
+  private final Path path;
+  private final MediaType contentType;
+  private final String fileName;
+
+  public PathBackedUploadedFile(Path path, MediaType contentType, String fileName) {
+    this.path = path;
+    this.contentType = contentType;
+    this.fileName = fileName;
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  @Override
+  public MediaType getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public String getFileName() {
+    return fileName;
+  }
+
+  @Override
+  public ByteBuf getBuffer() {
+    return Unpooled.wrappedBuffer(getBytes());
+  }
+
+  @Override
+  public String getText() {
+    return getText(CharsetUtil.UTF_8);
+  }
+
+  @Override
+  public String getText(Charset charset) {
+    if (contentType == null) {
+      return new String(getBytes(), charset);
+    } else {
+      return new String(getBytes(), Charset.forName(contentType.getCharset(charset.name())));
+    }
+  }
+
+  @Override
+  public byte[] getBytes() {
+    return uncheck(() -> Files.readAllBytes(path));
+  }
+
+  @Override
+  public void writeTo(OutputStream outputStream) throws IOException {
+    Files.copy(path, outputStream);
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    return uncheck(() -> Files.newInputStream(path));
+  }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.form.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ratpack.exec.Blocking;
+import ratpack.exec.Downstream;
+import ratpack.form.Form;
+import ratpack.form.FormPart;
+import ratpack.form.UploadedFile;
+import ratpack.handling.Context;
+import ratpack.http.internal.ByteBufBackedTypedData;
+import ratpack.util.internal.ImmutableDelegatingMultiValueMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receives the parts of a multipart form, holding field values and small files in memory and spooling larger files to disk.
+ */
+public class SpoolingFormReceiver implements Subscriber<FormPart> {
+
+  private final long fileSizeThreshold;
+  private final Downstream<? super Form> downstream;
+
+  private final Map<String, List<String>> attributes = new LinkedHashMap<>();
+  private final Map<String, List<UploadedFile>> files = new LinkedHashMap<>();
+  private final List<ByteBuf> buffers = new ArrayList<>();
+  private final List<Path> spooled = new ArrayList<>();
+
+  private Subscription subscription;
+  private boolean failed;
+
+  public SpoolingFormReceiver(Context context, long fileSizeThreshold, Downstream<? super Form> downstream) {
+    this.fileSizeThreshold = fileSizeThreshold;
+    this.downstream = downstream;
+    context.onClose(outcome -> dispose());
+  }
+
+  @Override
+  public void onSubscribe(Subscription subscription) {
+    this.subscription = subscription;
+    subscription.request(1);
+  }
+
+  @Override
+  public void onNext(FormPart part) {
+    part.getContent().subscribe(part.isFile() ? new FileReceiver(part) : new FieldReceiver(part));
+  }
+
+  @Override
+  public void onError(Throwable throwable) {
+    fail(throwable);
+  }
+
+  @Override
+  public void onComplete() {
+    if (!failed) {
+      downstream.success(new DefaultForm(new ImmutableDelegatingMultiValueMap<>(attributes), new ImmutableDelegatingMultiValueMap<>(files)));
+    }
+  }
+
+  private void fail(Throwable throwable) {
+    if (!failed) {
+      failed = true;
+      downstream.error(throwable);
+    }
+  }
+
+  private void dispose() {
+    buffers.forEach(ByteBuf::release);
+    buffers.clear();
+    for (Path path : spooled) {
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException ignore) {
+        // ignore
+      }
+    }
+  }
+
+  private abstract class PartReceiver implements Subscriber<ByteBuf> {
+    protected final FormPart part;
+    protected final List<ByteBuf> content = new ArrayList<>();
+    protected Subscription contentSubscription;
+    protected long size;
+
+    PartReceiver(FormPart part) {
+      this.part = part;
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      this.contentSubscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      release();
+    }
+
+    protected void release() {
+      content.forEach(ByteBuf::release);
+      content.clear();
+    }
+
+    protected ByteBuf compose() {
+      ByteBuf composed = content.isEmpty() ? Unpooled.EMPTY_BUFFER : Unpooled.wrappedBuffer(content.toArray(new ByteBuf[content.size()]));
+      content.clear();
+      return composed;
+    }
+
+    protected void next() {
+      if (!failed) {
+        subscription.request(1);
+      }
+    }
+
+    protected void abort(Throwable throwable) {
+      release();
+      contentSubscription.cancel();
+      subscription.cancel();
+      fail(throwable);
+    }
+  }
+
+  private class FieldReceiver extends PartReceiver {
+    FieldReceiver(FormPart part) {
+      super(part);
+    }
+
+    @Override
+    public void onNext(ByteBuf byteBuf) {
+      content.add(byteBuf);
+      contentSubscription.request(1);
+    }
+
+    @Override
+    public void onComplete() {
+      ByteBuf value = compose();
+      try {
+        Charset charset = part.getContentType() == null ? CharsetUtil.UTF_8 : Charset.forName(part.getContentType().getCharset(CharsetUtil.UTF_8.name()));
+        attributes.computeIfAbsent(part.getName(), n -> new ArrayList<>(1)).add(value.toString(charset));
+      } finally {
+        value.release();
+      }
+      next();
+    }
+  }
+
+  private class FileReceiver extends PartReceiver {
+    private Path path;
+    private FileChannel channel;
+
+    FileReceiver(FormPart part) {
+      super(part);
+    }
+
+    @Override
+    public void onNext(ByteBuf byteBuf) {
+      content.add(byteBuf);
+      size += byteBuf.readableBytes();
+      if (channel == null && size <= fileSizeThreshold) {
+        contentSubscription.request(1);
+      } else {
+        ByteBuf pending = compose();
+        Blocking.op(() -> {
+          try {
+            if (channel == null) {
+              path = Files.createTempFile("ratpack-upload", ".tmp");
+              spooled.add(path);
+              channel = FileChannel.open(path, StandardOpenOption.WRITE);
+            }
+            ByteBuffer[] nioBuffers = pending.nioBuffers();
+            long remaining = pending.readableBytes();
+            while (remaining > 0) {
+              remaining -= channel.write(nioBuffers);
+            }
+          } finally {
+            pending.release();
+          }
+        })
+          .onError(this::abort)
+          .then(() -> contentSubscription.request(1));
+      }
+    }
+
+    @Override
+    protected void release() {
+      super.release();
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException ignore) {
+          // ignore
+        }
+      }
+    }
+
+    @Override
+    public void onComplete() {
+      if (channel == null) {
+        ByteBuf file = compose();
+        buffers.add(file);
+        add(new DefaultUploadedFile(new ByteBufBackedTypedData(file, part.getContentType()), part.getFileName()));
+        next();
+      } else {
+        Blocking.op(channel::close)
+          .onError(this::abort)
+          .then(() -> {
+            add(new PathBackedUploadedFile(path, part.getContentType(), part.getFileName()));
+            next();
+          });
+      }
+    }
+
+    private void add(UploadedFile file) {
+      files.computeIfAbsent(part.getName(), n -> new ArrayList<>(1)).add(file);
+    }
+  }
+
+}
@@ -27,6 +27,7 @@ import ratpack.error.ClientErrorHandler;
 import ratpack.error.ServerErrorHandler;
 import ratpack.exec.ExecController;
 import ratpack.exec.Execution;
+import ratpack.exec.ExecutionCancelledException;
 import ratpack.exec.Promise;
 import ratpack.file.FileSystemBinding;
 import ratpack.file.internal.ResponseTransmitter;
@@ -396,8 +397,14 @@ public class DefaultContext implements Context {
   }
 
   public void error(Throwable throwable) {
-    ServerErrorHandler serverErrorHandler = get(ServerErrorHandler.TYPE);
     throwable = unpackThrowable(throwable);
+    if (throwable instanceof ExecutionCancelledException && getExecution().isCancelled()) {
+      // the client has gone, so there is no one to send an error response to
+      LOGGER.debug("Request to {} was cancelled", getRequest().getRawUri());
+      return;
+    }
+
+    ServerErrorHandler serverErrorHandler = get(ServerErrorHandler.TYPE);
 
     ThrowableHolder throwableHolder = getRequest().maybeGet(ThrowableHolder.TYPE).orElse(null);
     if (throwableHolder == null) {
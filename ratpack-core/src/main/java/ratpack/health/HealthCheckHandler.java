@@ -16,22 +16,23 @@
 
 package ratpack.health;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterables;
 import com.google.common.reflect.TypeToken;
-import ratpack.exec.Execution;
 import ratpack.exec.Promise;
 import ratpack.exec.Throttle;
+import ratpack.exec.util.ParallelBatch;
 import ratpack.handling.Context;
 import ratpack.handling.Handler;
 import ratpack.registry.Registry;
 import ratpack.util.Types;
 
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * A handler that executes {@link HealthCheck health checks} and renders the results.
@@ -226,30 +227,17 @@ public class HealthCheckHandler implements Handler {
   }
 
   private Promise<HealthCheckResults> execute(Registry registry, Iterable<? extends HealthCheck> healthChecks) {
-    Iterator<? extends HealthCheck> iterator = healthChecks.iterator();
-    if (!iterator.hasNext()) {
-      return Promise.value(new HealthCheckResults(ImmutableSortedMap.of()));
-    }
-
-    return Promise.<Map<String, HealthCheck.Result>>async(f -> {
-      AtomicInteger counter = new AtomicInteger();
-      Map<String, HealthCheck.Result> results = new ConcurrentHashMap<>();
-      while (iterator.hasNext()) {
-        counter.incrementAndGet();
-        HealthCheck healthCheck = iterator.next();
-        Execution.fork().start(e ->
-          execute(registry, healthCheck)
-            .throttled(throttle)
-            .then(r -> {
-              results.put(healthCheck.getName(), r);
-              if (counter.decrementAndGet() == 0 && !iterator.hasNext()) {
-                f.success(results);
-              }
-            })
-        );
-      }
-    })
-      .map(ImmutableSortedMap::copyOf)
-      .map(HealthCheckResults::new);
+    List<? extends HealthCheck> checks = ImmutableList.copyOf(healthChecks);
+    return ParallelBatch.of(Iterables.transform(checks, healthCheck -> execute(registry, healthCheck)))
+      .throttled(throttle)
+      .yield()
+      .map(results -> {
+        // Checks may share a name, in which case the last one wins
+        SortedMap<String, HealthCheck.Result> byName = new TreeMap<>();
+        for (int i = 0; i < checks.size(); ++i) {
+          byName.put(checks.get(i).getName(), results.get(i));
+        }
+        return new HealthCheckResults(ImmutableSortedMap.copyOfSorted(byName));
+      });
   }
 }
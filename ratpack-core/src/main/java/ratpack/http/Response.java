@@ -257,6 +257,8 @@ public interface Response {
 
   /**
    * Prevents the response from being compressed.
+   * <p>
+   * If the response already declares a {@code Content-Encoding} (e.g. when serving a pre-compressed file), it is left as is.
    *
    * @return {@code this}
    */
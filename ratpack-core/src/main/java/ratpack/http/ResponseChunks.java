@@ -124,6 +124,21 @@ public class ResponseChunks implements Renderable {
     return new ResponseChunks(contentType, byteBufAllocator -> publisher);
   }
 
+  /**
+   * Transmit each set of bytes emitted by the publisher returned by the given function as a chunk.
+   * <p>
+   * The function receives the byte buf allocator of the server, which the publisher should use to allocate the byte buffers that it emits.
+   * The content type of the response is set to the given content type.
+   *
+   * @param contentType the value for the content-type header
+   * @param publisherFactory a function that creates a publisher of byte buffers, given the allocator to use
+   * @return a renderable object
+   * @since 1.4
+   */
+  public static ResponseChunks allocatingBufferChunks(CharSequence contentType, Function<? super ByteBufAllocator, ? extends Publisher<? extends ByteBuf>> publisherFactory) {
+    return new ResponseChunks(contentType, publisherFactory);
+  }
+
   private final Function<? super ByteBufAllocator, ? extends Publisher<? extends ByteBuf>> publisherFactory;
   private final CharSequence contentType;
 
@@ -30,6 +30,11 @@ import java.net.URI;
  * <p>
  * All details of the request are configured by the {@link ratpack.func.Action} acting on the {@link ratpack.http.client.RequestSpec}.
  * <p>
+ * If the current execution has a {@link ratpack.exec.Deadline}, requests fail with a {@link java.util.concurrent.TimeoutException} if the response is not received before the deadline.
+ * The connection used for such a request is closed.
+ * Likewise, if the execution is {@link ratpack.exec.Execution#cancel() cancelled} before the response is received (e.g. because the client of the current request disconnected),
+ * the request fails with a {@link ratpack.exec.ExecutionCancelledException} and its connection is closed.
+ * <p>
  * Example of a simple GET and POST request.
  *
  * <pre class="java">{@code
@@ -86,7 +91,7 @@ import java.net.URI;
  *
  * }</pre>
  */
-public interface HttpClient {
+public interface HttpClient extends AutoCloseable {
 
   /**
    *  A method to create an instance of the default implementation of HttpClient.
@@ -110,6 +115,75 @@ public interface HttpClient {
     return new DefaultHttpClient(byteBufAllocator, maxContentLengthBytes);
   }
 
+  /**
+   * Creates a new HTTP client, configured by the given action.
+   * <p>
+   * The returned client pools connections if a {@link HttpClientSpec#poolSize(int) pool size} is specified.
+   *
+   * <pre class="java">{@code
+   * import ratpack.http.client.HttpClient;
+   * import ratpack.test.embed.EmbeddedApp;
+   *
+   * import java.net.URI;
+   * import java.time.Duration;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String... args) throws Exception {
+   *     try (EmbeddedApp remote = EmbeddedApp.fromHandler(ctx -> ctx.render("remote"))) {
+   *       URI remoteUri = remote.getAddress();
+   *       EmbeddedApp.of(s -> s
+   *         .registryOf(r -> r
+   *           .add(HttpClient.class, HttpClient.of(c -> c
+   *             .poolSize(10)
+   *             .idleTimeout(Duration.ofSeconds(30))
+   *           ))
+   *         )
+   *         .handlers(chain -> chain
+   *           .get(ctx -> ctx.get(HttpClient.class).get(remoteUri)
+   *             .then(response -> ctx.render(response.getBody().getText()))
+   *           )
+   *         )
+   *       ).test(httpClient ->
+   *         assertEquals("remote", httpClient.getText())
+   *       );
+   *     }
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param action configuration for the client
+   * @return a new HTTP client
+   * @throws Exception any thrown by {@code action}
+   * @since 1.4
+   */
+  static HttpClient of(Action<? super HttpClientSpec> action) throws Exception {
+    return DefaultHttpClient.of(action);
+  }
+
+  /**
+   * A snapshot of the connections currently held by this client.
+   *
+   * @return a snapshot of the connections currently held by this client
+   * @since 1.4
+   */
+  HttpClientStats getStats();
+
+  /**
+   * Closes the pooled connections of this client, and releases its other resources such as its DNS resolvers.
+   * <p>
+   * The client provided by the server is closed when the server stops or reloads.
+   * Clients created by the application should be closed when no longer needed, e.g. by a {@link ratpack.service.Service}.
+   * <p>
+   * The default implementation does nothing, for implementations that hold no resources.
+   *
+   * @since 1.4
+   */
+  @Override
+  default void close() {
+  }
+
   /**
    * An asynchronous method to do a GET HTTP request, the URL and all details of the request are configured by the Action acting on the RequestSpec, but the method will be defaulted to a GET.
    *
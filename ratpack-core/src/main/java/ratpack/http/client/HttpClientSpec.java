@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.resolver.AddressResolverGroup;
+import ratpack.api.Nullable;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+/**
+ * Configures the behaviour of a {@link HttpClient} instance.
+ *
+ * @see HttpClient#of(ratpack.func.Action)
+ * @since 1.4
+ */
+public interface HttpClientSpec {
+
+  /**
+   * The maximum number of connections to keep open to each host, per compute thread.
+   * <p>
+   * Connections are pooled per event loop, so that a connection is only ever used by executions bound to the same thread as the execution that opened it.
+   * A value of {@code 0} (the default) disables pooling, in which case a new connection is opened for every request and closed when the response has been received.
+   * <p>
+   * When pooling is enabled, requests are sent with HTTP keep-alive semantics.
+   * A connection is returned to the pool once its response has been fully received and neither side has requested that it be closed.
+   *
+   * @param poolSize the maximum number of connections per host, per event loop
+   * @return {@code this}
+   */
+  HttpClientSpec poolSize(int poolSize);
+
+  /**
+   * The maximum number of requests that may wait for a pooled connection to become available, per host and event loop.
+   * <p>
+   * Requests that cannot be queued fail immediately.
+   * Has no effect when {@link #poolSize(int) pooling} is disabled.
+   * Defaults to {@link Integer#MAX_VALUE}.
+   *
+   * @param poolQueueSize the maximum number of pending connection acquisitions
+   * @return {@code this}
+   */
+  HttpClientSpec poolQueueSize(int poolQueueSize);
+
+  /**
+   * How long a pooled connection may remain unused before it is closed.
+   * <p>
+   * A value of {@link Duration#ZERO} (the default) means that idle connections are only closed when the remote side closes them.
+   * Closed connections are always discarded by a health check when taken from the pool, before a request is sent.
+   * Has no effect when {@link #poolSize(int) pooling} is disabled.
+   *
+   * @param idleTimeout the maximum idle time of a pooled connection
+   * @return {@code this}
+   */
+  HttpClientSpec idleTimeout(Duration idleTimeout);
+
+  /**
+   * The buffer allocator to use for request and response bodies.
+   * <p>
+   * Defaults to {@link io.netty.buffer.PooledByteBufAllocator#DEFAULT}.
+   *
+   * @param byteBufAllocator the buffer allocator
+   * @return {@code this}
+   */
+  HttpClientSpec byteBufAllocator(ByteBufAllocator byteBufAllocator);
+
+  /**
+   * The maximum response length to accept for non streamed responses.
+   * <p>
+   * Defaults to {@link ratpack.server.ServerConfig#DEFAULT_MAX_CONTENT_LENGTH}.
+   *
+   * @param maxContentLength the maximum response content length
+   * @return {@code this}
+   */
+  HttpClientSpec maxContentLength(int maxContentLength);
+
+  /**
+   * The DNS servers to use to resolve host names, in order of preference.
+   * <p>
+   * Host names are resolved asynchronously, on the event loop of the requesting execution.
+   * Defaults to the name servers configured for the system, falling back to public name servers if they cannot be determined.
+   * Entries of the system hosts file (e.g. {@code localhost}) take precedence over DNS.
+   *
+   * @param dnsServers the addresses of the DNS servers
+   * @return {@code this}
+   * @see #addressResolver(AddressResolverGroup)
+   */
+  HttpClientSpec dnsServers(Iterable<? extends InetSocketAddress> dnsServers);
+
+  /**
+   * The bounds of how long resolved addresses are cached for.
+   * <p>
+   * Addresses are cached for the time to live of their DNS record, bounded by the given values.
+   * The cache is shared by all requests made by the client.
+   * Defaults to {@link Duration#ZERO} and {@link Integer#MAX_VALUE} seconds, i.e. the time to live of the record.
+   *
+   * @param minTtl the minimum time to cache an address for
+   * @param maxTtl the maximum time to cache an address for
+   * @return {@code this}
+   */
+  HttpClientSpec dnsCacheTtl(Duration minTtl, Duration maxTtl);
+
+  /**
+   * How long failures to resolve a host name are cached for.
+   * <p>
+   * While cached, requests to the host fail immediately, without querying a DNS server.
+   * Defaults to {@link Duration#ZERO}, which disables caching of failures.
+   *
+   * @param negativeTtl the time to cache a resolution failure for
+   * @return {@code this}
+   */
+  HttpClientSpec dnsNegativeCacheTtl(Duration negativeTtl);
+
+  /**
+   * How long to wait for a response from a DNS server.
+   * <p>
+   * Defaults to 5 seconds.
+   *
+   * @param queryTimeout the timeout of a DNS query
+   * @return {@code this}
+   */
+  HttpClientSpec dnsQueryTimeout(Duration queryTimeout);
+
+  /**
+   * The resolver to use to resolve host names, instead of the default asynchronous DNS resolver.
+   * <p>
+   * When set, the other DNS options of this spec have no effect.
+   * Use {@link io.netty.resolver.DefaultAddressResolverGroup#INSTANCE} to resolve host names via the JDK.
+   * Note that the JDK resolver blocks the event loop of the requesting execution while resolving.
+   *
+   * @param addressResolver the address resolver, or {@code null} to use the default asynchronous DNS resolver
+   * @return {@code this}
+   */
+  HttpClientSpec addressResolver(@Nullable AddressResolverGroup<?> addressResolver);
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client;
+
+import java.util.Map;
+
+/**
+ * A snapshot of the connections held by a {@link HttpClient}.
+ * <p>
+ * Connections that are in the process of being opened are not included.
+ *
+ * @see HttpClient#getStats()
+ * @since 1.4
+ */
+public interface HttpClientStats {
+
+  /**
+   * The connection statistics for each host the client has connected to, keyed by {@code host:port}.
+   *
+   * @return the connection statistics for each host
+   */
+  Map<String, HostStats> getStatsPerHost();
+
+  /**
+   * The number of connections that are currently being used to send requests or receive responses, across all hosts.
+   *
+   * @return the number of active connections
+   */
+  default int getTotalActiveConnectionCount() {
+    return getStatsPerHost().values().stream().mapToInt(HostStats::getActiveConnectionCount).sum();
+  }
+
+  /**
+   * The number of connections that are currently waiting in a pool to be reused, across all hosts.
+   *
+   * @return the number of idle connections
+   */
+  default int getTotalIdleConnectionCount() {
+    return getStatsPerHost().values().stream().mapToInt(HostStats::getIdleConnectionCount).sum();
+  }
+
+  /**
+   * The number of open connections, across all hosts.
+   *
+   * @return the number of open connections
+   */
+  default int getTotalConnectionCount() {
+    return getTotalActiveConnectionCount() + getTotalIdleConnectionCount();
+  }
+
+  /**
+   * Connection statistics for a single host.
+   */
+  interface HostStats {
+
+    /**
+     * The number of connections to this host that are currently in use.
+     *
+     * @return the number of active connections
+     */
+    int getActiveConnectionCount();
+
+    /**
+     * The number of connections to this host that are currently pooled, waiting to be reused.
+     *
+     * @return the number of idle connections
+     */
+    int getIdleConnectionCount();
+
+    /**
+     * The number of open connections to this host.
+     *
+     * @return the number of open connections
+     */
+    default int getTotalConnectionCount() {
+      return getActiveConnectionCount() + getIdleConnectionCount();
+    }
+
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import com.google.common.collect.ImmutableMap;
+import ratpack.http.client.HttpClientStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The connection counters of each pool, which are summed per host for the stats.
+ * <p>
+ * Counters are removed along with their pool, so hosts that are no longer connected to are not retained.
+ */
+class ConnectionCounters {
+
+  private final Set<HostCounters> pools = ConcurrentHashMap.newKeySet();
+
+  HostCounters register(String hostAndPort) {
+    HostCounters counters = new HostCounters(hostAndPort);
+    pools.add(counters);
+    return counters;
+  }
+
+  void unregister(HostCounters counters) {
+    pools.remove(counters);
+  }
+
+  HttpClientStats snapshot() {
+    Map<String, int[]> hosts = new LinkedHashMap<>();
+    for (HostCounters counters : pools) {
+      int[] totals = hosts.computeIfAbsent(counters.hostAndPort, h -> new int[2]);
+      totals[0] += counters.active.get();
+      totals[1] += counters.idle.get();
+    }
+    ImmutableMap.Builder<String, HttpClientStats.HostStats> builder = ImmutableMap.builder();
+    for (Map.Entry<String, int[]> entry : hosts.entrySet()) {
+      builder.put(entry.getKey(), new HostStatsSnapshot(entry.getValue()[0], entry.getValue()[1]));
+    }
+    ImmutableMap<String, HttpClientStats.HostStats> statsPerHost = builder.build();
+    return () -> statsPerHost;
+  }
+
+  static class HostCounters {
+    final String hostAndPort;
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicInteger idle = new AtomicInteger();
+
+    HostCounters(String hostAndPort) {
+      this.hostAndPort = hostAndPort;
+    }
+
+    int open() {
+      return active.get() + idle.get();
+    }
+  }
+
+  private static class HostStatsSnapshot implements HttpClientStats.HostStats {
+    private final int active;
+    private final int idle;
+
+    HostStatsSnapshot(int active, int idle) {
+      this.active = active;
+      this.idle = idle;
+    }
+
+    @Override
+    public int getActiveConnectionCount() {
+      return active;
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+      return idle;
+    }
+
+    @Override
+    public String toString() {
+      return "HostStats{active=" + active + ", idle=" + idle + '}';
+    }
+  }
+
+}
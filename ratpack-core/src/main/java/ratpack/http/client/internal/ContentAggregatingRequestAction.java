@@ -34,8 +34,8 @@ class ContentAggregatingRequestAction extends RequestActionSupport<ReceivedRespo
 
   private final int maxContentLengthBytes;
 
-  public ContentAggregatingRequestAction(Action<? super RequestSpec> requestConfigurer, URI uri, Execution execution, ByteBufAllocator byteBufAllocator, int maxContentLengthBytes, int redirectCount) {
-    super(requestConfigurer, uri, execution, byteBufAllocator, redirectCount);
+  public ContentAggregatingRequestAction(Action<? super RequestSpec> requestConfigurer, URI uri, Execution execution, ByteBufAllocator byteBufAllocator, HttpChannelPoolMap channelPoolMap, int maxContentLengthBytes, int redirectCount) {
+    super(requestConfigurer, uri, execution, byteBufAllocator, channelPoolMap, redirectCount);
     this.maxContentLengthBytes = maxContentLengthBytes;
   }
 
@@ -45,12 +45,13 @@ class ContentAggregatingRequestAction extends RequestActionSupport<ReceivedRespo
     p.addLast("httpResponseHandler", new SimpleChannelInboundHandler<FullHttpResponse>(false) {
       @Override
       public void channelRead0(ChannelHandlerContext ctx, FullHttpResponse msg) throws Exception {
+        dispose(ctx.pipeline(), false);
         success(downstream, toReceivedResponse(msg));
       }
 
       @Override
       public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-        ctx.close();
+        dispose(ctx.pipeline(), true);
         error(downstream, cause);
       }
     });
@@ -58,7 +59,7 @@ class ContentAggregatingRequestAction extends RequestActionSupport<ReceivedRespo
 
   @Override
   protected RequestActionSupport<ReceivedResponse> buildRedirectRequestAction(Action<? super RequestSpec> redirectRequestConfig, URI locationUrl, int redirectCount) {
-    return new ContentAggregatingRequestAction(redirectRequestConfig, locationUrl, execution, byteBufAllocator, maxContentLengthBytes, redirectCount);
+    return new ContentAggregatingRequestAction(redirectRequestConfig, locationUrl, execution, byteBufAllocator, channelPoolMap, maxContentLengthBytes, redirectCount);
   }
 
 }
@@ -50,13 +50,13 @@ import static ratpack.util.Exceptions.uncheck;
 class ContentStreamingRequestAction extends RequestActionSupport<StreamedResponse> {
   private final AtomicBoolean subscribedTo = new AtomicBoolean();
 
-  public ContentStreamingRequestAction(Action<? super RequestSpec> requestConfigurer, URI uri, Execution execution, ByteBufAllocator byteBufAllocator, int redirectCount) {
-    super(requestConfigurer, uri, execution, byteBufAllocator, redirectCount);
+  public ContentStreamingRequestAction(Action<? super RequestSpec> requestConfigurer, URI uri, Execution execution, ByteBufAllocator byteBufAllocator, HttpChannelPoolMap channelPoolMap, int redirectCount) {
+    super(requestConfigurer, uri, execution, byteBufAllocator, channelPoolMap, redirectCount);
   }
 
   @Override
   protected RequestActionSupport<StreamedResponse> buildRedirectRequestAction(Action<? super RequestSpec> redirectRequestConfig, URI locationUrl, int redirectCount) {
-    return new ContentStreamingRequestAction(redirectRequestConfig, locationUrl, execution, byteBufAllocator, redirectCount);
+    return new ContentStreamingRequestAction(redirectRequestConfig, locationUrl, execution, byteBufAllocator, channelPoolMap, redirectCount);
   }
 
   @Override
@@ -67,8 +67,8 @@ class ContentStreamingRequestAction extends RequestActionSupport<StreamedRespons
         // Switch auto reading off so we can control the flow of response content
         p.channel().config().setAutoRead(false);
         execution.onComplete(() -> {
-          if (!subscribedTo.get() && ctx.channel().isOpen()) {
-            ctx.close();
+          if (!subscribedTo.get()) {
+            dispose(p, true);
           }
         });
 
@@ -80,7 +80,7 @@ class ContentStreamingRequestAction extends RequestActionSupport<StreamedRespons
 
       @Override
       public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-        ctx.close();
+        dispose(ctx.pipeline(), true);
         error(downstream, cause);
       }
     });
@@ -152,6 +152,23 @@ class ContentStreamingRequestAction extends RequestActionSupport<StreamedRespons
       subscribedTo.compareAndSet(false, true);
       subscriber = s;
 
+      if (channelPipeline.get("httpResponseHandler") == null) {
+        // the channel was disposed before the body was subscribed to
+        s.onSubscribe(new Subscription() {
+          @Override
+          public void request(long n) {
+          }
+
+          @Override
+          public void cancel() {
+          }
+        });
+        if (stopped.compareAndSet(false, true)) {
+          s.onError(prematureClosure());
+        }
+        return;
+      }
+
       channelPipeline.remove("httpResponseHandler");
       channelPipeline.addLast("httpContentHandler", new SimpleChannelInboundHandler<HttpContent>(false) {
         @Override
@@ -159,18 +176,24 @@ class ContentStreamingRequestAction extends RequestActionSupport<StreamedRespons
           subscriber.onNext(msg.content());
 
           if (msg instanceof LastHttpContent && stopped.compareAndSet(false, true)) {
+            dispose(ctx.pipeline(), false);
             subscriber.onComplete();
           }
         }
 
         @Override
-        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+          dispose(ctx.pipeline(), true);
           if (stopped.compareAndSet(false, true)) {
-            subscriber.onError(cause);
+            subscriber.onError(prematureClosure());
           }
+        }
 
-          if (ctx.channel().isOpen()) {
-            ctx.close();
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+          dispose(ctx.pipeline(), true);
+          if (stopped.compareAndSet(false, true)) {
+            subscriber.onError(cause);
           }
         }
       });
@@ -195,8 +218,9 @@ class ContentStreamingRequestAction extends RequestActionSupport<StreamedRespons
 
         @Override
         public void cancel() {
-          stopped.set(true);
-          channelPipeline.channel().close();
+          if (stopped.compareAndSet(false, true)) {
+            dispose(channelPipeline, true);
+          }
         }
       });
     }
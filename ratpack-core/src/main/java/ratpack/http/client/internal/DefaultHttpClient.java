@@ -16,25 +16,49 @@
 
 package ratpack.http.client.internal;
 
+import com.google.common.base.Preconditions;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.dns.DnsServerAddresses;
+import ratpack.api.Nullable;
 import ratpack.exec.Execution;
 import ratpack.exec.Promise;
 import ratpack.func.Action;
-import ratpack.http.client.HttpClient;
-import ratpack.http.client.ReceivedResponse;
-import ratpack.http.client.RequestSpec;
-import ratpack.http.client.StreamedResponse;
+import ratpack.http.client.*;
+import ratpack.server.ServerConfig;
 
+import java.net.InetSocketAddress;
 import java.net.URI;
+import java.time.Duration;
 
 public class DefaultHttpClient implements HttpClient {
 
   private final ByteBufAllocator byteBufAllocator;
   private final int maxContentLengthBytes;
+  private final HttpChannelPoolMap channelPoolMap;
+  private final AddressResolverGroup<?> ownedResolver;
 
   public DefaultHttpClient(ByteBufAllocator byteBufAllocator, int maxContentLengthBytes) {
+    this(byteBufAllocator, maxContentLengthBytes, new Spec().ownedResolver(), null);
+  }
+
+  private DefaultHttpClient(ByteBufAllocator byteBufAllocator, int maxContentLengthBytes, @Nullable AddressResolverGroup<?> ownedResolver, @Nullable HttpChannelPoolMap channelPoolMap) {
     this.byteBufAllocator = byteBufAllocator;
     this.maxContentLengthBytes = maxContentLengthBytes;
+    this.ownedResolver = ownedResolver;
+    this.channelPoolMap = channelPoolMap == null ? new UnpooledHttpChannelPoolMap(ownedResolver) : channelPoolMap;
+  }
+
+  public static HttpClient of(Action<? super HttpClientSpec> action) throws Exception {
+    Spec spec = new Spec();
+    action.execute(spec);
+    AddressResolverGroup<?> ownedResolver = spec.ownedResolver();
+    AddressResolverGroup<?> resolver = ownedResolver == null ? spec.addressResolver : ownedResolver;
+    HttpChannelPoolMap channelPoolMap = spec.poolSize == 0
+      ? new UnpooledHttpChannelPoolMap(resolver)
+      : new PooledHttpChannelPoolMap(spec.poolSize, spec.poolQueueSize, spec.idleTimeout, resolver);
+    return new DefaultHttpClient(spec.byteBufAllocator, spec.maxContentLength, ownedResolver, channelPoolMap);
   }
 
   @Override
@@ -56,12 +80,118 @@ public class DefaultHttpClient implements HttpClient {
 
   @Override
   public Promise<ReceivedResponse> request(URI uri, final Action<? super RequestSpec> requestConfigurer) {
-    return Promise.async(f -> new ContentAggregatingRequestAction(requestConfigurer, uri, Execution.current(), byteBufAllocator, maxContentLengthBytes, 0).connect(f));
+    return Promise.async(f -> new ContentAggregatingRequestAction(requestConfigurer, uri, Execution.current(), byteBufAllocator, channelPoolMap, maxContentLengthBytes, 0).connect(f));
   }
 
   @Override
   public Promise<StreamedResponse> requestStream(URI uri, final Action<? super RequestSpec> requestConfigurer) {
-    return Promise.async(f -> new ContentStreamingRequestAction(requestConfigurer, uri, Execution.current(), byteBufAllocator, 0).connect(f));
+    return Promise.async(f -> new ContentStreamingRequestAction(requestConfigurer, uri, Execution.current(), byteBufAllocator, channelPoolMap, 0).connect(f));
+  }
+
+  @Override
+  public HttpClientStats getStats() {
+    return channelPoolMap.getStats();
+  }
+
+  @Override
+  public void close() {
+    channelPoolMap.close();
+    // a resolver given to the client is owned by whoever gave it
+    if (ownedResolver != null) {
+      ownedResolver.close();
+    }
+  }
+
+  private static class Spec implements HttpClientSpec {
+
+    private int poolSize;
+    private int poolQueueSize = Integer.MAX_VALUE;
+    private Duration idleTimeout = Duration.ZERO;
+    private ByteBufAllocator byteBufAllocator = PooledByteBufAllocator.DEFAULT;
+    private int maxContentLength = ServerConfig.DEFAULT_MAX_CONTENT_LENGTH;
+    private DnsServerAddresses dnsServers = DnsServerAddresses.defaultAddresses();
+    private Duration dnsMinTtl = Duration.ZERO;
+    private Duration dnsMaxTtl = Duration.ofSeconds(Integer.MAX_VALUE);
+    private Duration dnsNegativeTtl = Duration.ZERO;
+    private Duration dnsQueryTimeout = Duration.ofSeconds(5);
+    private AddressResolverGroup<?> addressResolver;
+
+    // the resolver to create for the client, if one was not given
+    @Nullable
+    private AddressResolverGroup<?> ownedResolver() {
+      return addressResolver == null
+        ? new DnsResolverGroup(dnsServers, dnsMinTtl, dnsMaxTtl, dnsNegativeTtl, dnsQueryTimeout)
+        : null;
+    }
+
+    @Override
+    public HttpClientSpec poolSize(int poolSize) {
+      Preconditions.checkArgument(poolSize >= 0, "poolSize must be >= 0");
+      this.poolSize = poolSize;
+      return this;
+    }
+
+    @Override
+    public HttpClientSpec poolQueueSize(int poolQueueSize) {
+      Preconditions.checkArgument(poolQueueSize >= 1, "poolQueueSize must be >= 1");
+      this.poolQueueSize = poolQueueSize;
+      return this;
+    }
+
+    @Override
+    public HttpClientSpec idleTimeout(Duration idleTimeout) {
+      Preconditions.checkArgument(!idleTimeout.isNegative(), "idleTimeout must not be negative");
+      this.idleTimeout = idleTimeout;
+      return this;
+    }
+
+    @Override
+    public HttpClientSpec byteBufAllocator(ByteBufAllocator byteBufAllocator) {
+      this.byteBufAllocator = byteBufAllocator;
+      return this;
+    }
+
+    @Override
+    public HttpClientSpec maxContentLength(int maxContentLength) {
+      this.maxContentLength = maxContentLength;
+      return this;
+    }
+
+    @Override
+    public HttpClientSpec dnsServers(Iterable<? extends InetSocketAddress> dnsServers) {
+      Preconditions.checkArgument(dnsServers.iterator().hasNext(), "dnsServers must not be empty");
+      this.dnsServers = DnsServerAddresses.sequential(dnsServers);
+      return this;
+    }
+
+    @Override
+    public HttpClientSpec dnsCacheTtl(Duration minTtl, Duration maxTtl) {
+      Preconditions.checkArgument(!minTtl.isNegative(), "minTtl must not be negative");
+      Preconditions.checkArgument(maxTtl.compareTo(minTtl) >= 0, "maxTtl must be >= minTtl");
+      this.dnsMinTtl = minTtl;
+      this.dnsMaxTtl = maxTtl;
+      return this;
+    }
+
+    @Override
+    public HttpClientSpec dnsNegativeCacheTtl(Duration negativeTtl) {
+      Preconditions.checkArgument(!negativeTtl.isNegative(), "negativeTtl must not be negative");
+      this.dnsNegativeTtl = negativeTtl;
+      return this;
+    }
+
+    @Override
+    public HttpClientSpec dnsQueryTimeout(Duration queryTimeout) {
+      Preconditions.checkArgument(!queryTimeout.isNegative() && !queryTimeout.isZero(), "queryTimeout must be positive");
+      this.dnsQueryTimeout = queryTimeout;
+      return this;
+    }
+
+    @Override
+    public HttpClientSpec addressResolver(@Nullable AddressResolverGroup<?> addressResolver) {
+      this.addressResolver = addressResolver;
+      return this;
+    }
   }
 
 }
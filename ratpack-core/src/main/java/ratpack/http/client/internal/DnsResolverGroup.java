@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.channel.ChannelFactory;
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.InetNameResolver;
+import io.netty.resolver.NameResolver;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsAddressResolverGroup;
+import io.netty.resolver.dns.DnsCache;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.DnsServerAddresses;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import ratpack.util.internal.ChannelImplDetector;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Resolves host names asynchronously on the event loop of the connecting channel, instead of blocking it with {@link InetAddress#getByName(String)}.
+ * <p>
+ * One resolver is created per event loop, all sharing the same cache.
+ * Hosts with multiple addresses are connected to in a round robin fashion.
+ */
+class DnsResolverGroup extends DnsAddressResolverGroup {
+
+  private final DnsCache cache;
+  private final Duration queryTimeout;
+
+  DnsResolverGroup(DnsServerAddresses servers, Duration minTtl, Duration maxTtl, Duration negativeTtl, Duration queryTimeout) {
+    super(ChannelImplDetector.getDatagramChannelImpl(), servers);
+    this.cache = new DefaultDnsCache(seconds(minTtl), seconds(maxTtl), seconds(negativeTtl));
+    this.queryTimeout = queryTimeout;
+  }
+
+  private static int seconds(Duration duration) {
+    return (int) Math.min(Integer.MAX_VALUE, duration.getSeconds());
+  }
+
+  @Override
+  protected AddressResolver<InetSocketAddress> newResolver(EventLoop eventLoop, ChannelFactory<? extends DatagramChannel> channelFactory, InetSocketAddress localAddress, DnsServerAddresses nameServerAddresses) throws Exception {
+    NameResolver<InetAddress> resolver = new DnsNameResolverBuilder(eventLoop)
+      .channelFactory(channelFactory)
+      .localAddress(localAddress)
+      .nameServerAddresses(nameServerAddresses)
+      .resolveCache(cache)
+      .queryTimeoutMillis(queryTimeout.toMillis())
+      .build();
+
+    return new RoundRobinNameResolver(eventLoop, resolver).asAddressResolver();
+  }
+
+  private static class RoundRobinNameResolver extends InetNameResolver {
+
+    private final NameResolver<InetAddress> delegate;
+
+    // only accessed from the event loop of this resolver
+    private int next;
+
+    RoundRobinNameResolver(EventLoop eventLoop, NameResolver<InetAddress> delegate) {
+      super(eventLoop);
+      this.delegate = delegate;
+    }
+
+    @Override
+    protected void doResolve(String inetHost, Promise<InetAddress> promise) throws Exception {
+      delegate.resolveAll(inetHost).addListener((Future<List<InetAddress>> future) -> {
+        if (future.isSuccess()) {
+          List<InetAddress> addresses = future.getNow();
+          if (addresses.isEmpty()) {
+            promise.tryFailure(new UnknownHostException(inetHost));
+          } else {
+            promise.trySuccess(addresses.get((next++ & Integer.MAX_VALUE) % addresses.size()));
+          }
+        } else {
+          promise.tryFailure(future.cause());
+        }
+      });
+    }
+
+    @Override
+    protected void doResolveAll(String inetHost, Promise<List<InetAddress>> promise) throws Exception {
+      delegate.resolveAll(inetHost).addListener((Future<List<InetAddress>> future) -> {
+        if (future.isSuccess()) {
+          promise.trySuccess(future.getNow());
+        } else {
+          promise.tryFailure(future.cause());
+        }
+      });
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import com.google.common.net.HostAndPort;
+import io.netty.channel.EventLoop;
+import ratpack.api.Nullable;
+
+import javax.net.ssl.SSLContext;
+import java.time.Duration;
+import java.util.Objects;
+
+final class HttpChannelKey {
+
+  final boolean ssl;
+  final String host;
+  final int port;
+  final SSLContext sslContext;
+  final Duration connectTimeout;
+  final EventLoop eventLoop;
+
+  HttpChannelKey(boolean ssl, String host, int port, @Nullable SSLContext sslContext, Duration connectTimeout, EventLoop eventLoop) {
+    this.ssl = ssl;
+    this.host = host;
+    this.port = port;
+    this.sslContext = sslContext;
+    this.connectTimeout = connectTimeout;
+    this.eventLoop = eventLoop;
+  }
+
+  String getHostAndPort() {
+    return HostAndPort.fromParts(host, port).toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    HttpChannelKey that = (HttpChannelKey) o;
+    return ssl == that.ssl
+      && port == that.port
+      && host.equals(that.host)
+      && sslContext == that.sslContext
+      && connectTimeout.equals(that.connectTimeout)
+      && eventLoop == that.eventLoop;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(ssl, host, port, System.identityHashCode(sslContext), connectTimeout, System.identityHashCode(eventLoop));
+  }
+
+}
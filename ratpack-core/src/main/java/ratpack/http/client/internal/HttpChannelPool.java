@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The channel pool of a key, which removes itself from its pool map once it has been unused for a while,
+ * so that the map does not grow with every host the client has ever connected to.
+ * <p>
+ * A pool is unused when none of its channels are acquired or open.
+ * The pool is only used on the event loop of its key, so its state is not synchronized.
+ */
+class HttpChannelPool implements ChannelPool {
+
+  static final long EVICTION_DELAY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+  private final ChannelPool delegate;
+  private final EventLoop eventLoop;
+  private final ConnectionCounters.HostCounters counters;
+  private final Runnable evict;
+
+  private int acquired;
+  private long unusedSince;
+  private ScheduledFuture<?> evictionCheck;
+  private boolean closed;
+
+  HttpChannelPool(ChannelPool delegate, EventLoop eventLoop, ConnectionCounters.HostCounters counters, Runnable evict) {
+    this.delegate = delegate;
+    this.eventLoop = eventLoop;
+    this.counters = counters;
+    this.evict = evict;
+  }
+
+  @Override
+  public Future<Channel> acquire() {
+    return acquire(eventLoop.newPromise());
+  }
+
+  @Override
+  public Future<Channel> acquire(Promise<Channel> promise) {
+    if (!eventLoop.inEventLoop()) {
+      eventLoop.execute(() -> acquire(promise));
+      return promise;
+    }
+    ++acquired;
+    promise.addListener(f -> {
+      if (!f.isSuccess()) {
+        released();
+      }
+    });
+    return delegate.acquire(promise);
+  }
+
+  @Override
+  public Future<Void> release(Channel channel) {
+    return release(channel, eventLoop.newPromise());
+  }
+
+  @Override
+  public Future<Void> release(Channel channel, Promise<Void> promise) {
+    if (!eventLoop.inEventLoop()) {
+      eventLoop.execute(() -> release(channel, promise));
+      return promise;
+    }
+    released();
+    return delegate.release(channel, promise);
+  }
+
+  private void released() {
+    if (--acquired == 0) {
+      unusedSince = System.nanoTime();
+      if (evictionCheck == null && !closed) {
+        evictionCheck = eventLoop.schedule(this::checkEviction, EVICTION_DELAY_NANOS, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private void checkEviction() {
+    evictionCheck = null;
+    if (acquired > 0 || closed) {
+      // scheduled again once released
+      return;
+    }
+    long unusedFor = System.nanoTime() - unusedSince;
+    if (unusedFor < EVICTION_DELAY_NANOS) {
+      evictionCheck = eventLoop.schedule(this::checkEviction, EVICTION_DELAY_NANOS - unusedFor, TimeUnit.NANOSECONDS);
+    } else if (counters.open() > 0) {
+      // idle keep-alive connections, which are closed by the idle timeout or the server
+      evictionCheck = eventLoop.schedule(this::checkEviction, EVICTION_DELAY_NANOS, TimeUnit.NANOSECONDS);
+    } else {
+      evict.run();
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    ScheduledFuture<?> evictionCheck = this.evictionCheck;
+    if (evictionCheck != null) {
+      evictionCheck.cancel(false);
+    }
+    delegate.close();
+  }
+
+}
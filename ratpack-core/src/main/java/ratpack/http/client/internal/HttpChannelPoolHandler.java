@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.pool.ChannelPoolHandler;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets up the connection level handlers of pooled channels, and keeps the connection counters of the host up to date.
+ * <p>
+ * All callbacks happen on the event loop of the channel, so state transitions for a single channel are not concurrent.
+ */
+class HttpChannelPoolHandler implements ChannelPoolHandler {
+
+  static final String SSL_HANDLER_NAME = "ssl";
+  static final String CLIENT_CODEC_HANDLER_NAME = "clientCodec";
+  private static final String IDLE_TIMEOUT_HANDLER_NAME = "idleTimeout";
+
+  private enum State {
+    ACTIVE, IDLE, CLOSED
+  }
+
+  private static final AttributeKey<State> STATE = AttributeKey.valueOf(HttpChannelPoolHandler.class, "state");
+
+  private final HttpChannelKey key;
+  private final Duration idleTimeout;
+  private final ConnectionCounters.HostCounters counters;
+
+  HttpChannelPoolHandler(HttpChannelKey key, Duration idleTimeout, ConnectionCounters.HostCounters counters) {
+    this.key = key;
+    this.idleTimeout = idleTimeout;
+    this.counters = counters;
+  }
+
+  @Override
+  public void channelCreated(Channel channel) throws Exception {
+    ChannelPipeline p = channel.pipeline();
+    if (key.ssl) {
+      SSLContext sslContext = key.sslContext == null ? SSLContext.getDefault() : key.sslContext;
+      SSLEngine sslEngine = sslContext.createSSLEngine();
+      sslEngine.setUseClientMode(true);
+      p.addLast(SSL_HANDLER_NAME, new SslHandler(sslEngine));
+    }
+    p.addLast(CLIENT_CODEC_HANDLER_NAME, new HttpClientCodec());
+
+    channel.attr(STATE).set(State.ACTIVE);
+    counters.active.incrementAndGet();
+    channel.closeFuture().addListener(f -> transition(channel, State.CLOSED));
+  }
+
+  @Override
+  public void channelAcquired(Channel channel) throws Exception {
+    if (channel.pipeline().get(IDLE_TIMEOUT_HANDLER_NAME) != null) {
+      channel.pipeline().remove(IDLE_TIMEOUT_HANDLER_NAME);
+    }
+    transition(channel, State.ACTIVE);
+  }
+
+  @Override
+  public void channelReleased(Channel channel) throws Exception {
+    if (!idleTimeout.isZero() && channel.isActive()) {
+      channel.pipeline().addLast(IDLE_TIMEOUT_HANDLER_NAME, new IdleTimeoutHandler(idleTimeout));
+    }
+    transition(channel, State.IDLE);
+  }
+
+  private void transition(Channel channel, State to) {
+    State from = channel.attr(STATE).get();
+    if (from == to || from == State.CLOSED) {
+      return;
+    }
+    channel.attr(STATE).set(to);
+
+    if (from == State.ACTIVE) {
+      counters.active.decrementAndGet();
+    } else if (from == State.IDLE) {
+      counters.idle.decrementAndGet();
+    }
+
+    if (to == State.ACTIVE) {
+      counters.active.incrementAndGet();
+    } else if (to == State.IDLE) {
+      counters.idle.incrementAndGet();
+    }
+  }
+
+  private static class IdleTimeoutHandler extends IdleStateHandler {
+    IdleTimeoutHandler(Duration idleTimeout) {
+      super(0, 0, idleTimeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    protected void channelIdle(ChannelHandlerContext ctx, IdleStateEvent evt) throws Exception {
+      ctx.close();
+    }
+  }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.ChannelPoolMap;
+import io.netty.resolver.AddressResolverGroup;
+import ratpack.http.client.HttpClientStats;
+import ratpack.util.internal.ChannelImplDetector;
+
+import java.net.InetSocketAddress;
+
+interface HttpChannelPoolMap extends ChannelPoolMap<HttpChannelKey, ChannelPool> {
+
+  /**
+   * Whether channels are reused across requests, which determines whether requests are sent with keep-alive semantics.
+   */
+  boolean isPooled();
+
+  HttpClientStats getStats();
+
+  /**
+   * Closes the pools of all keys, closing any idle channels.
+   */
+  void close();
+
+  static Bootstrap bootstrap(HttpChannelKey key, AddressResolverGroup<?> resolver) {
+    return new Bootstrap()
+      .remoteAddress(InetSocketAddress.createUnresolved(key.host, key.port))
+      .resolver(resolver)
+      .group(key.eventLoop)
+      .channel(ChannelImplDetector.getSocketChannelImpl())
+      .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) key.connectTimeout.toMillis());
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.resolver.AddressResolverGroup;
+import ratpack.http.client.HttpClientStats;
+
+import java.time.Duration;
+
+class PooledHttpChannelPoolMap extends AbstractChannelPoolMap<HttpChannelKey, ChannelPool> implements HttpChannelPoolMap {
+
+  private final int poolSize;
+  private final int poolQueueSize;
+  private final Duration idleTimeout;
+  private final AddressResolverGroup<?> resolver;
+  private final ConnectionCounters counters = new ConnectionCounters();
+
+  PooledHttpChannelPoolMap(int poolSize, int poolQueueSize, Duration idleTimeout, AddressResolverGroup<?> resolver) {
+    this.poolSize = poolSize;
+    this.poolQueueSize = poolQueueSize;
+    this.idleTimeout = idleTimeout;
+    this.resolver = resolver;
+  }
+
+  @Override
+  protected ChannelPool newPool(HttpChannelKey key) {
+    ConnectionCounters.HostCounters hostCounters = counters.register(key.getHostAndPort());
+    HttpChannelPoolHandler handler = new HttpChannelPoolHandler(key, idleTimeout, hostCounters);
+    FixedChannelPool pool = new FixedChannelPool(HttpChannelPoolMap.bootstrap(key, resolver), handler, ChannelHealthChecker.ACTIVE, null, -1, poolSize, poolQueueSize, true);
+    return new HttpChannelPool(pool, key.eventLoop, hostCounters, () -> {
+      remove(key);
+      counters.unregister(hostCounters);
+    });
+  }
+
+  @Override
+  public boolean isPooled() {
+    return true;
+  }
+
+  @Override
+  public HttpClientStats getStats() {
+    return counters.snapshot();
+  }
+
+}
@@ -17,17 +17,21 @@
 package ratpack.http.client.internal;
 
 import com.google.common.net.HostAndPort;
-import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.pool.ChannelPool;
 import io.netty.handler.codec.PrematureChannelClosureException;
 import io.netty.handler.codec.http.*;
-import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import ratpack.exec.Deadline;
 import ratpack.exec.Downstream;
 import ratpack.exec.Execution;
+import ratpack.exec.ExecutionCancelledException;
+import ratpack.exec.internal.DefaultDeadline;
+import ratpack.exec.internal.DefaultExecution;
 import ratpack.func.Action;
 import ratpack.func.Function;
 import ratpack.http.Headers;
@@ -36,11 +40,9 @@ import ratpack.http.Status;
 import ratpack.http.client.ReceivedResponse;
 import ratpack.http.client.RequestSpec;
 import ratpack.http.internal.*;
-import ratpack.util.internal.ChannelImplDetector;
 
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLEngine;
 import java.net.URI;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
@@ -62,11 +64,19 @@ abstract class RequestActionSupport<T> implements RequestAction<T> {
   private final RequestParams requestParams;
   private final AtomicBoolean fired = new AtomicBoolean();
 
+  private ChannelPool channelPool;
+  private Channel channel;
+  private ScheduledFuture<?> deadlineTimer;
+  private boolean keepAlive;
+  private boolean disposed;
+
   protected final Execution execution;
   protected final ByteBufAllocator byteBufAllocator;
+  protected final HttpChannelPoolMap channelPoolMap;
 
-  public RequestActionSupport(Action<? super RequestSpec> requestConfigurer, URI uri, Execution execution, ByteBufAllocator byteBufAllocator, int redirectCounter) {
+  public RequestActionSupport(Action<? super RequestSpec> requestConfigurer, URI uri, Execution execution, ByteBufAllocator byteBufAllocator, HttpChannelPoolMap channelPoolMap, int redirectCounter) {
     this.execution = execution;
+    this.channelPoolMap = channelPoolMap;
     this.requestConfigurer = requestConfigurer;
     this.byteBufAllocator = byteBufAllocator;
     this.uri = uri;
@@ -100,139 +110,202 @@ abstract class RequestActionSupport<T> implements RequestAction<T> {
   }
 
   public void connect(final Downstream<? super T> downstream) throws Exception {
-    final Bootstrap b = new Bootstrap();
-    b.group(this.execution.getEventLoop())
-      .channel(ChannelImplDetector.getSocketChannelImpl())
-      .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) requestParams.connectTimeout.toMillis())
-      .handler(new ChannelInitializer<SocketChannel>() {
-        @Override
-        protected void initChannel(SocketChannel ch) throws Exception {
-          ChannelPipeline p = ch.pipeline();
-
-          if (finalUseSsl) {
-            SSLEngine sslEngine;
-            if (requestSpecBacking.getSslContext() != null) {
-              sslEngine = requestSpecBacking.getSslContext().createSSLEngine();
-            } else {
-              sslEngine = SSLContext.getDefault().createSSLEngine();
-            }
-            sslEngine.setUseClientMode(true);
-            p.addLast("ssl", new SslHandler(sslEngine));
+    if (execution.isCancelled()) {
+      error(downstream, new ExecutionCancelledException());
+      return;
+    }
+    ((DefaultExecution) execution).onCancel(() -> {
+      if (fired.compareAndSet(false, true)) {
+        cancelDeadlineTimer();
+        if (channel != null) {
+          dispose(channel.pipeline(), true);
+        }
+      }
+    });
+
+    Deadline deadline = execution.maybeGet(Deadline.class).orElse(null);
+    if (deadline != null) {
+      if (deadline.isExpired()) {
+        error(downstream, DefaultDeadline.deadlineExceeded());
+        return;
+      }
+      deadlineTimer = execution.getEventLoop().schedule(() -> {
+        if (fired.compareAndSet(false, true)) {
+          if (channel != null) {
+            dispose(channel.pipeline(), true);
           }
+          downstream.error(DefaultDeadline.deadlineExceeded());
+        }
+      }, deadline.getRemaining().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    HttpChannelKey key = new HttpChannelKey(finalUseSsl, host, port, requestSpecBacking.getSslContext(), requestParams.connectTimeout, execution.getEventLoop());
+    channelPool = channelPoolMap.get(key);
+    Future<Channel> acquireFuture = channelPool.acquire();
+    acquireFuture.addListener(f1 -> {
+      if (acquireFuture.isSuccess()) {
+        Channel channel = acquireFuture.getNow();
+        if (channel.eventLoop().inEventLoop()) {
+          send(downstream, channel);
+        } else {
+          channel.eventLoop().execute(() -> send(downstream, channel));
+        }
+      } else {
+        error(downstream, acquireFuture.cause());
+      }
+    });
+  }
 
-          p.addLast("codec", new HttpClientCodec());
-          p.addLast("readTimeout", new ReadTimeoutHandler(requestParams.readTimeoutNanos, TimeUnit.NANOSECONDS));
+  private void send(Downstream<? super T> downstream, Channel channel) {
+    if (fired.get()) {
+      // the deadline passed or the execution was cancelled while waiting for a connection
+      channelPool.release(channel);
+      return;
+    }
+    this.channel = channel;
+    ChannelPipeline p = channel.pipeline();
+
+    p.addLast("readTimeout", new ReadTimeoutHandler(requestParams.readTimeoutNanos, TimeUnit.NANOSECONDS));
+    p.addLast("redirectHandler", new SimpleChannelInboundHandler<HttpObject>(false) {
+      boolean redirected;
+
+      // This handler is removed when the channel is disposed, so it only sees the closure of a channel that is still in use
+      @Override
+      public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (redirected) {
+          // the downstream belongs to the redirect request
+          dispose(ctx.pipeline(), true);
+          return;
+        }
+        // let the response handlers fail a partially received response before the channel is given back
+        super.channelInactive(ctx);
+        dispose(ctx.pipeline(), true);
+        error(downstream, prematureClosure());
+      }
 
-          p.addLast("redirectHandler", new SimpleChannelInboundHandler<HttpObject>(false) {
-            boolean readComplete;
-            boolean redirected;
+      @Override
+      public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        if (redirected) {
+          dispose(ctx.pipeline(), true);
+        } else {
+          super.exceptionCaught(ctx, cause);
+        }
+      }
 
-            @Override
-            public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-              if (!readComplete) {
-                error(downstream, new PrematureChannelClosureException("Server " + uri + " closed the connection prematurely"));
+      @Override
+      protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
+        if (msg instanceof HttpResponse) {
+          final HttpResponse response = (HttpResponse) msg;
+          keepAlive = channelPoolMap.isPooled() && HttpUtil.isKeepAlive(response);
+          int maxRedirects = requestSpecBacking.getMaxRedirects();
+          int status = response.status().code();
+          String locationValue = response.headers().getAsString(HttpHeaderConstants.LOCATION);
+
+          Action<? super RequestSpec> redirectConfigurer = RequestActionSupport.this.requestConfigurer;
+          if (isRedirect(status) && redirectCounter < maxRedirects && locationValue != null) {
+            final Function<? super ReceivedResponse, Action<? super RequestSpec>> onRedirect = requestSpecBacking.getOnRedirect();
+            if (onRedirect != null) {
+              final Action<? super RequestSpec> onRedirectResult = onRedirect.apply(toReceivedResponse(response));
+              if (onRedirectResult == null) {
+                redirectConfigurer = null;
+              } else {
+                redirectConfigurer = redirectConfigurer.append(onRedirectResult);
               }
-              super.channelReadComplete(ctx);
             }
 
-            @Override
-            public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-              super.exceptionCaught(ctx, cause);
-            }
-
-            @Override
-            protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
-              if (msg instanceof HttpResponse) {
-                readComplete = true;
-                final HttpResponse response = (HttpResponse) msg;
-                int maxRedirects = requestSpecBacking.getMaxRedirects();
-                int status = response.status().code();
-                String locationValue = response.headers().getAsString(HttpHeaderConstants.LOCATION);
-
-                Action<? super RequestSpec> redirectConfigurer = RequestActionSupport.this.requestConfigurer;
-                if (isRedirect(status) && redirectCounter < maxRedirects && locationValue != null) {
-                  final Function<? super ReceivedResponse, Action<? super RequestSpec>> onRedirect = requestSpecBacking.getOnRedirect();
-                  if (onRedirect != null) {
-                    final Action<? super RequestSpec> onRedirectResult = onRedirect.apply(toReceivedResponse(response));
-                    if (onRedirectResult == null) {
-                      redirectConfigurer = null;
-                    } else {
-                      redirectConfigurer = redirectConfigurer.append(onRedirectResult);
-                    }
-                  }
-
-                  if (redirectConfigurer != null) {
-                    Action<? super RequestSpec> redirectRequestConfig = s -> {
-                      if (status == 301 || status == 302) {
-                        s.method("GET");
-                      }
-                    };
-                    redirectRequestConfig = redirectRequestConfig.append(redirectConfigurer);
-
-                    URI locationUrl;
-                    if (ABSOLUTE_PATTERN.matcher(locationValue).matches()) {
-                      locationUrl = new URI(locationValue);
-                    } else {
-                      locationUrl = new URI(uri.getScheme(), null, uri.getHost(), uri.getPort(), locationValue, null, null);
-                    }
-
-                    buildRedirectRequestAction(redirectRequestConfig, locationUrl, redirectCounter + 1).connect(downstream);
-                    redirected = true;
-                  }
+            if (redirectConfigurer != null) {
+              Action<? super RequestSpec> redirectRequestConfig = s -> {
+                if (status == 301 || status == 302) {
+                  s.method("GET");
                 }
+              };
+              redirectRequestConfig = redirectRequestConfig.append(redirectConfigurer);
+
+              URI locationUrl;
+              if (ABSOLUTE_PATTERN.matcher(locationValue).matches()) {
+                locationUrl = new URI(locationValue);
+              } else {
+                locationUrl = new URI(uri.getScheme(), null, uri.getHost(), uri.getPort(), locationValue, null, null);
               }
 
-              if (!redirected) {
-                ctx.fireChannelRead(msg);
-              }
+              cancelDeadlineTimer();
+              buildRedirectRequestAction(redirectRequestConfig, locationUrl, redirectCounter + 1).connect(downstream);
+              redirected = true;
             }
-          });
-
-          if (requestSpecBacking.isDecompressResponse()) {
-            p.addLast(new HttpContentDecompressor());
           }
-          addResponseHandlers(p, downstream);
         }
 
-        @Override
-        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-          ctx.close();
-          error(downstream, cause);
-        }
-      });
-
-    ChannelFuture connectFuture = b.connect(host, port);
-    connectFuture.addListener(f1 -> {
-      if (connectFuture.isSuccess()) {
-        String fullPath = getFullPath(uri);
-        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.valueOf(requestSpecBacking.getMethod()), fullPath, requestSpecBacking.getBody());
-        if (headers.get(HttpHeaderConstants.HOST) == null) {
-          HostAndPort hostAndPort = HostAndPort.fromParts(host, port);
-          headers.set(HttpHeaderConstants.HOST, hostAndPort.toString());
-        }
-        headers.set(HttpHeaderConstants.CONNECTION, HttpHeaderValues.CLOSE);
-        int contentLength = request.content().readableBytes();
-        if (contentLength > 0) {
-          headers.set(HttpHeaderConstants.CONTENT_LENGTH, Integer.toString(contentLength));
+        if (redirected) {
+          // The body of the redirect response is discarded, but must be fully read before the connection can be reused
+          ReferenceCountUtil.release(msg);
+          if (msg instanceof LastHttpContent) {
+            dispose(ctx.pipeline(), false);
+          }
+        } else {
+          ctx.fireChannelRead(msg);
         }
+      }
+    });
 
-        HttpHeaders requestHeaders = request.headers();
-        requestHeaders.set(headers.getNettyHeaders());
+    if (requestSpecBacking.isDecompressResponse()) {
+      p.addLast(new HttpContentDecompressor());
+    }
+    addResponseHandlers(p, downstream);
 
-        ChannelFuture writeFuture = connectFuture.channel().writeAndFlush(request);
-        writeFuture.addListener(f2 -> {
-          if (!writeFuture.isSuccess()) {
-            writeFuture.channel().close();
-            error(downstream, writeFuture.cause());
-          }
-        });
-      } else {
-        connectFuture.channel().close();
-        error(downstream, connectFuture.cause());
+    String fullPath = getFullPath(uri);
+    FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.valueOf(requestSpecBacking.getMethod()), fullPath, requestSpecBacking.getBody());
+    if (headers.get(HttpHeaderConstants.HOST) == null) {
+      HostAndPort hostAndPort = HostAndPort.fromParts(host, port);
+      headers.set(HttpHeaderConstants.HOST, hostAndPort.toString());
+    }
+    if (!channelPoolMap.isPooled()) {
+      headers.set(HttpHeaderConstants.CONNECTION, HttpHeaderValues.CLOSE);
+    }
+    int contentLength = request.content().readableBytes();
+    if (contentLength > 0) {
+      headers.set(HttpHeaderConstants.CONTENT_LENGTH, Integer.toString(contentLength));
+    }
+
+    HttpHeaders requestHeaders = request.headers();
+    requestHeaders.set(headers.getNettyHeaders());
+
+    ChannelFuture writeFuture = channel.writeAndFlush(request);
+    writeFuture.addListener(f2 -> {
+      if (!writeFuture.isSuccess()) {
+        dispose(p, true);
+        error(downstream, writeFuture.cause());
       }
     });
   }
 
+  /**
+   * Removes the request specific handlers from the channel and gives it back to the pool.
+   * <p>
+   * The channel is closed first if it can't be reused, either because it was requested or because the exchange did not complete cleanly.
+   * Subsequent calls have no effect.
+   *
+   * @param p the channel's pipeline
+   * @param forceClose whether the channel must not be reused
+   */
+  protected void dispose(ChannelPipeline p, boolean forceClose) {
+    if (!disposed) {
+      disposed = true;
+      ChannelHandler clientCodec = p.get(HttpChannelPoolHandler.CLIENT_CODEC_HANDLER_NAME);
+      while (p.last() != null && p.last() != clientCodec) {
+        p.removeLast();
+      }
+      channel.config().setAutoRead(true);
+      if (forceClose || !keepAlive) {
+        channel.close();
+      }
+      channelPool.release(channel);
+    }
+  }
+
+  protected PrematureChannelClosureException prematureClosure() {
+    return new PrematureChannelClosureException("Server " + uri + " closed the connection prematurely");
+  }
+
   protected ReceivedResponse toReceivedResponse(FullHttpResponse msg) {
     return toReceivedResponse(msg, initBufferReleaseOnExecutionClose(msg.content(), execution));
   }
@@ -255,16 +328,24 @@ abstract class RequestActionSupport<T> implements RequestAction<T> {
 
   protected void success(Downstream<? super T> downstream, T value) {
     if (fired.compareAndSet(false, true)) {
+      cancelDeadlineTimer();
       downstream.success(value);
     }
   }
 
   protected void error(Downstream<?> downstream, Throwable error) {
     if (fired.compareAndSet(false, true)) {
+      cancelDeadlineTimer();
       downstream.error(error);
     }
   }
 
+  private void cancelDeadlineTimer() {
+    if (deadlineTimer != null) {
+      deadlineTimer.cancel(false);
+    }
+  }
+
   private static boolean isRedirect(int code) {
     return code == 301 || code == 302 || code == 303 || code == 307;
   }
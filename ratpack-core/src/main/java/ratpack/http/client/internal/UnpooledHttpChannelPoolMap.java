@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.ChannelPoolHandler;
+import io.netty.channel.pool.SimpleChannelPool;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import ratpack.http.client.HttpClientStats;
+
+import java.time.Duration;
+
+/**
+ * Opens a new channel for every acquisition, and closes it on release.
+ * <p>
+ * The (stateless) pool of each key is reused while it is in use, so that it is not created for each request.
+ */
+class UnpooledHttpChannelPoolMap extends AbstractChannelPoolMap<HttpChannelKey, ChannelPool> implements HttpChannelPoolMap {
+
+  private final ConnectionCounters counters = new ConnectionCounters();
+  private final AddressResolverGroup<?> resolver;
+
+  UnpooledHttpChannelPoolMap(AddressResolverGroup<?> resolver) {
+    this.resolver = resolver;
+  }
+
+  @Override
+  protected ChannelPool newPool(HttpChannelKey key) {
+    ConnectionCounters.HostCounters hostCounters = counters.register(key.getHostAndPort());
+    HttpChannelPoolHandler handler = new HttpChannelPoolHandler(key, Duration.ZERO, hostCounters);
+    ChannelPool pool = new ClosingChannelPool(HttpChannelPoolMap.bootstrap(key, resolver), handler);
+    return new HttpChannelPool(pool, key.eventLoop, hostCounters, () -> {
+      remove(key);
+      counters.unregister(hostCounters);
+    });
+  }
+
+  @Override
+  public boolean isPooled() {
+    return false;
+  }
+
+  @Override
+  public HttpClientStats getStats() {
+    return counters.snapshot();
+  }
+
+  private static class ClosingChannelPool extends SimpleChannelPool {
+    ClosingChannelPool(Bootstrap bootstrap, ChannelPoolHandler handler) {
+      super(bootstrap, handler);
+    }
+
+    @Override
+    public Future<Void> release(Channel channel, Promise<Void> promise) {
+      channel.close();
+      return promise.setSuccess(null);
+    }
+  }
+
+}
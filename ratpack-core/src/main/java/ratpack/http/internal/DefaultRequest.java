@@ -246,6 +246,18 @@ public class DefaultRequest implements Request {
     }
   }
 
+  public TransformablePublisher<? extends ByteBuf> getUnboundBodyStream() {
+    return getUnboundBodyStream(serverConfig.getMaxContentLength());
+  }
+
+  public TransformablePublisher<? extends ByteBuf> getUnboundBodyStream(long maxContentLength) {
+    if (bodyReader == null) {
+      return EmptyPublisher.instance();
+    } else {
+      return bodyReader.readUnboundStream(maxContentLength);
+    }
+  }
+
   @Override
   public Headers getHeaders() {
     return headers;
@@ -206,7 +206,10 @@ public class DefaultResponse implements Response {
 
   @Override
   public Response noCompress() {
-    headers.set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.IDENTITY);
+    // Content that is already encoded (e.g. a pre-compressed file) must keep its declared encoding
+    if (!headers.contains(HttpHeaderNames.CONTENT_ENCODING)) {
+      headers.set(HttpHeaderNames.CONTENT_ENCODING, HttpHeaderValues.IDENTITY);
+    }
     return this;
   }
 
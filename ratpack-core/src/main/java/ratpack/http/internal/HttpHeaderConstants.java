@@ -34,6 +34,8 @@ public abstract class HttpHeaderConstants {
   public static final CharSequence KEEP_ALIVE = HttpHeaderValues.KEEP_ALIVE;
   public static final CharSequence CONTENT_ENCODING = HttpHeaderNames.CONTENT_ENCODING;
   public static final CharSequence IDENTITY = HttpHeaderValues.IDENTITY;
+  public static final CharSequence ACCEPT_ENCODING = HttpHeaderNames.ACCEPT_ENCODING;
+  public static final CharSequence VARY = HttpHeaderNames.VARY;
   public static final CharSequence TRANSFER_ENCODING = HttpHeaderNames.TRANSFER_ENCODING;
   public static final CharSequence CHUNKED = HttpHeaderValues.CHUNKED;
   public static final CharSequence CACHE_CONTROL = HttpHeaderNames.CACHE_CONTROL;
@@ -57,6 +59,8 @@ public abstract class HttpHeaderConstants {
   public static final CharSequence PLAIN_TEXT_UTF8 = new AsciiString("text/plain;charset=UTF-8");
   public static final CharSequence OCTET_STREAM = new AsciiString("application/octet-stream");
   public static final CharSequence JSON = new AsciiString("application/json");
+  public static final CharSequence NDJSON = new AsciiString("application/x-ndjson");
+  public static final CharSequence JSON_SEQ = new AsciiString("application/json-seq");
   public static final CharSequence HTML_UTF_8 = new AsciiString("text/html;charset=UTF-8");
   public static final CharSequence ON = new AsciiString("on");
 
@@ -16,26 +16,28 @@
 
 package ratpack.jackson;
 
-import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.reflect.TypeToken;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import org.reactivestreams.Publisher;
 import ratpack.api.Nullable;
 import ratpack.func.Function;
+import ratpack.handling.Context;
 import ratpack.http.ResponseChunks;
 import ratpack.http.internal.HttpHeaderConstants;
+import ratpack.jackson.internal.ChunkedJsonPublisher;
 import ratpack.jackson.internal.DefaultJsonParseOpts;
 import ratpack.jackson.internal.DefaultJsonRender;
+import ratpack.jackson.internal.JsonArrayElementPublisher;
+import ratpack.jackson.internal.ObjectReaders;
 import ratpack.parse.Parse;
 import ratpack.registry.Registry;
 import ratpack.stream.Streams;
-import ratpack.stream.WriteStream;
-
-import java.io.IOException;
-import java.io.OutputStream;
+import ratpack.stream.TransformablePublisher;
 
 /**
  * Provides key integration points with the Jackson support for dealing with JSON.
@@ -482,6 +484,63 @@ public abstract class Jackson {
     return Parse.<T, JsonParseOpts>of(type, new DefaultJsonParseOpts(objectMapper));
   }
 
+  /**
+   * Streams the elements of a JSON array request body, deserializing each element as it arrives.
+   * <p>
+   * Unlike {@link #fromJson(Class)}, the request body is not read into memory before parsing.
+   * Each element is deserialized as soon as its bytes have been received, and the body is only read as elements are requested.
+   * This allows arbitrarily large arrays to be processed in memory proportional to the size of the largest element,
+   * up to the {@link ratpack.server.ServerConfig#getMaxContentLength() max content length} of the request body.
+   * <p>
+   * The request body must be a single JSON array, otherwise the stream will emit a {@link com.fasterxml.jackson.core.JsonParseException}.
+   * The content type of the request is not checked.
+   * Elements are deserialized using an {@link ObjectMapper} obtained from the context registry.
+   * <p>
+   * As with {@link ratpack.http.Request#getBodyStream()}, the body can only be streamed once, and the returned publisher is bound to the calling execution.
+   *
+   * @param context the context of the request
+   * @param type the type of object to deserialize each element into
+   * @param <T> the type of object to deserialize each element into
+   * @return a publisher of the array elements
+   * @since 1.4
+   */
+  public static <T> TransformablePublisher<T> jsonArrayElements(Context context, Class<T> type) {
+    return jsonArrayElements(context, TypeToken.of(type));
+  }
+
+  /**
+   * Streams the elements of a JSON array request body, deserializing each element as it arrives.
+   * <p>
+   * See {@link #jsonArrayElements(Context, Class)}.
+   *
+   * @param context the context of the request
+   * @param type the type of object to deserialize each element into
+   * @param <T> the type of object to deserialize each element into
+   * @return a publisher of the array elements
+   * @since 1.4
+   */
+  public static <T> TransformablePublisher<T> jsonArrayElements(Context context, TypeToken<T> type) {
+    ObjectReader objectReader = ObjectReaders.of(context.get(ObjectMapper.class), type);
+    return new JsonArrayElementPublisher<>(context.getRequest().getBodyStream(), objectReader, context.get(ByteBufAllocator.class));
+  }
+
+  /**
+   * Streams the elements of a JSON array from the given bytes, deserializing each element as it arrives.
+   * <p>
+   * Identical to {@link #jsonArrayElements(Context, Class)}, except that the JSON is read from the given publisher using the given object reader.
+   * This can be used to stream a request body with a particular {@link ratpack.http.Request#getBodyStream(long) max content length}, or to stream JSON from other sources.
+   * The emitted byte buffers are released.
+   *
+   * @param bytes the JSON array
+   * @param objectReader the object reader to deserialize each element with, which must be configured for the type of element
+   * @param <T> the type of object to deserialize each element into
+   * @return a publisher of the array elements
+   * @since 1.4
+   */
+  public static <T> TransformablePublisher<T> jsonArrayElements(Publisher<? extends ByteBuf> bytes, ObjectReader objectReader) {
+    return new JsonArrayElementPublisher<>(bytes, objectReader, ByteBufAllocator.DEFAULT);
+  }
+
   /**
    * Renders a data stream as a JSON list, directly streaming the JSON.
    * <p>
@@ -553,48 +612,135 @@ public abstract class Jackson {
    * @see #chunkedJsonList(Registry, Publisher)
    */
   public static <T> ResponseChunks chunkedJsonList(ObjectWriter objectWriter, Publisher<T> stream) {
-    return ResponseChunks.bufferChunks(HttpHeaderConstants.JSON, Streams.streamMap(stream, out -> {
-      JsonGenerator generator = objectWriter.getFactory().createGenerator(new OutputStream() {
-        @Override
-        public void write(int b) throws IOException {
-          throw new UnsupportedOperationException();
-        }
+    return chunkedJsonList(objectWriter, stream, 0);
+  }
 
-        @Override
-        public void write(@SuppressWarnings("NullableProblems") byte[] b, int off, int len) throws IOException {
-          out.item(Unpooled.copiedBuffer(b, off, len));
-        }
-      });
+  /**
+   * Renders a data stream as a JSON list, directly streaming the JSON in chunks of approximately the given size.
+   * <p>
+   * Identical to {@link #chunkedJsonList(ObjectWriter, Publisher)}, except that the JSON of consecutive items is sent as a single chunk until it reaches {@code chunkSize} bytes.
+   * Larger chunks mean fewer writes to the network, at the cost of more latency for each item.
+   * Items are requested from the stream in small batches, and any pending JSON is sent at the end of each batch, regardless of its size.
+   * A chunk size of {@code 0} sends the JSON of each item as its own chunk, which is what the other {@code chunkedJsonList} methods do.
+   *
+   * @param objectWriter the object write to use to convert stream items to their JSON representation
+   * @param stream the stream to render
+   * @param chunkSize the number of bytes to accumulate before sending a chunk
+   * @param <T> the type of item in the stream
+   * @return a renderable object
+   * @see #chunkedJsonList(Registry, Publisher)
+   * @since 1.4
+   */
+  public static <T> ResponseChunks chunkedJsonList(ObjectWriter objectWriter, Publisher<T> stream, int chunkSize) {
+    return chunkedJson(HttpHeaderConstants.JSON, objectWriter, stream, ChunkedJsonPublisher.Framing.ARRAY, chunkSize);
+  }
 
-      generator.writeStartArray();
+  /**
+   * Renders a data stream as <a href="http://ndjson.org">newline delimited JSON</a>, directly streaming the JSON.
+   * <p>
+   * Each item is rendered as a line of JSON, and the content type of the response is {@code application/x-ndjson}.
+   * Clients can process each item as it is received, without parsing the response as a whole.
+   * <p>
+   * This method is otherwise identical to {@link #chunkedJsonList(Registry, Publisher)}.
+   * Note that the object mapper must not be configured to indent output, as the JSON of each item must fit on a single line.
+   *
+   * @param registry the registry to obtain the object mapper from
+   * @param stream the stream to render
+   * @param <T> the type of item in the stream
+   * @return a renderable object
+   * @since 1.4
+   */
+  public static <T> ResponseChunks chunkedNdJson(Registry registry, Publisher<T> stream) {
+    return chunkedNdJson(getObjectWriter(registry), stream);
+  }
 
-      return new WriteStream<T>() {
-        @Override
-        public void item(T item) {
-          try {
-            generator.writeObject(item);
-          } catch (Exception e) {
-            out.error(e);
-          }
-        }
+  /**
+   * Renders a data stream as <a href="http://ndjson.org">newline delimited JSON</a>, directly streaming the JSON.
+   * <p>
+   * Identical to {@link #chunkedNdJson(Registry, Publisher)}, except uses the given object writer instead of obtaining one from the registry.
+   *
+   * @param objectWriter the object write to use to convert stream items to their JSON representation
+   * @param stream the stream to render
+   * @param <T> the type of item in the stream
+   * @return a renderable object
+   * @since 1.4
+   */
+  public static <T> ResponseChunks chunkedNdJson(ObjectWriter objectWriter, Publisher<T> stream) {
+    return chunkedNdJson(objectWriter, stream, 0);
+  }
 
-        @Override
-        public void error(Throwable throwable) {
-          out.error(throwable);
-        }
+  /**
+   * Renders a data stream as <a href="http://ndjson.org">newline delimited JSON</a>, directly streaming the JSON in chunks of approximately the given size.
+   * <p>
+   * See {@link #chunkedJsonList(ObjectWriter, Publisher, int)} for the meaning of {@code chunkSize}.
+   *
+   * @param objectWriter the object write to use to convert stream items to their JSON representation
+   * @param stream the stream to render
+   * @param chunkSize the number of bytes to accumulate before sending a chunk
+   * @param <T> the type of item in the stream
+   * @return a renderable object
+   * @since 1.4
+   */
+  public static <T> ResponseChunks chunkedNdJson(ObjectWriter objectWriter, Publisher<T> stream, int chunkSize) {
+    return chunkedJson(HttpHeaderConstants.NDJSON, objectWriter, stream, ChunkedJsonPublisher.Framing.NDJSON, chunkSize);
+  }
+
+  /**
+   * Renders a data stream as a <a href="https://tools.ietf.org/html/rfc7464">JSON text sequence</a>, directly streaming the JSON.
+   * <p>
+   * Each item is rendered as JSON preceded by an ASCII record separator and followed by a line feed, and the content type of the response is {@code application/json-seq}.
+   * Clients can process each item as it is received, without parsing the response as a whole.
+   * <p>
+   * This method is otherwise identical to {@link #chunkedJsonList(Registry, Publisher)}.
+   *
+   * @param registry the registry to obtain the object mapper from
+   * @param stream the stream to render
+   * @param <T> the type of item in the stream
+   * @return a renderable object
+   * @since 1.4
+   */
+  public static <T> ResponseChunks chunkedJsonSeq(Registry registry, Publisher<T> stream) {
+    return chunkedJsonSeq(getObjectWriter(registry), stream);
+  }
+
+  /**
+   * Renders a data stream as a <a href="https://tools.ietf.org/html/rfc7464">JSON text sequence</a>, directly streaming the JSON.
+   * <p>
+   * Identical to {@link #chunkedJsonSeq(Registry, Publisher)}, except uses the given object writer instead of obtaining one from the registry.
+   *
+   * @param objectWriter the object write to use to convert stream items to their JSON representation
+   * @param stream the stream to render
+   * @param <T> the type of item in the stream
+   * @return a renderable object
+   * @since 1.4
+   */
+  public static <T> ResponseChunks chunkedJsonSeq(ObjectWriter objectWriter, Publisher<T> stream) {
+    return chunkedJsonSeq(objectWriter, stream, 0);
+  }
+
+  /**
+   * Renders a data stream as a <a href="https://tools.ietf.org/html/rfc7464">JSON text sequence</a>, directly streaming the JSON in chunks of approximately the given size.
+   * <p>
+   * See {@link #chunkedJsonList(ObjectWriter, Publisher, int)} for the meaning of {@code chunkSize}.
+   *
+   * @param objectWriter the object write to use to convert stream items to their JSON representation
+   * @param stream the stream to render
+   * @param chunkSize the number of bytes to accumulate before sending a chunk
+   * @param <T> the type of item in the stream
+   * @return a renderable object
+   * @since 1.4
+   */
+  public static <T> ResponseChunks chunkedJsonSeq(ObjectWriter objectWriter, Publisher<T> stream, int chunkSize) {
+    return chunkedJson(HttpHeaderConstants.JSON_SEQ, objectWriter, stream, ChunkedJsonPublisher.Framing.JSON_SEQ, chunkSize);
+  }
 
-        @Override
-        public void complete() {
-          try {
-            generator.writeEndArray();
-            generator.close();
-            out.complete();
-          } catch (IOException e) {
-            out.error(e);
-          }
-        }
-      };
-    }));
+  private static <T> ResponseChunks chunkedJson(CharSequence contentType, ObjectWriter objectWriter, Publisher<T> stream, ChunkedJsonPublisher.Framing framing, int chunkSize) {
+    if (chunkSize < 0) {
+      throw new IllegalArgumentException("chunkSize must be >= 0 (was " + chunkSize + ")");
+    }
+    return ResponseChunks.allocatingBufferChunks(contentType, allocator ->
+      new ChunkedJsonPublisher<>(objectWriter, stream, allocator, framing, chunkSize)
+    );
   }
 
   /**
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.jackson.internal;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ratpack.stream.TransformablePublisher;
+import ratpack.stream.internal.BufferedWriteStream;
+import ratpack.stream.internal.BufferingPublisher;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serializes a stream of items as JSON, into pooled buffers that are emitted once they reach the chunk size.
+ * <p>
+ * Upstream items are only requested while there is demand for chunks.
+ * As many items may be needed to fill a chunk, they are requested in batches.
+ * The pending chunk is also emitted once the last item of a batch has been written,
+ * so that the JSON of a slow stream is not held indefinitely waiting for the chunk to fill.
+ */
+public class ChunkedJsonPublisher<T> implements TransformablePublisher<ByteBuf> {
+
+  public enum Framing {
+    /**
+     * A single JSON array.
+     */
+    ARRAY,
+
+    /**
+     * Each item followed by a line feed, as per <a href="http://ndjson.org">NDJSON</a>.
+     */
+    NDJSON,
+
+    /**
+     * Each item preceded by a record separator and followed by a line feed, as per <a href="https://tools.ietf.org/html/rfc7464">RFC 7464</a>.
+     */
+    JSON_SEQ
+  }
+
+  private static final int BATCH_SIZE = 32;
+  private static final char RECORD_SEPARATOR = '\u001E';
+  private static final char LINE_FEED = '\n';
+
+  private final ObjectWriter objectWriter;
+  private final Publisher<T> upstream;
+  private final ByteBufAllocator allocator;
+  private final Framing framing;
+  private final int chunkSize;
+
+  public ChunkedJsonPublisher(ObjectWriter objectWriter, Publisher<T> upstream, ByteBufAllocator allocator, Framing framing, int chunkSize) {
+    if (chunkSize < 0) {
+      throw new IllegalArgumentException("chunkSize must be >= 0 (was " + chunkSize + ")");
+    }
+    this.objectWriter = objectWriter;
+    this.upstream = upstream;
+    this.allocator = allocator;
+    this.framing = framing;
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super ByteBuf> subscriber) {
+    new BufferingPublisher<ByteBuf>(ByteBuf::release, (BufferedWriteStream<ByteBuf> write) -> new Writer(write)).subscribe(subscriber);
+  }
+
+  private class Writer extends OutputStream implements Subscriber<T>, Subscription {
+
+    private final BufferedWriteStream<ByteBuf> out;
+
+    private final AtomicLong wantedChunks = new AtomicLong();
+    private final AtomicLong outstandingItems = new AtomicLong(-1); // -1 until subscribed upstream
+
+    private volatile Subscription subscription;
+    private volatile boolean cancelled;
+
+    // guarded by this
+    private JsonGenerator generator;
+    private ByteBuf chunk;
+    private boolean done;
+
+    private Writer(BufferedWriteStream<ByteBuf> out) {
+      this.out = out;
+      upstream.subscribe(this);
+    }
+
+    @Override
+    public void request(long n) {
+      if (wantedChunks.addAndGet(n) < 0) {
+        wantedChunks.set(Long.MAX_VALUE);
+      }
+      requestItems();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      Subscription subscription = this.subscription;
+      if (subscription != null) {
+        subscription.cancel();
+      }
+      synchronized (this) {
+        releaseChunk();
+        done = true;
+      }
+    }
+
+    private void requestItems() {
+      if (!cancelled && wantedChunks.get() > 0 && outstandingItems.compareAndSet(0, BATCH_SIZE)) {
+        subscription.request(BATCH_SIZE);
+      }
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+      subscription = s;
+      synchronized (this) {
+        try {
+          generator = objectWriter.getFactory().createGenerator(this);
+          generator.setRootValueSeparator(null);
+          if (framing == Framing.ARRAY) {
+            generator.writeStartArray();
+          }
+        } catch (IOException e) {
+          fail(e);
+          return;
+        }
+      }
+      outstandingItems.set(0);
+      requestItems();
+    }
+
+    @Override
+    public void onNext(T item) {
+      synchronized (this) {
+        if (done) {
+          return;
+        }
+        try {
+          if (framing == Framing.JSON_SEQ) {
+            generator.writeRaw(RECORD_SEPARATOR);
+          }
+          generator.writeObject(item);
+          if (framing != Framing.ARRAY) {
+            generator.writeRaw(LINE_FEED);
+          }
+          if (chunkSize == 0 || buffered() >= chunkSize || outstandingItems.get() == 1) {
+            generator.flush();
+            emitChunk();
+          }
+        } catch (Exception e) {
+          subscription.cancel();
+          fail(e);
+          return;
+        }
+      }
+      outstandingItems.decrementAndGet();
+      requestItems();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      synchronized (this) {
+        if (!done) {
+          fail(t);
+        }
+      }
+    }
+
+    @Override
+    public void onComplete() {
+      synchronized (this) {
+        if (done) {
+          return;
+        }
+        try {
+          if (framing == Framing.ARRAY) {
+            generator.writeEndArray();
+          }
+          generator.close();
+          emitChunk();
+          done = true;
+          out.complete();
+        } catch (IOException e) {
+          fail(e);
+        }
+      }
+    }
+
+    // guarded by this
+    private int buffered() {
+      return generator.getOutputBuffered() + (chunk == null ? 0 : chunk.readableBytes());
+    }
+
+    // guarded by this
+    private void emitChunk() {
+      if (chunk != null && chunk.isReadable()) {
+        ByteBuf emit = chunk;
+        chunk = null;
+        // chunks emitted beyond demand are buffered downstream, and do not count against future demand
+        wantedChunks.getAndUpdate(wanted -> wanted > 0 && wanted != Long.MAX_VALUE ? wanted - 1 : wanted);
+        out.item(emit);
+      }
+    }
+
+    // guarded by this
+    private void fail(Throwable t) {
+      done = true;
+      releaseChunk();
+      out.error(t);
+    }
+
+    // guarded by this
+    private void releaseChunk() {
+      if (chunk != null) {
+        chunk.release();
+        chunk = null;
+      }
+    }
+
+    // The generator flushes its own buffer here, when it fills or at an item boundary
+
+    @Override
+    public void write(int b) throws IOException {
+      chunk().writeByte(b);
+    }
+
+    @Override
+    public void write(@SuppressWarnings("NullableProblems") byte[] b, int off, int len) throws IOException {
+      chunk().writeBytes(b, off, len);
+    }
+
+    private ByteBuf chunk() throws IOException {
+      if (done) {
+        throw new IOException("stream is closed");
+      }
+      if (chunk == null) {
+        chunk = allocator.directBuffer(Math.max(chunkSize, 256));
+      }
+      return chunk;
+    }
+  }
+
+}
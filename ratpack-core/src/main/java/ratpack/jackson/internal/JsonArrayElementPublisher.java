@@ -0,0 +1,273 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.jackson.internal;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ratpack.func.Action;
+import ratpack.stream.TransformablePublisher;
+import ratpack.stream.internal.BufferedWriteStream;
+import ratpack.stream.internal.BufferingPublisher;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deserializes the elements of a top level JSON array as they arrive, from a stream of bytes.
+ * <p>
+ * The bytes are scanned for the boundaries of each element, tracking nesting and strings, and each element is read individually.
+ * Only the bytes of an element that spans more than one incoming buffer are copied, so memory use is bounded by the size of the largest element.
+ * <p>
+ * Incoming buffers are requested one at a time, while there is demand for elements.
+ */
+public class JsonArrayElementPublisher<T> implements TransformablePublisher<T> {
+
+  private final Publisher<? extends ByteBuf> upstream;
+  private final ObjectReader objectReader;
+  private final ByteBufAllocator allocator;
+
+  public JsonArrayElementPublisher(Publisher<? extends ByteBuf> upstream, ObjectReader objectReader, ByteBufAllocator allocator) {
+    this.upstream = upstream;
+    this.objectReader = objectReader;
+    this.allocator = allocator;
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super T> subscriber) {
+    new BufferingPublisher<T>(Action.noop(), (BufferedWriteStream<T> write) -> new Reader(write)).subscribe(subscriber);
+  }
+
+  private class Reader implements Subscriber<ByteBuf>, Subscription {
+
+    private final BufferedWriteStream<T> out;
+
+    private final AtomicLong wanted = new AtomicLong();
+    private final AtomicBoolean requested = new AtomicBoolean(true); // true until subscribed upstream
+
+    private volatile Subscription subscription;
+    private volatile boolean cancelled;
+
+    // guarded by this
+    private boolean started;
+    private boolean finished;
+    private boolean done;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private boolean hasContent;
+    private boolean valueComplete;
+    private int elements;
+    private long position;
+    private ByteBuf partial;
+
+    private Reader(BufferedWriteStream<T> out) {
+      this.out = out;
+      upstream.subscribe(this);
+    }
+
+    @Override
+    public void request(long n) {
+      if (wanted.addAndGet(n) < 0) {
+        wanted.set(Long.MAX_VALUE);
+      }
+      requestBytes();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      Subscription subscription = this.subscription;
+      if (subscription != null) {
+        subscription.cancel();
+      }
+      synchronized (this) {
+        done = true;
+        releasePartial();
+      }
+    }
+
+    private void requestBytes() {
+      if (!cancelled && wanted.get() > 0 && requested.compareAndSet(false, true)) {
+        subscription.request(1);
+      }
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+      subscription = s;
+      requested.set(false);
+      requestBytes();
+    }
+
+    @Override
+    public void onNext(ByteBuf bytes) {
+      synchronized (this) {
+        try {
+          if (!done) {
+            scan(bytes);
+          }
+        } catch (Exception e) {
+          subscription.cancel();
+          fail(e);
+        } finally {
+          bytes.release();
+        }
+      }
+      requested.set(false);
+      requestBytes();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      synchronized (this) {
+        if (!done) {
+          fail(t);
+        }
+      }
+    }
+
+    @Override
+    public void onComplete() {
+      synchronized (this) {
+        if (done) {
+          return;
+        }
+        if (finished) {
+          done = true;
+          out.complete();
+        } else {
+          fail(error(started ? "Unexpected end of input within JSON array" : "Expected a JSON array but the input was empty"));
+        }
+      }
+    }
+
+    // guarded by this
+    private void scan(ByteBuf bytes) throws Exception {
+      int start = bytes.readerIndex();
+      int end = bytes.writerIndex();
+      int elementStart = start;
+      for (int i = start; i < end; ++i, ++position) {
+        byte b = bytes.getByte(i);
+        if (inString) {
+          if (escaped) {
+            escaped = false;
+          } else if (b == '\\') {
+            escaped = true;
+          } else if (b == '"') {
+            inString = false;
+            valueComplete = depth == 1;
+          }
+        } else if (isWhitespace(b)) {
+          valueComplete |= depth == 1 && hasContent;
+        } else if (!started) {
+          if (b != '[') {
+            throw error("Expected a JSON array");
+          }
+          started = true;
+          depth = 1;
+          elementStart = i + 1;
+        } else if (finished) {
+          throw error("Unexpected content after JSON array");
+        } else if (depth == 1 && (b == ',' || b == ']')) {
+          if (hasContent) {
+            emit(bytes, elementStart, i);
+          } else if (b == ',' || elements > 0) {
+            throw error("Expected a JSON value");
+          }
+          elementStart = i + 1;
+          hasContent = false;
+          valueComplete = false;
+          finished = b == ']';
+        } else if (valueComplete) {
+          throw error("Expected ',' or ']'");
+        } else {
+          hasContent = true;
+          if (b == '"') {
+            inString = true;
+          } else if (b == '[' || b == '{') {
+            ++depth;
+          } else if (b == ']' || b == '}') {
+            if (depth == 1) {
+              throw error("Unexpected '" + (char) b + "'");
+            }
+            valueComplete = --depth == 1;
+          }
+        }
+      }
+      if (started && !finished && hasContent) {
+        if (partial == null) {
+          partial = allocator.buffer(end - elementStart);
+        }
+        partial.writeBytes(bytes, elementStart, end - elementStart);
+      }
+    }
+
+    // guarded by this
+    private void emit(ByteBuf bytes, int elementStart, int elementEnd) throws Exception {
+      T element;
+      if (partial == null) {
+        element = read(bytes.slice(elementStart, elementEnd - elementStart));
+      } else {
+        partial.writeBytes(bytes, elementStart, elementEnd - elementStart);
+        try {
+          element = read(partial);
+        } finally {
+          releasePartial();
+        }
+      }
+      ++elements;
+      // elements emitted beyond demand are buffered downstream, and do not count against future demand
+      wanted.getAndUpdate(w -> w > 0 && w != Long.MAX_VALUE ? w - 1 : w);
+      out.item(element);
+    }
+
+    private T read(ByteBuf element) throws Exception {
+      return objectReader.readValue(new ByteBufInputStream(element));
+    }
+
+    private JsonParseException error(String message) {
+      return new JsonParseException(message + " (at byte " + position + ")", new JsonLocation(null, position, -1, -1));
+    }
+
+    // guarded by this
+    private void fail(Throwable t) {
+      done = true;
+      releasePartial();
+      out.error(t);
+    }
+
+    // guarded by this
+    private void releasePartial() {
+      if (partial != null) {
+        partial.release();
+        partial = null;
+      }
+    }
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+}
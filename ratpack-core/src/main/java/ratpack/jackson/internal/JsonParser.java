@@ -16,7 +16,6 @@
 
 package ratpack.jackson.internal;
 
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.reflect.TypeToken;
@@ -50,14 +49,10 @@ public class JsonParser extends ParserSupport<JsonParseOpts> {
     if (type.equals(JSON_NODE_TYPE)) {
       return cast(objectMapper.readTree(inputStream));
     } else {
-      return objectMapper.readValue(inputStream, toJavaType(type, objectMapper));
+      return ObjectReaders.of(objectMapper, type).readValue(inputStream);
     }
   }
 
-  private <T> JavaType toJavaType(TypeToken<T> type, ObjectMapper objectMapper) {
-    return objectMapper.getTypeFactory().constructType(type.getType());
-  }
-
   @Override
   public String toString() {
     return getClass().getName() + " (parses 'application/json' and types ending in '+json')";
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.jackson.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.reflect.TypeToken;
+
+/**
+ * Caches the object readers of each object mapper, by type.
+ * <p>
+ * Resolving the {@link com.fasterxml.jackson.databind.JavaType} and root deserializer for a type is relatively expensive, and is the same for every request.
+ * Object readers are immutable and thread safe, so can be shared.
+ * <p>
+ * Mappers are weakly referenced, so that caching does not prevent them from being collected.
+ * As each reader refers back to its mapper, readers are softly referenced, and nothing else held by the cache refers to the mapper.
+ * The readers of a discarded mapper (e.g. after a reload in development) are therefore collected once soft references are cleared, and the mapper with them.
+ */
+public abstract class ObjectReaders {
+
+  private static final int MAX_TYPES_PER_MAPPER = 1000;
+
+  private static final LoadingCache<ObjectMapper, Cache<TypeToken<?>, ObjectReader>> CACHE = Caffeine.newBuilder()
+    .weakKeys()
+    .build(objectMapper -> Caffeine.newBuilder()
+      .maximumSize(MAX_TYPES_PER_MAPPER)
+      .softValues()
+      .build()
+    );
+
+  public static ObjectReader of(ObjectMapper objectMapper, TypeToken<?> type) {
+    Cache<TypeToken<?>, ObjectReader> readers = CACHE.get(objectMapper);
+    ObjectReader reader = readers.getIfPresent(type);
+    if (reader == null) {
+      reader = objectMapper.readerFor(objectMapper.getTypeFactory().constructType(type.getType()));
+      readers.put(type, reader);
+    }
+    return reader;
+  }
+
+}
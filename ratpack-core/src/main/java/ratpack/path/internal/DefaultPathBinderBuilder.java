@@ -29,14 +29,17 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
 
   private final ImmutableList.Builder<String> tokensBuilder = ImmutableList.builder();
   private final StringBuilder pattern = new StringBuilder();
+  private final StringBuilder literalPrefix = new StringBuilder();
   private boolean addedOptional;
   private boolean addedToken;
+  private boolean addedPattern;
 
   public PathBinderBuilder tokenWithPattern(String token, String pattern) {
     if (addedOptional) {
       throw new IllegalArgumentException(String.format("Cannot add mandatory parameter %s after optional parameters", token));
     }
     addedToken = true;
+    addedPattern = true;
     tokensBuilder.add(token);
     this.pattern.append(String.format("(?:(?:^|/)(%s))", pattern));
     return this;
@@ -45,6 +48,7 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
   public PathBinderBuilder optionalTokenWithPattern(String token, String pattern) {
     addedOptional = true;
     addedToken = true;
+    addedPattern = true;
     tokensBuilder.add(token);
     this.pattern.append(String.format("(?:(?:^|/)(%s))?", pattern));
     return this;
@@ -55,6 +59,7 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
       throw new IllegalArgumentException(String.format("Cannot add mandatory parameter %s after optional parameters", token));
     }
     addedToken = true;
+    addedPattern = true;
     tokensBuilder.add(token);
     pattern.append("(?:(?:^|/)([^/?&#]+))");
     return this;
@@ -63,17 +68,22 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
   public PathBinderBuilder optionalToken(String token) {
     addedOptional = true;
     addedToken = true;
+    addedPattern = true;
     tokensBuilder.add(token);
     pattern.append("(?:(?:^|/)([^/?&#]*))?");
     return this;
   }
 
   public PathBinderBuilder literalPattern(String pattern) {
+    addedPattern = true;
     this.pattern.append("(?:(?:^|/)").append(String.format("(?:%s)", pattern)).append(")");
     return this;
   }
 
   public PathBinderBuilder literal(String literal) {
+    if (!addedPattern) {
+      literalPrefix.append(literal);
+    }
     this.pattern.append(String.format("\\Q%s\\E", literal));
     return this;
   }
@@ -81,7 +91,7 @@ public class DefaultPathBinderBuilder implements PathBinderBuilder {
   public PathBinder build(boolean exhaustive) {
     String regex = (addedToken ? "(\\Q\\E" : "(") + pattern + (addedToken ? "\\Q\\E)" : ")") + (exhaustive ? "(?:/|$)" : "(?:/.*)?");
     Pattern compiled = Pattern.compile(regex);
-    return new TokenPathBinder(tokensBuilder.build(), compiled);
+    return new TokenPathBinder(tokensBuilder.build(), compiled, literalPrefix.toString());
   }
 
   public static PathBinder parse(String path, boolean exact) {
@@ -51,10 +51,25 @@ public class PathHandler implements Handler {
     this.handler = withPop;
   }
 
+  public PathBinder getBinder() {
+    return binder;
+  }
+
+  /**
+   * The handlers to insert when the binder matches, ending with one that pops the binding.
+   */
+  Handler[] getHandlers() {
+    return handler;
+  }
+
+  Optional<PathBinding> bind(PathBinding parentBinding) {
+    return cache.get(parentBinding, binder::bind);
+  }
+
   public void handle(Context ctx) throws ExecutionException {
     PathBindingStorage pathBindings = ctx.getExecution().get(PathBindingStorage.TYPE);
     PathBinding pathBinding = pathBindings.peek();
-    Optional<PathBinding> newBinding = cache.get(pathBinding, binder::bind);
+    Optional<PathBinding> newBinding = bind(pathBinding);
 
     if (newBinding.isPresent()) {
       pathBindings.push(newBinding.get());
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.path.internal;
+
+import ratpack.handling.Context;
+import ratpack.handling.Handler;
+import ratpack.path.PathBinder;
+import ratpack.path.PathBinding;
+
+import java.util.*;
+
+/**
+ * Dispatches to the first of a run of consecutive {@link PathHandler path handlers} that binds the current path.
+ * <p>
+ * The path handlers are indexed in a trie of the literal path segments that their bindings must start with.
+ * Only the handlers found along the walk of the request path through the trie are tried, in declaration order,
+ * so the cost of finding the matching handler depends on the number of path segments rather than the number of handlers.
+ * Handlers whose binding starts with a token, or that use a binder other than {@link TokenPathBinder}, are always tried.
+ * <p>
+ * If the matched handler calls {@link Context#next()}, dispatch continues with the handlers declared after it,
+ * so the behaviour is the same as that of the uncompiled chain.
+ * <p>
+ * Enabled by {@link ratpack.server.ServerConfig#isCompiledRouting()}.
+ */
+public class PathRoutingHandler implements Handler {
+
+  private static final int[] NO_ROUTES = new int[0];
+
+  private final PathHandler[] routes;
+  private final Handler[][] inserts;
+  private final Node root = new Node();
+  private final int maxDepth;
+
+  private PathRoutingHandler(List<PathHandler> routes) {
+    this.routes = routes.toArray(new PathHandler[routes.size()]);
+    this.inserts = new Handler[this.routes.length][];
+
+    int depth = 0;
+    for (int i = 0; i < this.routes.length; ++i) {
+      Handler[] handlers = this.routes[i].getHandlers();
+      if (i + 1 < this.routes.length) {
+        int from = i + 1;
+        handlers = Arrays.copyOf(handlers, handlers.length + 1);
+        handlers[handlers.length - 1] = ctx -> route(ctx, from);
+      }
+      inserts[i] = handlers;
+      depth = Math.max(depth, root.add(literalSegments(this.routes[i].getBinder()), i));
+    }
+    this.maxDepth = depth;
+  }
+
+  /**
+   * Replaces each run of two or more consecutive path handlers with a single routing handler.
+   *
+   * @param handlers the handlers of a chain, in order
+   * @return the handlers of the chain with path handlers compiled
+   */
+  public static List<Handler> compile(List<? extends Handler> handlers) {
+    List<Handler> compiled = new ArrayList<>(handlers.size());
+    List<PathHandler> run = new ArrayList<>();
+    for (Handler handler : handlers) {
+      if (handler instanceof PathHandler) {
+        run.add((PathHandler) handler);
+      } else {
+        flush(run, compiled);
+        compiled.add(handler);
+      }
+    }
+    flush(run, compiled);
+    return compiled;
+  }
+
+  private static void flush(List<PathHandler> run, List<Handler> compiled) {
+    if (run.size() > 1) {
+      compiled.add(new PathRoutingHandler(run));
+    } else {
+      compiled.addAll(run);
+    }
+    run.clear();
+  }
+
+  private static String[] literalSegments(PathBinder binder) {
+    if (binder instanceof TokenPathBinder) {
+      String literalPrefix = ((TokenPathBinder) binder).getLiteralPrefix();
+      if (!literalPrefix.isEmpty()) {
+        return literalPrefix.split("/", -1);
+      }
+    }
+    return new String[0];
+  }
+
+  @Override
+  public void handle(Context ctx) throws Exception {
+    route(ctx, 0);
+  }
+
+  private void route(Context ctx, int from) {
+    PathBindingStorage pathBindings = ctx.getExecution().get(PathBindingStorage.TYPE);
+    PathBinding pathBinding = pathBindings.peek();
+    for (int i : candidates(pathBinding.getPastBinding(), from)) {
+      Optional<PathBinding> newBinding = routes[i].bind(pathBinding);
+      if (newBinding.isPresent()) {
+        pathBindings.push(newBinding.get());
+        ctx.insert(inserts[i]);
+        return;
+      }
+    }
+    ctx.next();
+  }
+
+  private int[] candidates(String path, int from) {
+    Node[] visited = new Node[maxDepth + 1];
+    visited[0] = root;
+    int depth = 1;
+    int count = root.routes.length;
+
+    Node node = root;
+    int start = 0;
+    while (depth < visited.length) {
+      int end = path.indexOf('/', start);
+      String segment = end == -1 ? path.substring(start) : path.substring(start, end);
+      node = node.children.get(segment);
+      if (node == null) {
+        break;
+      }
+      visited[depth++] = node;
+      count += node.routes.length;
+      if (end == -1) {
+        break;
+      }
+      start = end + 1;
+    }
+
+    int[] candidates = new int[count];
+    int size = 0;
+    for (int i = 0; i < depth; ++i) {
+      for (int route : visited[i].routes) {
+        if (route >= from) {
+          candidates[size++] = route;
+        }
+      }
+    }
+
+    // Candidates from each node are in declaration order, but not across nodes
+    if (depth > 1) {
+      Arrays.sort(candidates, 0, size);
+    }
+    return size == count ? candidates : Arrays.copyOf(candidates, size);
+  }
+
+  private static final class Node {
+    private final Map<String, Node> children = new HashMap<>();
+    private int[] routes = NO_ROUTES;
+
+    int add(String[] segments, int route) {
+      Node node = this;
+      for (String segment : segments) {
+        node = node.children.computeIfAbsent(segment, s -> new Node());
+      }
+      node.routes = Arrays.copyOf(node.routes, node.routes.length + 1);
+      node.routes[node.routes.length - 1] = route;
+      return segments.length;
+    }
+  }
+
+}
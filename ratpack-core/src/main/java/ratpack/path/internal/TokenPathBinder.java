@@ -31,10 +31,27 @@ public class TokenPathBinder implements PathBinder {
 
   private final ImmutableList<String> tokenNames;
   private final Pattern regex;
+  private final String literalPrefix;
 
   protected TokenPathBinder(ImmutableList<String> tokenNames, Pattern regex) {
+    this(tokenNames, regex, "");
+  }
+
+  protected TokenPathBinder(ImmutableList<String> tokenNames, Pattern regex, String literalPrefix) {
     this.tokenNames = tokenNames;
     this.regex = regex;
+    this.literalPrefix = literalPrefix;
+  }
+
+  /**
+   * The literal text that any path bound by this binder must start with, ending at a segment boundary.
+   * <p>
+   * Empty if the binding starts with a token or pattern.
+   *
+   * @return the literal text that any bound path must start with
+   */
+  public String getLiteralPrefix() {
+    return literalPrefix;
   }
 
   public Optional<PathBinding> bind(PathBinding parentBinding) {
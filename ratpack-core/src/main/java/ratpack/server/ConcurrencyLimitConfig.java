@@ -0,0 +1,273 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The configuration of the adaptive limit on the number of requests the server processes concurrently.
+ * <p>
+ * When the number of requests in flight reaches the limit, further requests are rejected with a {@code 503} response before any handler is invoked,
+ * so that the latency of the requests that are accepted stays bounded when traffic spikes.
+ * <p>
+ * The limit adapts to the observed latency of requests (additive increase, multiplicative decrease).
+ * Each request that completes within the {@link #getLatencyThreshold() latency threshold} while at least half of the limit is in use increases the limit by {@code 1 / limit},
+ * which grows the limit by about one per limit's worth of requests.
+ * A request that exceeds the threshold reduces the limit by the {@link #getBackoffRatio() backoff ratio}.
+ * This happens at most once for requests that were in flight at the same time, as they share the cause.
+ * The limit never leaves the range of {@link #getMinLimit() min limit} to {@link #getMaxLimit() max limit}.
+ * <p>
+ * Requests can be assigned to priority classes by path prefix, via {@link #setPriority(String, double)}.
+ * A priority class may only use its share of the limit, so that less important requests are rejected first.
+ * <p>
+ * Concurrency limiting is enabled via {@link ServerConfigBuilder#concurrencyLimit(ConcurrencyLimitConfig)}.
+ * The current limit, requests in flight and rejected requests are then available from the {@link ConcurrencyLimitStats} in the server registry.
+ *
+ * @since 1.4
+ */
+public class ConcurrencyLimitConfig {
+
+  /**
+   * The default initial limit.
+   */
+  public static final int DEFAULT_INITIAL_LIMIT = 100;
+
+  /**
+   * The default minimum limit.
+   */
+  public static final int DEFAULT_MIN_LIMIT = 10;
+
+  /**
+   * The default maximum limit.
+   */
+  public static final int DEFAULT_MAX_LIMIT = 1000;
+
+  /**
+   * The default latency above which a request is considered a sign of overload.
+   */
+  public static final Duration DEFAULT_LATENCY_THRESHOLD = Duration.ofSeconds(1);
+
+  /**
+   * The default factor that the limit is multiplied by when a request exceeds the latency threshold.
+   */
+  public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+  private int initialLimit = DEFAULT_INITIAL_LIMIT;
+  private int minLimit = DEFAULT_MIN_LIMIT;
+  private int maxLimit = DEFAULT_MAX_LIMIT;
+  private Duration latencyThreshold = DEFAULT_LATENCY_THRESHOLD;
+  private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+  private Map<String, Double> priorities = new LinkedHashMap<>();
+
+  /**
+   * Creates a configuration with the default limits, latency threshold and backoff ratio, and no priority classes.
+   *
+   * @return a configuration with the default settings
+   */
+  public static ConcurrencyLimitConfig defaults() {
+    return new ConcurrencyLimitConfig();
+  }
+
+  /**
+   * Creates a configuration with the given initial limit and latency threshold, and defaults for all other settings.
+   *
+   * @param initialLimit the number of concurrent requests to allow before any latency has been observed
+   * @param latencyThreshold the latency above which a request is considered a sign of overload
+   * @return a configuration with the given initial limit and latency threshold
+   */
+  public static ConcurrencyLimitConfig of(int initialLimit, Duration latencyThreshold) {
+    ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+    config.setInitialLimit(initialLimit);
+    config.setLatencyThreshold(latencyThreshold);
+    return config;
+  }
+
+  /**
+   * The number of concurrent requests to allow before any latency has been observed.
+   * <p>
+   * Defaults to {@link #DEFAULT_INITIAL_LIMIT}, and is constrained to be within the min and max limit.
+   *
+   * @return the number of concurrent requests to allow before any latency has been observed
+   */
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  /**
+   * Sets the number of concurrent requests to allow before any latency has been observed.
+   *
+   * @param initialLimit the number of concurrent requests to allow before any latency has been observed
+   */
+  public void setInitialLimit(int initialLimit) {
+    if (initialLimit < 1) {
+      throw new IllegalArgumentException("initialLimit must be > 0 (was " + initialLimit + ")");
+    }
+    this.initialLimit = initialLimit;
+  }
+
+  /**
+   * The limit below which the limit is never reduced.
+   * <p>
+   * Defaults to {@link #DEFAULT_MIN_LIMIT}.
+   *
+   * @return the limit below which the limit is never reduced
+   */
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  /**
+   * Sets the limit below which the limit is never reduced.
+   *
+   * @param minLimit the limit below which the limit is never reduced
+   */
+  public void setMinLimit(int minLimit) {
+    if (minLimit < 1) {
+      throw new IllegalArgumentException("minLimit must be > 0 (was " + minLimit + ")");
+    }
+    this.minLimit = minLimit;
+  }
+
+  /**
+   * The limit above which the limit is never increased.
+   * <p>
+   * Defaults to {@link #DEFAULT_MAX_LIMIT}.
+   *
+   * @return the limit above which the limit is never increased
+   */
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  /**
+   * Sets the limit above which the limit is never increased.
+   *
+   * @param maxLimit the limit above which the limit is never increased
+   */
+  public void setMaxLimit(int maxLimit) {
+    if (maxLimit < 1) {
+      throw new IllegalArgumentException("maxLimit must be > 0 (was " + maxLimit + ")");
+    }
+    this.maxLimit = maxLimit;
+  }
+
+  /**
+   * The latency above which a request is considered a sign of overload, reducing the limit.
+   * <p>
+   * Latency is measured from when the request is received until its execution completes.
+   * Defaults to {@link #DEFAULT_LATENCY_THRESHOLD}.
+   *
+   * @return the latency above which a request is considered a sign of overload
+   */
+  public Duration getLatencyThreshold() {
+    return latencyThreshold;
+  }
+
+  /**
+   * Sets the latency above which a request is considered a sign of overload.
+   *
+   * @param latencyThreshold the latency above which a request is considered a sign of overload
+   */
+  public void setLatencyThreshold(Duration latencyThreshold) {
+    if (latencyThreshold.isNegative() || latencyThreshold.isZero()) {
+      throw new IllegalArgumentException("latencyThreshold must be > 0 (was " + latencyThreshold + ")");
+    }
+    this.latencyThreshold = latencyThreshold;
+  }
+
+  /**
+   * The factor that the limit is multiplied by when a request exceeds the latency threshold.
+   * <p>
+   * Defaults to {@link #DEFAULT_BACKOFF_RATIO}.
+   *
+   * @return the factor that the limit is multiplied by when a request exceeds the latency threshold
+   */
+  public double getBackoffRatio() {
+    return backoffRatio;
+  }
+
+  /**
+   * Sets the factor that the limit is multiplied by when a request exceeds the latency threshold.
+   *
+   * @param backoffRatio the factor that the limit is multiplied by, greater than 0 and less than 1
+   */
+  public void setBackoffRatio(double backoffRatio) {
+    if (!(backoffRatio > 0 && backoffRatio < 1)) {
+      throw new IllegalArgumentException("backoffRatio must be > 0 and < 1 (was " + backoffRatio + ")");
+    }
+    this.backoffRatio = backoffRatio;
+  }
+
+  /**
+   * The share of the limit that requests may use, by path prefix.
+   * <p>
+   * Defaults to no priority classes, so that all requests may use the whole limit.
+   *
+   * @return the share of the limit that requests may use, by path prefix
+   * @see #setPriority(String, double)
+   */
+  public Map<String, Double> getPriorities() {
+    return Collections.unmodifiableMap(priorities);
+  }
+
+  /**
+   * Replaces the priority classes.
+   *
+   * @param priorities the share of the limit that requests may use, by path prefix
+   * @see #setPriority(String, double)
+   */
+  public void setPriorities(Map<String, Double> priorities) {
+    Map<String, Double> copy = new LinkedHashMap<>();
+    priorities.forEach((pathPrefix, share) -> put(copy, pathPrefix, share));
+    this.priorities = copy;
+  }
+
+  /**
+   * Assigns the requests whose path starts with the given prefix to a priority class, that may only use the given share of the limit.
+   * <p>
+   * For example, with a limit of 100, requests with a share of {@code 0.5} are rejected once 50 requests of any kind are in flight.
+   * A share greater than 1 allows requests to exceed the limit, which can be used to keep answering health checks while the server is saturated.
+   * <p>
+   * Path prefixes are matched against the raw path of the request, without the leading {@code /}, and only match whole path segments.
+   * That is, {@code "api"} matches {@code "api"} and {@code "api/users"}, but not {@code "apix"}.
+   * If more than one prefix matches, the longest is used.
+   * Requests that match no prefix may use the whole limit.
+   *
+   * @param pathPrefix the prefix of the path of the requests, such as {@code "api/reports"}
+   * @param share the share of the limit that the requests may use
+   */
+  public void setPriority(String pathPrefix, double share) {
+    put(priorities, pathPrefix, share);
+  }
+
+  private static void put(Map<String, Double> priorities, String pathPrefix, double share) {
+    if (!(share > 0)) {
+      throw new IllegalArgumentException("share of '" + pathPrefix + "' must be > 0 (was " + share + ")");
+    }
+    priorities.put(pathPrefix.startsWith("/") ? pathPrefix.substring(1) : pathPrefix, share);
+  }
+
+  @Override
+  public String toString() {
+    return "ConcurrencyLimitConfig{initialLimit=" + initialLimit + ", minLimit=" + minLimit + ", maxLimit=" + maxLimit
+      + ", latencyThreshold=" + latencyThreshold + ", backoffRatio=" + backoffRatio + ", priorities=" + priorities + "}";
+  }
+
+}
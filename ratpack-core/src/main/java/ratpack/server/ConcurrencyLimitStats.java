@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server;
+
+/**
+ * The state of the adaptive limit on the number of requests the server processes concurrently.
+ * <p>
+ * When concurrency limiting is {@link ServerConfigBuilder#concurrencyLimit(ConcurrencyLimitConfig) enabled}, an instance is available from the server registry.
+ * The values are live, and may be read from any thread.
+ *
+ * @see ConcurrencyLimitConfig
+ * @since 1.4
+ */
+public interface ConcurrencyLimitStats {
+
+  /**
+   * The current limit on the number of requests in flight.
+   *
+   * @return the current limit on the number of requests in flight
+   */
+  int getLimit();
+
+  /**
+   * The number of requests currently in flight.
+   *
+   * @return the number of requests currently in flight
+   */
+  int getInflight();
+
+  /**
+   * The number of requests that have been rejected because the limit was reached.
+   *
+   * @return the number of requests that have been rejected
+   */
+  long getRejected();
+
+}
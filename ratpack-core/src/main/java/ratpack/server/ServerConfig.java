@@ -16,11 +16,14 @@
 
 package ratpack.server;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
 import ratpack.api.Nullable;
 import ratpack.config.ConfigData;
 import ratpack.config.ConfigObject;
+import ratpack.exec.BlockingPoolConfig;
+import ratpack.exec.StallDetectionConfig;
 import ratpack.file.FileSystemBinding;
 import ratpack.func.Action;
 import ratpack.impose.Impositions;
@@ -78,6 +81,59 @@ public interface ServerConfig extends ConfigData {
    */
   int DEFAULT_MAX_CHUNK_SIZE = 8192;
 
+  /**
+   * The default maximum number of concurrent HTTP/2 streams a client may open on a single connection.
+   * <p>
+   * Defaults to {@value}.
+   *
+   * @see #getHttp2MaxConcurrentStreams()
+   * @since 1.4
+   */
+  long DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS = 100;
+
+  /**
+   * The default initial HTTP/2 flow control window size, in bytes.
+   * <p>
+   * Defaults to {@value}, the value specified by RFC 7540.
+   *
+   * @see #getHttp2InitialWindowSize()
+   * @since 1.4
+   */
+  int DEFAULT_HTTP2_INITIAL_WINDOW_SIZE = 65535;
+
+  /**
+   * The default compression level for compressed responses.
+   * <p>
+   * Defaults to {@value}.
+   *
+   * @see #getCompressionLevel()
+   * @since 1.4
+   */
+  int DEFAULT_COMPRESSION_LEVEL = 6;
+
+  /**
+   * The default minimum size, in bytes, of a response body for it to be compressed.
+   * <p>
+   * Defaults to {@value} (i.e. all responses are compressed, regardless of size).
+   *
+   * @see #getCompressionMinSize()
+   * @since 1.4
+   */
+  long DEFAULT_COMPRESSION_MIN_SIZE = 0;
+
+  /**
+   * The default mime types of responses that are not compressed, as their content is typically already compressed.
+   *
+   * @see #getCompressionExcludedMimeTypes()
+   * @since 1.4
+   */
+  ImmutableSet<String> DEFAULT_COMPRESSION_EXCLUDED_MIME_TYPES = ImmutableSet.of(
+    "image/png", "image/jpeg", "image/gif", "image/webp",
+    "video/*", "audio/*",
+    "application/zip", "application/gzip", "application/x-gzip", "application/x-bzip2", "application/x-7z-compressed",
+    "font/woff", "font/woff2", "application/font-woff"
+  );
+
   /**
    * Creates a builder configured for development mode and an ephemeral port.
    *
@@ -238,6 +294,156 @@ public interface ServerConfig extends ConfigData {
    */
   int getMaxChunkSize();
 
+  /**
+   * Whether or not the server accepts HTTP/2 connections.
+   * <p>
+   * When enabled, HTTP/2 is negotiated via ALPN for HTTPS connections (which requires a JVM that supports ALPN),
+   * and is accepted over cleartext connections either via {@code Upgrade: h2c} or when the client sends the HTTP/2 connection preface directly (i.e. “prior knowledge”).
+   * Clients that do not request HTTP/2 continue to be served over HTTP/1.1.
+   * <p>
+   * Each HTTP/2 stream is processed as an individual request, exactly as an HTTP/1.1 request would be.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @return whether or not HTTP/2 is enabled
+   * @since 1.4
+   */
+  boolean isHttp2();
+
+  /**
+   * The maximum number of concurrent streams a client may open on a single HTTP/2 connection.
+   * <p>
+   * Defaults to {@link #DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS}.
+   *
+   * @return the maximum number of concurrent streams per HTTP/2 connection
+   * @since 1.4
+   */
+  long getHttp2MaxConcurrentStreams();
+
+  /**
+   * The initial flow control window size, in bytes, for HTTP/2 streams.
+   * <p>
+   * This bounds how much request body data a client may send on a stream before the application reads it.
+   * <p>
+   * Defaults to {@link #DEFAULT_HTTP2_INITIAL_WINDOW_SIZE}.
+   *
+   * @return the initial flow control window size for HTTP/2 streams
+   * @since 1.4
+   */
+  int getHttp2InitialWindowSize();
+
+  /**
+   * The compression level (between 0 and 9) to use when compressing responses.
+   * <p>
+   * Responses are compressed (gzip or deflate) when the client accepts a compressed response,
+   * unless the response has been marked as {@link ratpack.http.Response#noCompress() not to be compressed} or already declares a content encoding.
+   * Lower levels use less CPU at the expense of larger responses.
+   * A level of {@code 0} disables response compression.
+   * <p>
+   * Defaults to {@link #DEFAULT_COMPRESSION_LEVEL}.
+   *
+   * @return the compression level for compressed responses
+   * @since 1.4
+   */
+  int getCompressionLevel();
+
+  /**
+   * The minimum size, in bytes, of a response body for it to be compressed.
+   * <p>
+   * Compressing small responses costs more CPU than the bandwidth it saves, and may even make them larger.
+   * The size is determined by the {@code Content-Length} of the response.
+   * Responses without a content length (i.e. streamed responses) are always eligible for compression.
+   * <p>
+   * Defaults to {@link #DEFAULT_COMPRESSION_MIN_SIZE}.
+   *
+   * @return the minimum size of a response body for it to be compressed
+   * @since 1.4
+   */
+  long getCompressionMinSize();
+
+  /**
+   * The mime types of responses that are eligible for compression.
+   * <p>
+   * Entries may be a specific type (e.g. {@code "text/html"}) or a wildcard subtype (e.g. {@code "text/*"}).
+   * If empty (the default), responses of any type not {@link #getCompressionExcludedMimeTypes() excluded} are eligible for compression.
+   *
+   * @return the mime types of responses that are eligible for compression
+   * @since 1.4
+   */
+  ImmutableSet<String> getCompressionMimeTypes();
+
+  /**
+   * The mime types of responses that are never compressed.
+   * <p>
+   * Entries may be a specific type (e.g. {@code "image/png"}) or a wildcard subtype (e.g. {@code "video/*"}).
+   * <p>
+   * Defaults to {@link #DEFAULT_COMPRESSION_EXCLUDED_MIME_TYPES}.
+   *
+   * @return the mime types of responses that are never compressed
+   * @since 1.4
+   */
+  ImmutableSet<String> getCompressionExcludedMimeTypes();
+
+  /**
+   * The configuration of the default pool of threads for {@link ratpack.exec.Blocking blocking} operations.
+   * <p>
+   * Defaults to an {@link BlockingPoolConfig#unbounded() unbounded} pool.
+   *
+   * @return the configuration of the default blocking pool
+   * @see ratpack.exec.ExecController#getBlockingExecutor()
+   * @since 1.4
+   */
+  BlockingPoolConfig getBlockingPool();
+
+  /**
+   * The configuration of the named pools of threads for {@link ratpack.exec.Blocking blocking} operations, in addition to the default pool.
+   * <p>
+   * Operations are performed by a named pool via {@link ratpack.exec.Blocking#get(String, ratpack.func.Factory)}.
+   * Defaults to no named pools.
+   *
+   * @return the configuration of the named blocking pools
+   * @see ratpack.exec.ExecController#getBlockingExecutor(String)
+   * @since 1.4
+   */
+  ImmutableMap<String, BlockingPoolConfig> getBlockingPools();
+
+  /**
+   * The configuration of the detection of stalled compute threads, if enabled.
+   * <p>
+   * Stall detection is disabled by default.
+   *
+   * @return the configuration of the detection of stalled compute threads, if enabled
+   * @see ratpack.exec.ExecController#getEventLoopStats()
+   * @since 1.4
+   */
+  Optional<StallDetectionConfig> getStallDetection();
+
+  /**
+   * The configuration of the adaptive limit on the number of requests processed concurrently, if enabled.
+   * <p>
+   * Concurrency limiting is disabled by default.
+   *
+   * @return the configuration of the adaptive limit on the number of requests processed concurrently, if enabled
+   * @see ConcurrencyLimitStats
+   * @since 1.4
+   */
+  Optional<ConcurrencyLimitConfig> getConcurrencyLimit();
+
+  /**
+   * Whether the path handlers of handler chains are compiled into a routing table.
+   * <p>
+   * When enabled, each run of consecutive path handlers (e.g. {@link ratpack.handling.Chain#get(String, ratpack.handling.Handler)}) in a chain
+   * is replaced by a single handler that only tries the handlers whose path could match the request path,
+   * instead of trying each in turn.
+   * The handler that is used for a request, and the behaviour of the chain, are unchanged.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @return whether the path handlers of handler chains are compiled into a routing table
+   * @since 1.4
+   */
+  boolean isCompiledRouting();
+
   /**
    * The base dir of the application, which is also the initial {@link ratpack.file.FileSystemBinding}.
    *
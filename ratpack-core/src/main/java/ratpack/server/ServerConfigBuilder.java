@@ -22,6 +22,8 @@ import ratpack.config.ConfigData;
 import ratpack.config.ConfigDataBuilder;
 import ratpack.config.ConfigSource;
 import ratpack.config.EnvironmentParser;
+import ratpack.exec.BlockingPoolConfig;
+import ratpack.exec.StallDetectionConfig;
 import ratpack.func.Action;
 import ratpack.func.Function;
 import ratpack.impose.ServerConfigImposition;
@@ -183,6 +185,149 @@ public interface ServerConfigBuilder extends ConfigDataBuilder {
    */
   ServerConfigBuilder writeSpinCount(int writeSpinCount);
 
+  /**
+   * Whether or not the server should accept HTTP/2 connections.
+   *
+   * Default value is {@code false}.
+   *
+   * @param http2 whether or not to accept HTTP/2 connections
+   * @return {@code this}
+   * @see ServerConfig#isHttp2()
+   * @since 1.4
+   */
+  ServerConfigBuilder http2(boolean http2);
+
+  /**
+   * The maximum number of concurrent streams a client may open on a single HTTP/2 connection.
+   *
+   * Default value is {@link ServerConfig#DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS}.
+   *
+   * @param maxConcurrentStreams the maximum number of concurrent streams
+   * @return {@code this}
+   * @see ServerConfig#getHttp2MaxConcurrentStreams()
+   * @since 1.4
+   */
+  ServerConfigBuilder http2MaxConcurrentStreams(long maxConcurrentStreams);
+
+  /**
+   * The initial flow control window size, in bytes, for HTTP/2 streams.
+   *
+   * Default value is {@link ServerConfig#DEFAULT_HTTP2_INITIAL_WINDOW_SIZE}.
+   *
+   * @param initialWindowSize the initial window size
+   * @return {@code this}
+   * @see ServerConfig#getHttp2InitialWindowSize()
+   * @since 1.4
+   */
+  ServerConfigBuilder http2InitialWindowSize(int initialWindowSize);
+
+  /**
+   * The compression level (between 0 and 9) to use when compressing responses.
+   *
+   * Default value is {@link ServerConfig#DEFAULT_COMPRESSION_LEVEL}.
+   *
+   * @param compressionLevel the compression level, or {@code 0} to disable response compression
+   * @return {@code this}
+   * @see ServerConfig#getCompressionLevel()
+   * @since 1.4
+   */
+  ServerConfigBuilder compressionLevel(int compressionLevel);
+
+  /**
+   * The minimum size, in bytes, of a response body for it to be compressed.
+   *
+   * Default value is {@link ServerConfig#DEFAULT_COMPRESSION_MIN_SIZE}.
+   *
+   * @param compressionMinSize the minimum size of a response body for it to be compressed
+   * @return {@code this}
+   * @see ServerConfig#getCompressionMinSize()
+   * @since 1.4
+   */
+  ServerConfigBuilder compressionMinSize(long compressionMinSize);
+
+  /**
+   * The mime types of responses that are eligible for compression.
+   *
+   * By default, responses of any type that is not excluded are eligible.
+   *
+   * @param mimeTypes the mime types of responses that are eligible for compression
+   * @return {@code this}
+   * @see ServerConfig#getCompressionMimeTypes()
+   * @since 1.4
+   */
+  ServerConfigBuilder compressionMimeTypes(Iterable<String> mimeTypes);
+
+  /**
+   * The mime types of responses that are never compressed.
+   *
+   * Default value is {@link ServerConfig#DEFAULT_COMPRESSION_EXCLUDED_MIME_TYPES}.
+   *
+   * @param mimeTypes the mime types of responses that are never compressed
+   * @return {@code this}
+   * @see ServerConfig#getCompressionExcludedMimeTypes()
+   * @since 1.4
+   */
+  ServerConfigBuilder compressionExcludedMimeTypes(Iterable<String> mimeTypes);
+
+  /**
+   * The configuration of the default pool of threads for blocking operations.
+   *
+   * Default value is an {@link BlockingPoolConfig#unbounded() unbounded} pool.
+   *
+   * @param config the configuration of the default blocking pool
+   * @return {@code this}
+   * @see ServerConfig#getBlockingPool()
+   * @since 1.4
+   */
+  ServerConfigBuilder blockingPool(BlockingPoolConfig config);
+
+  /**
+   * Adds a named pool of threads for blocking operations.
+   *
+   * @param name the name of the pool, which cannot be {@link ratpack.exec.ExecController#DEFAULT_BLOCKING_POOL "default"}
+   * @param config the configuration of the pool
+   * @return {@code this}
+   * @see ServerConfig#getBlockingPools()
+   * @since 1.4
+   */
+  ServerConfigBuilder blockingPool(String name, BlockingPoolConfig config);
+
+  /**
+   * Enables the detection of stalled compute threads.
+   *
+   * Stall detection is disabled by default.
+   *
+   * @param config the configuration of stall detection
+   * @return {@code this}
+   * @see ServerConfig#getStallDetection()
+   * @since 1.4
+   */
+  ServerConfigBuilder stallDetection(StallDetectionConfig config);
+
+  /**
+   * Enables the adaptive limit on the number of requests processed concurrently.
+   * <p>
+   * Concurrency limiting is disabled by default.
+   *
+   * @param config the configuration of the concurrency limit
+   * @return {@code this}
+   * @see ServerConfig#getConcurrencyLimit()
+   * @since 1.4
+   */
+  ServerConfigBuilder concurrencyLimit(ConcurrencyLimitConfig config);
+
+  /**
+   * Whether to compile the path handlers of handler chains into a routing table.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @param compiledRouting whether to compile the path handlers of handler chains into a routing table
+   * @return {@code this}
+   * @see ServerConfig#isCompiledRouting()
+   * @since 1.4
+   */
+  ServerConfigBuilder compiledRouting(boolean compiledRouting);
+
   /**
    * The SSL context to use if the application serves content over HTTPS.
    *
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import ratpack.server.ConcurrencyLimitConfig;
+import ratpack.server.ConcurrencyLimitStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits requests while the number in flight is below an adaptive limit.
+ * <p>
+ * Requests are admitted and released concurrently by all of the event loops.
+ * All state is held in atomics and updated with compare-and-set loops, rather than by locking.
+ *
+ * @see ConcurrencyLimitConfig
+ */
+public class ConcurrencyLimiter implements ConcurrencyLimitStats {
+
+  private final double minLimit;
+  private final double maxLimit;
+  private final long latencyThresholdNanos;
+  private final double backoffRatio;
+
+  // ordered by descending prefix length, so that the first match is the longest
+  private final String[] prefixes;
+  private final double[] shares;
+
+  private final AtomicInteger inflight = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+  private final AtomicLong limit; // double bits
+  private final AtomicLong lastBackoff;
+
+  public ConcurrencyLimiter(ConcurrencyLimitConfig config) {
+    if (config.getMinLimit() > config.getMaxLimit()) {
+      throw new IllegalArgumentException("minLimit must be <= maxLimit (was " + config.getMinLimit() + " > " + config.getMaxLimit() + ")");
+    }
+    this.minLimit = config.getMinLimit();
+    this.maxLimit = config.getMaxLimit();
+    this.latencyThresholdNanos = config.getLatencyThreshold().toNanos();
+    this.backoffRatio = config.getBackoffRatio();
+
+    List<Map.Entry<String, Double>> priorities = new ArrayList<>(config.getPriorities().entrySet());
+    priorities.sort((a, b) -> b.getKey().length() - a.getKey().length());
+    this.prefixes = new String[priorities.size()];
+    this.shares = new double[priorities.size()];
+    for (int i = 0; i < prefixes.length; ++i) {
+      prefixes[i] = priorities.get(i).getKey();
+      shares[i] = priorities.get(i).getValue();
+    }
+
+    double initialLimit = Math.min(maxLimit, Math.max(minLimit, config.getInitialLimit()));
+    this.limit = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+    this.lastBackoff = new AtomicLong(System.nanoTime());
+  }
+
+  /**
+   * Admits a request if the requests in flight are below its share of the limit.
+   * <p>
+   * Each admitted request must be {@link #release(long, boolean) released} once its response is committed, or it completes without one.
+   *
+   * @param uri the uri of the request
+   * @return whether the request was admitted
+   */
+  public boolean tryAcquire(String uri) {
+    int allowed = Math.max(1, (int) (limit() * share(uri)));
+    int current;
+    do {
+      current = inflight.get();
+      if (current >= allowed) {
+        rejected.increment();
+        return false;
+      }
+    } while (!inflight.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  /**
+   * Releases an admitted request, adapting the limit to its latency.
+   *
+   * @param startNanos the {@link System#nanoTime()} at which the request was admitted
+   * @param sample whether the latency of the request reflects the load of the server (i.e. it was not abandoned early)
+   */
+  public void release(long startNanos, boolean sample) {
+    int current = inflight.getAndDecrement();
+    if (!sample) {
+      return;
+    }
+
+    long now = System.nanoTime();
+    if (now - startNanos > latencyThresholdNanos) {
+      // requests that were in flight at the time of the last backoff were slowed by the same overload, so don't back off again for them
+      long last = lastBackoff.get();
+      if (startNanos - last > 0 && lastBackoff.compareAndSet(last, now)) {
+        backoff();
+      }
+    } else if (current * 2 >= limit()) {
+      // only grow while the limit is being used, otherwise it says nothing about what the server can handle
+      increase();
+    }
+  }
+
+  private double limit() {
+    return Double.longBitsToDouble(limit.get());
+  }
+
+  private void backoff() {
+    long bits;
+    double next;
+    do {
+      bits = limit.get();
+      next = Math.max(minLimit, Double.longBitsToDouble(bits) * backoffRatio);
+    } while (!limit.compareAndSet(bits, Double.doubleToRawLongBits(next)));
+  }
+
+  private void increase() {
+    long bits;
+    double next;
+    do {
+      bits = limit.get();
+      double current = Double.longBitsToDouble(bits);
+      next = Math.min(maxLimit, current + 1 / current);
+    } while (!limit.compareAndSet(bits, Double.doubleToRawLongBits(next)));
+  }
+
+  private double share(String uri) {
+    if (prefixes.length == 0) {
+      return 1;
+    }
+    int pathStart = pathStart(uri);
+    int pathEnd = uri.indexOf('?', pathStart);
+    if (pathEnd < 0) {
+      pathEnd = uri.length();
+    }
+    for (int i = 0; i < prefixes.length; ++i) {
+      String prefix = prefixes[i];
+      int prefixEnd = pathStart + prefix.length();
+      if (prefixEnd <= pathEnd && uri.startsWith(prefix, pathStart) && isSegmentEnd(uri, prefix, prefixEnd, pathEnd)) {
+        return shares[i];
+      }
+    }
+    return 1;
+  }
+
+  // prefixes only match whole path segments, so that "api" matches "api/users" but not "apix"
+  private static boolean isSegmentEnd(String uri, String prefix, int prefixEnd, int pathEnd) {
+    return prefixEnd == pathEnd || prefix.isEmpty() || prefix.endsWith("/") || uri.charAt(prefixEnd) == '/';
+  }
+
+  // the index of the path, after the leading '/', allowing for the absolute form of request targets (e.g. from proxies)
+  private static int pathStart(String uri) {
+    int start = 0;
+    int scheme = uri.indexOf("://");
+    if (scheme > 0 && scheme < uri.indexOf('/')) {
+      start = uri.indexOf('/', scheme + 3);
+      if (start < 0) {
+        return uri.length();
+      }
+    }
+    return uri.startsWith("/", start) ? start + 1 : start;
+  }
+
+  @Override
+  public int getLimit() {
+    return (int) limit();
+  }
+
+  @Override
+  public int getInflight() {
+    return inflight.get();
+  }
+
+  @Override
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+}
@@ -114,7 +114,9 @@ public class DefaultRatpackServer implements RatpackServer {
     }
 
     serverConfig = definitionBuild.getServerConfig();
-    execController = new DefaultExecController(serverConfig.getThreads());
+    execController = new DefaultExecController(serverConfig.getThreads(), serverConfig.getBlockingPool(), serverConfig.getBlockingPools());
+    execController.setGuardBlockingTestApis(serverConfig.isDevelopment());
+    serverConfig.getStallDetection().ifPresent(config -> execController.detectStalls(config, serverConfig.isDevelopment()));
     ChannelHandler channelHandler = buildHandler(definitionBuild);
     channel = buildChannel(serverConfig, channelHandler);
 
@@ -206,6 +208,7 @@ public class DefaultRatpackServer implements RatpackServer {
     SSLContext sslContext = serverConfig.getSslContext();
     boolean requireClientSslAuth = serverConfig.isRequireClientSslAuth();
     this.useSsl = sslContext != null;
+    Http2ChannelConfigurer http2Configurer = serverConfig.isHttp2() ? new Http2ChannelConfigurer(serverConfig, handlerAdapter) : null;
 
     ServerBootstrap serverBootstrap = new ServerBootstrap();
 
@@ -236,8 +239,9 @@ public class DefaultRatpackServer implements RatpackServer {
         @Override
         protected void initChannel(SocketChannel ch) throws Exception {
           ChannelPipeline pipeline = ch.pipeline();
+          SSLEngine sslEngine = null;
           if (sslContext != null) {
-            SSLEngine sslEngine = sslContext.createSSLEngine();
+            sslEngine = sslContext.createSSLEngine();
             sslEngine.setUseClientMode(false);
             sslEngine.setNeedClientAuth(requireClientSslAuth);
             pipeline.addLast("ssl", new SslHandler(sslEngine));
@@ -245,9 +249,12 @@ public class DefaultRatpackServer implements RatpackServer {
 
           pipeline.addLast("decoder", new HttpRequestDecoder(4096, 8192, serverConfig.getMaxChunkSize(), false));
           pipeline.addLast("encoder", new HttpResponseEncoder());
-          pipeline.addLast("deflater", new IgnorableHttpContentCompressor());
+          pipeline.addLast("deflater", new IgnorableHttpContentCompressor(serverConfig));
           pipeline.addLast("chunkedWriter", new ChunkedWriteHandler());
           pipeline.addLast("adapter", handlerAdapter);
+          if (http2Configurer != null) {
+            http2Configurer.configure(pipeline, sslEngine);
+          }
           ch.config().setAutoRead(false);
         }
       })
@@ -20,6 +20,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.*;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedNioFile;
 import io.netty.handler.stream.ChunkedNioStream;
 import io.netty.util.AttributeKey;
 import io.netty.util.ReferenceCountUtil;
@@ -39,6 +40,7 @@ import ratpack.http.SentResponse;
 import ratpack.http.internal.*;
 
 import java.io.FileInputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -56,12 +58,16 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
   };
   private static final ChannelFutureListener CHANNEL_READ = f -> f.channel().read();
 
+  // Files that can't be sent as a file region are read in chunks this large, to amortise per chunk encryption/compression overhead
+  private static final int FILE_CHUNK_SIZE = 64 * 1024;
+
   private final AtomicBoolean transmitted;
   private final Channel channel;
   private final Request ratpackRequest;
   private final HttpHeaders responseHeaders;
   private final RequestBodyAccumulator requestBodyAccumulator;
   private final boolean isSsl;
+  private final boolean isHttp2;
 
   private List<Action<? super RequestOutcome>> outcomeListeners;
 
@@ -69,6 +75,8 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
   private Instant stopTime;
 
   private Runnable onWritabilityChanged = NOOP_RUNNABLE;
+  private Runnable onConnectionClosed = NOOP_RUNNABLE;
+  private Runnable onCommitted = NOOP_RUNNABLE;
 
   public DefaultResponseTransmitter(AtomicBoolean transmitted, Channel channel, HttpRequest nettyRequest, Request ratpackRequest, HttpHeaders responseHeaders, @Nullable RequestBodyAccumulator requestBodyAccumulator) {
     this.transmitted = transmitted;
@@ -78,12 +86,14 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
     this.requestBodyAccumulator = requestBodyAccumulator;
     this.isKeepAlive = HttpUtil.isKeepAlive(nettyRequest);
     this.isSsl = channel.pipeline().get(SslHandler.class) != null;
+    this.isHttp2 = channel.pipeline().get(Http2StreamCodec.class) != null;
   }
 
   @SuppressWarnings("deprecation")
   private ChannelFuture pre(HttpResponseStatus responseStatus) {
     if (transmitted.compareAndSet(false, true)) {
       stopTime = Instant.now();
+      onCommitted.run();
 
       if (requestBodyAccumulator != null && !requestBodyAccumulator.isComplete()) {
         responseHeaders.set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
@@ -140,22 +150,38 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
   public void transmit(HttpResponseStatus status, Path file) {
     String sizeString = responseHeaders.getAsString(HttpHeaderConstants.CONTENT_LENGTH);
     long size = sizeString == null ? 0 : Long.parseLong(sizeString);
-    boolean compress = !responseHeaders.contains(HttpHeaderConstants.CONTENT_ENCODING, HttpHeaderConstants.IDENTITY, true);
+    boolean defaultFileSystem = file.getFileSystem().equals(FileSystems.getDefault());
 
-    if (!isSsl && !compress && file.getFileSystem().equals(FileSystems.getDefault())) {
+    if (!isSsl && !isHttp2 && !isCompressing() && defaultFileSystem) {
       Blocking.get(() -> new FileInputStream(file.toFile()).getChannel()).then(fileChannel -> {
         FileRegion defaultFileRegion = new DefaultFileRegion(fileChannel, 0, size);
         transmit(status, defaultFileRegion, true);
       });
+    } else if (defaultFileSystem) {
+      // Positional reads straight into pooled (direct) buffers, avoiding the intermediate heap buffer of ChunkedNioStream
+      Blocking.get(() ->
+          FileChannel.open(file)
+      ).then(fileChannel ->
+          transmit(status, new HttpChunkedInput(new ChunkedNioFile(fileChannel, 0, sizeString == null ? fileChannel.size() : size, FILE_CHUNK_SIZE)), false)
+      );
     } else {
       Blocking.get(() ->
           Files.newByteChannel(file)
       ).then(fileChannel ->
-          transmit(status, new HttpChunkedInput(new ChunkedNioStream(fileChannel)), false)
+          transmit(status, new HttpChunkedInput(new ChunkedNioStream(fileChannel, FILE_CHUNK_SIZE)), false)
       );
     }
   }
 
+  private boolean isCompressing() {
+    IgnorableHttpContentCompressor compressor = channel.pipeline().get(IgnorableHttpContentCompressor.class);
+    if (compressor == null || !compressor.isCompressible(responseHeaders)) {
+      return false;
+    }
+    String acceptEncoding = ratpackRequest.getHeaders().get(HttpHeaderConstants.ACCEPT_ENCODING);
+    return acceptEncoding != null && (acceptEncoding.contains("gzip") || acceptEncoding.contains("deflate") || acceptEncoding.contains("*"));
+  }
+
   @Override
   public Subscriber<ByteBuf> transmitter(HttpResponseStatus responseStatus) {
     return new Subscriber<ByteBuf>() {
@@ -277,6 +303,22 @@ public class DefaultResponseTransmitter implements ResponseTransmitter {
     onWritabilityChanged.run();
   }
 
+  // invoked once the status and headers of the response are about to be sent
+  public void onCommitted(Runnable onCommitted) {
+    this.onCommitted = onCommitted;
+  }
+
+  // invoked if the connection closes before the response is sent
+  public void onConnectionClosed(Runnable onConnectionClosed) {
+    this.onConnectionClosed = onConnectionClosed;
+  }
+
+  public void connectionClosed() {
+    if (!transmitted.get()) {
+      onConnectionClosed.run();
+    }
+  }
+
   @Override
   public void addOutcomeListener(Action<? super RequestOutcome> action) {
     if (outcomeListeners == null) {
@@ -16,13 +16,17 @@
 
 package ratpack.server.internal;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import ratpack.api.Nullable;
 import ratpack.config.ConfigData;
 import ratpack.config.ConfigObject;
 import ratpack.config.internal.DelegatingConfigData;
+import ratpack.exec.BlockingPoolConfig;
+import ratpack.exec.StallDetectionConfig;
 import ratpack.file.FileSystemBinding;
 import ratpack.server.NoBaseDirException;
+import ratpack.server.ConcurrencyLimitConfig;
 import ratpack.server.ServerConfig;
 
 import javax.net.ssl.SSLContext;
@@ -100,6 +104,66 @@ public class DefaultServerConfig extends DelegatingConfigData implements ServerC
     return serverConfigData.getMaxChunkSize();
   }
 
+  @Override
+  public boolean isHttp2() {
+    return serverConfigData.isHttp2();
+  }
+
+  @Override
+  public long getHttp2MaxConcurrentStreams() {
+    return serverConfigData.getHttp2MaxConcurrentStreams();
+  }
+
+  @Override
+  public int getHttp2InitialWindowSize() {
+    return serverConfigData.getHttp2InitialWindowSize();
+  }
+
+  @Override
+  public int getCompressionLevel() {
+    return serverConfigData.getCompressionLevel();
+  }
+
+  @Override
+  public long getCompressionMinSize() {
+    return serverConfigData.getCompressionMinSize();
+  }
+
+  @Override
+  public ImmutableSet<String> getCompressionMimeTypes() {
+    return serverConfigData.getCompressionMimeTypes();
+  }
+
+  @Override
+  public ImmutableSet<String> getCompressionExcludedMimeTypes() {
+    return serverConfigData.getCompressionExcludedMimeTypes();
+  }
+
+  @Override
+  public BlockingPoolConfig getBlockingPool() {
+    return serverConfigData.getBlockingPool();
+  }
+
+  @Override
+  public ImmutableMap<String, BlockingPoolConfig> getBlockingPools() {
+    return serverConfigData.getBlockingPools();
+  }
+
+  @Override
+  public Optional<StallDetectionConfig> getStallDetection() {
+    return Optional.ofNullable(serverConfigData.getStallDetection());
+  }
+
+  @Override
+  public Optional<ConcurrencyLimitConfig> getConcurrencyLimit() {
+    return Optional.ofNullable(serverConfigData.getConcurrencyLimit());
+  }
+
+  @Override
+  public boolean isCompiledRouting() {
+    return serverConfigData.isCompiledRouting();
+  }
+
   @Override
   public FileSystemBinding getBaseDir() throws NoBaseDirException {
     return baseDir.orElseThrow(() -> new NoBaseDirException("No base dir has been set"));
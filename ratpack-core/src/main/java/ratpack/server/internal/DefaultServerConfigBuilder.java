@@ -29,12 +29,16 @@ import ratpack.config.internal.DefaultConfigData;
 import ratpack.config.internal.DefaultConfigDataBuilder;
 import ratpack.config.internal.module.SSLContextDeserializer;
 import ratpack.config.internal.module.ServerConfigDataDeserializer;
+import ratpack.exec.BlockingPoolConfig;
+import ratpack.exec.ExecController;
+import ratpack.exec.StallDetectionConfig;
 import ratpack.file.FileSystemBinding;
 import ratpack.func.Action;
 import ratpack.impose.ForceDevelopmentImposition;
 import ratpack.impose.ForceServerListenPortImposition;
 import ratpack.impose.Impositions;
 import ratpack.impose.ServerConfigImposition;
+import ratpack.server.ConcurrencyLimitConfig;
 import ratpack.server.ServerConfig;
 import ratpack.server.ServerConfigBuilder;
 
@@ -158,6 +162,81 @@ public class DefaultServerConfigBuilder implements ServerConfigBuilder {
     return addToServer(n -> n.put("writeSpinCount", writeSpinCount));
   }
 
+  @Override
+  public ServerConfigBuilder http2(boolean http2) {
+    return addToServer(n -> n.put("http2", http2));
+  }
+
+  @Override
+  public ServerConfigBuilder http2MaxConcurrentStreams(long maxConcurrentStreams) {
+    if (maxConcurrentStreams < 1) {
+      throw new IllegalArgumentException("'maxConcurrentStreams' must be > 0");
+    }
+    return addToServer(n -> n.put("http2MaxConcurrentStreams", maxConcurrentStreams));
+  }
+
+  @Override
+  public ServerConfigBuilder http2InitialWindowSize(int initialWindowSize) {
+    if (initialWindowSize < 1) {
+      throw new IllegalArgumentException("'initialWindowSize' must be > 0");
+    }
+    return addToServer(n -> n.put("http2InitialWindowSize", initialWindowSize));
+  }
+
+  @Override
+  public ServerConfigBuilder compressionLevel(int compressionLevel) {
+    if (compressionLevel < 0 || compressionLevel > 9) {
+      throw new IllegalArgumentException("'compressionLevel' must be between 0 and 9");
+    }
+    return addToServer(n -> n.put("compressionLevel", compressionLevel));
+  }
+
+  @Override
+  public ServerConfigBuilder compressionMinSize(long compressionMinSize) {
+    if (compressionMinSize < 0) {
+      throw new IllegalArgumentException("'compressionMinSize' must be >= 0");
+    }
+    return addToServer(n -> n.put("compressionMinSize", compressionMinSize));
+  }
+
+  @Override
+  public ServerConfigBuilder compressionMimeTypes(Iterable<String> mimeTypes) {
+    return addToServer(n -> mimeTypes.forEach(n.putArray("compressionMimeTypes")::add));
+  }
+
+  @Override
+  public ServerConfigBuilder compressionExcludedMimeTypes(Iterable<String> mimeTypes) {
+    return addToServer(n -> mimeTypes.forEach(n.putArray("compressionExcludedMimeTypes")::add));
+  }
+
+  @Override
+  public ServerConfigBuilder blockingPool(BlockingPoolConfig config) {
+    return addToServer(n -> n.putPOJO("blockingPool", config));
+  }
+
+  @Override
+  public ServerConfigBuilder blockingPool(String name, BlockingPoolConfig config) {
+    if (name.equals(ExecController.DEFAULT_BLOCKING_POOL)) {
+      throw new IllegalArgumentException("'" + name + "' is reserved for the default blocking pool, use blockingPool(BlockingPoolConfig)");
+    }
+    return addToServer(n -> n.putObject("blockingPools").putPOJO(name, config));
+  }
+
+  @Override
+  public ServerConfigBuilder stallDetection(StallDetectionConfig config) {
+    return addToServer(n -> n.putPOJO("stallDetection", config));
+  }
+
+  @Override
+  public ServerConfigBuilder concurrencyLimit(ConcurrencyLimitConfig config) {
+    return addToServer(n -> n.putPOJO("concurrencyLimit", config));
+  }
+
+  @Override
+  public ServerConfigBuilder compiledRouting(boolean compiledRouting) {
+    return addToServer(n -> n.put("compiledRouting", compiledRouting));
+  }
+
   @Override
   public ServerConfigBuilder ssl(SSLContext sslContext) {
     return addToServer(n -> n.putPOJO("ssl", sslContext));
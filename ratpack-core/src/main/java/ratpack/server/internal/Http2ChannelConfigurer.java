@@ -0,0 +1,253 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.netty.handler.codec.http2.*;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.AsciiString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.api.Nullable;
+import ratpack.server.ServerConfig;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import java.lang.reflect.Method;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Configures server connections to switch from HTTP/1.1 to HTTP/2 when the client asks for it.
+ * <p>
+ * Cleartext connections may switch via prior knowledge (the client opens with the HTTP/2 connection preface) or via {@code Upgrade: h2c}.
+ * TLS connections switch when {@code h2} is selected via ALPN.
+ * Once switched, each stream is given its own child channel whose pipeline mirrors the HTTP/1.1 pipeline, with a {@link Http2StreamCodec} in place of the HTTP codec.
+ */
+public class Http2ChannelConfigurer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Http2ChannelConfigurer.class);
+
+  private static final String[] HTTP1_HANDLER_NAMES = {"decoder", "encoder", "deflater", "chunkedWriter", "adapter"};
+  private static final String[] APPLICATION_PROTOCOLS = {ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1};
+  private static final ByteBuf CONNECTION_PREFACE = Http2CodecUtil.connectionPrefaceBuf();
+
+  // ALPN support in the JDK is only available from Java 9 (and later Java 8 updates), so is accessed reflectively
+  private static final Method SET_APPLICATION_PROTOCOLS = findMethod(SSLParameters.class, "setApplicationProtocols", String[].class);
+  private static final Method GET_APPLICATION_PROTOCOL = findMethod(SSLEngine.class, "getApplicationProtocol");
+
+  private final ServerConfig serverConfig;
+  private final ChannelHandler streamInitializer;
+
+  public Http2ChannelConfigurer(ServerConfig serverConfig, ChannelHandler handlerAdapter) {
+    this.serverConfig = serverConfig;
+    this.streamInitializer = new StreamInitializer(serverConfig, handlerAdapter);
+    if (serverConfig.getSslContext() != null && !isAlpnAvailable()) {
+      LOGGER.warn("HTTP/2 is enabled but this JVM does not support ALPN, HTTPS connections will use HTTP/1.1");
+    }
+  }
+
+  public static boolean isAlpnAvailable() {
+    return SET_APPLICATION_PROTOCOLS != null && GET_APPLICATION_PROTOCOL != null;
+  }
+
+  /**
+   * Adds the handlers that negotiate HTTP/2 to a connection's (HTTP/1.1) pipeline.
+   *
+   * @param pipeline the connection pipeline, after all HTTP/1.1 handlers have been added
+   * @param sslEngine the engine of the connection, or {@code null} if the connection is cleartext
+   */
+  public void configure(ChannelPipeline pipeline, @Nullable SSLEngine sslEngine) throws Exception {
+    if (sslEngine == null) {
+      pipeline.addFirst("h2cPriorKnowledge", new PriorKnowledgeHandler());
+      pipeline.addAfter("encoder", "h2cUpgrade", new HttpServerUpgradeHandler(this::removeHttp1Codec, this::newUpgradeCodec, serverConfig.getMaxContentLength()));
+    } else if (isAlpnAvailable()) {
+      SSLParameters sslParameters = sslEngine.getSSLParameters();
+      SET_APPLICATION_PROTOCOLS.invoke(sslParameters, (Object) APPLICATION_PROTOCOLS);
+      sslEngine.setSSLParameters(sslParameters);
+      pipeline.addAfter("ssl", "alpn", new AlpnHandler());
+    }
+  }
+
+  private void removeHttp1Codec(ChannelHandlerContext ctx) {
+    ctx.pipeline().remove("decoder");
+    ctx.pipeline().remove("encoder");
+  }
+
+  private HttpServerUpgradeHandler.UpgradeCodec newUpgradeCodec(CharSequence protocol) {
+    if (AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)) {
+      return new UpgradeCodec(new Http2ServerUpgradeCodec(newMultiplexCodec()));
+    } else {
+      return null;
+    }
+  }
+
+  private Http2MultiplexCodec newMultiplexCodec() {
+    return new Http2MultiplexCodec(true, streamInitializer);
+  }
+
+  private void switchToHttp2(ChannelPipeline pipeline, boolean addCodec) throws Exception {
+    for (String name : HTTP1_HANDLER_NAMES) {
+      if (pipeline.get(name) != null) {
+        pipeline.remove(name);
+      }
+    }
+    if (addCodec) {
+      pipeline.addLast("http2", newMultiplexCodec());
+    }
+
+    // The multiplex codec always starts with default settings, so ours are sent (and applied when acknowledged) as a follow up
+    ChannelHandlerContext http2Context = pipeline.context(Http2ConnectionHandler.class);
+    Http2ConnectionHandler http2Handler = (Http2ConnectionHandler) http2Context.handler();
+    Http2Settings settings = new Http2Settings()
+      .maxConcurrentStreams(serverConfig.getHttp2MaxConcurrentStreams())
+      .initialWindowSize(serverConfig.getHttp2InitialWindowSize());
+    http2Handler.encoder().writeSettings(http2Context, settings, http2Context.newPromise());
+    http2Context.flush();
+
+    // Stream channels apply back pressure via flow control, so the connection itself can always be read
+    pipeline.channel().config().setAutoRead(true);
+  }
+
+  @ChannelHandler.Sharable
+  private static class StreamInitializer extends ChannelInitializer<Channel> {
+    private final ServerConfig serverConfig;
+    private final ChannelHandler handlerAdapter;
+
+    StreamInitializer(ServerConfig serverConfig, ChannelHandler handlerAdapter) {
+      this.serverConfig = serverConfig;
+      this.handlerAdapter = handlerAdapter;
+    }
+
+    @Override
+    protected void initChannel(Channel ch) throws Exception {
+      ChannelPipeline pipeline = ch.pipeline();
+      pipeline.addLast("codec", new Http2StreamCodec());
+      pipeline.addLast("deflater", new IgnorableHttpContentCompressor(serverConfig));
+      pipeline.addLast("chunkedWriter", new ChunkedWriteHandler());
+      pipeline.addLast("adapter", handlerAdapter);
+      ch.config().setAutoRead(false);
+    }
+  }
+
+  private class PriorKnowledgeHandler extends ByteToMessageDecoder {
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+      int prefaceLength = CONNECTION_PREFACE.readableBytes();
+      int length = Math.min(in.readableBytes(), prefaceLength);
+      if (!ByteBufUtil.equals(CONNECTION_PREFACE, CONNECTION_PREFACE.readerIndex(), in, in.readerIndex(), length)) {
+        ctx.pipeline().remove(this);
+      } else if (length == prefaceLength) {
+        ctx.pipeline().remove("h2cUpgrade");
+        switchToHttp2(ctx.pipeline(), true);
+        ctx.pipeline().remove(this);
+      } else if (!ctx.channel().config().isAutoRead()) {
+        ctx.read();
+      }
+    }
+  }
+
+  private class AlpnHandler extends ChannelInboundHandlerAdapter {
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+      if (evt instanceof SslHandshakeCompletionEvent) {
+        ctx.pipeline().remove(this);
+        if (((SslHandshakeCompletionEvent) evt).isSuccess()) {
+          SSLEngine sslEngine = ctx.pipeline().get(SslHandler.class).engine();
+          if (ApplicationProtocolNames.HTTP_2.equals(GET_APPLICATION_PROTOCOL.invoke(sslEngine))) {
+            switchToHttp2(ctx.pipeline(), true);
+          }
+        }
+      }
+      ctx.fireUserEventTriggered(evt);
+    }
+  }
+
+  private class UpgradeCodec implements HttpServerUpgradeHandler.UpgradeCodec {
+    private final HttpServerUpgradeHandler.UpgradeCodec delegate;
+    private Long remoteInitialWindowSize;
+
+    UpgradeCodec(HttpServerUpgradeHandler.UpgradeCodec delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Collection<CharSequence> requiredUpgradeHeaders() {
+      return delegate.requiredUpgradeHeaders();
+    }
+
+    @Override
+    public boolean prepareUpgradeResponse(ChannelHandlerContext ctx, FullHttpRequest upgradeRequest, HttpHeaders upgradeHeaders) {
+      // The client's settings are applied before the HTTP/2 handler is added to the pipeline,
+      // but applying the initial window size requires the handler to be added, so it is deferred until then
+      String settingsHeader = upgradeRequest.headers().get(Http2CodecUtil.HTTP_UPGRADE_SETTINGS_HEADER);
+      if (settingsHeader != null) {
+        try {
+          ByteBuf settings = Unpooled.wrappedBuffer(Base64.getUrlDecoder().decode(settingsHeader));
+          ByteBuf remainingSettings = Unpooled.buffer(settings.readableBytes());
+          while (settings.readableBytes() >= Http2CodecUtil.SETTING_ENTRY_LENGTH) {
+            char id = (char) settings.readUnsignedShort();
+            long value = settings.readUnsignedInt();
+            if (id == Http2CodecUtil.SETTINGS_INITIAL_WINDOW_SIZE) {
+              remoteInitialWindowSize = value;
+            } else {
+              remainingSettings.writeShort(id).writeInt((int) value);
+            }
+          }
+          upgradeRequest.headers().set(Http2CodecUtil.HTTP_UPGRADE_SETTINGS_HEADER, Base64.getUrlEncoder().withoutPadding().encodeToString(ByteBufUtil.getBytes(remainingSettings)));
+        } catch (IllegalArgumentException e) {
+          return false;
+        }
+      }
+      return delegate.prepareUpgradeResponse(ctx, upgradeRequest, upgradeHeaders);
+    }
+
+    @Override
+    public void upgradeTo(ChannelHandlerContext ctx, FullHttpRequest upgradeRequest) {
+      // The upgrade handler has already removed the HTTP/1.1 codec, and removes itself after this
+      delegate.upgradeTo(ctx, upgradeRequest);
+      try {
+        if (remoteInitialWindowSize != null) {
+          ctx.pipeline().get(Http2ConnectionHandler.class).encoder().remoteSettings(new Http2Settings().initialWindowSize(remoteInitialWindowSize.intValue()));
+        }
+        switchToHttp2(ctx.pipeline(), false);
+      } catch (Exception e) {
+        ctx.fireExceptionCaught(e);
+      }
+    }
+  }
+
+  private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+    try {
+      return type.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+}
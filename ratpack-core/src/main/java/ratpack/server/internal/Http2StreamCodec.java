@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http2.*;
+
+import java.util.List;
+
+/**
+ * Translates the frames of a single HTTP/2 stream to and from HTTP/1 style message objects.
+ * <p>
+ * This allows each stream to be processed by the same pipeline (and {@link NettyHandlerAdapter}) as an HTTP/1.1 connection.
+ */
+public class Http2StreamCodec extends MessageToMessageCodec<Http2StreamFrame, HttpObject> {
+
+  public static final HttpVersion HTTP_2 = new HttpVersion("HTTP", 2, 0, true);
+
+  private boolean requestReceived;
+  private boolean readPending;
+
+  // Stream channels drop read requests made while a frame is being delivered, or that are pending when a read completes,
+  // so a read is re-requested after each read completes until a frame is actually received.
+  @Override
+  public void read(ChannelHandlerContext ctx) throws Exception {
+    readPending = true;
+    ctx.read();
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    readPending = false;
+    super.channelRead(ctx, msg);
+  }
+
+  @Override
+  public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+    ctx.fireChannelReadComplete();
+    if (readPending) {
+      ctx.read();
+    }
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, Http2StreamFrame frame, List<Object> out) throws Exception {
+    if (frame instanceof Http2HeadersFrame) {
+      Http2HeadersFrame headersFrame = (Http2HeadersFrame) frame;
+      Http2Headers headers = headersFrame.headers();
+      if (requestReceived) {
+        LastHttpContent trailer = new DefaultLastHttpContent();
+        addHttpHeaders(headers, trailer.trailingHeaders(), true);
+        out.add(trailer);
+      } else {
+        requestReceived = true;
+        HttpRequest request = new DefaultHttpRequest(HTTP_2, HttpMethod.valueOf(headers.method().toString()), headers.path().toString(), false);
+        addHttpHeaders(headers, request.headers(), false);
+        out.add(request);
+        if (headersFrame.isEndStream()) {
+          out.add(LastHttpContent.EMPTY_LAST_CONTENT);
+        }
+      }
+    } else if (frame instanceof Http2DataFrame) {
+      Http2DataFrame dataFrame = (Http2DataFrame) frame;
+      if (dataFrame.isEndStream()) {
+        out.add(new DefaultLastHttpContent(dataFrame.content().retain(), false));
+      } else {
+        out.add(new DefaultHttpContent(dataFrame.content().retain()));
+      }
+    }
+  }
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, HttpObject msg, List<Object> out) throws Exception {
+    if (msg instanceof HttpResponse) {
+      Http2Headers headers = HttpConversionUtil.toHttp2Headers((HttpResponse) msg, false);
+      boolean endStream = msg instanceof FullHttpResponse && !((FullHttpResponse) msg).content().isReadable() && ((FullHttpResponse) msg).trailingHeaders().isEmpty();
+      out.add(new DefaultHttp2HeadersFrame(headers, endStream));
+      if (endStream) {
+        return;
+      }
+    }
+
+    if (msg instanceof LastHttpContent) {
+      LastHttpContent last = (LastHttpContent) msg;
+      if (last.trailingHeaders().isEmpty()) {
+        out.add(new DefaultHttp2DataFrame(last.content().retain(), true));
+      } else {
+        if (last.content().isReadable()) {
+          out.add(new DefaultHttp2DataFrame(last.content().retain(), false));
+        }
+        out.add(new DefaultHttp2HeadersFrame(HttpConversionUtil.toHttp2Headers(last.trailingHeaders(), false), true));
+      }
+    } else if (msg instanceof HttpContent) {
+      out.add(new DefaultHttp2DataFrame(((HttpContent) msg).content().retain(), false));
+    }
+  }
+
+  private static void addHttpHeaders(Http2Headers source, HttpHeaders destination, boolean trailer) throws Http2Exception {
+    HttpConversionUtil.addHttp2ToHttpHeaders(0, source, destination, HTTP_2, trailer, true);
+    for (HttpConversionUtil.ExtensionHeaderNames extensionHeader : HttpConversionUtil.ExtensionHeaderNames.values()) {
+      destination.remove(extensionHeader.text());
+    }
+  }
+
+}
@@ -16,13 +16,49 @@
 
 package ratpack.server.internal;
 
+import com.google.common.collect.ImmutableSet;
+import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.HttpContentCompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpObject;
 import io.netty.handler.codec.http.HttpResponse;
 import ratpack.http.internal.HttpHeaderConstants;
+import ratpack.server.ServerConfig;
+
+import java.util.List;
+import java.util.Locale;
 
 public class IgnorableHttpContentCompressor extends HttpContentCompressor {
 
+  private final boolean enabled;
+  private final long minSize;
+  private final ImmutableSet<String> mimeTypes;
+  private final ImmutableSet<String> excludedMimeTypes;
+
+  public IgnorableHttpContentCompressor(ServerConfig serverConfig) {
+    super(serverConfig.getCompressionLevel());
+    this.enabled = serverConfig.getCompressionLevel() > 0;
+    this.minSize = serverConfig.getCompressionMinSize();
+    this.mimeTypes = lowerCase(serverConfig.getCompressionMimeTypes());
+    this.excludedMimeTypes = lowerCase(serverConfig.getCompressionExcludedMimeTypes());
+  }
+
+  @Override
+  protected void encode(ChannelHandlerContext ctx, HttpObject msg, List<Object> out) throws Exception {
+    // Whether the response is compressed or not depends on what the client accepts.
+    // This is added here rather than in beginEncode(), as responses to HEAD requests, 304 and empty responses are passed through without it being called.
+    if (msg instanceof HttpResponse) {
+      HttpResponse res = (HttpResponse) msg;
+      int status = res.status().code();
+      if (status >= 200 && status != 204 && isCompressible(res.headers())) {
+        addVary(res.headers());
+      }
+    }
+    super.encode(ctx, msg, out);
+  }
+
   @SuppressWarnings("deprecation")
   @Override
   protected Result beginEncode(HttpResponse res, String acceptEncoding) throws Exception {
@@ -36,6 +72,72 @@ public class IgnorableHttpContentCompressor extends HttpContentCompressor {
       return null;
     }
 
-    return super.beginEncode(res, acceptEncoding);
+    if (!isCompressible(res.headers())) {
+      return null;
+    }
+
+    Result result = super.beginEncode(res, acceptEncoding);
+    if (result != null) {
+      // The encoded content is no longer byte for byte identical to the entity the tag was computed for
+      String etag = res.headers().get(HttpHeaderNames.ETAG);
+      if (etag != null && !etag.startsWith("W/")) {
+        res.headers().set(HttpHeaderNames.ETAG, "W/" + etag);
+      }
+    }
+    return result;
+  }
+
+  public static void addVary(HttpHeaders headers) {
+    if (!headers.contains(HttpHeaderConstants.VARY, HttpHeaderConstants.ACCEPT_ENCODING, true)) {
+      headers.add(HttpHeaderConstants.VARY, HttpHeaderConstants.ACCEPT_ENCODING);
+    }
+  }
+
+  // Whether the response may be compressed (if the client accepts it), according to the compression policy of the server config
+  public boolean isCompressible(HttpHeaders headers) {
+    if (!enabled || headers.contains(HttpHeaderConstants.CONTENT_ENCODING)) {
+      return false;
+    }
+
+    if (minSize > 0) {
+      String contentLength = headers.get(HttpHeaderConstants.CONTENT_LENGTH);
+      if (contentLength != null) {
+        try {
+          if (Long.parseLong(contentLength) < minSize) {
+            return false;
+          }
+        } catch (NumberFormatException ignore) {
+          // let the compressor deal with it
+        }
+      }
+    }
+
+    String mimeType = mimeType(headers.get(HttpHeaderConstants.CONTENT_TYPE));
+    if (mimeType != null && matches(excludedMimeTypes, mimeType)) {
+      return false;
+    }
+    return mimeTypes.isEmpty() || mimeType != null && matches(mimeTypes, mimeType);
+  }
+
+  private static boolean matches(ImmutableSet<String> patterns, String mimeType) {
+    if (patterns.contains(mimeType)) {
+      return true;
+    }
+    int slash = mimeType.indexOf('/');
+    return slash > 0 && patterns.contains(mimeType.substring(0, slash + 1) + "*");
+  }
+
+  private static String mimeType(String contentType) {
+    if (contentType == null) {
+      return null;
+    }
+    int semicolon = contentType.indexOf(';');
+    return (semicolon < 0 ? contentType : contentType.substring(0, semicolon)).trim().toLowerCase(Locale.ENGLISH);
+  }
+
+  private static ImmutableSet<String> lowerCase(ImmutableSet<String> mimeTypes) {
+    ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+    mimeTypes.forEach(mimeType -> builder.add(mimeType.trim().toLowerCase(Locale.ENGLISH)));
+    return builder.build();
   }
 }
@@ -23,10 +23,12 @@ import io.netty.channel.*;
 import io.netty.handler.codec.http.*;
 import io.netty.util.AttributeKey;
 import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ratpack.exec.ExecController;
 import ratpack.func.Action;
+import ratpack.handling.Context;
 import ratpack.handling.Handler;
 import ratpack.handling.Handlers;
 import ratpack.handling.internal.ChainHandler;
@@ -38,6 +40,7 @@ import ratpack.http.Response;
 import ratpack.http.internal.*;
 import ratpack.registry.Registry;
 import ratpack.render.internal.DefaultRenderController;
+import ratpack.server.ConcurrencyLimitStats;
 import ratpack.server.ServerConfig;
 
 import java.io.IOException;
@@ -61,12 +64,17 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
 
   private final Registry serverRegistry;
   private final boolean development;
+  private final ConcurrencyLimiter concurrencyLimiter;
 
   public NettyHandlerAdapter(Registry serverRegistry, Handler handler) throws Exception {
     this.handlers = ChainHandler.unpack(handler);
     this.serverRegistry = serverRegistry;
     this.applicationConstants = new DefaultContext.ApplicationConstants(this.serverRegistry, new DefaultRenderController(), serverRegistry.get(ExecController.class), Handlers.notFound());
     this.development = serverRegistry.get(ServerConfig.class).isDevelopment();
+    this.concurrencyLimiter = serverRegistry.maybeGet(ConcurrencyLimitStats.class)
+      .filter(ConcurrencyLimiter.class::isInstance)
+      .map(ConcurrencyLimiter.class::cast)
+      .orElse(null);
   }
 
   @Override
@@ -83,6 +91,8 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
       RequestBodyAccumulator bodyAccumulator = ctx.attr(BODY_ACCUMULATOR_KEY).get();
       if (bodyAccumulator != null) {
         bodyAccumulator.add((HttpContent) msg);
+      } else {
+        ReferenceCountUtil.release(msg);
       }
       if (msg instanceof LastHttpContent) {
         ctx.read();
@@ -103,6 +113,16 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
       return;
     }
 
+    final ConcurrencyLimitSlot concurrencyLimitSlot;
+    if (concurrencyLimiter == null) {
+      concurrencyLimitSlot = null;
+    } else if (concurrencyLimiter.tryAcquire(nettyRequest.uri())) {
+      concurrencyLimitSlot = new ConcurrencyLimitSlot(concurrencyLimiter);
+    } else {
+      sendServiceUnavailable(ctx, nettyRequest);
+      return;
+    }
+
     RequestBody requestBody = canHaveBody(nettyRequest.method()) ? new RequestBody(HttpUtil.getContentLength(nettyRequest, -1L), nettyRequest, ctx) : null;
     if (requestBody != null) {
       ctx.attr(BODY_ACCUMULATOR_KEY).set(requestBody);
@@ -131,8 +151,15 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
 
     ctx.attr(DefaultResponseTransmitter.ATTRIBUTE_KEY).set(responseTransmitter);
 
+    if (concurrencyLimitSlot != null) {
+      responseTransmitter.onCommitted(() -> concurrencyLimitSlot.release(true));
+    }
+
     Action<Action<Object>> subscribeHandler = thing -> {
       transmitted.set(true);
+      if (concurrencyLimitSlot != null) {
+        concurrencyLimitSlot.release(true);
+      }
       ctx.attr(CHANNEL_SUBSCRIBER_ATTRIBUTE_KEY).set(thing);
     };
 
@@ -147,12 +174,23 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
     final Response response = new DefaultResponse(responseHeaders, ctx.alloc(), responseTransmitter);
     requestConstants.response = response;
 
+    // no one is waiting for the response, so abandon the work of producing it
+    responseTransmitter.onConnectionClosed(() -> {
+      Context context = requestConstants.context;
+      if (context != null) {
+        context.getExecution().cancel();
+      }
+    });
+
     DefaultContext.start(channel.eventLoop(), requestConstants, serverRegistry, handlers, execution -> {
+      if (concurrencyLimitSlot != null) {
+        concurrencyLimitSlot.release(!execution.isCancelled());
+      }
       if (requestBody != null) {
         requestBody.close();
       }
       channel.attr(BODY_ACCUMULATOR_KEY).remove();
-      if (!transmitted.get()) {
+      if (!transmitted.get() && !execution.isCancelled()) {
         Handler lastHandler = requestConstants.handler;
         StringBuilder description = new StringBuilder();
         description
@@ -192,6 +230,15 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
     });
   }
 
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    DefaultResponseTransmitter responseTransmitter = ctx.attr(DefaultResponseTransmitter.ATTRIBUTE_KEY).get();
+    if (responseTransmitter != null) {
+      responseTransmitter.connectionClosed();
+    }
+    super.channelInactive(ctx);
+  }
+
   @Override
   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
     if (!isIgnorableException(cause)) {
@@ -204,7 +251,12 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
 
   @Override
   public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
-    ctx.attr(DefaultResponseTransmitter.ATTRIBUTE_KEY).get().writabilityChanged();
+    DefaultResponseTransmitter responseTransmitter = ctx.attr(DefaultResponseTransmitter.ATTRIBUTE_KEY).get();
+    if (responseTransmitter != null) {
+      responseTransmitter.writabilityChanged();
+    }
+    // for handlers added by owners of the channel, such as websockets
+    super.channelWritabilityChanged(ctx);
   }
 
   private boolean isIgnorableException(Throwable throwable) {
@@ -230,6 +282,45 @@ public class NettyHandlerAdapter extends ChannelInboundHandlerAdapter {
     ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
   }
 
+  // Sent before anything is allocated for the request, as the server is overloaded.
+  // The connection is kept open if possible, as reconnecting would add to the load.
+  /**
+   * The concurrency limit slot of a request, which is released when its response is committed, or when its execution completes without a response.
+   * <p>
+   * Long lived responses (e.g. streams and websockets) therefore only hold a slot until their status and headers are sent,
+   * and only the time taken to start responding is sampled as the latency of the request.
+   */
+  private static class ConcurrencyLimitSlot {
+    private final ConcurrencyLimiter limiter;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    ConcurrencyLimitSlot(ConcurrencyLimiter limiter) {
+      this.limiter = limiter;
+    }
+
+    void release(boolean sample) {
+      if (released.compareAndSet(false, true)) {
+        limiter.release(startNanos, sample);
+      }
+    }
+  }
+
+  private static void sendServiceUnavailable(ChannelHandlerContext ctx, HttpRequest nettyRequest) {
+    boolean keepAlive = HttpUtil.isKeepAlive(nettyRequest)
+      && !HttpUtil.isTransferEncodingChunked(nettyRequest)
+      && HttpUtil.getContentLength(nettyRequest, 0L) == 0; // otherwise the body would need to be drained
+
+    FullHttpResponse response = new DefaultFullHttpResponse(nettyRequest.protocolVersion(), HttpResponseStatus.SERVICE_UNAVAILABLE, Unpooled.EMPTY_BUFFER);
+    response.headers().set(HttpHeaderConstants.CONTENT_LENGTH, 0);
+    HttpUtil.setKeepAlive(response, keepAlive);
+
+    ChannelFuture future = ctx.writeAndFlush(response);
+    if (!keepAlive) {
+      future.addListener(ChannelFutureListener.CLOSE);
+    }
+  }
+
   private static boolean canHaveBody(HttpMethod method) {
     return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
   }
@@ -29,4 +29,9 @@ public interface RequestBodyReader {
 
   TransformablePublisher<? extends ByteBuf> readStream(long maxContentLength);
 
+  // Signals are not bound to the reading execution, for consumers that bind their own downstream signals
+  default TransformablePublisher<? extends ByteBuf> readUnboundStream(long maxContentLength) {
+    return readStream(maxContentLength);
+  }
+
 }
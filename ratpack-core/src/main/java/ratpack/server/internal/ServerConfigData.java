@@ -16,7 +16,12 @@
 
 package ratpack.server.internal;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import ratpack.exec.BlockingPoolConfig;
+import ratpack.exec.StallDetectionConfig;
 import ratpack.file.FileSystemBinding;
+import ratpack.server.ConcurrencyLimitConfig;
 import ratpack.server.ServerConfig;
 
 import javax.net.ssl.SSLContext;
@@ -42,6 +47,18 @@ public class ServerConfigData {
   private Optional<Integer> receiveBufferSize = Optional.empty();
   private Optional<Integer> writeSpinCount = Optional.empty();
   private int maxChunkSize = ServerConfig.DEFAULT_MAX_CHUNK_SIZE;
+  private boolean http2;
+  private long http2MaxConcurrentStreams = ServerConfig.DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS;
+  private int http2InitialWindowSize = ServerConfig.DEFAULT_HTTP2_INITIAL_WINDOW_SIZE;
+  private int compressionLevel = ServerConfig.DEFAULT_COMPRESSION_LEVEL;
+  private long compressionMinSize = ServerConfig.DEFAULT_COMPRESSION_MIN_SIZE;
+  private ImmutableSet<String> compressionMimeTypes = ImmutableSet.of();
+  private ImmutableSet<String> compressionExcludedMimeTypes = ServerConfig.DEFAULT_COMPRESSION_EXCLUDED_MIME_TYPES;
+  private BlockingPoolConfig blockingPool = BlockingPoolConfig.unbounded();
+  private ImmutableMap<String, BlockingPoolConfig> blockingPools = ImmutableMap.of();
+  private StallDetectionConfig stallDetection;
+  private ConcurrencyLimitConfig concurrencyLimit;
+  private boolean compiledRouting;
 
   public ServerConfigData(FileSystemBinding baseDir, int port, boolean development, URI publicAddress) {
     this.baseDir = baseDir;
@@ -162,6 +179,102 @@ public class ServerConfigData {
     this.maxChunkSize = maxChunkSize;
   }
 
+  public boolean isHttp2() {
+    return http2;
+  }
+
+  public void setHttp2(boolean http2) {
+    this.http2 = http2;
+  }
+
+  public long getHttp2MaxConcurrentStreams() {
+    return http2MaxConcurrentStreams;
+  }
+
+  public void setHttp2MaxConcurrentStreams(long http2MaxConcurrentStreams) {
+    this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+  }
+
+  public int getHttp2InitialWindowSize() {
+    return http2InitialWindowSize;
+  }
+
+  public void setHttp2InitialWindowSize(int http2InitialWindowSize) {
+    this.http2InitialWindowSize = http2InitialWindowSize;
+  }
+
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  public void setCompressionLevel(int compressionLevel) {
+    this.compressionLevel = compressionLevel;
+  }
+
+  public long getCompressionMinSize() {
+    return compressionMinSize;
+  }
+
+  public void setCompressionMinSize(long compressionMinSize) {
+    this.compressionMinSize = compressionMinSize;
+  }
+
+  public ImmutableSet<String> getCompressionMimeTypes() {
+    return compressionMimeTypes;
+  }
+
+  public void setCompressionMimeTypes(ImmutableSet<String> compressionMimeTypes) {
+    this.compressionMimeTypes = compressionMimeTypes;
+  }
+
+  public ImmutableSet<String> getCompressionExcludedMimeTypes() {
+    return compressionExcludedMimeTypes;
+  }
+
+  public void setCompressionExcludedMimeTypes(ImmutableSet<String> compressionExcludedMimeTypes) {
+    this.compressionExcludedMimeTypes = compressionExcludedMimeTypes;
+  }
+
+  public BlockingPoolConfig getBlockingPool() {
+    return blockingPool;
+  }
+
+  public void setBlockingPool(BlockingPoolConfig blockingPool) {
+    this.blockingPool = blockingPool;
+  }
+
+  public ImmutableMap<String, BlockingPoolConfig> getBlockingPools() {
+    return blockingPools;
+  }
+
+  public void setBlockingPools(ImmutableMap<String, BlockingPoolConfig> blockingPools) {
+    this.blockingPools = blockingPools;
+  }
+
+  public StallDetectionConfig getStallDetection() {
+    return stallDetection;
+  }
+
+  public void setStallDetection(StallDetectionConfig stallDetection) {
+    this.stallDetection = stallDetection;
+  }
+
+  public ConcurrencyLimitConfig getConcurrencyLimit() {
+    return concurrencyLimit;
+  }
+
+  public void setConcurrencyLimit(ConcurrencyLimitConfig concurrencyLimit) {
+    this.concurrencyLimit = concurrencyLimit;
+  }
+
+  public boolean isCompiledRouting() {
+    return compiledRouting;
+  }
+
+  public void setCompiledRouting(boolean compiledRouting) {
+    this.compiledRouting = compiledRouting;
+  }
+
   public FileSystemBinding getBaseDir() {
     return baseDir;
   }
@@ -55,7 +55,10 @@ import ratpack.render.internal.PromiseRenderer;
 import ratpack.render.internal.PublisherRenderer;
 import ratpack.render.internal.RenderableRenderer;
 import ratpack.server.*;
+import ratpack.service.Service;
+import ratpack.service.StopEvent;
 import ratpack.sse.ServerSentEventStreamClient;
+import ratpack.sse.internal.DefaultServerSentEventStreamClient;
 
 import java.nio.file.Path;
 import java.time.Clock;
@@ -94,6 +97,7 @@ public abstract class ServerRegistry {
     try {
       PromiseRenderer promiseRenderer = new PromiseRenderer();
       PublisherRenderer publisherRenderer = new PublisherRenderer();
+      HttpClient httpClient = HttpClient.httpClient(PooledByteBufAllocator.DEFAULT, serverConfig.getMaxContentLength());
 
       baseRegistryBuilder = Registry.builder()
         .add(ServerConfig.class, serverConfig)
@@ -124,8 +128,9 @@ public abstract class ServerRegistry {
           ratpackServer.stop();
           return null;
         }))
-        .add(HttpClient.class, HttpClient.httpClient(PooledByteBufAllocator.DEFAULT, serverConfig.getMaxContentLength()))
-        .add(ServerSentEventStreamClient.class, ServerSentEventStreamClient.sseStreamClient(PooledByteBufAllocator.DEFAULT))
+        .add(HttpClient.class, httpClient)
+        .add(ServerSentEventStreamClient.class, new DefaultServerSentEventStreamClient(PooledByteBufAllocator.DEFAULT, httpClient))
+        .add(Service.class, new HttpClientCloser(httpClient))
         .add(HealthCheckResultsRenderer.class, new HealthCheckResultsRenderer(PooledByteBufAllocator.DEFAULT))
         .add(RequestId.Generator.class, new UuidBasedRequestIdGenerator());
 
@@ -139,9 +144,27 @@ public abstract class ServerRegistry {
       baseRegistryBuilder.add(FileSystemBinding.class, serverConfig.getBaseDir());
     }
 
+    serverConfig.getConcurrencyLimit().ifPresent(config ->
+      baseRegistryBuilder.add(ConcurrencyLimitStats.class, new ConcurrencyLimiter(config))
+    );
+
     return baseRegistryBuilder.build();
   }
 
+  // the registry is rebuilt on reload, so the client of the previous registry must release its resources
+  private static class HttpClientCloser implements Service {
+    private final HttpClient httpClient;
+
+    HttpClientCloser(HttpClient httpClient) {
+      this.httpClient = httpClient;
+    }
+
+    @Override
+    public void onStop(StopEvent event) throws Exception {
+      httpClient.close();
+    }
+  }
+
   private static void addConfigObjects(ServerConfig serverConfig, RegistryBuilder baseRegistryBuilder) {
     for (ConfigObject<?> configObject : serverConfig.getRequiredConfig()) {
       addConfigObject(baseRegistryBuilder, configObject);
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.sse;
+
+import io.netty.buffer.ByteBuf;
+import ratpack.sse.internal.ServerSentEventEncoder;
+
+/**
+ * A server sent event that has been {@link ServerSentEvents#encode(Event) encoded} ahead of time, for sending to any number of clients.
+ * <p>
+ * Unlike {@link Event}, an encoded event cannot be changed.
+ * It can be {@link ServerSentEvents#serverSentEvents(org.reactivestreams.Publisher) rendered} any number of times,
+ * without being encoded again for each response.
+ *
+ * @param <T> the type of item of the event
+ * @see ServerSentEvents#encode(Event)
+ * @since 1.4
+ */
+public final class EncodedEvent<T> {
+
+  private final T item;
+  private final String id;
+  private final String event;
+  private final String data;
+  private final ByteBuf encoded;
+
+  EncodedEvent(Event<T> event) throws Exception {
+    this.item = event.getItem();
+    this.id = event.getId();
+    this.event = event.getEvent();
+    this.data = event.getData();
+    this.encoded = ServerSentEventEncoder.INSTANCE.encodeShared(event);
+  }
+
+  /**
+   * The stream item that the event was created for.
+   *
+   * @return the stream item that the event was created for
+   */
+  public T getItem() {
+    return item;
+  }
+
+  /**
+   * The “id” value of the event.
+   *
+   * @return the “id” value of the event, or {@code null}
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * The “event” value of the event.
+   *
+   * @return the “event” value of the event, or {@code null}
+   */
+  public String getEvent() {
+    return event;
+  }
+
+  /**
+   * The “data” value of the event.
+   *
+   * @return the “data” value of the event, or {@code null}
+   */
+  public String getData() {
+    return data;
+  }
+
+  // A new view of the encoded form, which the caller may send (and release) independently of any other
+  ByteBuf getEncoded() {
+    return encoded.duplicate();
+  }
+
+}
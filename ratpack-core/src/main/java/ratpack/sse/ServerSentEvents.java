@@ -16,6 +16,7 @@
 
 package ratpack.sse;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import org.reactivestreams.Publisher;
 import ratpack.func.Action;
@@ -26,6 +27,7 @@ import ratpack.render.Renderable;
 import ratpack.sse.internal.DefaultEvent;
 import ratpack.sse.internal.ServerSentEventEncoder;
 import ratpack.stream.Streams;
+import ratpack.stream.TransformablePublisher;
 
 /**
  * A {@link ratpack.handling.Context#render(Object) renderable} object for streaming server side events.
@@ -84,6 +86,7 @@ import ratpack.stream.Streams;
 public class ServerSentEvents implements Renderable {
 
   private final Publisher<? extends Event<?>> publisher;
+  private final Publisher<ByteBuf> encoded;
 
   /**
    * Creates a new renderable object wrapping the event stream.
@@ -100,21 +103,103 @@ public class ServerSentEvents implements Renderable {
    * @return a {@link ratpack.handling.Context#render(Object) renderable} object
    */
   public static <T> ServerSentEvents serverSentEvents(Publisher<T> publisher, Action<? super Event<T>> action) {
-    return new ServerSentEvents(Streams.map(publisher, item -> {
-      Event<T> event = action.with(new DefaultEvent<>(item));
-      if (event.getId() == null && event.getEvent() == null && event.getData() == null) {
-        throw new IllegalArgumentException("You must supply at least one of data, event, id");
-      }
-      return event;
-    }));
+    return new ServerSentEvents(Streams.map(publisher, item -> validate(action.with(new DefaultEvent<>(item)))), null);
   }
 
-  private ServerSentEvents(Publisher<? extends Event<?>> publisher) {
+  /**
+   * Creates a new renderable object wrapping a stream of events that were {@link #encode(Event) encoded} ahead of time.
+   * <p>
+   * The events are sent as is, without being encoded for each response.
+   * This allows the same events to be efficiently sent to many clients, as in the following example.
+   * <pre class="java">{@code
+   * import ratpack.sse.EncodedEvent;
+   * import ratpack.sse.ServerSentEvents;
+   * import ratpack.stream.Streams;
+   * import ratpack.stream.TransformablePublisher;
+   * import ratpack.test.embed.EmbeddedApp;
+   *
+   * import java.util.Arrays;
+   *
+   * import static org.junit.Assert.assertEquals;
+   *
+   * public class Example {
+   *   public static void main(String[] args) throws Exception {
+   *     TransformablePublisher<EncodedEvent<Integer>> ticks = ServerSentEvents.encodedEvents(
+   *       Streams.publish(Arrays.asList(1, 2, 3)),
+   *       e -> e.event("tick").data(e.getItem().toString())
+   *     );
+   *
+   *     EmbeddedApp.fromHandler(context ->
+   *       context.render(ServerSentEvents.serverSentEvents(ticks))
+   *     ).test(httpClient ->
+   *       assertEquals("event: tick\ndata: 1\n\nevent: tick\ndata: 2\n\nevent: tick\ndata: 3\n\n", httpClient.getText())
+   *     );
+   *   }
+   * }
+   * }</pre>
+   * <p>
+   * In practice, the encoded events would be {@link ratpack.stream.Streams#multicast(Publisher, int, ratpack.stream.MulticastOverflowPolicy) multicast} to all subscribed clients.
+   *
+   * @param publisher the event stream
+   * @return a {@link ratpack.handling.Context#render(Object) renderable} object
+   * @since 1.4
+   */
+  public static ServerSentEvents serverSentEvents(Publisher<? extends EncodedEvent<?>> publisher) {
+    return new ServerSentEvents(Streams.map(publisher, ServerSentEvents::decode), Streams.map(publisher, EncodedEvent::getEncoded));
+  }
+
+  /**
+   * Returns a publisher of events that are {@link #encode(Event) encoded} once, as they are emitted.
+   * <p>
+   * The action is executed for each item in the stream as it is emitted, as per {@link #serverSentEvents(Publisher, Action)}.
+   *
+   * @param publisher the event stream
+   * @param action the conversion of stream items to event objects
+   * @param <T> the type of object in the event stream
+   * @return a publisher of encoded events
+   * @see #serverSentEvents(Publisher)
+   * @since 1.4
+   */
+  public static <T> TransformablePublisher<EncodedEvent<T>> encodedEvents(Publisher<T> publisher, Action<? super Event<T>> action) {
+    return Streams.map(publisher, item -> encode(action.with(new DefaultEvent<>(item))));
+  }
+
+  /**
+   * Encodes the given event to its wire format, for sending to any number of clients.
+   * <p>
+   * When {@link #serverSentEvents(Publisher) rendered}, the encoded form is sent to each client without being encoded again.
+   * The memory used by the encoded form is reclaimed when the returned event is garbage collected.
+   *
+   * @param event the event to encode
+   * @param <T> the type of item of the event
+   * @return a read only copy of the given event that holds its encoded form
+   * @throws Exception if the event cannot be encoded
+   * @since 1.4
+   */
+  public static <T> EncodedEvent<T> encode(Event<T> event) throws Exception {
+    return new EncodedEvent<>(validate(event));
+  }
+
+  private static <T> Event<T> decode(EncodedEvent<T> event) {
+    return new DefaultEvent<>(event.getItem()).id(event.getId()).event(event.getEvent()).data(event.getData());
+  }
+
+  private static <T> Event<T> validate(Event<T> event) {
+    if (event.getId() == null && event.getEvent() == null && event.getData() == null) {
+      throw new IllegalArgumentException("You must supply at least one of data, event, id");
+    }
+    return event;
+  }
+
+  private ServerSentEvents(Publisher<? extends Event<?>> publisher, Publisher<ByteBuf> encoded) {
     this.publisher = publisher;
+    this.encoded = encoded;
   }
 
   /**
    * The stream of events.
+   * <p>
+   * For a stream of {@link #serverSentEvents(Publisher) encoded events}, each event is a copy of the corresponding encoded event.
    *
    * @return the stream of events
    */
@@ -132,7 +217,7 @@ public class ServerSentEvents implements Renderable {
     response.getHeaders().add(HttpHeaderConstants.CONTENT_TYPE, HttpHeaderConstants.TEXT_EVENT_STREAM_CHARSET_UTF_8);
     response.getHeaders().add(HttpHeaderConstants.CACHE_CONTROL, HttpHeaderConstants.NO_CACHE_FULL);
     response.getHeaders().add(HttpHeaderConstants.PRAGMA, HttpHeaderConstants.NO_CACHE);
-    response.sendStream(Streams.map(publisher, i -> ServerSentEventEncoder.INSTANCE.encode(i, bufferAllocator)));
+    response.sendStream(encoded == null ? Streams.map(publisher, i -> ServerSentEventEncoder.INSTANCE.encode(i, bufferAllocator)) : encoded);
   }
 
 }
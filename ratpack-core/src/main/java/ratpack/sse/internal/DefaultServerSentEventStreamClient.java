@@ -33,7 +33,12 @@ public class DefaultServerSentEventStreamClient implements ServerSentEventStream
   private final ByteBufAllocator byteBufAllocator;
 
   public DefaultServerSentEventStreamClient(ByteBufAllocator byteBufAllocator) {
-    this.httpClient = HttpClient.httpClient(byteBufAllocator, Integer.MAX_VALUE);
+    this(byteBufAllocator, HttpClient.httpClient(byteBufAllocator, Integer.MAX_VALUE));
+  }
+
+  // streamed responses are not subject to the max content length of the client
+  public DefaultServerSentEventStreamClient(ByteBufAllocator byteBufAllocator, HttpClient httpClient) {
+    this.httpClient = httpClient;
     this.byteBufAllocator = byteBufAllocator;
   }
 
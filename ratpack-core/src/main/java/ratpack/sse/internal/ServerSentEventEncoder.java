@@ -16,16 +16,13 @@
 
 package ratpack.sse.internal;
 
-import com.google.common.collect.Lists;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
-import io.netty.buffer.ByteBufOutputStream;
-import io.netty.util.CharsetUtil;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import ratpack.sse.Event;
 
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.nio.CharBuffer;
 
 import static io.netty.util.CharsetUtil.UTF_8;
 
@@ -36,46 +33,103 @@ public class ServerSentEventEncoder {
   private static final byte[] EVENT_TYPE_PREFIX = "event: ".getBytes(UTF_8);
   private static final byte[] EVENT_DATA_PREFIX = "data: ".getBytes(UTF_8);
   private static final byte[] EVENT_ID_PREFIX = "id: ".getBytes(UTF_8);
-  private static final byte[] NEWLINE = "\n".getBytes(UTF_8);
+  private static final byte NEWLINE = '\n';
 
   public ByteBuf encode(Event<?> event, ByteBufAllocator bufferAllocator) throws Exception {
-    ByteBuf buffer = bufferAllocator.buffer();
+    String eventType = event.getEvent();
+    String eventData = event.getData();
+    String eventId = event.getId();
 
-    OutputStream outputStream = new ByteBufOutputStream(buffer);
-    Writer writer = new OutputStreamWriter(outputStream, CharsetUtil.encoder(UTF_8));
+    ByteBuf buffer = bufferAllocator.buffer(estimateSize(eventType, eventData, eventId));
+    try {
+      if (eventType != null) {
+        buffer.writeBytes(EVENT_TYPE_PREFIX);
+        writeText(buffer, eventType);
+        buffer.writeByte(NEWLINE);
+      }
 
-    String eventType = event.getEvent();
-    if (eventType != null) {
-      outputStream.write(EVENT_TYPE_PREFIX);
-      writer.append(eventType).flush();
-      outputStream.write(NEWLINE);
+      if (eventData != null) {
+        writeData(buffer, eventData);
+      }
+
+      if (eventId != null) {
+        buffer.writeBytes(EVENT_ID_PREFIX);
+        writeText(buffer, eventId);
+        buffer.writeByte(NEWLINE);
+      }
+
+      buffer.writeByte(NEWLINE);
+      return buffer;
+    } catch (Throwable e) {
+      buffer.release();
+      throw e;
     }
+  }
 
-    String eventData = event.getData();
-    if (eventData != null) {
-      outputStream.write(EVENT_DATA_PREFIX);
-      for (Character character : Lists.charactersOf(eventData)) {
-        if (character == '\n') {
-          outputStream.write(NEWLINE);
-          outputStream.write(EVENT_DATA_PREFIX);
-        } else {
-          writer.append(character).flush();
+  /**
+   * Encodes the event into a buffer that can be sent any number of times, to any number of responses.
+   * <p>
+   * The buffer is backed by a heap array, which is reclaimed by garbage collection along with the event that holds it.
+   * It cannot be released, so each response can be sent a {@link ByteBuf#duplicate() duplicate} of it.
+   */
+  public ByteBuf encodeShared(Event<?> event) throws Exception {
+    ByteBuf encoded = encode(event, ByteBufAllocator.DEFAULT);
+    try {
+      return Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(ByteBufUtil.getBytes(encoded)));
+    } finally {
+      encoded.release();
+    }
+  }
+
+  // Each line of the data is written as a separate data field
+  private static void writeData(ByteBuf buffer, String data) {
+    int start = 0;
+    int newline = data.indexOf('\n');
+    if (newline < 0) {
+      buffer.writeBytes(EVENT_DATA_PREFIX);
+      writeText(buffer, data);
+    } else {
+      while (true) {
+        buffer.writeBytes(EVENT_DATA_PREFIX);
+        if (newline < 0) {
+          writeText(buffer, CharBuffer.wrap(data, start, data.length()));
+          break;
         }
+        writeText(buffer, CharBuffer.wrap(data, start, newline));
+        buffer.writeByte(NEWLINE);
+        start = newline + 1;
+        newline = data.indexOf('\n', start);
       }
-      outputStream.write(NEWLINE);
     }
+    buffer.writeByte(NEWLINE);
+  }
 
+  // ByteBufUtil.writeUtf8() reserves the worst case of 3 bytes per char, which would grow the estimated buffer
+  private static void writeText(ByteBuf buffer, CharSequence text) {
+    for (int i = 0; i < text.length(); ++i) {
+      if (text.charAt(i) > 0x7F) {
+        ByteBufUtil.writeUtf8(buffer, text);
+        return;
+      }
+    }
+    ByteBufUtil.writeAscii(buffer, text);
+  }
 
-    String eventId = event.getId();
+  // Exact for ASCII content, the buffer grows for anything else
+  private static int estimateSize(String eventType, String eventData, String eventId) {
+    int size = 1;
+    if (eventType != null) {
+      size += EVENT_TYPE_PREFIX.length + eventType.length() + 1;
+    }
+    if (eventData != null) {
+      size += EVENT_DATA_PREFIX.length + eventData.length() + 1;
+      for (int i = eventData.indexOf('\n'); i >= 0; i = eventData.indexOf('\n', i + 1)) {
+        size += EVENT_DATA_PREFIX.length;
+      }
+    }
     if (eventId != null) {
-      outputStream.write(EVENT_ID_PREFIX);
-      writer.append(eventId).flush();
-      outputStream.write(NEWLINE);
+      size += EVENT_ID_PREFIX.length + eventId.length() + 1;
     }
-
-    outputStream.write(NEWLINE);
-    writer.flush();
-    writer.close();
-    return buffer;
+    return size;
   }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.stream;
+
+/**
+ * A publisher that emits the items of an upstream publisher to all of its subscribers, via a buffer of fixed capacity.
+ * <p>
+ * The buffer is shared by all subscribers, each of which tracks its own position in it.
+ * The memory used is therefore bounded by the capacity, regardless of how many subscribers there are or how far they lag behind
+ * (except for {@link MulticastOverflowPolicy#DROP_NEWEST}, with which each slow subscriber keeps its own buffered items).
+ * The {@link #getOverflowPolicy() overflow policy} determines what happens when a subscriber lags by more than the capacity.
+ * <p>
+ * Reference counted items, such as {@link io.netty.buffer.ByteBuf}, are retained for each subscriber that receives them, which is responsible for releasing them.
+ * The publisher releases the reference it was given once the item is no longer buffered, including when the item is dropped.
+ * <p>
+ * A subscriber only receives items emitted after its first request.
+ * Subscriptions made after the upstream publisher has completed, successfully or with an error, receive an error.
+ *
+ * @param <T> the type of item
+ * @see Streams#multicast(org.reactivestreams.Publisher, int, MulticastOverflowPolicy)
+ * @since 1.4
+ */
+public interface BoundedMulticastPublisher<T> extends TransformablePublisher<T> {
+
+  /**
+   * The maximum number of items buffered.
+   *
+   * @return the maximum number of items buffered
+   */
+  int getCapacity();
+
+  /**
+   * What happens when an item is emitted while the buffer is full.
+   *
+   * @return the overflow policy
+   */
+  MulticastOverflowPolicy getOverflowPolicy();
+
+  /**
+   * The number of current subscribers.
+   * <p>
+   * Subscribers are counted from their first request until they cancel, complete, or are disconnected.
+   *
+   * @return the number of current subscribers
+   */
+  int getSubscriberCount();
+
+  /**
+   * The number of buffered items that the slowest subscriber has not yet received.
+   * <p>
+   * This is at most {@link #getCapacity()}.
+   *
+   * @return the number of items that the slowest subscriber is behind
+   */
+  long getMaxLag();
+
+  /**
+   * The number of items that were not received by a subscriber because of overflow, counted once for each subscriber that missed the item.
+   *
+   * @return the number of items dropped
+   */
+  long getDroppedCount();
+
+  /**
+   * The number of subscribers that have been disconnected because of overflow.
+   *
+   * @return the number of subscribers disconnected
+   */
+  long getDisconnectedCount();
+
+}
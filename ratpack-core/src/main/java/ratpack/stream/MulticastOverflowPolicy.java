@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.stream;
+
+/**
+ * What a {@link BoundedMulticastPublisher} does when an item is emitted while its buffer is full.
+ * <p>
+ * The buffer is full when the slowest subscriber has not yet received the last {@link BoundedMulticastPublisher#getCapacity() capacity} items.
+ *
+ * @see Streams#multicast(org.reactivestreams.Publisher, int, MulticastOverflowPolicy)
+ * @since 1.4
+ */
+public enum MulticastOverflowPolicy {
+
+  /**
+   * Discard the oldest buffered item to make room for the new item.
+   * <p>
+   * Subscribers that had not yet received the discarded item skip it.
+   */
+  DROP_OLDEST,
+
+  /**
+   * Discard the new item for each subscriber that has not yet received the last {@link BoundedMulticastPublisher#getCapacity() capacity} items.
+   * <p>
+   * Other subscribers receive the new item.
+   * Each subscriber that misses the new item keeps the items it had buffered, outside of the shared buffer,
+   * so memory use is bounded by the capacity for each slow subscriber rather than overall.
+   */
+  DROP_NEWEST,
+
+  /**
+   * Signal an {@link IllegalStateException} to each subscriber that has not yet received the oldest buffered item, and stop publishing to it.
+   * <p>
+   * Other subscribers are unaffected.
+   */
+  DISCONNECT,
+
+  /**
+   * Only request as many items from upstream as there is room for in the buffer.
+   * <p>
+   * The buffer never overflows, but all subscribers proceed at the pace of the slowest subscriber.
+   */
+  BACKPRESSURE
+
+}
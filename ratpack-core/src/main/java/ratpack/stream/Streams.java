@@ -457,6 +457,8 @@ public class Streams {
    * publisher or a regular indefinite stream it is unlikely to be a problem.
    * <p>
    * When a subscriber subscribes to the return publisher then it will not receive any events that have been emitted before it subscribed.
+   * <p>
+   * Use {@link #multicast(Publisher, int, MulticastOverflowPolicy)} to bound the memory used for slow subscribers.
    *
    * @param publisher a data source
    * @param <T> the type of item
@@ -466,6 +468,29 @@ public class Streams {
     return new MulticastPublisher<>(publisher);
   }
 
+  /**
+   * Returns a publisher that will stream events emitted from the given publisher to all of its subscribers, buffering at most {@code capacity} items.
+   * <p>
+   * All subscribers share a single buffer, in which each subscriber tracks its own position.
+   * Each subscriber can signal its own demand.
+   * If the slowest subscriber falls {@code capacity} items behind, the given overflow policy determines whether items are dropped,
+   * the slow subscriber is disconnected, or the given publisher is slowed down to the pace of the slowest subscriber.
+   * <p>
+   * When a subscriber subscribes to the return publisher then it will not receive any events that have been emitted before its first request.
+   * <p>
+   * The returned publisher exposes metrics about its subscribers, such as {@link BoundedMulticastPublisher#getMaxLag() how far behind the slowest subscriber is}.
+   *
+   * @param publisher a data source
+   * @param capacity the maximum number of items to buffer
+   * @param overflowPolicy what to do when an item is emitted while the buffer is full
+   * @param <T> the type of item
+   * @return a publisher that respects back pressure for each of its subscribers, using bounded memory
+   * @since 1.4
+   */
+  public static <T> BoundedMulticastPublisher<T> multicast(Publisher<T> publisher, int capacity, MulticastOverflowPolicy overflowPolicy) {
+    return new RingBufferMulticastPublisher<>(publisher, capacity, overflowPolicy);
+  }
+
   /**
    * Returns a publisher that publishes each element from Collections that are produced from the given input publisher.
    * <p>
@@ -93,6 +93,18 @@ public interface TransformablePublisher<T> extends Publisher<T> {
     return Streams.multicast(this);
   }
 
+  /**
+   * See {@link ratpack.stream.Streams#multicast(Publisher, int, MulticastOverflowPolicy)}.
+   *
+   * @param capacity the maximum number of items to buffer
+   * @param overflowPolicy what to do when an item is emitted while the buffer is full
+   * @return a publisher that respects back pressure for each of its subscribers, using bounded memory
+   * @since 1.4
+   */
+  default BoundedMulticastPublisher<T> multicast(int capacity, MulticastOverflowPolicy overflowPolicy) {
+    return Streams.multicast(this, capacity, overflowPolicy);
+  }
+
   /**
    * See {@link ratpack.stream.Streams#toPromise(Publisher)}.
    *
@@ -0,0 +1,463 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.stream.internal;
+
+import io.netty.util.ReferenceCountUtil;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ratpack.stream.BoundedMulticastPublisher;
+import ratpack.stream.MulticastOverflowPolicy;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A multicast publisher backed by a single ring buffer, with a cursor per subscriber.
+ * <p>
+ * Items are identified by their sequence number, the ring slot of which is the sequence modulo the capacity.
+ * The lowest cursor of all subscribers, and the number of subscribers at it, are maintained incrementally so that checking for overflow is constant time.
+ * <p>
+ * The ring holds a reference to each item until every cursor has passed it, or it is overwritten or dropped, at which point the item is released.
+ * Each subscriber is given its own reference to the items it receives.
+ * With {@link MulticastOverflowPolicy#DROP_NEWEST}, a subscriber that is full when an item is emitted moves its buffered items out of the ring into its own backlog,
+ * so that it can skip the new item without holding the ring back for other subscribers.
+ */
+public class RingBufferMulticastPublisher<T> implements BoundedMulticastPublisher<T> {
+
+  private final Publisher<? extends T> upstreamPublisher;
+  private final int capacity;
+  private final MulticastOverflowPolicy overflowPolicy;
+  private final int replenishThreshold;
+
+  private final AtomicBoolean upstreamSubscribed = new AtomicBoolean();
+  private volatile Subscription upstream;
+  private volatile boolean upstreamFinished;
+
+  private final List<RingSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+  // all of the following are guarded by lock
+  private final Object lock = new Object();
+  private final Object[] ring;
+  private long tail;
+  private long minCursor;
+  private int minCount;
+  private long upstreamOutstanding;
+  private boolean upstreamComplete;
+  private Throwable upstreamError;
+  private long dropped;
+  private long disconnected;
+  private int backlogged;
+
+  public RingBufferMulticastPublisher(Publisher<? extends T> upstreamPublisher, int capacity, MulticastOverflowPolicy overflowPolicy) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be > 0 (was " + capacity + ")");
+    }
+    this.upstreamPublisher = upstreamPublisher;
+    this.capacity = capacity;
+    this.overflowPolicy = overflowPolicy;
+    this.replenishThreshold = Math.max(1, capacity / 4);
+    this.ring = new Object[capacity];
+  }
+
+  @Override
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public MulticastOverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  @Override
+  public int getSubscriberCount() {
+    return subscriptions.size();
+  }
+
+  @Override
+  public long getMaxLag() {
+    synchronized (lock) {
+      return minCount == 0 ? 0 : tail - minCursor;
+    }
+  }
+
+  @Override
+  public long getDroppedCount() {
+    synchronized (lock) {
+      return dropped;
+    }
+  }
+
+  @Override
+  public long getDisconnectedCount() {
+    synchronized (lock) {
+      return disconnected;
+    }
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super T> subscriber) {
+    if (upstreamFinished) {
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+      });
+      subscriber.onError(new IllegalStateException("The upstream publisher has completed, either successfully or with error.  No further subscriptions will be accepted"));
+    } else {
+      subscriber.onSubscribe(new RingSubscription(subscriber));
+    }
+  }
+
+  private void tryUpstreamSubscribe() {
+    if (upstreamSubscribed.compareAndSet(false, true)) {
+      upstreamPublisher.subscribe(new Subscriber<T>() {
+        @Override
+        public void onSubscribe(Subscription s) {
+          upstream = s;
+          if (overflowPolicy == MulticastOverflowPolicy.BACKPRESSURE) {
+            synchronized (lock) {
+              upstreamOutstanding = capacity;
+            }
+            s.request(capacity);
+          } else {
+            s.request(Long.MAX_VALUE);
+          }
+        }
+
+        @Override
+        public void onNext(T item) {
+          publish(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+          finish(t);
+        }
+
+        @Override
+        public void onComplete() {
+          finish(null);
+        }
+      });
+    }
+  }
+
+  private void publish(T item) {
+    synchronized (lock) {
+      if (upstreamOutstanding > 0) {
+        --upstreamOutstanding;
+      }
+      boolean overflowed = minCount > 0 && (tail - minCursor >= capacity || backlogged > 0);
+      if (overflowed) {
+        overflow();
+      }
+      int index = index(tail);
+      ReferenceCountUtil.release(ring[index]);
+      ring[index] = item;
+      if (++tail - minCursor > capacity || minCount == 0 || overflowed) {
+        recomputeMinCursor();
+      }
+    }
+    drainAll();
+  }
+
+  // guarded by lock, makes room for the next item
+  private void overflow() {
+    long oldest = tail - capacity + 1;
+    switch (overflowPolicy) {
+      case DROP_NEWEST:
+        for (RingSubscription subscription : subscriptions) {
+          subscription.skipNewest();
+        }
+        return;
+      case DISCONNECT:
+        for (RingSubscription subscription : subscriptions) {
+          if (subscription.cursor < oldest && !subscription.overflowed) {
+            subscription.overflowed = true;
+            subscription.cursor = oldest;
+            ++disconnected;
+          }
+        }
+        return;
+      default:
+        // DROP_OLDEST, or an upstream that emitted more than was requested
+        for (RingSubscription subscription : subscriptions) {
+          if (subscription.cursor < oldest) {
+            dropped += oldest - subscription.cursor;
+            subscription.cursor = oldest;
+          }
+        }
+    }
+  }
+
+  private void finish(Throwable error) {
+    synchronized (lock) {
+      upstreamFinished = true;
+      upstreamComplete = error == null;
+      upstreamError = error;
+    }
+    drainAll();
+  }
+
+  private void drainAll() {
+    for (RingSubscription subscription : subscriptions) {
+      subscription.drain();
+    }
+  }
+
+  private int index(long sequence) {
+    return (int) (sequence % capacity);
+  }
+
+  // guarded by lock
+  private void recomputeMinCursor() {
+    long min = tail;
+    int count = 0;
+    for (RingSubscription subscription : subscriptions) {
+      if (subscription.cursor < min) {
+        min = subscription.cursor;
+        count = 1;
+      } else if (subscription.cursor == min) {
+        ++count;
+      }
+    }
+    setMinCursor(min, count);
+  }
+
+  // guarded by lock, releases the items that every cursor has now passed (those before the last capacity items have already been overwritten)
+  private void setMinCursor(long min, int count) {
+    for (long sequence = Math.max(minCursor, tail - capacity); sequence < min; ++sequence) {
+      int index = index(sequence);
+      Object item = ring[index];
+      ring[index] = null;
+      ReferenceCountUtil.release(item);
+    }
+    minCursor = min;
+    minCount = count;
+  }
+
+  // guarded by lock
+  private void leaveCursor(long cursor) {
+    if (cursor == minCursor && --minCount == 0) {
+      recomputeMinCursor();
+    }
+  }
+
+  // guarded by lock, returns the number of items to request from upstream
+  private long replenish() {
+    if (overflowPolicy != MulticastOverflowPolicy.BACKPRESSURE || upstream == null || upstreamFinished) {
+      return 0;
+    }
+    long buffered = minCount == 0 ? 0 : tail - minCursor;
+    long free = capacity - buffered - upstreamOutstanding;
+    if (free >= replenishThreshold || (free > 0 && upstreamOutstanding == 0)) {
+      upstreamOutstanding += free;
+      return free;
+    } else {
+      return 0;
+    }
+  }
+
+  private class RingSubscription implements Subscription {
+
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Subscriber<? super T> subscriber;
+
+    // all of the following are guarded by lock
+    private boolean joined;
+    private boolean stopped;
+    private boolean overflowed;
+    private long cursor;
+    private long requested;
+    private Throwable requestError;
+    private ArrayDeque<Object> backlog;
+
+    private RingSubscription(Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      boolean first = false;
+      synchronized (lock) {
+        if (stopped) {
+          return;
+        }
+        if (n < 1) {
+          requestError = new IllegalArgumentException("3.9 While the Subscription is not cancelled, Subscription.request(long n) MUST throw a java.lang.IllegalArgumentException if the argument is <= 0.");
+        } else {
+          requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+          if (!joined) {
+            join();
+            first = true;
+          }
+        }
+      }
+      if (first) {
+        tryUpstreamSubscribe();
+      }
+      drain();
+    }
+
+    // guarded by lock
+    private void join() {
+      joined = true;
+      cursor = tail;
+      if (minCount == 0) {
+        setMinCursor(tail, 1);
+      } else if (minCursor == tail) {
+        ++minCount;
+      }
+      subscriptions.add(this);
+    }
+
+    // guarded by lock
+    private void leave() {
+      stopped = true;
+      if (joined) {
+        subscriptions.remove(this);
+        leaveCursor(cursor);
+      }
+      if (backlog != null) {
+        backlog.forEach(ReferenceCountUtil::release);
+        clearBacklog();
+      }
+    }
+
+    // guarded by lock, skips the item about to be published if this subscriber has no room for it
+    private void skipNewest() {
+      long buffered = tail - cursor + (backlog == null ? 0 : backlog.size());
+      if (buffered < capacity) {
+        return;
+      }
+      if (cursor < tail) {
+        if (backlog == null) {
+          backlog = new ArrayDeque<>(capacity);
+          ++backlogged;
+        }
+        for (; cursor < tail; ++cursor) {
+          backlog.add(ReferenceCountUtil.retain(ring[index(cursor)]));
+        }
+      }
+      cursor = tail + 1;
+      ++dropped;
+    }
+
+    // guarded by lock
+    private void clearBacklog() {
+      backlog = null;
+      --backlogged;
+    }
+
+    @Override
+    public void cancel() {
+      long upstreamRequest;
+      synchronized (lock) {
+        if (stopped) {
+          return;
+        }
+        leave();
+        upstreamRequest = replenish();
+      }
+      if (upstreamRequest > 0) {
+        upstream.request(upstreamRequest);
+      }
+    }
+
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      while (true) {
+        while (true) {
+          T item;
+          Throwable error = null;
+          boolean complete = false;
+          long upstreamRequest = 0;
+          synchronized (lock) {
+            if (stopped) {
+              return;
+            }
+            if (requestError != null) {
+              error = requestError;
+            } else if (overflowed) {
+              error = new IllegalStateException("Subscriber was disconnected after falling more than " + capacity + " items behind");
+            } else if (upstreamError != null) {
+              error = upstreamError;
+            } else if (backlog == null && cursor == tail) {
+              complete = upstreamComplete;
+            }
+
+            if (error != null || complete) {
+              leave();
+              upstreamRequest = replenish();
+              item = null;
+            } else if (requested == 0 || (backlog == null && cursor == tail)) {
+              break;
+            } else {
+              Object next;
+              if (backlog == null) {
+                next = ReferenceCountUtil.retain(ring[index(cursor)]);
+                leaveCursor(cursor++);
+              } else {
+                next = backlog.poll();
+                if (backlog.isEmpty()) {
+                  clearBacklog();
+                }
+              }
+              @SuppressWarnings("unchecked") T cast = (T) next;
+              item = cast;
+              if (requested != Long.MAX_VALUE) {
+                --requested;
+              }
+              upstreamRequest = replenish();
+            }
+          }
+
+          if (upstreamRequest > 0) {
+            upstream.request(upstreamRequest);
+          }
+          if (error != null) {
+            subscriber.onError(error);
+            return;
+          } else if (complete) {
+            subscriber.onComplete();
+            return;
+          } else {
+            subscriber.onNext(item);
+          }
+        }
+
+        missed = wip.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+  }
+
+}
@@ -18,12 +18,15 @@ package ratpack.util.internal;
 
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
 import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 
@@ -41,6 +44,10 @@ public abstract class ChannelImplDetector {
     return EPOLL ? EpollSocketChannel.class : NioSocketChannel.class;
   }
 
+  public static Class<? extends DatagramChannel> getDatagramChannelImpl() {
+    return EPOLL ? EpollDatagramChannel.class : NioDatagramChannel.class;
+  }
+
   public static EventLoopGroup eventLoopGroup(int nThreads, ThreadFactory threadFactory) {
     return EPOLL ? new EpollEventLoopGroup(nThreads, threadFactory) : new NioEventLoopGroup(nThreads, threadFactory);
   }
@@ -29,6 +29,17 @@ public interface WebSocket {
 
   boolean isOpen();
 
+  /**
+   * Whether frames can currently be sent without being queued beyond the write buffer high water mark of the connection.
+   * <p>
+   * What happens to frames sent while this is {@code false} is determined by the {@link WebSocketOverflowPolicy} of the connection.
+   *
+   * @return whether frames can currently be sent without excessive queueing
+   * @see WebSocketSpec#writeBufferWaterMark(int, int)
+   * @since 1.4
+   */
+  boolean isWritable();
+
   @NonBlocking
   void send(String text);
 
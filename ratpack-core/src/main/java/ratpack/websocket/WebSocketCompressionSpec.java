@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket;
+
+/**
+ * Configures the <a href="https://tools.ietf.org/html/rfc7692">permessage-deflate</a> compression of a websocket connection.
+ * <p>
+ * Compression is only used if the client offers it during the handshake, and the offer is compatible with this configuration.
+ * Otherwise, the connection proceeds uncompressed.
+ *
+ * @see WebSocketSpec#compression(ratpack.func.Action)
+ * @since 1.4
+ */
+public interface WebSocketCompressionSpec {
+
+  /**
+   * The default {@link #threshold(int) threshold}, in bytes.
+   */
+  int DEFAULT_THRESHOLD = 256;
+
+  /**
+   * The deflate compression level of messages sent to the client, from {@code 0} (no compression) to {@code 9} (best compression).
+   * <p>
+   * Defaults to {@code 6}.
+   *
+   * @param compressionLevel the compression level
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec compressionLevel(int compressionLevel);
+
+  /**
+   * The size of the LZ77 sliding window that the client is asked to compress with, as {@code client_max_window_bits}, from {@code 8} to {@code 15}.
+   * <p>
+   * Smaller windows use less memory on both sides, at the cost of compression ratio.
+   * This is only requested of clients that indicate support for it.
+   * <p>
+   * Defaults to {@code 15}.
+   *
+   * @param windowBits the base 2 logarithm of the window size
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec clientMaxWindowBits(int windowBits);
+
+  /**
+   * Whether to accept a client's {@code server_max_window_bits} request to compress with a smaller window.
+   * <p>
+   * If {@code false}, compression is declined for clients that make such a request.
+   * <p>
+   * Defaults to {@code true}.
+   *
+   * @param accept whether to accept requests to use a smaller window
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec acceptServerMaxWindowBits(boolean accept);
+
+  /**
+   * Whether to ask the client not to retain its compression context between messages, as {@code client_no_context_takeover}.
+   * <p>
+   * Not retaining context reduces the memory required per connection, at the cost of compression ratio.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @param noContextTakeover whether to ask the client not to retain context
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec clientNoContextTakeover(boolean noContextTakeover);
+
+  /**
+   * Whether to accept a client's {@code server_no_context_takeover} request to not retain compression context between messages.
+   * <p>
+   * If {@code false}, compression is declined for clients that make such a request.
+   * <p>
+   * Defaults to {@code true}.
+   *
+   * @param accept whether to accept requests to not retain context
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec acceptServerNoContextTakeover(boolean accept);
+
+  /**
+   * The payload size, in bytes, below which messages are sent to the client uncompressed.
+   * <p>
+   * Compressing small messages costs more CPU than it saves in bandwidth.
+   * <p>
+   * Defaults to {@link #DEFAULT_THRESHOLD}.
+   *
+   * @param threshold the minimum size of messages to compress
+   * @return {@code this}
+   */
+  WebSocketCompressionSpec threshold(int threshold);
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import ratpack.api.NonBlocking;
+import ratpack.websocket.internal.DefaultWebSocketHub;
+
+/**
+ * A group of websockets that text frames can be sent to all at once.
+ * <p>
+ * Each frame sent is encoded once, and the same encoded bytes are written to every websocket of the hub.
+ * This makes a hub suitable for fanning out updates to large numbers of clients.
+ * <p>
+ * Websockets whose connection is not {@link WebSocket#isWritable() writable} are dealt with according to their {@link WebSocketOverflowPolicy},
+ * so that a few clients that are not reading cannot cause memory to be exhausted.
+ * The overflow policy of a hub defaults to {@link WebSocketOverflowPolicy#DROP}, and can be specified per websocket when it is {@link #add(WebSocket, WebSocketOverflowPolicy) added}.
+ * Websockets are removed from the hub when they close, or when they are closed by the {@link WebSocketOverflowPolicy#CLOSE} policy.
+ * <p>
+ * Frames sent through a hub are never {@link WebSocketSpec#compression(ratpack.func.Action) compressed}, as that would require encoding them per connection.
+ * <p>
+ * Hubs are thread safe.
+ *
+ * @since 1.4
+ */
+public interface WebSocketHub {
+
+  /**
+   * Creates a hub, that drops frames for websockets that are not writable.
+   *
+   * @param allocator the allocator to use for encoding frames
+   * @return a new hub
+   */
+  static WebSocketHub of(ByteBufAllocator allocator) {
+    return of(allocator, WebSocketOverflowPolicy.DROP);
+  }
+
+  /**
+   * Creates a hub with the given default overflow policy.
+   *
+   * @param allocator the allocator to use for encoding frames
+   * @param overflowPolicy the overflow policy for websockets added without one
+   * @return a new hub
+   */
+  static WebSocketHub of(ByteBufAllocator allocator, WebSocketOverflowPolicy overflowPolicy) {
+    return new DefaultWebSocketHub(allocator, overflowPolicy);
+  }
+
+  /**
+   * Adds the given websocket, with the default overflow policy of this hub.
+   *
+   * @param webSocket the websocket to send frames to
+   */
+  void add(WebSocket webSocket);
+
+  /**
+   * Adds the given websocket, with the given overflow policy.
+   *
+   * @param webSocket the websocket to send frames to
+   * @param overflowPolicy what to do when frames are sent to the websocket while it is not writable
+   */
+  void add(WebSocket webSocket, WebSocketOverflowPolicy overflowPolicy);
+
+  /**
+   * Removes the given websocket.
+   *
+   * @param webSocket the websocket to no longer send frames to
+   * @return whether the websocket was part of this hub
+   */
+  boolean remove(WebSocket webSocket);
+
+  /**
+   * The number of websockets in this hub.
+   *
+   * @return the number of websockets in this hub
+   */
+  int size();
+
+  /**
+   * Sends a text frame to every websocket in this hub.
+   *
+   * @param text the text to send
+   */
+  @NonBlocking
+  void send(String text);
+
+  /**
+   * Sends a text frame to every websocket in this hub.
+   * <p>
+   * The given buffer must contain UTF-8 encoded text, and is released by this method.
+   *
+   * @param text the text to send
+   */
+  @NonBlocking
+  void send(ByteBuf text);
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket;
+
+/**
+ * What to do with frames sent to a websocket whose connection is not writable.
+ * <p>
+ * A connection becomes unwritable when the amount of data queued to be written to it exceeds its write buffer high water mark,
+ * typically because the client is not reading fast enough.
+ * It becomes writable again once the queued data drops below the low water mark.
+ *
+ * @see WebSocketSpec#writeBufferWaterMark(int, int)
+ * @see WebSocket#isWritable()
+ * @since 1.4
+ */
+public enum WebSocketOverflowPolicy {
+
+  /**
+   * Queue the frame regardless, which is the default.
+   * <p>
+   * The amount of memory used for a client that is not reading is unbounded,
+   * so senders should consult {@link WebSocket#isWritable()} themselves.
+   */
+  BUFFER,
+
+  /**
+   * Discard the frame.
+   */
+  DROP,
+
+  /**
+   * Discard the frame and close the connection, with status code {@code 1008}.
+   */
+  CLOSE
+
+}
@@ -28,4 +28,40 @@ public interface WebSocketSpec<T> {
 
   WebSocketSpec<T> onMessage(Action<WebSocketMessage<T>> action);
 
+  /**
+   * The write buffer water marks of the connection, in bytes.
+   * <p>
+   * The connection becomes unwritable once more than {@code high} bytes are queued to be written,
+   * and writable again once fewer than {@code low} bytes are queued.
+   * If not specified, the defaults of the underlying channel are used.
+   *
+   * @param low the low water mark
+   * @param high the high water mark
+   * @return this
+   * @see WebSocket#isWritable()
+   * @since 1.4
+   */
+  WebSocketSpec<T> writeBufferWaterMark(int low, int high);
+
+  /**
+   * What to do with frames sent while the connection is not writable.
+   * <p>
+   * Defaults to {@link WebSocketOverflowPolicy#BUFFER}.
+   *
+   * @param overflowPolicy the overflow policy
+   * @return this
+   * @since 1.4
+   */
+  WebSocketSpec<T> overflowPolicy(WebSocketOverflowPolicy overflowPolicy);
+
+  /**
+   * Enables <a href="https://tools.ietf.org/html/rfc7692">permessage-deflate</a> compression, if the client supports it.
+   *
+   * @param action the configuration of the compression
+   * @return this
+   * @throws Exception any thrown by {@code action}
+   * @since 1.4
+   */
+  WebSocketSpec<T> compression(Action<? super WebSocketCompressionSpec> action) throws Exception;
+
 }
@@ -25,6 +25,7 @@ import ratpack.func.Function;
 import ratpack.handling.Context;
 import ratpack.server.ServerConfig;
 import ratpack.stream.Streams;
+import ratpack.websocket.internal.DefaultWebSocket;
 import ratpack.websocket.internal.DefaultWebSocketConnector;
 import ratpack.websocket.internal.WebSocketEngine;
 import ratpack.websocket.internal.WebsocketBroadcastSubscriber;
@@ -93,6 +94,9 @@ public abstract class WebSockets {
       @Override
       public AutoCloseable onOpen(final WebSocket webSocket) throws Exception {
         WebsocketBroadcastSubscriber subscriber = new WebsocketBroadcastSubscriber(webSocket);
+        if (webSocket instanceof DefaultWebSocket) {
+          ((DefaultWebSocket) webSocket).onWritabilityChanged(subscriber::writabilityChanged);
+        }
         Streams.bindExec(broadcaster).subscribe(subscriber);
         return subscriber;
       }
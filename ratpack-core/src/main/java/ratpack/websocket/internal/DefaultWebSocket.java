@@ -21,19 +21,34 @@ import io.netty.channel.Channel;
 import io.netty.handler.codec.http.websocketx.CloseWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 import ratpack.websocket.WebSocket;
+import ratpack.websocket.WebSocketOverflowPolicy;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DefaultWebSocket implements WebSocket {
 
+  static final int OVERFLOW_STATUS_CODE = 1008;
+  static final String OVERFLOW_REASON = "Client is not reading fast enough";
+
+  private static final Runnable NOOP_RUNNABLE = () -> {
+  };
+
   private final Channel channel;
   private final Runnable onClose;
   private final AtomicBoolean open;
+  private final WebSocketOverflowPolicy overflowPolicy;
+
+  private volatile Runnable onWritabilityChanged = NOOP_RUNNABLE;
 
   public DefaultWebSocket(Channel channel, AtomicBoolean open, Runnable onClose) {
+    this(channel, open, WebSocketOverflowPolicy.BUFFER, onClose);
+  }
+
+  public DefaultWebSocket(Channel channel, AtomicBoolean open, WebSocketOverflowPolicy overflowPolicy, Runnable onClose) {
     this.channel = channel;
     this.onClose = onClose;
     this.open = open;
+    this.overflowPolicy = overflowPolicy;
   }
 
   @Override
@@ -53,14 +68,49 @@ public class DefaultWebSocket implements WebSocket {
     return open.get();
   }
 
+  @Override
+  public boolean isWritable() {
+    return channel.isWritable();
+  }
+
   @Override
   public void send(String text) {
-    channel.writeAndFlush(new TextWebSocketFrame(text));
+    if (admit()) {
+      channel.writeAndFlush(new TextWebSocketFrame(text));
+    }
   }
 
   @Override
   public void send(ByteBuf text) {
-    channel.writeAndFlush(new TextWebSocketFrame(text));
+    if (admit()) {
+      channel.writeAndFlush(new TextWebSocketFrame(text));
+    } else {
+      text.release();
+    }
+  }
+
+  // Whether a frame may be written, applying the overflow policy if the channel is not writable
+  private boolean admit() {
+    if (overflowPolicy == WebSocketOverflowPolicy.BUFFER || channel.isWritable()) {
+      return true;
+    }
+    if (overflowPolicy == WebSocketOverflowPolicy.CLOSE && open.get()) {
+      close(OVERFLOW_STATUS_CODE, OVERFLOW_REASON);
+    }
+    return false;
+  }
+
+  Channel getChannel() {
+    return channel;
+  }
+
+  // Invoked on the event loop of the channel
+  public void onWritabilityChanged(Runnable onWritabilityChanged) {
+    this.onWritabilityChanged = onWritabilityChanged;
+  }
+
+  void writabilityChanged() {
+    onWritabilityChanged.run();
   }
 
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket.internal;
+
+import io.netty.channel.*;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionData;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketExtensionUtil;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateServerExtensionHandshaker;
+import ratpack.api.Nullable;
+import ratpack.websocket.WebSocketCompressionSpec;
+
+import java.util.Map;
+
+public class DefaultWebSocketCompressionSpec implements WebSocketCompressionSpec {
+
+  // the names Netty gives to the frame codec during the handshake
+  private static final String FRAME_DECODER_NAME = "wsdecoder";
+  private static final String FRAME_ENCODER_NAME = "wsencoder";
+
+  private int compressionLevel = 6;
+  private int clientMaxWindowBits = PerMessageDeflateServerExtensionHandshaker.MAX_WINDOW_SIZE;
+  private boolean acceptServerMaxWindowBits = true;
+  private boolean clientNoContextTakeover;
+  private boolean acceptServerNoContextTakeover = true;
+  private int threshold = DEFAULT_THRESHOLD;
+
+  @Override
+  public WebSocketCompressionSpec compressionLevel(int compressionLevel) {
+    if (compressionLevel < 0 || compressionLevel > 9) {
+      throw new IllegalArgumentException("compressionLevel must be between 0 and 9 (was " + compressionLevel + ")");
+    }
+    this.compressionLevel = compressionLevel;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec clientMaxWindowBits(int windowBits) {
+    if (windowBits < PerMessageDeflateServerExtensionHandshaker.MIN_WINDOW_SIZE || windowBits > PerMessageDeflateServerExtensionHandshaker.MAX_WINDOW_SIZE) {
+      throw new IllegalArgumentException("windowBits must be between " + PerMessageDeflateServerExtensionHandshaker.MIN_WINDOW_SIZE + " and " + PerMessageDeflateServerExtensionHandshaker.MAX_WINDOW_SIZE + " (was " + windowBits + ")");
+    }
+    this.clientMaxWindowBits = windowBits;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec acceptServerMaxWindowBits(boolean accept) {
+    this.acceptServerMaxWindowBits = accept;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec clientNoContextTakeover(boolean noContextTakeover) {
+    this.clientNoContextTakeover = noContextTakeover;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec acceptServerNoContextTakeover(boolean accept) {
+    this.acceptServerNoContextTakeover = accept;
+    return this;
+  }
+
+  @Override
+  public WebSocketCompressionSpec threshold(int threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("threshold must be >= 0 (was " + threshold + ")");
+    }
+    this.threshold = threshold;
+    return this;
+  }
+
+  /**
+   * Selects the first offer in the given {@code Sec-WebSocket-Extensions} request header that is compatible with this configuration.
+   * <p>
+   * If one is found, the response header is added to {@code responseHeaders}.
+   */
+  @Nullable
+  WebSocketServerExtension negotiate(@Nullable String extensionsHeader, HttpHeaders responseHeaders) {
+    if (extensionsHeader == null || extensionsHeader.isEmpty()) {
+      return null;
+    }
+
+    PerMessageDeflateServerExtensionHandshaker handshaker = new PerMessageDeflateServerExtensionHandshaker(
+      compressionLevel, acceptServerMaxWindowBits, clientMaxWindowBits, acceptServerNoContextTakeover, clientNoContextTakeover
+    );
+
+    for (WebSocketExtensionData offer : WebSocketExtensionUtil.extractExtensions(extensionsHeader)) {
+      WebSocketServerExtension extension = handshaker.handshakeExtension(offer);
+      if (extension != null) {
+        responseHeaders.set(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS, format(extension.newReponseData()));
+        return extension;
+      }
+    }
+    return null;
+  }
+
+  private static String format(WebSocketExtensionData data) {
+    StringBuilder builder = new StringBuilder(data.name());
+    for (Map.Entry<String, String> parameter : data.parameters().entrySet()) {
+      builder.append("; ").append(parameter.getKey());
+      if (parameter.getValue() != null) {
+        builder.append('=').append(parameter.getValue());
+      }
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Adds the codec of the negotiated extension to the pipeline, once the handshake has replaced the HTTP codec with the frame codec.
+   */
+  void install(ChannelPipeline pipeline, WebSocketServerExtension extension) {
+    pipeline.addAfter(FRAME_DECODER_NAME, "wsinflater", extension.newExtensionDecoder());
+    ChannelHandler deflater = extension.newExtensionEncoder();
+    pipeline.addAfter(FRAME_ENCODER_NAME, "wsdeflater", deflater);
+    if (threshold > 0) {
+      pipeline.addAfter("wsdeflater", "wsdeflatethreshold", new ThresholdHandler(pipeline.context(deflater), threshold));
+    }
+  }
+
+  // Sends small, unfragmented messages straight to the frame encoder, skipping the deflater.
+  // Messages without the RSV1 bit are uncompressed, so this is allowed per message (RFC 7692, 6).
+  private static class ThresholdHandler extends ChannelOutboundHandlerAdapter {
+
+    private final ChannelHandlerContext deflaterContext;
+    private final int threshold;
+
+    private ThresholdHandler(ChannelHandlerContext deflaterContext, int threshold) {
+      this.deflaterContext = deflaterContext;
+      this.threshold = threshold;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+      if (isSmallMessage(msg)) {
+        deflaterContext.write(msg, promise);
+      } else {
+        ctx.write(msg, promise);
+      }
+    }
+
+    private boolean isSmallMessage(Object msg) {
+      if (msg instanceof TextWebSocketFrame || msg instanceof BinaryWebSocketFrame) {
+        WebSocketFrame frame = (WebSocketFrame) msg;
+        return frame.isFinalFragment() && frame.rsv() == 0 && frame.content().readableBytes() < threshold;
+      } else {
+        return false;
+      }
+    }
+  }
+
+}
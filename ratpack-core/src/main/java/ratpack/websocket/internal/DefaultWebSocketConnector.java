@@ -16,12 +16,15 @@
 
 package ratpack.websocket.internal;
 
+import io.netty.channel.WriteBufferWaterMark;
 import ratpack.func.Action;
 import ratpack.func.Function;
 import ratpack.handling.Context;
 import ratpack.server.ServerConfig;
 import ratpack.websocket.*;
 
+import java.util.Objects;
+
 public class DefaultWebSocketConnector<T> implements WebSocketConnector<T> {
 
   private final Context context;
@@ -33,6 +36,9 @@ public class DefaultWebSocketConnector<T> implements WebSocketConnector<T> {
 
     private String path = "/";
     private int maxLength;
+    private WriteBufferWaterMark writeBufferWaterMark;
+    private WebSocketOverflowPolicy overflowPolicy = WebSocketOverflowPolicy.BUFFER;
+    private DefaultWebSocketCompressionSpec compression;
 
     private Spec(int maxLength) {
       this.maxLength = maxLength;
@@ -61,6 +67,26 @@ public class DefaultWebSocketConnector<T> implements WebSocketConnector<T> {
       this.maxLength = maxLength;
       return this;
     }
+
+    @Override
+    public WebSocketSpec<T> writeBufferWaterMark(int low, int high) {
+      this.writeBufferWaterMark = new WriteBufferWaterMark(low, high);
+      return this;
+    }
+
+    @Override
+    public WebSocketSpec<T> overflowPolicy(WebSocketOverflowPolicy overflowPolicy) {
+      this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy cannot be null");
+      return this;
+    }
+
+    @Override
+    public WebSocketSpec<T> compression(Action<? super WebSocketCompressionSpec> action) throws Exception {
+      DefaultWebSocketCompressionSpec compression = new DefaultWebSocketCompressionSpec();
+      action.execute(compression);
+      this.compression = compression;
+      return this;
+    }
   }
 
   public DefaultWebSocketConnector(Context context, Function<WebSocket, T> open) {
@@ -72,8 +98,7 @@ public class DefaultWebSocketConnector<T> implements WebSocketConnector<T> {
   public void connect(Action<? super WebSocketSpec<T>> specAction) throws Exception {
     Spec spec = new Spec(context.get(ServerConfig.class).getMaxContentLength());
     specAction.execute(spec);
-    WebSocketEngine.connect(context, spec.path, spec.maxLength, new BuiltWebSocketHandler<>(open, spec.closeHandler, spec.messageHandler));
-
+    WebSocketEngine.connect(context, spec.path, spec.maxLength, spec.writeBufferWaterMark, spec.overflowPolicy, spec.compression, new BuiltWebSocketHandler<>(open, spec.closeHandler, spec.messageHandler));
   }
 
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import ratpack.websocket.WebSocket;
+import ratpack.websocket.WebSocketHub;
+import ratpack.websocket.WebSocketOverflowPolicy;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class DefaultWebSocketHub implements WebSocketHub {
+
+  // FIN bit and the text opcode
+  private static final int TEXT_FRAME_FIRST_BYTE = 0x81;
+  private static final int MAX_HEADER_LENGTH = 10;
+
+  private final ByteBufAllocator allocator;
+  private final WebSocketOverflowPolicy overflowPolicy;
+  private final ConcurrentMap<WebSocket, WebSocketOverflowPolicy> webSockets = new ConcurrentHashMap<>();
+
+  public DefaultWebSocketHub(ByteBufAllocator allocator, WebSocketOverflowPolicy overflowPolicy) {
+    this.allocator = allocator;
+    this.overflowPolicy = Objects.requireNonNull(overflowPolicy, "overflowPolicy cannot be null");
+  }
+
+  @Override
+  public void add(WebSocket webSocket) {
+    add(webSocket, overflowPolicy);
+  }
+
+  @Override
+  public void add(WebSocket webSocket, WebSocketOverflowPolicy overflowPolicy) {
+    webSockets.put(webSocket, Objects.requireNonNull(overflowPolicy, "overflowPolicy cannot be null"));
+    if (webSocket instanceof DefaultWebSocket) {
+      ((DefaultWebSocket) webSocket).getChannel().closeFuture().addListener(future -> webSockets.remove(webSocket));
+    }
+  }
+
+  @Override
+  public boolean remove(WebSocket webSocket) {
+    return webSockets.remove(webSocket) != null;
+  }
+
+  @Override
+  public int size() {
+    return webSockets.size();
+  }
+
+  @Override
+  public void send(String text) {
+    if (webSockets.isEmpty()) {
+      return;
+    }
+
+    // encode the payload after space for the largest header, then prepend the actual header
+    ByteBuf frame = allocator.buffer(MAX_HEADER_LENGTH + text.length());
+    frame.writerIndex(MAX_HEADER_LENGTH);
+    int payloadLength = ByteBufUtil.writeUtf8(frame, text);
+    int headerIndex = MAX_HEADER_LENGTH - headerLength(payloadLength);
+    setHeader(frame, headerIndex, payloadLength);
+    frame.readerIndex(headerIndex);
+    sendFrame(frame, MAX_HEADER_LENGTH, payloadLength);
+  }
+
+  @Override
+  public void send(ByteBuf text) {
+    if (webSockets.isEmpty()) {
+      text.release();
+      return;
+    }
+
+    int payloadLength = text.readableBytes();
+    int headerLength = headerLength(payloadLength);
+    ByteBuf frame;
+    try {
+      frame = allocator.buffer(headerLength + payloadLength);
+      setHeader(frame, 0, payloadLength);
+      frame.writerIndex(headerLength).writeBytes(text);
+    } finally {
+      text.release();
+    }
+    sendFrame(frame, headerLength, payloadLength);
+  }
+
+  private void sendFrame(ByteBuf frame, int payloadIndex, int payloadLength) {
+    try {
+      for (Map.Entry<WebSocket, WebSocketOverflowPolicy> entry : webSockets.entrySet()) {
+        send(entry.getKey(), entry.getValue(), frame, payloadIndex, payloadLength);
+      }
+    } finally {
+      frame.release();
+    }
+  }
+
+  private void send(WebSocket webSocket, WebSocketOverflowPolicy overflowPolicy, ByteBuf frame, int payloadIndex, int payloadLength) {
+    if (!webSocket.isOpen()) {
+      webSockets.remove(webSocket);
+      return;
+    }
+
+    if (overflowPolicy != WebSocketOverflowPolicy.BUFFER && !webSocket.isWritable()) {
+      if (overflowPolicy == WebSocketOverflowPolicy.CLOSE) {
+        webSockets.remove(webSocket);
+        webSocket.close(DefaultWebSocket.OVERFLOW_STATUS_CODE, DefaultWebSocket.OVERFLOW_REASON);
+      }
+      return;
+    }
+
+    if (webSocket instanceof DefaultWebSocket) {
+      // server frames are not masked, so the encoded frame is the same for every connection and bypasses the frame encoder
+      Channel channel = ((DefaultWebSocket) webSocket).getChannel();
+      if (channel.isActive()) {
+        channel.writeAndFlush(frame.duplicate().retain(), channel.voidPromise());
+      }
+    } else {
+      webSocket.send(frame.slice(payloadIndex, payloadLength).retain());
+    }
+  }
+
+  private static int headerLength(int payloadLength) {
+    if (payloadLength < 126) {
+      return 2;
+    } else if (payloadLength <= 0xFFFF) {
+      return 4;
+    } else {
+      return MAX_HEADER_LENGTH;
+    }
+  }
+
+  private static void setHeader(ByteBuf frame, int index, int payloadLength) {
+    frame.setByte(index, TEXT_FRAME_FIRST_BYTE);
+    if (payloadLength < 126) {
+      frame.setByte(index + 1, payloadLength);
+    } else if (payloadLength <= 0xFFFF) {
+      frame.setByte(index + 1, 126);
+      frame.setShort(index + 2, payloadLength);
+    } else {
+      frame.setByte(index + 1, 127);
+      frame.setLong(index + 2, payloadLength);
+    }
+  }
+
+}
@@ -16,26 +16,24 @@
 
 package ratpack.websocket.internal;
 
-import io.netty.channel.Channel;
-import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelFutureListener;
-import io.netty.handler.codec.http.DefaultFullHttpRequest;
-import io.netty.handler.codec.http.FullHttpRequest;
-import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.HttpVersion;
+import io.netty.channel.*;
+import io.netty.handler.codec.http.*;
 import io.netty.handler.codec.http.websocketx.*;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketServerExtension;
+import ratpack.api.Nullable;
 import ratpack.handling.Context;
 import ratpack.handling.direct.DirectChannelAccess;
 import ratpack.http.Request;
 import ratpack.server.PublicAddress;
-import ratpack.websocket.WebSocket;
 import ratpack.websocket.WebSocketHandler;
+import ratpack.websocket.WebSocketOverflowPolicy;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static io.netty.handler.codec.http.HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS;
 import static io.netty.handler.codec.http.HttpHeaderNames.SEC_WEBSOCKET_KEY;
 import static io.netty.handler.codec.http.HttpHeaderNames.SEC_WEBSOCKET_VERSION;
 import static io.netty.handler.codec.http.HttpMethod.valueOf;
@@ -44,8 +42,16 @@ import static ratpack.util.Exceptions.uncheck;
 
 public class WebSocketEngine {
 
-  @SuppressWarnings("deprecation")
   public static <T> void connect(final Context context, String path, int maxLength, final WebSocketHandler<T> handler) {
+    connect(context, path, maxLength, null, WebSocketOverflowPolicy.BUFFER, handler);
+  }
+
+  public static <T> void connect(final Context context, String path, int maxLength, @Nullable WriteBufferWaterMark writeBufferWaterMark, WebSocketOverflowPolicy overflowPolicy, final WebSocketHandler<T> handler) {
+    connect(context, path, maxLength, writeBufferWaterMark, overflowPolicy, null, handler);
+  }
+
+  @SuppressWarnings("deprecation")
+  public static <T> void connect(final Context context, String path, int maxLength, @Nullable WriteBufferWaterMark writeBufferWaterMark, WebSocketOverflowPolicy overflowPolicy, @Nullable DefaultWebSocketCompressionSpec compression, final WebSocketHandler<T> handler) {
     PublicAddress publicAddress = context.get(PublicAddress.class);
     URI address = publicAddress.get(context);
     URI httpPath = address.resolve(path);
@@ -57,9 +63,13 @@ public class WebSocketEngine {
       throw uncheck(e);
     }
 
-    WebSocketServerHandshakerFactory factory = new WebSocketServerHandshakerFactory(wsPath.toString(), null, false, maxLength);
-
     Request request = context.getRequest();
+    HttpHeaders responseHeaders = new DefaultHttpHeaders();
+    WebSocketServerExtension extension = compression == null ? null : compression.negotiate(request.getHeaders().get(SEC_WEBSOCKET_EXTENSIONS), responseHeaders);
+
+    // compressed frames have the RSV1 bit set, which the frame decoder otherwise rejects
+    WebSocketServerHandshakerFactory factory = new WebSocketServerHandshakerFactory(wsPath.toString(), null, extension != null, maxLength);
+
     HttpMethod method = valueOf(request.getMethod().getName());
     FullHttpRequest nettyRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, request.getUri());
     nettyRequest.headers().add(SEC_WEBSOCKET_VERSION, request.getHeaders().get(SEC_WEBSOCKET_VERSION));
@@ -72,29 +82,42 @@ public class WebSocketEngine {
     if (!channel.config().isAutoRead()) {
       channel.config().setAutoRead(true);
     }
+    if (writeBufferWaterMark != null) {
+      channel.config().setWriteBufferWaterMark(writeBufferWaterMark);
+    }
 
-    handshaker.handshake(channel, nettyRequest).addListener(new HandshakeFutureListener<>(context, handshaker, handler));
+    ChannelFuture handshakeFuture = handshaker.handshake(channel, nettyRequest, responseHeaders, channel.newPromise());
+    if (extension != null) {
+      handshakeFuture.addListener(future -> {
+        if (future.isSuccess()) {
+          compression.install(channel.pipeline(), extension);
+        }
+      });
+    }
+    handshakeFuture.addListener(new HandshakeFutureListener<>(context, handshaker, overflowPolicy, handler));
   }
 
   private static class HandshakeFutureListener<T> implements ChannelFutureListener {
 
     private final Context context;
     private final WebSocketServerHandshaker handshaker;
+    private final WebSocketOverflowPolicy overflowPolicy;
     private final WebSocketHandler<T> handler;
 
     private volatile T openResult;
     private final CountDownLatch openLatch = new CountDownLatch(1);
 
-    public HandshakeFutureListener(Context context, WebSocketServerHandshaker handshaker, WebSocketHandler<T> handler) {
+    public HandshakeFutureListener(Context context, WebSocketServerHandshaker handshaker, WebSocketOverflowPolicy overflowPolicy, WebSocketHandler<T> handler) {
       this.context = context;
       this.handshaker = handshaker;
+      this.overflowPolicy = overflowPolicy;
       this.handler = handler;
     }
 
     public void operationComplete(ChannelFuture future) throws Exception {
       if (future.isSuccess()) {
         final AtomicBoolean open = new AtomicBoolean(true);
-        final WebSocket webSocket = new DefaultWebSocket(context.getDirectChannelAccess().getChannel(), open, () -> {
+        final DefaultWebSocket webSocket = new DefaultWebSocket(context.getDirectChannelAccess().getChannel(), open, overflowPolicy, () -> {
           try {
             handler.onClose(new DefaultWebSocketClose<>(false, openResult));
           } catch (Exception e) {
@@ -105,6 +128,14 @@ public class WebSocketEngine {
         final DirectChannelAccess directAccessChannel = context.getDirectChannelAccess();
         final Channel channel = directAccessChannel.getChannel();
 
+        channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+          @Override
+          public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+            webSocket.writabilityChanged();
+            super.channelWritabilityChanged(ctx);
+          }
+        });
+
         channel.closeFuture().addListener(fu -> {
             try {
               handler.onClose(new DefaultWebSocketClose<>(true, openResult));
@@ -21,8 +21,12 @@ import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import ratpack.websocket.WebSocket;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Only requests the next item once the previous one has been sent and the websocket is writable, so a slow client applies back pressure to the publisher
 public class WebsocketBroadcastSubscriber implements Subscriber<ByteBuf>, AutoCloseable {
   private final WebSocket webSocket;
+  private final AtomicBoolean requested = new AtomicBoolean();
   private Subscription subscription;
   protected boolean terminated;
 
@@ -46,7 +50,7 @@ public class WebsocketBroadcastSubscriber implements Subscriber<ByteBuf>, AutoCl
     }
 
     this.subscription = s;
-    this.subscription.request(1);
+    requestIfWritable();
   }
 
   @Override
@@ -55,9 +59,24 @@ public class WebsocketBroadcastSubscriber implements Subscriber<ByteBuf>, AutoCl
       throw null;
     }
 
-    if (!terminated) {
+    if (terminated) {
+      s.release();
+    } else {
+      requested.set(false);
       webSocket.send(s);
-      this.subscription.request(1);
+      requestIfWritable();
+    }
+  }
+
+  public void writabilityChanged() {
+    if (subscription != null) {
+      requestIfWritable();
+    }
+  }
+
+  private void requestIfWritable() {
+    if (!terminated && webSocket.isWritable() && requested.compareAndSet(false, true)) {
+      subscription.request(1);
     }
   }
 
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.RejectedExecutionException
+
+class BlockingPoolSpec extends RatpackGroovyDslSpec {
+
+  def "can perform blocking operations on named pool"() {
+    when:
+    serverConfig {
+      blockingPool("db", BlockingPoolConfig.bounded(2, 10))
+    }
+    handlers {
+      get {
+        Blocking.get("db") { Thread.currentThread().name } then {
+          render it
+        }
+      }
+    }
+
+    then:
+    text.startsWith("ratpack-blocking-db-")
+  }
+
+  def "unknown pool is an error"() {
+    when:
+    handlers {
+      get {
+        Blocking.get("nope") { "value" } onError {
+          render it.message
+        } then {
+          render it
+        }
+      }
+    }
+
+    then:
+    text.startsWith("No blocking pool named 'nope'")
+  }
+
+  def "operations are rejected when bounded pool is at capacity"() {
+    given:
+    def started = new CountDownLatch(1)
+    def latch = new CountDownLatch(1)
+
+    when:
+    serverConfig {
+      blockingPool(BlockingPoolConfig.bounded(1, 0))
+    }
+    handlers {
+      get {
+        Execution.fork().start {
+          Blocking.exec {
+            started.countDown()
+            latch.await()
+          }
+        }
+        Promise.async { Downstream<Void> down ->
+          Thread.start { started.await(); down.success(null) }
+        } flatMap {
+          Blocking.get { "value" }
+        } onError {
+          latch.countDown()
+          def stats = context.get(ExecController).blockingPoolStats[ExecController.DEFAULT_BLOCKING_POOL]
+          render "${it.getClass().name}:${stats.rejectedCount}"
+        } then {
+          latch.countDown()
+          render it
+        }
+      }
+    }
+
+    then:
+    text == "${RejectedExecutionException.name}:1"
+  }
+
+  def "pool statistics are recorded"() {
+    when:
+    handlers {
+      get {
+        Blocking.get { "value" } then {
+          def stats = context.get(ExecController).blockingPoolStats[ExecController.DEFAULT_BLOCKING_POOL]
+          render "${stats.name}:${stats.queueSize}:${stats.rejectedCount}:${stats.totalWaitTime >= stats.maxWaitTime}"
+        }
+      }
+    }
+
+    then:
+    text == "default:0:0:true"
+  }
+
+  def "virtual thread pool falls back to threads when not supported"() {
+    when:
+    serverConfig {
+      blockingPool("virtual", BlockingPoolConfig.virtual())
+    }
+    handlers {
+      get {
+        Blocking.get("virtual") { ExecController.current().present } then {
+          render it.toString()
+        }
+      }
+    }
+
+    then:
+    text == "true"
+  }
+
+}
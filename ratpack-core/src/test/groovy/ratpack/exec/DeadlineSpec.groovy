@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.test.exec.ExecHarness
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicBoolean
+
+@Timeout(10)
+class DeadlineSpec extends Specification {
+
+  @AutoCleanup
+  ExecHarness execHarness = ExecHarness.harness()
+
+  def "execution has no deadline by default"() {
+    expect:
+    !execHarness.yield { Promise.value(Deadline.current().present) }.value
+    !Deadline.current().present
+  }
+
+  def "deadline can only be brought forward"() {
+    expect:
+    execHarness.yield {
+      Deadline.set(Duration.ofMillis(500))
+      Deadline.set(Duration.ofSeconds(10))
+      def afterExtending = Deadline.current().get().remaining
+      Deadline.set(Duration.ofMillis(100))
+      Promise.value([afterExtending, Deadline.current().get().remaining])
+    }.value.with { it[0].toMillis() <= 500 && it[1].toMillis() <= 100 }
+  }
+
+  def "blocking operations fail when deadline passes"() {
+    when:
+    def release = new CountDownLatch(1)
+    def result = execHarness.yield {
+      Deadline.set(Duration.ofMillis(100))
+      Blocking.get { release.await(); "done" }
+    }
+
+    then:
+    result.throwable instanceof TimeoutException
+
+    cleanup:
+    release.countDown()
+  }
+
+  def "blocking operations are not started if deadline has passed"() {
+    given:
+    def started = new AtomicBoolean()
+
+    when:
+    def result = execHarness.yield {
+      Deadline.set(Duration.ZERO)
+      Blocking.get { started.set(true) }
+    }
+
+    then:
+    result.throwable instanceof TimeoutException
+    !started.get()
+  }
+
+  def "time available shrinks as execution progresses"() {
+    expect:
+    execHarness.yield {
+      Deadline.set(Duration.ofMillis(300))
+      Blocking.get { sleep 200 }.flatMap {
+        Blocking.get { sleep 200; "done" }
+      }
+    }.throwable instanceof TimeoutException
+  }
+
+  def "forked executions inherit deadline"() {
+    expect:
+    execHarness.yield {
+      def deadline = Deadline.set(Duration.ofSeconds(10))
+      Promise.async { down ->
+        Execution.fork().start {
+          down.success(Deadline.current().orElse(null).is(deadline))
+        }
+      }
+    }.value
+  }
+
+  def "can bound promise by deadline"() {
+    expect:
+    execHarness.yield {
+      Deadline.of(Duration.ofMillis(100)).bound(Promise.async {})
+    }.throwable instanceof TimeoutException
+  }
+
+}
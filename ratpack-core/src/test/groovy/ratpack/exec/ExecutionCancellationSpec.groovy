@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.test.exec.ExecHarness
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.AutoCleanup
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class ExecutionCancellationSpec extends RatpackGroovyDslSpec {
+
+  @AutoCleanup
+  ExecHarness execHarness = ExecHarness.harness()
+
+  Execution execution
+  Throwable error
+  def latch = new CountDownLatch(1)
+
+  void fork(Closure<?> body) {
+    execHarness.fork()
+      .onError { error = it }
+      .onComplete { latch.countDown() }
+      .start { execution = it; body.call() }
+  }
+
+  void cancel() {
+    while (execution == null) {
+      Thread.sleep(10)
+    }
+    execution.cancel()
+    assert latch.await(5, TimeUnit.SECONDS)
+  }
+
+  def "cancelling fails the promise being waited on"() {
+    def caught = null
+
+    when:
+    fork {
+      Promise.async {}.onError { caught = it }.then { throw new IllegalStateException("not cancelled") }
+    }
+    cancel()
+
+    then:
+    caught instanceof ExecutionCancelledException
+    execution.cancelled
+  }
+
+  def "promises waited on after cancellation fail immediately"() {
+    def events = []
+
+    when:
+    fork {
+      Promise.async {}
+        .onError { events << "cancelled" }
+        .then { events << "value" }
+      Promise.async { it.success(1) }.then { events << "next" }
+    }
+    cancel()
+
+    then:
+    events == ["cancelled"]
+    error instanceof ExecutionCancelledException
+  }
+
+  def "cancelling interrupts blocking operations"() {
+    def started = new CountDownLatch(1)
+    def interrupted = false
+
+    when:
+    fork {
+      Blocking.get {
+        started.countDown()
+        try {
+          Thread.sleep(10000)
+        } catch (InterruptedException e) {
+          interrupted = true
+          throw e
+        }
+      }.then { throw new IllegalStateException("not cancelled") }
+    }
+    started.await()
+    cancel()
+
+    then:
+    interrupted
+    error instanceof ExecutionCancelledException
+  }
+
+  def "cancelling releases throttle waiters"() {
+    def throttle = Throttle.ofSize(1)
+    def release = new CountDownLatch(1)
+    execHarness.fork().start {
+      Promise.async { down -> Thread.start { release.await(); down.success(1) } }.throttled(throttle).then {}
+    }
+
+    when:
+    fork {
+      Promise.value(1).throttled(throttle).then { throw new IllegalStateException("not cancelled") }
+    }
+    while (throttle.waiting == 0) {
+      Thread.sleep(10)
+    }
+    cancel()
+
+    then:
+    error instanceof ExecutionCancelledException
+    throttle.waiting == 0
+    throttle.active == 1
+
+    cleanup:
+    release.countDown()
+  }
+
+  def "cancelling a completed execution has no effect"() {
+    when:
+    fork {}
+    cancel()
+
+    then:
+    !execution.cancelled
+  }
+
+  def "request execution is cancelled when the client disconnects before a response is sent"() {
+    def started = new CountDownLatch(1)
+    def interrupted = new CountDownLatch(1)
+
+    when:
+    handlers {
+      get {
+        Blocking.get {
+          started.countDown()
+          try {
+            Thread.sleep(10000)
+          } catch (InterruptedException e) {
+            interrupted.countDown()
+            throw e
+          }
+        } then {
+          render it
+        }
+      }
+      get("other") {
+        render "ok"
+      }
+    }
+
+    def socket = new Socket()
+    socket.connect(new InetSocketAddress(address.host, address.port))
+    new OutputStreamWriter(socket.outputStream, "UTF-8").with {
+      write("GET / HTTP/1.1\r\n")
+      write("\r\n")
+      flush()
+    }
+    started.await()
+    socket.close()
+
+    then:
+    interrupted.await(5, TimeUnit.SECONDS)
+    getText("other") == "ok"
+  }
+
+}
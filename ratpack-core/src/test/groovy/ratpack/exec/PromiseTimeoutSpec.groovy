@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.test.exec.ExecHarness
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+@Timeout(10)
+class PromiseTimeoutSpec extends Specification {
+
+  @AutoCleanup
+  ExecHarness execHarness = ExecHarness.harness()
+
+  static Promise<String> later(long millis, String value) {
+    Promise.async { down ->
+      Execution.current().eventLoop.schedule({ down.success(value) } as Runnable, millis, TimeUnit.MILLISECONDS)
+    }
+  }
+
+  def "value is propagated if promise completes in time"() {
+    expect:
+    execHarness.yield { later(10, "foo").timeout(Duration.ofSeconds(5)) }.value == "foo"
+    execHarness.yield { Promise.value("bar").timeout(Duration.ofSeconds(5)) }.value == "bar"
+  }
+
+  def "error is propagated if promise fails in time"() {
+    given:
+    def error = new IllegalStateException("!")
+
+    expect:
+    execHarness.yield { Promise.error(error).timeout(Duration.ofSeconds(5)) }.throwable.is(error)
+  }
+
+  def "fails with timeout exception if promise does not complete in time"() {
+    expect:
+    execHarness.yield { Promise.async {}.timeout(Duration.ofMillis(100)) }.throwable instanceof TimeoutException
+  }
+
+  def "execution proceeds when timeout elapses while upstream is waiting on nested async operations"() {
+    when:
+    def start = System.nanoTime()
+    def result = execHarness.yield {
+      later(2000, "a")
+        .flatMap { later(2000, it + "b") }
+        .timeout(Duration.ofMillis(100))
+        .mapError { "timeout" }
+        .flatMap { later(10, it + "-after") }
+        .flatMap { v -> Blocking.get { v + "-blocking" } }
+    }
+
+    then:
+    result.value == "timeout-after-blocking"
+    Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000
+  }
+
+  def "inner timeout can be recovered within outer timeout"() {
+    expect:
+    execHarness.yield {
+      later(2000, "slow")
+        .timeout(Duration.ofMillis(50))
+        .mapError { "recovered" }
+        .timeout(Duration.ofSeconds(5))
+    }.value == "recovered"
+  }
+
+  def "outer timeout preempts inner timeout"() {
+    expect:
+    execHarness.yield {
+      later(2000, "slow")
+        .timeout(Duration.ofSeconds(1))
+        .mapError { "recovered" }
+        .timeout(Duration.ofMillis(50))
+    }.throwable instanceof TimeoutException
+  }
+
+  def "can use many timeouts in one execution"() {
+    expect:
+    execHarness.yield {
+      def p = Promise.value(0)
+      100.times {
+        p = p.flatMap { i -> later(0, "").map { i + 1 } }.timeout(Duration.ofSeconds(5))
+      }
+      p
+    }.value == 100
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.server.ServerConfig
+import ratpack.test.exec.ExecHarness
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+import java.time.Duration
+
+class StallDetectionSpec extends RatpackGroovyDslSpec {
+
+  def "detects segments that block compute threads"() {
+    when:
+    serverConfig {
+      stallDetection(StallDetectionConfig.of(Duration.ofMillis(10), Duration.ofMillis(50)))
+    }
+    handlers {
+      get {
+        Thread.sleep(300)
+        render "slept"
+      }
+      get("stats") { ExecController execController ->
+        def stats = execController.eventLoopStats
+        render "${stats.size() == execController.numThreads}:${stats.sum { it.stallCount }}:${stats.every { it.lagHistogram.size() == 16 }}"
+      }
+    }
+
+    then:
+    text == "slept"
+    getText("stats") == "true:1:true"
+  }
+
+  def "event loop stats are empty when stall detection is disabled"() {
+    when:
+    handlers {
+      get { ExecController execController ->
+        render execController.eventLoopStats.size().toString()
+      }
+    }
+
+    then:
+    text == "0"
+  }
+
+  def "blocking test APIs fail on compute threads in development mode"() {
+    when:
+    handlers {
+      get {
+        render ExecHarness.yieldSingle { Promise.value("value") }.value
+      }
+    }
+
+    then:
+    get().statusCode == 500
+  }
+
+  def "stall detection can be configured from properties"() {
+    when:
+    serverConfig {
+      props("server.stallDetection.probeInterval": "PT0.05S", "server.stallDetection.stallThreshold": "PT1S")
+    }
+    handlers {
+      get { ServerConfig serverConfig ->
+        def config = serverConfig.stallDetection.get()
+        render "${config.probeInterval.toMillis()}:${config.stallThreshold.toMillis()}"
+      }
+    }
+
+    then:
+    text == "50:1000"
+  }
+}
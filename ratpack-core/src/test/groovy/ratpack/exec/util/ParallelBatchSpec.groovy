@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.util
+
+import ratpack.exec.Execution
+import ratpack.exec.Promise
+import ratpack.exec.Throttle
+import ratpack.test.exec.ExecHarness
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+@Timeout(10)
+class ParallelBatchSpec extends Specification {
+
+  @AutoCleanup
+  ExecHarness execHarness = ExecHarness.harness()
+
+  static <T> Promise<T> later(long millis, T value) {
+    Promise.async { down ->
+      Execution.current().eventLoop.schedule({ down.success(value) } as Runnable, millis, TimeUnit.MILLISECONDS)
+    }
+  }
+
+  static List<Promise<Integer>> reverseCompleting(int n) {
+    (0..<n).collect { later(20 * (n - it), it) }
+  }
+
+  def "yields values in order of promises"() {
+    expect:
+    execHarness.yield { ParallelBatch.of(reverseCompleting(5)).yield() }.value == [0, 1, 2, 3, 4]
+  }
+
+  def "yields all results including failures"() {
+    given:
+    def error = new IllegalStateException("!")
+
+    when:
+    def results = execHarness.yield {
+      ParallelBatch.of(later(10, "a"), Promise.error(error), Promise.of { it.complete() }).yieldAll()
+    }.value
+
+    then:
+    results[0].value == "a"
+    results[1].throwable.is(error)
+    results[2].complete
+  }
+
+  def "fails fast on first error"() {
+    given:
+    def error = new IllegalStateException("!")
+
+    when:
+    def start = System.nanoTime()
+    def result = execHarness.yield {
+      ParallelBatch.of(later(5000, 1), later(10, 2).map { throw error }).yield()
+    }
+
+    then:
+    result.throwable.is(error)
+    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000
+  }
+
+  def "promises not yet started are skipped after failure"() {
+    given:
+    def started = new AtomicInteger()
+    def promises = [Promise.error(new IllegalStateException("!"))] + (1..10).collect {
+      Promise.sync { started.incrementAndGet() }.flatMap { later(10, it) }
+    }
+
+    when:
+    def result = execHarness.yield { ParallelBatch.of(promises).throttled(Throttle.ofSize(1)).yield() }
+    sleep 200
+
+    then:
+    result.throwable instanceof IllegalStateException
+    started.get() == 0
+  }
+
+  def "yields first n values in completion order"() {
+    expect:
+    execHarness.yield { ParallelBatch.of(reverseCompleting(5)).yieldFirst(2) }.value == [4, 3]
+  }
+
+  def "yield first n ignores errors while n values are still possible"() {
+    expect:
+    execHarness.yield {
+      ParallelBatch.of(Promise.error(new IllegalStateException("!")), later(10, 1), later(20, 2)).yieldFirst(2)
+    }.value == [1, 2]
+  }
+
+  def "yield first n fails when n values are no longer possible"() {
+    given:
+    def e1 = new IllegalStateException("1")
+    def e2 = new IllegalStateException("2")
+
+    when:
+    def result = execHarness.yield {
+      ParallelBatch.of(later(5000, 1), Promise.error(e1), later(10, 2).map { throw e2 }).yieldFirst(2)
+    }
+
+    then:
+    result.throwable.is(e1)
+    result.throwable.suppressed.toList() == [e2]
+  }
+
+  def "can limit concurrency with throttle"() {
+    given:
+    def active = new AtomicInteger()
+    def maxActive = new AtomicInteger()
+    def promises = (1..20).collect { i ->
+      Promise.sync { maxActive.accumulateAndGet(active.incrementAndGet(), Math.&max) }
+        .flatMap { later(10, i) }
+        .wiretap { active.decrementAndGet() }
+    }
+
+    expect:
+    execHarness.yield { ParallelBatch.of(promises).throttled(Throttle.ofSize(3)).yield() }.value == (1..20).toList()
+    maxActive.get() == 3
+  }
+
+  def "promises are executed on the caller's event loop"() {
+    expect:
+    execHarness.yield {
+      def thread = Thread.currentThread()
+      ParallelBatch.of((1..10).collect { Promise.sync { Thread.currentThread().is(thread) } }).yield()
+    }.value.every()
+  }
+
+  def "can initialise forked executions"() {
+    expect:
+    execHarness.yield {
+      ParallelBatch.of((1..3).collect { i -> Promise.sync { Execution.current().get(String) + i } })
+        .execInit { it.add(String, "foo") }
+        .yield()
+    }.value == ["foo1", "foo2", "foo3"]
+  }
+
+  def "can stream values in completion order"() {
+    expect:
+    execHarness.yield { ParallelBatch.of(reverseCompleting(5)).publisher().toList() }.value == [4, 3, 2, 1, 0]
+  }
+
+  def "stream is terminated by error"() {
+    given:
+    def error = new IllegalStateException("!")
+
+    expect:
+    execHarness.yield {
+      ParallelBatch.of(later(10, 1), later(20, 2).map { throw error }).publisher().toList()
+    }.throwable.is(error)
+  }
+
+  def "stream can be cancelled"() {
+    expect:
+    execHarness.yield { ParallelBatch.of(reverseCompleting(5)).publisher().toPromise() }.throwable instanceof IllegalStateException
+  }
+
+  def "empty batch yields immediately"() {
+    expect:
+    execHarness.yield { ParallelBatch.of([]).yield() }.value == []
+    execHarness.yield { ParallelBatch.of([]).yieldAll() }.value == []
+    execHarness.yield { ParallelBatch.of([]).publisher().toList() }.value == []
+  }
+
+}
@@ -31,6 +31,9 @@ import spock.lang.Unroll
 import spock.util.concurrent.BlockingVariable
 import spock.util.concurrent.PollingConditions
 
+import java.nio.file.Files
+import java.nio.file.attribute.FileTime
+
 import static io.netty.handler.codec.http.HttpHeaders.Names.*
 import static io.netty.handler.codec.http.HttpResponseStatus.*
 import static java.nio.file.Files.getLastModifiedTime
@@ -432,6 +435,113 @@ class StaticFileSpec extends RatpackGroovyDslSpec {
     response.statusCode == 404
   }
 
+  @Unroll
+  def "serves pre-compressed sibling files for accept encoding #acceptEncoding"() {
+    given:
+    write "public/app.js", "plain"
+    write "public/app.js.gz", "gzipped"
+    write "public/app.js.br", "brotli"
+
+    when:
+    handlers {
+      files { dir "public" }
+    }
+
+    and:
+    requestSpec { it.decompressResponse(false).headers.set(ACCEPT_ENCODING, acceptEncoding) }
+    def response = get("app.js")
+
+    then:
+    response.body.text == body
+    response.headers.get(CONTENT_ENCODING) == contentEncoding
+    response.headers.get(VARY) == vary
+    response.body.contentType.type == "application/javascript"
+
+    where:
+    acceptEncoding        | body      | contentEncoding | vary
+    "gzip"                | "gzipped" | "gzip"          | "accept-encoding"
+    "gzip, deflate, br"   | "brotli"  | "br"            | "accept-encoding"
+    "br;q=0, gzip"        | "gzipped" | "gzip"          | "accept-encoding"
+    "identity"            | "plain"   | null            | "accept-encoding"
+  }
+
+  def "does not serve pre-compressed sibling files that are older than the file"() {
+    given:
+    def gz = write "public/app.js.gz", "gzipped"
+    write "public/app.js", "plain"
+    Files.setLastModifiedTime(gz, FileTime.fromMillis(0))
+
+    when:
+    handlers {
+      files { dir "public" }
+    }
+
+    and:
+    requestSpec { it.decompressResponse(false).headers.set(ACCEPT_ENCODING, "gzip") }
+
+    then:
+    def response = get("app.js")
+    response.headers.get(VARY) == "accept-encoding"
+    compressResponses || response.body.text == "plain"
+  }
+
+  def "can cache file content and answer if-none-match from the cache"() {
+    given:
+    write "public/cached.txt", "cached"
+    write "public/large.txt", "large" * 100
+
+    when:
+    handlers {
+      files { dir "public"; contentCache(1024 * 1024, 100) }
+    }
+
+    then:
+    def response = get("cached.txt")
+    response.body.text == "cached"
+    def etag = response.headers.get(ETAG)
+    etag != null
+
+    and:
+    get("cached.txt").headers.get(ETAG) == etag
+
+    when:
+    resetRequest()
+    requestSpec { it.headers.set(IF_NONE_MATCH, etag) }
+
+    then:
+    get("cached.txt").statusCode == NOT_MODIFIED.code()
+
+    when:
+    resetRequest()
+
+    then:
+    getText("large.txt") == "large" * 100
+    response.headers.get(ETAG) == null
+  }
+
+  def "serves changed content of cached files"() {
+    given:
+    def file = write "public/cached.txt", "cached"
+
+    when:
+    serverConfig { development(true) }
+    handlers {
+      files { dir "public"; contentCache(1024 * 1024, 1024) }
+    }
+
+    then:
+    getText("cached.txt") == "cached"
+    def etag = response.headers.get(ETAG)
+
+    when:
+    Files.write(file, "changed".bytes)
+    Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 10000))
+
+    then:
+    getText("cached.txt") == "changed"
+    response.headers.get(ETAG) != etag
+  }
+
   private static Date parseDateHeader(ReceivedResponse response, String name) {
     HttpHeaderDateFormat.get().parse(response.headers.get(name))
   }
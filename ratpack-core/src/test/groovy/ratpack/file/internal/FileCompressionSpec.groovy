@@ -54,6 +54,7 @@ class FileCompressionSpec extends RatpackGroovyDslSpec {
     then:
     response.headers.get("Content-Encoding") == null
     response.headers.get("Content-Length") == bytes.length.toString()
+    response.headers.get("Vary") == null
   }
 
   def "encodes when requested"() {
@@ -69,4 +70,93 @@ class FileCompressionSpec extends RatpackGroovyDslSpec {
     response.headers.get("Content-Length").toInteger() < bytes.length
   }
 
+  def "compressed responses vary by accept encoding"() {
+    when:
+    requestCompression(true)
+    handlers {
+      files { dir "public" }
+    }
+
+    then:
+    get("file.txt")
+    response.headers.get("Content-Encoding") == HttpHeaderValues.GZIP.toString()
+    response.headers.get("Vary") == HttpHeaderNames.ACCEPT_ENCODING.toString()
+  }
+
+  def "uncompressed responses that could have been compressed vary by accept encoding"() {
+    when:
+    requestCompression(false)
+    handlers {
+      get { render "abc" * 1000 }
+    }
+
+    then:
+    get()
+    response.headers.get("Content-Encoding") == null
+    response.headers.get("Vary") == HttpHeaderNames.ACCEPT_ENCODING.toString()
+  }
+
+  def "doesn't encode responses smaller than the min size"() {
+    given:
+    requestCompression(true)
+    serverConfig { compressionMinSize(bytes.length + 1) }
+    handlers {
+      files { dir "public" }
+    }
+
+    when:
+    def response = get("file.txt")
+
+    then:
+    response.headers.get("Content-Encoding") == null
+    response.headers.get("Content-Length") == bytes.length.toString()
+  }
+
+  def "doesn't encode excluded mime types"() {
+    given:
+    path("public/file.png") << bytes
+    requestCompression(true)
+    handlers {
+      files { dir "public" }
+    }
+
+    when:
+    def response = get("file.png")
+
+    then:
+    response.headers.get("Content-Encoding") == null
+    response.headers.get("Content-Length") == bytes.length.toString()
+  }
+
+  def "only encodes configured mime types"() {
+    given:
+    path("public/file.css") << bytes
+    requestCompression(true)
+    serverConfig { compressionMimeTypes(["text/css"]) }
+    handlers {
+      files { dir "public" }
+    }
+
+    expect:
+    get("file.css").headers.get("Content-Encoding") == HttpHeaderValues.GZIP.toString()
+    get("file.txt").headers.get("Content-Encoding") == null
+  }
+
+  def "doesn't encode when compression level is 0"() {
+    given:
+    requestCompression(true)
+    serverConfig { compressionLevel(0) }
+    handlers {
+      all { it.response.noCompress(); it.next() }
+      files { dir "public" }
+    }
+
+    when:
+    def response = get("file.txt")
+
+    then:
+    response.headers.get("Content-Encoding") == null
+    response.headers.get("Content-Length") == bytes.length.toString()
+  }
+
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http
+
+import io.netty.bootstrap.Bootstrap
+import io.netty.buffer.Unpooled
+import io.netty.channel.Channel
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.ChannelInitializer
+import io.netty.channel.SimpleChannelInboundHandler
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.nio.NioSocketChannel
+import io.netty.handler.codec.http.*
+import io.netty.handler.codec.http2.DefaultHttp2Connection
+import io.netty.handler.codec.http2.HttpConversionUtil
+import io.netty.handler.codec.http2.HttpToHttp2ConnectionHandlerBuilder
+import io.netty.handler.codec.http2.InboundHttp2ToHttpAdapterBuilder
+import io.netty.util.CharsetUtil
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.AutoCleanup
+import spock.lang.Timeout
+
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
+@Timeout(30)
+class Http2Spec extends RatpackGroovyDslSpec {
+
+  @AutoCleanup("shutdownGracefully")
+  def eventLoopGroup = new NioEventLoopGroup(1)
+
+  def responses = new LinkedBlockingQueue<FullHttpResponse>()
+
+  def setup() {
+    serverConfig {
+      http2(true)
+    }
+    handlers {
+      get("protocol") {
+        render request.protocol
+      }
+      post("echo") {
+        request.body.then {
+          render "echo:" + it.text
+        }
+      }
+    }
+  }
+
+  def "http/1.1 requests are still served when http2 is enabled"() {
+    expect:
+    getText("protocol") == "HTTP/1.1"
+  }
+
+  def "can serve requests over cleartext http2 with prior knowledge"() {
+    when:
+    def channel = connect()
+    send(channel, 3, HttpMethod.GET, "/protocol")
+
+    then:
+    with(responses.poll(10, TimeUnit.SECONDS)) {
+      status() == HttpResponseStatus.OK
+      content().toString(CharsetUtil.UTF_8) == "HTTP/2.0"
+      release()
+    }
+
+    cleanup:
+    channel?.close()
+  }
+
+  def "can read request bodies of concurrent streams"() {
+    when:
+    def channel = connect()
+    def streams = 10
+    streams.times {
+      send(channel, 3 + it * 2, HttpMethod.POST, "/echo", "body-$it")
+    }
+
+    then:
+    (0..<streams).collect {
+      def response = responses.poll(10, TimeUnit.SECONDS)
+      try {
+        response.content().toString(CharsetUtil.UTF_8)
+      } finally {
+        response.release()
+      }
+    }.toSet() == (0..<streams).collect { "echo:body-$it".toString() }.toSet()
+
+    cleanup:
+    channel?.close()
+  }
+
+  private Channel connect() {
+    def address = applicationUnderTest.address
+    new Bootstrap()
+      .group(eventLoopGroup)
+      .channel(NioSocketChannel)
+      .handler(new ChannelInitializer<Channel>() {
+        @Override
+        protected void initChannel(Channel ch) throws Exception {
+          def connection = new DefaultHttp2Connection(false)
+          def listener = new InboundHttp2ToHttpAdapterBuilder(connection).maxContentLength(1024 * 1024).propagateSettings(false).build()
+          ch.pipeline().addLast(new HttpToHttp2ConnectionHandlerBuilder().connection(connection).frameListener(listener).build())
+          ch.pipeline().addLast(new SimpleChannelInboundHandler<FullHttpResponse>() {
+            @Override
+            protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse msg) throws Exception {
+              responses.put(msg.retain())
+            }
+          })
+        }
+      })
+      .connect(address.host, address.port)
+      .sync()
+      .channel()
+  }
+
+  private static void send(Channel channel, int streamId, HttpMethod method, String path, String body = "") {
+    def request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, path, Unpooled.copiedBuffer(body, CharsetUtil.UTF_8))
+    request.headers().set(HttpHeaderNames.HOST, "localhost")
+    request.headers().set(HttpConversionUtil.ExtensionHeaderNames.SCHEME.text(), "http")
+    request.headers().setInt(HttpConversionUtil.ExtensionHeaderNames.STREAM_ID.text(), streamId)
+    channel.writeAndFlush(request)
+  }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http
+
+import io.netty.buffer.ByteBuf
+import io.netty.util.CharsetUtil
+import ratpack.error.ServerErrorHandler
+import ratpack.error.internal.DefaultDevelopmentErrorHandler
+import ratpack.form.Form
+import ratpack.form.internal.PathBackedUploadedFile
+import ratpack.http.client.RequestSpec
+import ratpack.server.ServerConfig
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.util.concurrent.PollingConditions
+
+import static ratpack.http.MediaType.APPLICATION_FORM
+
+class MultipartFormStreamingSpec extends RatpackGroovyDslSpec {
+
+  static final String BOUNDARY = "----ratpackBoundary"
+
+  def setup() {
+    bindings {
+      bindInstance ServerErrorHandler, new DefaultDevelopmentErrorHandler()
+    }
+  }
+
+  static String field(String name, String value) {
+    "--$BOUNDARY\r\nContent-Disposition: form-data; name=\"$name\"\r\n\r\n$value\r\n"
+  }
+
+  static String file(String name, String fileName, String contentType, String content) {
+    "--$BOUNDARY\r\nContent-Disposition: form-data; name=\"$name\"; filename=\"$fileName\"\r\nContent-Type: $contentType\r\n\r\n$content\r\n"
+  }
+
+  void multipart(String... parts) {
+    requestSpec { RequestSpec requestSpec ->
+      requestSpec.headers.set("Content-Type", "multipart/form-data; boundary=$BOUNDARY")
+      requestSpec.body.text(parts.join("") + "--$BOUNDARY--\r\n")
+    }
+  }
+
+  static String text(List<ByteBuf> buffers) {
+    def text = buffers*.toString(CharsetUtil.UTF_8).join("")
+    buffers*.release()
+    text
+  }
+
+  def "can stream parts"() {
+    given:
+    handlers {
+      post {
+        render Form.parts(request).flatMap { part ->
+          part.content.toList().map { "$part.name:$part.fileName:$part.contentType:${text(it)}".toString() }
+        }.toList().map { it.join("|") }
+      }
+    }
+
+    when:
+    multipart(field("a", "1"), file("f", "f.txt", "text/plain", "file\r\n--content"), field("b", ""))
+
+    then:
+    postText() == "a:null:null:1|f:f.txt:text/plain:file\r\n--content|b:null:null:"
+  }
+
+  def "content of parts that are not subscribed to is discarded"() {
+    given:
+    handlers {
+      post {
+        render Form.parts(request).map { it.name }.toList().map { it.toString() }
+      }
+    }
+
+    when:
+    multipart(field("a", "1"), file("f", "f.txt", "text/plain", "x" * 100000), field("b", "2"))
+
+    then:
+    postText() == "[a, f, b]"
+  }
+
+  def "stream fails for non multipart requests"() {
+    given:
+    handlers {
+      post {
+        render Form.parts(request).toList().map { it.toString() }
+      }
+    }
+
+    when:
+    requestSpec { it.body.type("text/plain").text("foo") }
+    post()
+
+    then:
+    response.statusCode == 500
+  }
+
+  def "stream fails for truncated bodies"() {
+    given:
+    handlers {
+      post {
+        render Form.parts(request).flatMap { it.content.toList().map { text(it) } }.toList().map { it.toString() }
+      }
+    }
+
+    when:
+    requestSpec { RequestSpec requestSpec ->
+      requestSpec.headers.set("Content-Type", "multipart/form-data; boundary=$BOUNDARY")
+      requestSpec.body.text(field("a", "1") + "--$BOUNDARY\r\nContent-Disposition: form-data; name=\"b\"\r\n\r\nabc")
+    }
+    post()
+
+    then:
+    response.statusCode == 500
+  }
+
+  def "can spool large files to disk"() {
+    given:
+    def paths = []
+    handlers {
+      post {
+        Form.spooled(context, 10).then { form ->
+          def big = form.file("big")
+          if (big instanceof PathBackedUploadedFile) {
+            paths << big.path
+          }
+          render "${form.a}:${form.file("small").class.simpleName}:${form.file("small").text}:${big.class.simpleName}:${big.text.size()}"
+        }
+      }
+    }
+
+    when:
+    multipart(field("a", "1"), file("small", "s.txt", "text/plain", "small"), file("big", "b.txt", "text/plain", "x" * 100000))
+
+    then:
+    postText() == "1:DefaultUploadedFile:small:PathBackedUploadedFile:100000"
+    paths.size() == 1
+    new PollingConditions(timeout: 5).eventually { assert !paths.first().toFile().exists() }
+  }
+
+  def "can spool files larger than the server max content length"() {
+    given:
+    def size = ServerConfig.DEFAULT_MAX_CONTENT_LENGTH * 2
+    handlers {
+      post {
+        Form.spooled(context, 10, size * 2).then { form ->
+          render "${form.file("big").class.simpleName}:${form.file("big").bytes.length}"
+        }
+      }
+    }
+
+    when:
+    multipart(file("big", "b.txt", "text/plain", "x" * size))
+
+    then:
+    postText() == "PathBackedUploadedFile:$size"
+  }
+
+  def "spooled reads url encoded forms"() {
+    given:
+    handlers {
+      post {
+        Form.spooled(context, 10).then { render it.toString() }
+      }
+    }
+
+    when:
+    requestSpec { RequestSpec requestSpec ->
+      requestSpec.headers.add("Content-Type", APPLICATION_FORM)
+      requestSpec.body.text("a=b&a=c&d=e")
+    }
+
+    then:
+    postText() == "[a:[b, c], d:[e]]"
+  }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client
+
+import io.netty.handler.codec.PrematureChannelClosureException
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+
+class HttpClientConnectionPoolSpec extends BaseHttpClientSpec {
+
+  def "connections are reused when pooling is enabled"() {
+    given:
+    def client = HttpClient.of { it.poolSize(1) }
+
+    and:
+    otherApp {
+      get("port") { render request.remoteAddress.port.toString() }
+    }
+
+    when:
+    handlers {
+      get {
+        client.get(otherAppUrl("port")).flatMap { r1 ->
+          client.get(otherAppUrl("port")).flatMap { r2 ->
+            client.get(otherAppUrl("port")).map { r3 -> [r1, r2, r3]*.body*.text }
+          }
+        } then {
+          render it.unique().size().toString()
+        }
+      }
+    }
+
+    then:
+    text == "1"
+    client.stats.totalConnectionCount == 1
+    client.stats.totalIdleConnectionCount == 1
+    client.stats.totalActiveConnectionCount == 0
+    client.stats.statsPerHost.keySet() == ["localhost:$otherApp.address.port".toString()] as Set
+  }
+
+  def "connections are not reused when pooling is disabled"() {
+    given:
+    def client = HttpClient.of { it.poolSize(0) }
+
+    and:
+    otherApp {
+      get("port") { render request.remoteAddress.port.toString() }
+    }
+
+    when:
+    handlers {
+      get {
+        client.get(otherAppUrl("port")).flatMap { r1 ->
+          client.get(otherAppUrl("port")).map { r2 -> [r1, r2]*.body*.text }
+        } then {
+          render it.unique().size().toString()
+        }
+      }
+    }
+
+    then:
+    text == "2"
+    new PollingConditions().eventually {
+      assert client.stats.totalConnectionCount == 0
+    }
+  }
+
+  def "connections are not reused when the server closes them"() {
+    given:
+    def client = HttpClient.of { it.poolSize(1) }
+
+    and:
+    otherApp {
+      get("port") {
+        response.headers.set("Connection", "close")
+        render request.remoteAddress.port.toString()
+      }
+    }
+
+    when:
+    handlers {
+      get {
+        client.get(otherAppUrl("port")).flatMap { r1 ->
+          client.get(otherAppUrl("port")).map { r2 -> [r1, r2]*.body*.text }
+        } then {
+          render it.unique().size().toString()
+        }
+      }
+    }
+
+    then:
+    text == "2"
+  }
+
+  def "idle connections are closed after the idle timeout"() {
+    given:
+    def client = HttpClient.of { it.poolSize(1).idleTimeout(Duration.ofMillis(200)) }
+
+    and:
+    otherApp {
+      get("foo") { render "bar" }
+    }
+
+    when:
+    handlers {
+      get {
+        client.get(otherAppUrl("foo")).then { render it.body.text }
+      }
+    }
+
+    then:
+    text == "bar"
+    client.stats.totalIdleConnectionCount == 1
+    new PollingConditions().within(2) {
+      assert client.stats.totalConnectionCount == 0
+    }
+  }
+
+  def "idle connections are closed when the client is closed"() {
+    given:
+    def client = HttpClient.of { it.poolSize(1) }
+
+    and:
+    otherApp {
+      get("foo") { render "bar" }
+    }
+
+    when:
+    handlers {
+      get {
+        client.get(otherAppUrl("foo")).then { render it.body.text }
+      }
+    }
+
+    then:
+    text == "bar"
+    client.stats.totalIdleConnectionCount == 1
+
+    when:
+    client.close()
+
+    then:
+    new PollingConditions().within(2) {
+      assert client.stats.totalConnectionCount == 0
+    }
+  }
+
+  def "connection is released when the server closes it while sending the body"() {
+    given:
+    def client = HttpClient.of { it.poolSize(1) }
+    def server = new ServerSocket(0)
+    def responses = [
+      "HTTP/1.1 200 OK\r\nContent-Length: 100\r\n\r\nabc",
+      "HTTP/1.1 200 OK\r\nContent-Length: 3\r\nConnection: close\r\n\r\nabc"
+    ]
+    Thread.start {
+      responses.each { response ->
+        server.accept().withCloseable { socket ->
+          def reader = socket.inputStream.newReader()
+          while (reader.readLine()) {
+          }
+          socket.outputStream << response
+          socket.outputStream.flush()
+        }
+      }
+    }
+    def uri = new URI("http://localhost:$server.localPort/")
+
+    when:
+    handlers {
+      get {
+        client.get(uri).onError { render it.class.name }.then { render it.body.text }
+      }
+    }
+
+    then:
+    text == PrematureChannelClosureException.name
+    text == "abc"
+
+    cleanup:
+    server?.close()
+  }
+
+  def "streamed responses release the connection once consumed"() {
+    given:
+    def client = HttpClient.of { it.poolSize(1) }
+
+    and:
+    otherApp {
+      get("foo") { render "bar" }
+    }
+
+    when:
+    handlers {
+      get {
+        client.requestStream(otherAppUrl("foo")) {}.then {
+          it.forwardTo(response)
+        }
+      }
+    }
+
+    then:
+    text == "bar"
+    new PollingConditions().eventually {
+      assert client.stats.totalIdleConnectionCount == 1
+    }
+  }
+
+}
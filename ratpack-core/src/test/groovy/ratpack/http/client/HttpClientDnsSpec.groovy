@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client
+
+import io.netty.resolver.AddressResolver
+import io.netty.resolver.AddressResolverGroup
+import io.netty.resolver.DefaultAddressResolverGroup
+import io.netty.resolver.DefaultNameResolver
+import io.netty.util.concurrent.EventExecutor
+
+import java.time.Duration
+
+class HttpClientDnsSpec extends BaseHttpClientSpec {
+
+  def "resolves host names asynchronously"() {
+    given:
+    def client = HttpClient.of { it.poolSize(1) }
+
+    and:
+    otherApp {
+      get { render "ok" }
+    }
+
+    when:
+    handlers {
+      get {
+        client.get(otherAppUrl()).flatMap { r1 ->
+          client.get(otherAppUrl()).map { r2 -> r1.body.text + r2.body.text }
+        } then {
+          render it
+        }
+      }
+    }
+
+    then:
+    text == "okok"
+  }
+
+  def "fails for hosts that cannot be resolved"() {
+    given:
+    def client = HttpClient.of {
+      it.dnsServers([new InetSocketAddress("127.0.0.1", 1)])
+        .dnsQueryTimeout(Duration.ofMillis(100))
+        .dnsNegativeCacheTtl(Duration.ofMinutes(1))
+    }
+
+    when:
+    handlers {
+      get {
+        client.get(new URI("http://ratpack.invalid")).onError {
+          render it.class.name
+        } then {
+          render "unexpected"
+        }
+      }
+    }
+
+    then:
+    text == UnknownHostException.name
+    text == UnknownHostException.name
+  }
+
+  def "can use the jdk resolver"() {
+    given:
+    def client = HttpClient.of { it.addressResolver(DefaultAddressResolverGroup.INSTANCE) }
+
+    and:
+    otherApp {
+      get { render "ok" }
+    }
+
+    when:
+    handlers {
+      get {
+        client.get(otherAppUrl()).then { render it.body.text }
+      }
+    }
+
+    then:
+    text == "ok"
+  }
+
+  def "closing the client does not close a given address resolver"() {
+    given:
+    def closed = false
+    def resolver = new AddressResolverGroup<InetSocketAddress>() {
+      @Override
+      protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor) throws Exception {
+        new DefaultNameResolver(executor).asAddressResolver()
+      }
+
+      @Override
+      void close() {
+        closed = true
+        super.close()
+      }
+    }
+
+    when:
+    HttpClient.of { it.addressResolver(resolver) }.close()
+
+    then:
+    !closed
+  }
+
+  def "dns options are validated"() {
+    when:
+    HttpClient.of { it.dnsCacheTtl(Duration.ofSeconds(10), Duration.ofSeconds(1)) }
+
+    then:
+    thrown IllegalArgumentException
+
+    when:
+    HttpClient.of { it.dnsNegativeCacheTtl(Duration.ofSeconds(-1)) }
+
+    then:
+    thrown IllegalArgumentException
+  }
+
+}
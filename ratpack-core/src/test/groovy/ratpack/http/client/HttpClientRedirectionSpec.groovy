@@ -19,7 +19,7 @@ package ratpack.http.client
 import ratpack.func.Action
 import ratpack.http.internal.HttpHeaderConstants
 
-class HttpClientRedirectionSpec extends HttpClientSpec {
+class HttpClientRedirectionSpec extends BaseHttpClientSpec {
 
   def "can follow simple redirect get request"() {
     given:
@@ -24,11 +24,15 @@ import io.netty.handler.codec.http.HttpHeaders
 import io.netty.handler.timeout.ReadTimeoutException
 import io.netty.util.CharsetUtil
 import ratpack.exec.Blocking
+import ratpack.exec.Deadline
+import ratpack.exec.Promise
 import ratpack.stream.Streams
 import spock.lang.IgnoreIf
 import spock.lang.Unroll
 
 import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
 import java.util.zip.GZIPInputStream
 
 import static ratpack.http.ResponseChunks.stringChunks
@@ -36,7 +40,7 @@ import static ratpack.http.internal.HttpHeaderConstants.CONTENT_ENCODING
 import static ratpack.sse.ServerSentEvents.serverSentEvents
 import static ratpack.stream.Streams.publish
 
-class HttpClientSmokeSpec extends HttpClientSpec {
+class HttpClientSmokeSpec extends BaseHttpClientSpec {
 
   def "can make simple get request"() {
     given:
@@ -346,6 +350,31 @@ class HttpClientSmokeSpec extends HttpClientSpec {
     text == ReadTimeoutException.name
   }
 
+  def "requests honour the execution deadline"() {
+    when:
+    otherApp {
+      get {
+        Promise.async { down -> context.execution.eventLoop.schedule({ down.success("late") } as Runnable, 5, TimeUnit.SECONDS) } then {
+          render it
+        }
+      }
+    }
+
+    handlers {
+      get { HttpClient httpClient ->
+        Deadline.set(Duration.ofMillis(200))
+        httpClient.get(otherAppUrl()) onError {
+          render it.class.name
+        } then {
+          render "success"
+        }
+      }
+    }
+
+    then:
+    text == TimeoutException.name
+  }
+
   def "can directly stream a client chunked response"() {
     given:
     otherApp {
@@ -24,7 +24,7 @@ import static ratpack.http.ResponseChunks.stringChunks
 import static ratpack.http.internal.HttpHeaderConstants.CONTENT_ENCODING
 import static ratpack.stream.Streams.publish
 
-class HttpProxySpec extends HttpClientSpec {
+class HttpProxySpec extends BaseHttpClientSpec {
 
   def "can proxy a client response"() {
     given:
@@ -16,7 +16,7 @@
 
 package ratpack.http.client
 
-class HttpReverseProxySpec extends HttpClientSpec {
+class HttpReverseProxySpec extends BaseHttpClientSpec {
 
   def "can forward request body"() {
     when:
@@ -19,18 +19,19 @@ package ratpack.http.client.internal
 import io.netty.buffer.ByteBufAllocator
 import io.netty.channel.Channel
 import io.netty.channel.ChannelPipeline
+import io.netty.resolver.DefaultAddressResolverGroup
 import ratpack.exec.Downstream
 import ratpack.exec.ExecController
 import ratpack.exec.Execution
 import ratpack.exec.Promise
 import ratpack.func.Action
-import ratpack.http.client.HttpClientSpec
+import ratpack.http.client.BaseHttpClientSpec
 import ratpack.http.client.RequestSpec
 import ratpack.http.client.StreamedResponse
 
 import java.util.concurrent.CountDownLatch
 
-class ContentStreamingRequestActionSpec extends HttpClientSpec {
+class ContentStreamingRequestActionSpec extends BaseHttpClientSpec {
 
   def "client channel is closed when response is not subscribed to"() {
     def requestAction
@@ -62,7 +63,7 @@ class ContentStreamingRequestActionSpec extends HttpClientSpec {
     private Channel channel
 
     ChannelSpyRequestAction(Action<? super RequestSpec> requestConfigurer, URI uri, Execution execution, ByteBufAllocator byteBufAllocator) {
-      super(requestConfigurer, uri, execution, byteBufAllocator, 0)
+      super(requestConfigurer, uri, execution, byteBufAllocator, new UnpooledHttpChannelPoolMap(DefaultAddressResolverGroup.INSTANCE), 0)
     }
 
     @Override
@@ -175,4 +175,69 @@ class JacksonParsingSpec extends RatpackGroovyDslSpec {
     postText() == "3"
   }
 
+  def "can stream json array elements"() {
+    when:
+    handlers {
+      post {
+        Jackson.jsonArrayElements(context, Pogo).toList().then { List<Pogo> list ->
+          render list.collect { "${it.value}:${it.foo?.value}" }.join(",")
+        }
+      }
+    }
+
+    and:
+    requestSpec {
+      it.body.text('[{"value": "a,]"}, {"value": "b", "foo": {"value": 2}}, {"value": "c"}]').type("application/json")
+    }
+
+    then:
+    postText() == "a,]:null,b:2,c:null"
+  }
+
+  def "can stream large json array"() {
+    given:
+    def count = 10000
+
+    when:
+    handlers {
+      post {
+        Jackson.jsonArrayElements(context, new TypeToken<List<Integer>>() {}).map { it.sum() }.toList().then {
+          render it.sum().toString()
+        }
+      }
+    }
+
+    and:
+    requestSpec {
+      it.body.text("[" + (1..count).collect { "[$it, $it]" }.join(",") + "]").type("application/json")
+    }
+
+    then:
+    postText() == (count * (count + 1)).toString()
+  }
+
+  def "streaming json that is not an array is an error"() {
+    when:
+    handlers {
+      post {
+        Jackson.jsonArrayElements(context, Integer).toList().onError {
+          render it.getClass().name
+        } then {
+          render "ok"
+        }
+      }
+    }
+
+    and:
+    requestSpec {
+      it.body.text(body).type("application/json")
+    }
+
+    then:
+    postText() == "com.fasterxml.jackson.core.JsonParseException"
+
+    where:
+    body << ['{"value": 1}', '[1, 2', '[1 2]', '[1,]', '']
+  }
+
 }
@@ -27,6 +27,8 @@ import java.time.Duration
 
 import static Jackson.json
 import static ratpack.jackson.Jackson.chunkedJsonList
+import static ratpack.jackson.Jackson.chunkedJsonSeq
+import static ratpack.jackson.Jackson.chunkedNdJson
 
 class JacksonRenderingSpec extends RatpackGroovyDslSpec {
 
@@ -122,6 +124,74 @@ class JacksonRenderingSpec extends RatpackGroovyDslSpec {
     text == "[" + data.collect { "\"$it\"" }.join(",") + "]"
   }
 
+  def "can stream empty list"() {
+    when:
+    handlers {
+      get {
+        render chunkedJsonList(context, Streams.publish([]))
+      }
+    }
+
+    then:
+    text == '[]'
+  }
+
+  def "can stream list in coalesced chunks"() {
+    when:
+    handlers {
+      get {
+        render chunkedJsonList(context.get(ObjectMapper).writer(), Streams.publish([1, 2, [foo: "bar"], 4]), 8192)
+      }
+    }
+
+    then:
+    text == '[1,2,{"foo":"bar"},4]'
+  }
+
+  def "can stream large list in coalesced chunks"() {
+    List<String> data = ["a" * 500] * 100
+
+    when:
+    handlers {
+      get {
+        render chunkedNdJson(context.get(ObjectMapper).writer(), Streams.publish(data), 8192)
+      }
+    }
+
+    then:
+    text == data.collect { "\"$it\"\n" }.join("")
+  }
+
+  def "can stream newline delimited json"() {
+    when:
+    handlers {
+      get {
+        render chunkedNdJson(context, Streams.publish([1, 2, [foo: "bar"], 4]))
+      }
+    }
+
+    then:
+    with(get()) {
+      body.text == '1\n2\n{"foo":"bar"}\n4\n'
+      body.contentType.type == "application/x-ndjson"
+    }
+  }
+
+  def "can stream json text sequence"() {
+    when:
+    handlers {
+      get {
+        render chunkedJsonSeq(context, Streams.publish([1, [foo: "bar"]]))
+      }
+    }
+
+    then:
+    with(get()) {
+      body.text == '\u001E1\n\u001E{"foo":"bar"}\n'
+      body.contentType.type == "application/json-seq"
+    }
+  }
+
   static class Views {
     static class Public {}
 
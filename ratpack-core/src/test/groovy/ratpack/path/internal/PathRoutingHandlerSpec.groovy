@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.path.internal
+
+import ratpack.func.Action
+import ratpack.handling.Chain
+import ratpack.handling.Context
+import ratpack.handling.Handler
+import ratpack.handling.Handlers
+import ratpack.path.PathBinder
+import ratpack.path.PathBinding
+import ratpack.server.ServerConfig
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+class PathRoutingHandlerSpec extends RatpackGroovyDslSpec {
+
+  static final List<String> PATTERNS = [
+    "a", "a/b", "a/b/c", "a/:id", "a/:id/c", ":x/b", "a/b/:opt?", "b/::\\d+", "c/:id:\\d+", "d/", "", "a/b/c/d/e"
+  ]
+
+  static Handler route(String pattern, boolean exact) {
+    Handlers.path(PathBinder.parse(pattern, exact), { Context ctx ->
+      ctx.render("$pattern ${exact ? "path" : "prefix"} ${ctx.get(PathBinding).boundTo} ${ctx.get(PathBinding).pastBinding} ${new TreeMap(ctx.allPathTokens)}")
+    } as Handler)
+  }
+
+  static List<Handler> routes(boolean exact) {
+    PATTERNS.collect { route(it, exact) }
+  }
+
+  def "compiled routes bind the same as uncompiled routes"() {
+    given:
+    def routes = routes(exact)
+
+    when:
+    handlers {
+      prefix("compiled") {
+        all(Handlers.chain(PathRoutingHandler.compile(routes)))
+      }
+      prefix("uncompiled") {
+        all(Handlers.chain(routes))
+      }
+    }
+
+    then:
+    def uncompiled = get("uncompiled/$path")
+    def compiled = get("compiled/$path")
+    compiled.statusCode == uncompiled.statusCode
+    compiled.body.text == uncompiled.body.text
+
+    where:
+    [path, exact] << [
+      ["a", "a/", "a/b", "a/b/", "a/b/c", "a/b/c/", "a/x", "a/x/c", "z/b", "a/b/z", "a/b/z/y", "b/12", "b/x", "c/12", "c/x", "d", "d/", "d/x", "", "a/b/c/d", "a/b/c/d/e", "x", "a//c"],
+      [true, false]
+    ].combinations()
+  }
+
+  def "first matching route in declaration order is used"() {
+    when:
+    handlers {
+      all(Handlers.chain(PathRoutingHandler.compile([route(":id", true), route("a", true), route("a/b", true)])))
+    }
+
+    then:
+    getText("a") == ":id path a  [id:a]"
+    getText("a/b") == "a/b path a/b  [:]"
+  }
+
+  def "dispatch continues with later routes when matched route calls next"() {
+    when:
+    handlers {
+      all(Handlers.chain(PathRoutingHandler.compile([
+        Handlers.path("a", { it.next() } as Handler),
+        Handlers.path(":x", { it.next() } as Handler),
+        Handlers.path("b", { it.render("b") } as Handler),
+        Handlers.path("a", { it.render("second a") } as Handler),
+      ])))
+      all { render "fallthrough" }
+    }
+
+    then:
+    getText("a") == "second a"
+    getText("b") == "b"
+    getText("c") == "fallthrough"
+  }
+
+  def "non path handlers are not reordered"() {
+    given:
+    def compiled = PathRoutingHandler.compile([
+      route("a", true),
+      route("b", true),
+      { it.next() } as Handler,
+      route("c", true),
+      route("d", true),
+      route("e", true)
+    ])
+
+    expect:
+    compiled.size() == 3
+    compiled[0] instanceof PathRoutingHandler
+    !(compiled[1] instanceof PathRoutingHandler)
+    compiled[2] instanceof PathRoutingHandler
+  }
+
+  def "chains are compiled when enabled by the server config"() {
+    given:
+    Action<Chain> routes = { Chain chain ->
+      chain.get("a") { it.render("a") }.get("b") { it.render("b") }
+    }
+
+    expect:
+    Handlers.chain(ServerConfig.builder().compiledRouting(true).build(), routes) instanceof PathRoutingHandler
+    !(Handlers.chain(ServerConfig.builder().build(), routes) instanceof PathRoutingHandler)
+  }
+
+  def "can route a handlers chain with compiled routing enabled"() {
+    given:
+    serverConfig {
+      compiledRouting(true)
+    }
+
+    when:
+    handlers {
+      get("a") { render "a" }
+      get(":id") { next() }
+      all { response.headers.set("X-Filtered", "true"); next() }
+      prefix("api") {
+        get("users/:id") { render "user ${pathTokens.id}" }
+        post("users") { render "created" }
+        get("users/:id/orders") { render "orders of ${pathTokens.id}" }
+      }
+      path("b") {
+        byMethod {
+          get { render "get b" }
+          post { render "post b" }
+        }
+      }
+      get("b/:id?") { render "b ${pathTokens.id}" }
+      all { render "fallthrough" }
+    }
+
+    then:
+    getText("a") == "a"
+    getText("api/users/1") == "user 1"
+    postText("api/users") == "created"
+    getText("api/users/1/orders") == "orders of 1"
+    getText("b") == "get b"
+    postText("b") == "post b"
+    getText("b/2") == "b 2"
+    with(get("c")) {
+      body.text == "fallthrough"
+      headers.get("X-Filtered") == "true"
+    }
+    get("api/other").body.text == "fallthrough"
+  }
+
+  def "can nest compiled routes"() {
+    when:
+    handlers {
+      all(Handlers.chain(PathRoutingHandler.compile([
+        Handlers.path(PathBinder.parse("api", false), Handlers.chain(PathRoutingHandler.compile([route("users/:id", true), route("orders/:id", true)]))),
+        route("other", true)
+      ])))
+    }
+
+    then:
+    getText("api/orders/1") == "orders/:id path orders/1  [id:1]"
+    getText("api/users/2") == "users/:id path users/2  [id:2]"
+    getText("other") == "other path other  [:]"
+    get("api/other").statusCode == 404
+  }
+
+}
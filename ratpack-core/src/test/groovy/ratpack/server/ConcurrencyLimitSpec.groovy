@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server
+
+import ratpack.exec.Promise
+import ratpack.http.ResponseChunks
+import ratpack.stream.Streams
+import ratpack.stream.YieldRequest
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+
+class ConcurrencyLimitSpec extends RatpackGroovyDslSpec {
+
+  def "rejects requests beyond the limit before they are handled"() {
+    def started = new CountDownLatch(1)
+    def release = new CountDownLatch(1)
+    def handled = []
+    def config = ConcurrencyLimitConfig.of(1, Duration.ofSeconds(10))
+    config.minLimit = 1
+    config.setPriority("stats", 2)
+
+    when:
+    serverConfig {
+      concurrencyLimit(config)
+    }
+    handlers {
+      all {
+        handled << request.path
+        next()
+      }
+      get("slow") {
+        Promise.async { down ->
+          started.countDown()
+          Thread.start { release.await(); down.success("slow") }
+        } then {
+          render it
+        }
+      }
+      get("fast") {
+        render "fast"
+      }
+      get("stats") { ConcurrencyLimitStats stats ->
+        render "$stats.limit:$stats.inflight:$stats.rejected"
+      }
+    }
+
+    def slow = Thread.start { new URL("${applicationUnderTest.address}slow").text }
+    started.await()
+
+    then:
+    get("fast").statusCode == 503
+    getText("stats") == "1:2:1"
+    handled == ["slow", "stats"]
+
+    when:
+    release.countDown()
+    slow.join()
+
+    then:
+    getText("fast") == "fast"
+  }
+
+  def "streamed responses release their slot once the response is committed"() {
+    def release = new CountDownLatch(1)
+    def config = ConcurrencyLimitConfig.of(1, Duration.ofSeconds(10))
+    config.minLimit = 1
+
+    when:
+    serverConfig {
+      concurrencyLimit(config)
+    }
+    handlers {
+      get("stream") {
+        render ResponseChunks.stringChunks(Streams.flatYield { YieldRequest r ->
+          if (r.requestNum == 0) {
+            Promise.value("a")
+          } else if (r.requestNum == 1) {
+            Promise.async { down -> Thread.start { release.await(); down.success("b") } }
+          } else {
+            Promise.value(null)
+          }
+        })
+      }
+      get("fast") {
+        render "fast"
+      }
+    }
+
+    def streamed = null
+    def stream = Thread.start { streamed = new URL("${applicationUnderTest.address}stream").text }
+
+    then:
+    new PollingConditions().within(2) {
+      assert get("fast").statusCode == 200
+    }
+    getText("fast") == "fast"
+
+    when:
+    release.countDown()
+
+    stream.join()
+
+    then:
+    streamed == "ab"
+  }
+
+  def "stats are not available if concurrency limiting is disabled"() {
+    when:
+    handlers {
+      get {
+        render context.maybeGet(ConcurrencyLimitStats).present.toString()
+      }
+    }
+
+    then:
+    text == "false"
+  }
+
+  def "concurrency limit can be configured from properties"() {
+    when:
+    serverConfig {
+      props(
+        "server.concurrencyLimit.initialLimit": "50",
+        "server.concurrencyLimit.latencyThreshold": "PT0.2S",
+        "server.concurrencyLimit.priorities.health": "2"
+      )
+    }
+    handlers {
+      get { ServerConfig serverConfig ->
+        def config = serverConfig.concurrencyLimit.get()
+        render "${config.initialLimit}:${config.latencyThreshold.toMillis()}:${config.priorities}"
+      }
+    }
+
+    then:
+    text == "50:200:[health:2.0]"
+  }
+
+}
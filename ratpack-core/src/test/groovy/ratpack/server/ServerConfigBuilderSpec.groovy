@@ -145,6 +145,23 @@ class ServerConfigBuilderSpec extends Specification {
 
   }
 
+  def "new builder has http2 disabled"() {
+    expect:
+    !builder.build().http2
+    builder.build().http2MaxConcurrentStreams == ServerConfig.DEFAULT_HTTP2_MAX_CONCURRENT_STREAMS
+    builder.build().http2InitialWindowSize == ServerConfig.DEFAULT_HTTP2_INITIAL_WINDOW_SIZE
+  }
+
+  def "set http2 settings"() {
+    when:
+    def config = builder.http2(true).http2MaxConcurrentStreams(10).http2InitialWindowSize(1024).build()
+
+    then:
+    config.http2
+    config.http2MaxConcurrentStreams == 10
+    config.http2InitialWindowSize == 1024
+  }
+
   def "new builder has default connect timeout millis"() {
     expect:
     !builder.build().connectTimeoutMillis.present
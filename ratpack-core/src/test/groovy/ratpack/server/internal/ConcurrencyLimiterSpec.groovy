@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal
+
+import ratpack.server.ConcurrencyLimitConfig
+import spock.lang.Specification
+
+import java.time.Duration
+
+class ConcurrencyLimiterSpec extends Specification {
+
+  def config = ConcurrencyLimitConfig.of(10, Duration.ofMillis(10))
+
+  ConcurrencyLimiter limiter() {
+    config.minLimit = 2
+    config.maxLimit = 20
+    def limiter = new ConcurrencyLimiter(config)
+    Thread.sleep(1) // so that requests start after the limiter
+    limiter
+  }
+
+  // admits a request that takes longer than the latency threshold, and releases it
+  static void slow(ConcurrencyLimiter limiter) {
+    def start = System.nanoTime()
+    assert limiter.tryAcquire("/")
+    Thread.sleep(20)
+    limiter.release(start, true)
+  }
+
+  def "rejects requests once the limit is reached"() {
+    def limiter = limiter()
+
+    expect:
+    (1..10).every { limiter.tryAcquire("/") }
+    !limiter.tryAcquire("/")
+    limiter.inflight == 10
+    limiter.rejected == 1
+
+    when:
+    limiter.release(System.nanoTime(), true)
+
+    then:
+    limiter.inflight == 9
+    limiter.tryAcquire("/")
+  }
+
+  def "backs off once for requests that were slow at the same time"() {
+    def limiter = limiter()
+    def start = System.nanoTime()
+    3.times { limiter.tryAcquire("/") }
+    Thread.sleep(20)
+
+    when:
+    3.times { limiter.release(start, true) }
+
+    then:
+    limiter.limit == 9
+
+    when:
+    slow(limiter)
+
+    then:
+    limiter.limit == 8
+  }
+
+  def "never backs off below the min limit"() {
+    def limiter = limiter()
+
+    when:
+    20.times { slow(limiter) }
+
+    then:
+    limiter.limit == 2
+  }
+
+  def "grows while the limit is in use and requests are fast"() {
+    def limiter = limiter()
+
+    when:
+    200.times {
+      def limit = limiter.limit
+      limit.times { limiter.tryAcquire("/") }
+      limit.times { limiter.release(System.nanoTime(), true) }
+    }
+
+    then:
+    limiter.limit == 20
+    limiter.inflight == 0
+  }
+
+  def "does not grow while the limit is not in use"() {
+    def limiter = limiter()
+
+    when:
+    100.times {
+      limiter.tryAcquire("/")
+      limiter.release(System.nanoTime(), true)
+    }
+
+    then:
+    limiter.limit == 10
+  }
+
+  def "abandoned requests do not affect the limit"() {
+    def limiter = limiter()
+    def start = System.nanoTime()
+
+    when:
+    limiter.tryAcquire("/")
+    Thread.sleep(20)
+    limiter.release(start, false)
+
+    then:
+    limiter.limit == 10
+    limiter.inflight == 0
+  }
+
+  def "priority classes may only use their share of the limit"() {
+    config.setPriority("/api/reports", 0.2)
+    config.setPriority("api", 0.5)
+    config.setPriority("health", 2)
+    def limiter = limiter()
+
+    expect:
+    (1..2).every { limiter.tryAcquire("/api/reports/${it}") }
+    !limiter.tryAcquire("/api/reports?all")
+    (1..3).every { limiter.tryAcquire("http://localhost:5050/api/users") }
+    !limiter.tryAcquire("/api/users")
+    (1..5).every { limiter.tryAcquire("/other") }
+    !limiter.tryAcquire("/other")
+    (1..10).every { limiter.tryAcquire("/health") }
+    !limiter.tryAcquire("/health")
+    limiter.inflight == 20
+    limiter.rejected == 4
+  }
+
+  def "priority prefixes only match whole path segments"() {
+    config.setPriority("api", 0.1)
+    def limiter = limiter()
+
+    expect:
+    limiter.tryAcquire("/api")
+    !limiter.tryAcquire("/api/users")
+    !limiter.tryAcquire("/api?x=1")
+    (1..8).every { limiter.tryAcquire("/apix") }
+    limiter.tryAcquire("/api-internal")
+    limiter.inflight == 10
+  }
+
+  def "min limit must not exceed max limit"() {
+    when:
+    config.minLimit = 30
+    config.maxLimit = 20
+    new ConcurrencyLimiter(config)
+
+    then:
+    thrown IllegalArgumentException
+  }
+
+}
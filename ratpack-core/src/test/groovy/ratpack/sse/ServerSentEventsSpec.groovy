@@ -18,7 +18,8 @@ package ratpack.sse
 
 import io.netty.util.concurrent.Future
 import io.netty.util.concurrent.GenericFutureListener
-import ratpack.http.client.HttpClientSpec
+import ratpack.http.client.BaseHttpClientSpec
+import ratpack.sse.internal.DefaultEvent
 import ratpack.stream.TransformablePublisher
 
 import java.time.Duration
@@ -30,7 +31,7 @@ import static ratpack.http.ResponseChunks.stringChunks
 import static ratpack.sse.ServerSentEvents.serverSentEvents
 import static ratpack.stream.Streams.*
 
-class ServerSentEventsSpec extends HttpClientSpec {
+class ServerSentEventsSpec extends BaseHttpClientSpec {
 
   def "can send server sent event"() {
     given:
@@ -64,6 +65,25 @@ id: 3
     response.headers["Content-Encoding"] == null
   }
 
+  def "can send encoded events to many clients"() {
+    given:
+    def events = (1..3).collect {
+      ServerSentEvents.encode(new DefaultEvent(it).event("add").data("Event $it".toString()))
+    }
+
+    handlers {
+      all {
+        render serverSentEvents(publish(events))
+      }
+    }
+
+    expect:
+    events*.data == ["Event 1", "Event 2", "Event 3"]
+    2.times {
+      assert get().body.text == "event: add\ndata: Event 1\n\nevent: add\ndata: Event 2\n\nevent: add\ndata: Event 3\n\n"
+    }
+  }
+
   def "can cancel a stream when a client drops connection"() {
     def cancelLatch = new CountDownLatch(1)
     def sentLatch = new CountDownLatch(1)
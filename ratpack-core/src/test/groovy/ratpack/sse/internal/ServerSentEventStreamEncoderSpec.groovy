@@ -56,6 +56,44 @@ class ServerSentEventStreamEncoderSpec extends RatpackGroovyDslSpec {
     serverSentEvent { it.id("fooId") }                                                              | "id: fooId\n\n"
     serverSentEvent { it.id("fooId").event("fooType") }                                             | "event: fooType\nid: fooId\n\n"
     serverSentEvent { it.event("fooType") }                                                         | "event: fooType\n\n"
+    serverSentEvent { it.data("foo\nbar\n") }                                                       | "data: foo\ndata: bar\ndata: \n\n"
+    serverSentEvent { it.data("\n") }                                                               | "data: \ndata: \n\n"
+    serverSentEvent { it.id("ï").data("héllo €\n😀") }                                              | "data: héllo €\ndata: 😀\nid: ï\n\n"
+  }
+
+  @Unroll
+  def "buffer is allocated at the exact size of ascii events"() {
+    when:
+    def encoded = encoder.encode(sse, UnpooledByteBufAllocator.DEFAULT)
+
+    then:
+    encoded.capacity() == encoded.readableBytes()
+
+    cleanup:
+    encoded?.release()
+
+    where:
+    sse << [
+      serverSentEvent { it.id("fooId").event("fooType").data("fooData") },
+      serverSentEvent { it.data("foo\nbar\n") },
+      serverSentEvent { it.data("\n") },
+      serverSentEvent { it.event("fooType") }
+    ]
+  }
+
+  def "shared encoding can be sent any number of times"() {
+    given:
+    def shared = encoder.encodeShared(serverSentEvent { it.event("fooType").data("foo\nbar") })
+
+    when:
+    def first = shared.duplicate()
+    def second = shared.duplicate()
+    first.skipBytes(first.readableBytes())
+    first.release()
+
+    then:
+    !second.direct
+    second.toString(CharsetUtil.UTF_8) == "event: fooType\ndata: foo\ndata: bar\n\n"
   }
 
   public <T> Event serverSentEvent(T t, Action<? super Event> action) {
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.stream.internal
+
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static ratpack.stream.MulticastOverflowPolicy.*
+
+class RingBufferMulticastPublisherSpec extends Specification {
+
+  Subscriber<? super Integer> upstream
+  long upstreamRequested
+  int next
+
+  def source = new Publisher<Integer>() {
+    @Override
+    void subscribe(Subscriber<? super Integer> s) {
+      upstream = s
+      s.onSubscribe(new Subscription() {
+        @Override
+        void request(long n) {
+          upstreamRequested += n
+        }
+
+        @Override
+        void cancel() {
+        }
+      })
+    }
+  }
+
+  void emit(int n) {
+    n.times { upstream.onNext(next++) }
+  }
+
+  def subscribe(RingBufferMulticastPublisher<Integer> publisher, long initialRequest) {
+    def subscriber = new CollectingSubscriber<Integer>({}, { it.request(initialRequest) })
+    publisher.subscribe(subscriber)
+    subscriber
+  }
+
+  @Unroll
+  def "slow subscribers are handled according to the #policy policy"() {
+    given:
+    def publisher = new RingBufferMulticastPublisher<Integer>(source, 4, policy)
+    def fast = subscribe(publisher, Long.MAX_VALUE)
+    def slow = subscribe(publisher, 1)
+
+    when:
+    emit(10)
+
+    then:
+    fast.received == fastReceived
+    publisher.droppedCount == dropped
+    publisher.disconnectedCount == disconnected
+
+    when:
+    slow.subscription.request(10)
+    upstream.onComplete()
+
+    then:
+    slow.received == slowReceived
+    fast.complete
+    slow.complete == (disconnected == 0)
+    (slow.error instanceof IllegalStateException) == (disconnected == 1)
+    publisher.subscriberCount == 0
+
+    where:
+    policy      | fastReceived | slowReceived     | dropped | disconnected
+    DROP_OLDEST | 0..9         | [0, 6, 7, 8, 9]  | 5       | 0
+    DROP_NEWEST | 0..9         | 0..4             | 5       | 0
+    DISCONNECT  | 0..9         | [0]              | 0       | 1
+  }
+
+  def "upstream demand is limited to the free space of the buffer with the backpressure policy"() {
+    given:
+    def publisher = new RingBufferMulticastPublisher<Integer>(source, 4, BACKPRESSURE)
+    def fast = subscribe(publisher, Long.MAX_VALUE)
+    def slow = subscribe(publisher, 1)
+
+    expect:
+    upstreamRequested == 4
+
+    when:
+    emit(4)
+
+    then:
+    fast.received == 0..3
+    slow.received == [0]
+    publisher.maxLag == 3
+
+    when:
+    slow.subscription.request(3)
+
+    then:
+    slow.received == 0..3
+    publisher.maxLag == 0
+    upstreamRequested == 8
+    publisher.droppedCount == 0
+  }
+
+  def "subscribers only receive items emitted after their first request"() {
+    given:
+    def publisher = new RingBufferMulticastPublisher<Integer>(source, 4, DROP_OLDEST)
+    def first = subscribe(publisher, Long.MAX_VALUE)
+    def second = new CollectingSubscriber<Integer>()
+    publisher.subscribe(second)
+
+    when:
+    emit(2)
+    second.subscription.request(Long.MAX_VALUE)
+    emit(2)
+
+    then:
+    first.received == 0..3
+    second.received == [2, 3]
+    publisher.subscriberCount == 2
+    publisher.maxLag == 0
+  }
+
+  @Unroll
+  def "reference counted items are released once they are no longer buffered with the #policy policy"() {
+    given:
+    def publisher = new RingBufferMulticastPublisher<ByteBuf>(source, 2, policy)
+    def fast = subscribe(publisher, Long.MAX_VALUE)
+    def slow = subscribe(publisher, 1)
+    def buffers = (0..3).collect { Unpooled.buffer(1).writeByte(it) }
+
+    when:
+    buffers.each { upstream.onNext(it) }
+
+    then:
+    fast.received == buffers
+    buffers*.refCnt() == refCounts
+
+    when:
+    (fast.received + slow.received)*.release()
+    slow.subscription.cancel()
+
+    then:
+    buffers*.refCnt() == [0, 0, 0, 0]
+
+    where:
+    policy      | refCounts
+    DROP_OLDEST | [2, 1, 2, 2]
+    DROP_NEWEST | [2, 2, 2, 1]
+  }
+
+  def "cancelled subscribers no longer hold back the buffer"() {
+    given:
+    def publisher = new RingBufferMulticastPublisher<Integer>(source, 4, DISCONNECT)
+    def fast = subscribe(publisher, Long.MAX_VALUE)
+    def slow = subscribe(publisher, 1)
+
+    when:
+    emit(3)
+
+    then:
+    publisher.maxLag == 2
+
+    when:
+    slow.subscription.cancel()
+    emit(10)
+
+    then:
+    publisher.maxLag == 0
+    publisher.subscriberCount == 1
+    publisher.disconnectedCount == 0
+    fast.received == 0..12
+    slow.error == null
+  }
+
+}
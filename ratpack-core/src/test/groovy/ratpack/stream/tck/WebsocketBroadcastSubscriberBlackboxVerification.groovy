@@ -27,6 +27,7 @@ import ratpack.websocket.WebSocket
 import ratpack.websocket.internal.WebsocketBroadcastSubscriber
 
 import static org.mockito.Mockito.mock
+import static org.mockito.Mockito.when
 
 class WebsocketBroadcastSubscriberBlackboxVerification extends SubscriberBlackboxVerification<ByteBuf> {
 
@@ -37,6 +38,7 @@ class WebsocketBroadcastSubscriberBlackboxVerification extends SubscriberBlackbo
   @Override
   Subscriber<ByteBuf> createSubscriber() {
     WebSocket ws = mock(WebSocket)
+    when(ws.isWritable()).thenReturn(true)
     new WebsocketBroadcastSubscriber(ws)
   }
 
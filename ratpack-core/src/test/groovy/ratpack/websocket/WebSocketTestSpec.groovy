@@ -16,18 +16,30 @@
 
 package ratpack.websocket
 
+import io.netty.buffer.ByteBufAllocator
+import io.netty.buffer.Unpooled
+import io.netty.buffer.UnpooledByteBufAllocator
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.handler.codec.http.websocketx.WebSocket13FrameEncoder
+import io.netty.util.CharsetUtil
 import org.reactivestreams.Publisher
 import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
 import ratpack.exec.ExecController
 import ratpack.func.Function
 import ratpack.test.internal.RatpackGroovyDslSpec
+import ratpack.websocket.internal.DefaultWebSocket
+import ratpack.websocket.internal.WebsocketBroadcastSubscriber
 import spock.lang.Timeout
+import spock.lang.Unroll
 import spock.util.concurrent.BlockingVariable
+import spock.util.concurrent.PollingConditions
 
 import java.time.Duration
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.LinkedBlockingQueue
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
 
 import static ratpack.stream.Streams.periodically
 import static ratpack.stream.Streams.publish
@@ -252,6 +264,203 @@ class WebSocketTestSpec extends RatpackGroovyDslSpec {
     client?.closeBlocking()
   }
 
+  def "can send to many websockets with a hub"() {
+    given:
+    def hub
+    def opened = new CountDownLatch(3)
+
+    handlers {
+      get {
+        if (hub == null) {
+          hub = WebSocketHub.of(context.get(ByteBufAllocator))
+        }
+        websocket(context) {
+          hub.add(it)
+          opened.countDown()
+        }.connect {}
+      }
+    }
+
+    and:
+    server.start()
+    def clients = (1..3).collect { openWsClient() }
+    clients*.connectBlocking()
+    opened.await()
+
+    when:
+    hub.send("foo")
+    hub.send("bar" * 100)
+
+    then:
+    clients.every { it.received.poll(5, TimeUnit.SECONDS) == "foo" }
+    clients.every { it.received.poll(5, TimeUnit.SECONDS) == "bar" * 100 }
+
+    when:
+    clients[0].closeBlocking()
+    new PollingConditions().within(5) { assert hub.size() == 2 }
+    hub.send("baz")
+
+    then:
+    clients[1..2].every { it.received.poll(5, TimeUnit.SECONDS) == "baz" }
+
+    cleanup:
+    clients*.closeBlocking()
+  }
+
+  @Unroll
+  def "frames sent while the connection is not writable are handled according to the #policy policy"() {
+    given:
+    def channel = new EmbeddedChannel(new WebSocket13FrameEncoder(false))
+    def webSocket = new DefaultWebSocket(channel, new AtomicBoolean(true), policy, {})
+    def hub = WebSocketHub.of(UnpooledByteBufAllocator.DEFAULT, policy)
+    hub.add(webSocket)
+
+    when:
+    channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false)
+    def text = Unpooled.copiedBuffer("foo", CharsetUtil.UTF_8)
+    webSocket.send(text)
+    hub.send("bar")
+    channel.runPendingTasks()
+
+    then:
+    !webSocket.writable
+    channel.outboundMessages().size() == sent
+    text.refCnt() == 0
+    channel.open == (policy != WebSocketOverflowPolicy.CLOSE)
+    hub.size() == (policy == WebSocketOverflowPolicy.CLOSE ? 0 : 1)
+
+    cleanup:
+    channel.finishAndReleaseAll()
+
+    where:
+    policy                          | sent
+    WebSocketOverflowPolicy.BUFFER  | 2
+    WebSocketOverflowPolicy.DROP    | 0
+    WebSocketOverflowPolicy.CLOSE   | 1
+  }
+
+  def "broadcast stops requesting while the connection is not writable"() {
+    given:
+    def channel = new EmbeddedChannel(new WebSocket13FrameEncoder(false))
+    def webSocket = new DefaultWebSocket(channel, new AtomicBoolean(true), {})
+    def subscriber = new WebsocketBroadcastSubscriber(webSocket)
+    def requested = 0
+    channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false)
+
+    when:
+    subscriber.onSubscribe([request: { requested += it }, cancel: {}] as Subscription)
+
+    then:
+    requested == 0
+
+    when:
+    channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true)
+    subscriber.writabilityChanged()
+
+    then:
+    requested == 1
+
+    when:
+    channel.unsafe().outboundBuffer().setUserDefinedWritability(1, false)
+    subscriber.onNext(Unpooled.copiedBuffer("foo", CharsetUtil.UTF_8))
+
+    then:
+    requested == 1
+
+    when:
+    channel.unsafe().outboundBuffer().setUserDefinedWritability(1, true)
+    subscriber.writabilityChanged()
+    subscriber.writabilityChanged()
+
+    then:
+    requested == 2
+
+    cleanup:
+    channel.finishAndReleaseAll()
+  }
+
+  def "can negotiate permessage-deflate compression"() {
+    given:
+    handlers {
+      get {
+        context.websocket { null } connect {
+          it.compression { it.threshold(64) } onMessage { it.connection.send(it.text) }
+        }
+      }
+    }
+
+    and:
+    server.start()
+    def client = new NettyWebSocketClient(new URI("ws://localhost:$server.bindPort"), true)
+    client.connect()
+
+    when:
+    def wireBytesBefore = client.wireBytesReceived.get()
+    client.send("foo" * 10000)
+
+    then:
+    client.extensions.startsWith("permessage-deflate")
+    client.received.poll(5, TimeUnit.SECONDS) == "foo" * 10000
+    client.wireBytesReceived.get() - wireBytesBefore < 1000
+
+    cleanup:
+    client?.close()
+  }
+
+  def "messages smaller than the compression threshold are sent uncompressed"() {
+    given:
+    handlers {
+      get {
+        context.websocket { null } connect {
+          it.compression { it.threshold(1024) } onMessage { it.connection.send(it.text) }
+        }
+      }
+    }
+
+    and:
+    server.start()
+    def client = new NettyWebSocketClient(new URI("ws://localhost:$server.bindPort"), true)
+    client.connect()
+
+    when:
+    def wireBytesBefore = client.wireBytesReceived.get()
+    client.send("a" * 500)
+
+    then:
+    client.received.poll(5, TimeUnit.SECONDS) == "a" * 500
+    // 2 byte header, 2 byte extended length, uncompressed payload
+    client.wireBytesReceived.get() - wireBytesBefore == 504
+
+    cleanup:
+    client?.close()
+  }
+
+  def "clients that do not offer compression can connect to a websocket with compression"() {
+    given:
+    handlers {
+      get {
+        context.websocket { null } connect {
+          it.compression {} onMessage { it.connection.send(it.text) }
+        }
+      }
+    }
+
+    and:
+    server.start()
+    def client = openWsClient()
+
+    when:
+    client.connectBlocking()
+    client.send("foo" * 1000)
+
+    then:
+    !client.serverHandshake.hasFieldValue("Sec-WebSocket-Extensions")
+    client.received.poll(5, TimeUnit.SECONDS) == "foo" * 1000
+
+    cleanup:
+    client?.closeBlocking()
+  }
+
   def "onClose method is called when socket is closed abruptly"() {
     setup:
     def closed = new BlockingVariable<Boolean>(2)
@@ -30,6 +30,7 @@ import com.google.inject.multibindings.Multibinder;
 import ratpack.dropwizard.metrics.internal.*;
 import ratpack.guice.ConfigurableModule;
 import ratpack.handling.HandlerDecorator;
+import ratpack.server.ConcurrencyLimitStats;
 import ratpack.service.Service;
 import ratpack.service.StartEvent;
 import ratpack.service.StopEvent;
@@ -108,6 +109,9 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * The module also adds a default {@link BlockingExecTimingInterceptor} to the execution path. This will add timers that will account for time
  * spent on blocking io calls.
  * <p>
+ * If the server {@link ratpack.server.ServerConfig#getConcurrencyLimit() limits the number of concurrent requests}, the current limit, requests in flight
+ * and rejected requests are reported by the {@link Gauge gauges} {@code concurrency-limit.limit}, {@code concurrency-limit.inflight} and {@code concurrency-limit.rejected}.
+ * <p>
  * Both the request timing handler and the blocking execution timing interceptor can be disabled:
  *
  * <pre class="groovy-ratpack-dsl">{@code
@@ -240,6 +244,19 @@ public class DropwizardMetricsModule extends ConfigurableModule<DropwizardMetric
         metricRegistry.registerAll(new ThreadStatesGaugeSet());
         metricRegistry.registerAll(new MemoryUsageGaugeSet());
       }
+
+      event.getRegistry().maybeGet(ConcurrencyLimitStats.class).ifPresent(stats -> {
+        final MetricRegistry metricRegistry = injector.getInstance(MetricRegistry.class);
+        register(metricRegistry, "concurrency-limit.limit", stats::getLimit);
+        register(metricRegistry, "concurrency-limit.inflight", stats::getInflight);
+        register(metricRegistry, "concurrency-limit.rejected", stats::getRejected);
+      });
+    }
+
+    private static <T> void register(MetricRegistry metricRegistry, String name, Gauge<T> gauge) {
+      // replace the gauges of the previous server registry, if the application was reloaded
+      metricRegistry.remove(name);
+      metricRegistry.register(name, gauge);
     }
 
     @Override
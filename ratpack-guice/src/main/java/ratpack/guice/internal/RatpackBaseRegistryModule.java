@@ -81,7 +81,8 @@ public class RatpackBaseRegistryModule extends AbstractModule {
 
     List<Class<?>> simpleTypes = ImmutableList.of(
       ServerConfig.class, ByteBufAllocator.class, ExecController.class, MimeTypes.class, PublicAddress.class,
-      Redirector.class, ClientErrorHandler.class, ServerErrorHandler.class, RatpackServer.class
+      Redirector.class, ClientErrorHandler.class, ServerErrorHandler.class, RatpackServer.class,
+      HttpClient.class, ServerSentEventStreamClient.class
     );
     List<TypeToken<?>> genericTypes = ImmutableList.of(
       new TypeToken<Renderer<Path>>() {}, new TypeToken<Renderer<Promise>>() {}, new TypeToken<Renderer<Publisher>>() {},
@@ -122,16 +123,6 @@ public class RatpackBaseRegistryModule extends AbstractModule {
     }
   }
 
-  @Provides
-  HttpClient httpClient(ByteBufAllocator byteBufAllocator, ServerConfig serverConfig) {
-    return HttpClient.httpClient(byteBufAllocator, serverConfig.getMaxContentLength());
-  }
-
-  @Provides
-  ServerSentEventStreamClient sseClient(ByteBufAllocator byteBufAllocator) {
-    return ServerSentEventStreamClient.sseStreamClient(byteBufAllocator);
-  }
-
   @Provides
   @ExecutionScoped
   Execution execution() {
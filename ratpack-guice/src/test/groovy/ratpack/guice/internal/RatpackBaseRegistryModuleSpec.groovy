@@ -39,6 +39,7 @@ import ratpack.server.PublicAddress
 import ratpack.server.RatpackServer
 import ratpack.server.ServerConfig
 import ratpack.server.internal.ServerRegistry
+import ratpack.sse.ServerSentEventStreamClient
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -72,6 +73,7 @@ class RatpackBaseRegistryModuleSpec extends Specification {
     injector.getInstance(Key.get(new TypeLiteral<Renderer<CharSequence>>() {}))
     injector.getInstance(Key.get(FormParser))
     !injector.getExistingBinding(Key.get(FileSystemBinding))
-    injector.getInstance(HttpClient)
+    injector.getInstance(HttpClient).is(baseRegistry.get(HttpClient))
+    injector.getInstance(ServerSentEventStreamClient).is(baseRegistry.get(ServerSentEventStreamClient))
   }
 }
@@ -17,11 +17,11 @@
 package ratpack.rx
 
 import ratpack.http.client.HttpClient
-import ratpack.http.client.HttpClientSpec
+import ratpack.http.client.BaseHttpClientSpec
 
 import static ratpack.rx.RxRatpack.observe
 
-class RxHttpClientSpec extends HttpClientSpec {
+class RxHttpClientSpec extends BaseHttpClientSpec {
 
   def setup() {
     RxRatpack.initialize()
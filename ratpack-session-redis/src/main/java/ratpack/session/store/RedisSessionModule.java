@@ -21,11 +21,18 @@ import ratpack.guice.ConfigurableModule;
 import ratpack.session.SessionStore;
 import ratpack.session.store.internal.RedisSessionStore;
 
+import java.time.Duration;
+
 /**
  * An extension module that provides a redis backed session store.
  * <p>
  * This module depends on {@link ratpack.session.SessionModule} and <b>MUST</b> be added to the module list <b>AFTER</b> {@link ratpack.session.SessionModule}.
- *
+ * <p>
+ * By default, sessions are stored without an expiry, and remain in Redis until they are terminated.
+ * Use {@link Config#setExpireAfterAccess(Duration)} or {@link Config#setExpireAfterWrite(Duration)} to have Redis expire sessions.
+ * <p>
+ * Commands are pipelined.
+ * Commands issued for concurrent requests on the same compute thread are written to Redis together, instead of each being written as it is issued.
  */
 public class RedisSessionModule extends ConfigurableModule<RedisSessionModule.Config> {
 
@@ -41,6 +48,9 @@ public class RedisSessionModule extends ConfigurableModule<RedisSessionModule.Co
     private String password;
     private String host;
     private Integer port;
+    private Integer database;
+    private Duration expireAfterWrite;
+    private Duration expireAfterAccess;
 
     public Config() {
       host = "127.0.0.1";
@@ -112,5 +122,76 @@ public class RedisSessionModule extends ConfigurableModule<RedisSessionModule.Co
     public void setPort(Integer port) {
       this.port = port;
     }
+
+    /**
+     * The Redis database to store sessions in.
+     *
+     * @return the database number, or {@code null} for the default database
+     * @since 1.4
+     */
+    public Integer getDatabase() {
+      return database;
+    }
+
+    /**
+     * Set the Redis database to store sessions in.
+     * <p>
+     * The {@link ratpack.session.SessionStore#size() size} of the store is the number of keys in this database,
+     * so a database dedicated to sessions should be used if the size is of interest.
+     *
+     * @param database the database number
+     * @since 1.4
+     */
+    public void setDatabase(Integer database) {
+      this.database = database;
+    }
+
+    /**
+     * How long after it was last written a session expires.
+     *
+     * @return the time after which a session expires once written, or {@code null} if sessions do not expire after being written
+     * @since 1.4
+     */
+    public Duration getExpireAfterWrite() {
+      return expireAfterWrite;
+    }
+
+    /**
+     * Set how long after it was last written a session expires.
+     * <p>
+     * The expiry is set whenever a session is written, as part of the write.
+     * Reading a session does not extend its life.
+     * Cannot be used in conjunction with {@link #setExpireAfterAccess(Duration)}.
+     *
+     * @param expireAfterWrite the time after which a session expires once written
+     * @since 1.4
+     */
+    public void setExpireAfterWrite(Duration expireAfterWrite) {
+      this.expireAfterWrite = expireAfterWrite;
+    }
+
+    /**
+     * How long after it was last used a session expires.
+     *
+     * @return the time after which an unused session expires, or {@code null} if sessions do not expire when unused
+     * @since 1.4
+     */
+    public Duration getExpireAfterAccess() {
+      return expireAfterAccess;
+    }
+
+    /**
+     * Set how long after it was last used a session expires.
+     * <p>
+     * The expiry is set whenever a session is written, as part of the write.
+     * When a session is read but not changed, the expiry is extended with a {@code PEXPIRE} command, instead of rewriting the session.
+     * Cannot be used in conjunction with {@link #setExpireAfterWrite(Duration)}.
+     *
+     * @param expireAfterAccess the time after which an unused session expires
+     * @since 1.4
+     */
+    public void setExpireAfterAccess(Duration expireAfterAccess) {
+      this.expireAfterAccess = expireAfterAccess;
+    }
   }
 }
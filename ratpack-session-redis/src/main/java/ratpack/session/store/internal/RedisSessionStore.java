@@ -16,8 +16,11 @@
 
 package ratpack.session.store.internal;
 
+import com.google.common.base.Preconditions;
 import com.google.inject.Inject;
+import com.lambdaworks.redis.RedisFuture;
 import com.lambdaworks.redis.RedisURI;
+import com.lambdaworks.redis.SetArgs;
 import com.lambdaworks.redis.api.async.RedisAsyncCommands;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -28,12 +31,18 @@ import ratpack.exec.Promise;
 import ratpack.session.SessionStore;
 import ratpack.session.store.RedisSessionModule;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class RedisSessionStore implements SessionStore {
 
   private final RedisSessionModule.Config config;
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
   private TimerExposingRedisClient redisClient;
   private RedisAsyncCommands<AsciiString, ByteBuf> connection;
+  private SetArgs setArgs;
+  private long touchMillis;
 
   @Inject
   public RedisSessionStore(RedisSessionModule.Config config) {
@@ -43,7 +52,7 @@ public class RedisSessionStore implements SessionStore {
   @Override
   public Operation store(AsciiString sessionId, ByteBuf sessionData) {
     return Promise.<Boolean>async(d ->
-      connection.set(sessionId, sessionData).handleAsync((value, failure) -> {
+      flush(setArgs == null ? connection.set(sessionId, sessionData) : connection.set(sessionId, sessionData, setArgs)).handleAsync((value, failure) -> {
         if (failure == null) {
           if (value != null && value.equalsIgnoreCase("OK")) {
             d.success(true);
@@ -61,7 +70,7 @@ public class RedisSessionStore implements SessionStore {
   @Override
   public Promise<ByteBuf> load(AsciiString sessionId) {
     return Promise.<ByteBuf>async(downstream -> {
-      downstream.accept(connection.get(sessionId));
+      downstream.accept(flush(connection.get(sessionId)));
     }).map(byteBuf -> {
       if (byteBuf == null) {
         //Must return an empty buffer never null
@@ -73,12 +82,35 @@ public class RedisSessionStore implements SessionStore {
 
   @Override
   public Operation remove(AsciiString sessionId) {
-    return Promise.<Long>async(d -> d.accept(connection.del(sessionId))).operation();
+    return Promise.<Long>async(d -> d.accept(flush(connection.del(sessionId)))).operation();
+  }
+
+  @Override
+  public Operation touch(AsciiString sessionId) {
+    if (touchMillis == 0) {
+      return Operation.noop();
+    } else {
+      return Promise.<Boolean>async(d -> d.accept(flush(connection.pexpire(sessionId, touchMillis)))).operation();
+    }
   }
 
+  // The number of keys in the configured database, which is only the number of sessions if the database is dedicated to sessions
   @Override
   public Promise<Long> size() {
-    return Promise.value(-1L);
+    return Promise.<Long>async(d -> d.accept(flush(connection.dbsize())));
+  }
+
+  // Commands are not flushed as they are issued, so that the commands issued by concurrent requests are written to Redis together.
+  // The commands are flushed once the current task of the event loop completes.
+  // The flag is cleared before flushing, so commands issued while it is set are always flushed.
+  private <T> RedisFuture<T> flush(RedisFuture<T> command) {
+    if (flushScheduled.compareAndSet(false, true)) {
+      Execution.current().getEventLoop().execute(() -> {
+        flushScheduled.set(false);
+        connection.flushCommands();
+      });
+    }
+    return command;
   }
 
   @Override
@@ -88,8 +120,17 @@ public class RedisSessionStore implements SessionStore {
 
   @Override
   public void onStart(@SuppressWarnings("deprecation") ratpack.server.StartEvent event) throws Exception {
+    Duration expireAfterWrite = config.getExpireAfterWrite();
+    Duration expireAfterAccess = config.getExpireAfterAccess();
+    Preconditions.checkState(expireAfterWrite == null || expireAfterAccess == null, "Only one of expireAfterWrite and expireAfterAccess can be set");
+    Duration expiry = expireAfterWrite == null ? expireAfterAccess : expireAfterWrite;
+    Preconditions.checkState(expiry == null || expiry.toMillis() > 0, "Session expiry must be at least 1 millisecond");
+    setArgs = expiry == null ? null : SetArgs.Builder.px(expiry.toMillis());
+    touchMillis = expireAfterAccess == null ? 0 : expireAfterAccess.toMillis();
+
     redisClient = new TimerExposingRedisClient(getRedisURI());
     connection = redisClient.connect(new AsciiStringByteBufRedisCodec()).async();
+    connection.setAutoFlushCommands(false);
   }
 
   @Override
@@ -115,6 +156,10 @@ public class RedisSessionStore implements SessionStore {
       builder.withPort(config.getPort());
     }
 
+    if (config.getDatabase() != null) {
+      builder.withDatabase(config.getDatabase());
+    }
+
     return builder.build();
   }
 }
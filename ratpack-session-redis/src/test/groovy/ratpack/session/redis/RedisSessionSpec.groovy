@@ -23,6 +23,9 @@ import ratpack.session.SessionStore
 import ratpack.session.store.RedisSessionModule
 import ratpack.test.internal.RatpackGroovyDslSpec
 import redis.embedded.RedisServer
+import spock.util.concurrent.PollingConditions
+
+import java.time.Duration
 
 class RedisSessionSpec extends RatpackGroovyDslSpec {
 
@@ -44,10 +47,22 @@ class RedisSessionSpec extends RatpackGroovyDslSpec {
   def setup() {
     modules << new SessionModule()
     modules << new RedisSessionModule()
-    supportsSize = false
     if (!isRedisAlreadyRunning()) {
       redisServer.start()
     }
+    redis { it.flushdb() }
+  }
+
+  def <T> T redis(Closure<T> commands) {
+    new RedisClient('localhost').connect().sync().withCloseable(commands)
+  }
+
+  long ttlOfOnlySession() {
+    redis {
+      def keys = it.keys("*")
+      assert keys.size() == 1
+      it.pttl(keys.first())
+    }
   }
 
   def cleanup() {
@@ -282,6 +297,110 @@ class RedisSessionSpec extends RatpackGroovyDslSpec {
     then:
     values.findAll { it.contains("JSESSIONID") && it.contains("Secure") }.size() == 1
   }
-}
 
+  def "sessions do not expire by default"() {
+    when:
+    handlers {
+      get { Session session ->
+        render session.set("foo", "bar").map { "ok" }
+      }
+    }
+
+    then:
+    text == "ok"
+    ttlOfOnlySession() == -1
+  }
+
+  def "sessions can expire after write"() {
+    given:
+    modules.clear()
+    bindings {
+      module SessionModule
+      module RedisSessionModule, { it.expireAfterWrite = Duration.ofMinutes(10) }
+    }
+
+    when:
+    handlers {
+      get("write") { Session session ->
+        render session.set("foo", "bar").map { "ok" }
+      }
+      get("read") { Session session ->
+        render session.require("foo")
+      }
+    }
+
+    then:
+    getText("write") == "ok"
+    def ttl = ttlOfOnlySession()
+    ttl > 0 && ttl <= Duration.ofMinutes(10).toMillis()
+
+    when:
+    redis { it.pexpire(it.keys("*").first(), 60000) }
+
+    then:
+    getText("read") == "bar"
+    ttlOfOnlySession() <= 60000
+  }
 
+  def "reading a session extends its life when expiring after access"() {
+    given:
+    modules.clear()
+    bindings {
+      module SessionModule
+      module RedisSessionModule, { it.expireAfterAccess = Duration.ofMinutes(10) }
+    }
+
+    when:
+    handlers {
+      get("write") { Session session ->
+        render session.set("foo", "bar").map { "ok" }
+      }
+      get("read") { Session session ->
+        render session.require("foo")
+      }
+    }
+
+    then:
+    getText("write") == "ok"
+    ttlOfOnlySession() > 60000
+
+    when:
+    redis { it.pexpire(it.keys("*").first(), 60000) }
+
+    then:
+    getText("read") == "bar"
+    new PollingConditions().eventually {
+      assert ttlOfOnlySession() > 60000
+    }
+  }
+
+  def "can use a dedicated database"() {
+    given:
+    modules.clear()
+    bindings {
+      module SessionModule
+      module RedisSessionModule, { it.database = 1 }
+    }
+
+    when:
+    handlers {
+      get { Session session ->
+        render session.set("foo", "bar").map { "ok" }
+      }
+      get("size") { SessionStore store ->
+        render store.size().map { it.toString() }
+      }
+    }
+
+    then:
+    text == "ok"
+    getText("size") == "1"
+    redis { it.dbsize() } == 0L
+
+    cleanup:
+    redis {
+      it.select(1)
+      it.flushdb()
+    }
+  }
+}
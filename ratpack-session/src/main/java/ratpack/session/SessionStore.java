@@ -201,6 +201,23 @@ public interface SessionStore extends ratpack.server.Service {
    */
   Operation remove(AsciiString sessionId);
 
+  /**
+   * Signals that the session data for the given id was read, but not changed.
+   * <p>
+   * This is called before the response is sent for requests that loaded, but did not change, an existing session.
+   * Stores that expire sessions after a period of inactivity can use this to extend the life of the session,
+   * without rewriting its data.
+   * <p>
+   * This implementation does nothing.
+   *
+   * @param sessionId the session id
+   * @return the touch operation
+   * @since 1.4
+   */
+  default Operation touch(AsciiString sessionId) {
+    return Operation.noop();
+  }
+
   /**
    * The current number of sessions.
    * <p>
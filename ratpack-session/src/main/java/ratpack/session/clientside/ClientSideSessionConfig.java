@@ -127,6 +127,9 @@ public class ClientSideSessionConfig {
    * The {@link javax.crypto.Cipher} algorithm used to encrypt/decrypt the serialized session
    * <p>
    * e.g. <strong>AES/CBC/PKCS5Padding</strong> which is also the default value.
+   * <p>
+   * If an authenticated encryption (AEAD) mode is used, i.e. <strong>AES/GCM/NoPadding</strong>, tampering is detected by the cipher.
+   * The encrypted session is then not additionally signed with the {@link #getSecretToken() secretToken}, which makes the cookie smaller and cheaper to process.
    *
    * @return the algorithm used to encrypt/decrypt the serialized session.
    */
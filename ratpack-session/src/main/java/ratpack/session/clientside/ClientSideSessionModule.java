@@ -108,6 +108,8 @@ import javax.crypto.spec.SecretKeySpec;
  * <p>
  * When setting your own <strong>secretKey</strong> and <strong>cipherAlgorithm</strong>
  * make sure that the key length is acceptable according to the algorithm you have chosen.
+ * Using <strong>AES/GCM/NoPadding</strong> as the <strong>cipherAlgorithm</strong> both encrypts and authenticates the session in a single pass,
+ * in which case it is not separately signed.
  *
  * <p>
  * When working in multi instances environment the
@@ -23,4 +23,17 @@ public interface Crypto {
   ByteBuf encrypt(ByteBuf message, ByteBufAllocator allocator) throws Exception;
 
   ByteBuf decrypt(ByteBuf message, ByteBufAllocator allocator) throws Exception;
+
+  /**
+   * Whether the encrypted form is authenticated by the cipher (e.g. AES/GCM), making a separate signature redundant.
+   * <p>
+   * Session cookies encrypted by an authenticating implementation are not {@link Signer signed}.
+   * The default implementation returns {@code false}.
+   *
+   * @return whether the encrypted form is authenticated
+   * @since 1.4
+   */
+  default boolean isAuthenticated() {
+    return false;
+  }
 }
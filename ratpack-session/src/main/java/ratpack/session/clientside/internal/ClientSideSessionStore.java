@@ -40,12 +40,12 @@ import ratpack.session.clientside.Crypto;
 import ratpack.session.clientside.Signer;
 
 import javax.inject.Provider;
-import java.nio.CharBuffer;
+import java.security.GeneralSecurityException;
 import java.util.Optional;
 
 public class ClientSideSessionStore implements SessionStore {
 
-  private static final String SESSION_SEPARATOR = ":";
+  private static final byte SESSION_SEPARATOR = ':';
 
   private final Provider<Request> request;
   private final Provider<Response> response;
@@ -54,6 +54,7 @@ public class ClientSideSessionStore implements SessionStore {
   private final ByteBufAllocator bufferAllocator;
   private final SessionCookieConfig cookieConfig;
   private final ClientSideSessionConfig config;
+  private final boolean isAuthenticated;
 
   private final CookieOrdering latCookieOrdering;
   private final CookieOrdering dataCookieOrdering;
@@ -84,6 +85,7 @@ public class ClientSideSessionStore implements SessionStore {
     this.bufferAllocator = bufferAllocator;
     this.cookieConfig = cookieConfig;
     this.config = config;
+    this.isAuthenticated = crypto.isAuthenticated();
 
     this.latCookieOrdering = new CookieOrdering(config.getLastAccessTimeCookieName());
     this.dataCookieOrdering = new CookieOrdering(config.getSessionCookieName());
@@ -93,14 +95,7 @@ public class ClientSideSessionStore implements SessionStore {
   public Operation store(AsciiString sessionId, ByteBuf sessionData) {
     return Operation.of(() -> {
       CookieStorage cookieStorage = getCookieStorage();
-      int oldSessionCookiesCount = cookieStorage.data.size();
-      String[] sessionCookiePartitions = serialize(sessionData);
-      for (int i = 0; i < sessionCookiePartitions.length; i++) {
-        addCookie(config.getSessionCookieName() + "_" + i, sessionCookiePartitions[i]);
-      }
-      for (int i = sessionCookiePartitions.length; i < oldSessionCookiesCount; i++) {
-        invalidateCookie(config.getSessionCookieName() + "_" + i);
-      }
+      writeCookies(config.getSessionCookieName(), sessionData, cookieStorage.data.size());
       setLastAccessTime(cookieStorage);
     });
   }
@@ -158,57 +153,63 @@ public class ClientSideSessionStore implements SessionStore {
   }
 
   private void setLastAccessTime(CookieStorage cookieStorage) throws Exception {
-    ByteBuf data = null;
+    ByteBuf data = bufferAllocator.buffer(8, 8);
     try {
-      data = Unpooled.buffer();
       data.writeLong(System.currentTimeMillis());
-      int oldCookiesCount = cookieStorage.lastAccessToken.size();
-      String[] partitions = serialize(data);
-      for (int i = 0; i < partitions.length; i++) {
-        addCookie(config.getLastAccessTimeCookieName() + "_" + i, partitions[i]);
+      writeCookies(config.getLastAccessTimeCookieName(), data, cookieStorage.lastAccessToken.size());
+    } finally {
+      data.release();
+    }
+  }
+
+  // Writes the encoded data as partitions of at most the max cookie size, expiring any partitions of the previous value that are no longer used
+  private void writeCookies(String prefix, ByteBuf data, int oldCookiesCount) throws Exception {
+    ByteBuf encoded = serialize(data);
+    try {
+      int maxSize = config.getMaxSessionCookieSize();
+      int length = encoded.readableBytes();
+      int count = (length + maxSize - 1) / maxSize;
+      for (int i = 0; i < count; i++) {
+        int from = i * maxSize;
+        addCookie(prefix + "_" + i, encoded.toString(encoded.readerIndex() + from, Math.min(maxSize, length - from), CharsetUtil.US_ASCII));
       }
-      for (int i = partitions.length; i < oldCookiesCount; i++) {
-        invalidateCookie(config.getLastAccessTimeCookieName() + "_" + i);
+      for (int i = count; i < oldCookiesCount; i++) {
+        invalidateCookie(prefix + "_" + i);
       }
     } finally {
-      if (data != null) {
-        data.release();
-      }
+      encoded.release();
     }
   }
 
-  private String[] serialize(ByteBuf sessionData) throws Exception {
+  // The cookie value is the base64 form of the encrypted data, followed by the separator and the base64 form of its signature.
+  // If the cipher is authenticated (AEAD), the signature is omitted as tampering is detected on decryption.
+  private ByteBuf serialize(ByteBuf sessionData) throws Exception {
     if (sessionData == null || sessionData.readableBytes() == 0) {
-      return new String[0];
+      return Unpooled.EMPTY_BUFFER;
     }
 
     ByteBuf encrypted = null;
     ByteBuf digest = null;
+    ByteBuf encryptedBase64 = null;
+    ByteBuf digestBase64 = null;
 
     try {
       encrypted = crypto.encrypt(sessionData, bufferAllocator);
-      String encryptedBase64 = toBase64(encrypted);
-      digest = signer.sign(encrypted.resetReaderIndex(), bufferAllocator);
-      String digestBase64 = toBase64(digest);
-      String digestedBase64 = encryptedBase64 + SESSION_SEPARATOR + digestBase64;
-      if (digestedBase64.length() <= config.getMaxSessionCookieSize()) {
-        return new String[]{digestedBase64};
+      encryptedBase64 = toBase64(encrypted);
+      if (isAuthenticated) {
+        ByteBuf value = encryptedBase64;
+        encryptedBase64 = null;
+        return value;
       }
-      int count = (int) Math.ceil((double) digestedBase64.length() / config.getMaxSessionCookieSize());
-      String[] partitions = new String[count];
-      for (int i = 0; i < count; i++) {
-        int from = i * config.getMaxSessionCookieSize();
-        int to = Math.min(from + config.getMaxSessionCookieSize(), digestedBase64.length());
-        partitions[i] = digestedBase64.substring(from, to);
-      }
-      return partitions;
+
+      digest = signer.sign(encrypted, bufferAllocator);
+      digestBase64 = toBase64(digest);
+      return bufferAllocator.buffer(encryptedBase64.readableBytes() + 1 + digestBase64.readableBytes())
+        .writeBytes(encryptedBase64)
+        .writeByte(SESSION_SEPARATOR)
+        .writeBytes(digestBase64);
     } finally {
-      if (encrypted != null) {
-        encrypted.release();
-      }
-      if (digest != null) {
-        digest.release();
-      }
+      release(encrypted, digest, encryptedBase64, digestBase64);
     }
   }
 
@@ -217,56 +218,84 @@ public class ClientSideSessionStore implements SessionStore {
       return Unpooled.EMPTY_BUFFER;
     }
 
-    StringBuilder sessionCookie = new StringBuilder();
+    int length = 0;
     for (Cookie cookie : sessionCookies) {
-      sessionCookie.append(cookie.value());
+      length += cookie.value().length();
     }
-    String[] parts = sessionCookie.toString().split(SESSION_SEPARATOR);
-    if (parts.length != 2) {
+    ByteBuf value = bufferAllocator.buffer(length, length);
+    try {
+      for (Cookie cookie : sessionCookies) {
+        ByteBufUtil.writeAscii(value, cookie.value());
+      }
+      return isAuthenticated ? decryptAuthenticated(value) : verifyAndDecrypt(value);
+    } finally {
+      value.release();
+    }
+  }
+
+  private ByteBuf verifyAndDecrypt(ByteBuf value) throws Exception {
+    int start = value.readerIndex();
+    int end = value.writerIndex();
+    int separator = value.indexOf(start, end, SESSION_SEPARATOR);
+    if (separator <= start || separator == end - 1 || value.indexOf(separator + 1, end, SESSION_SEPARATOR) != -1) {
       return Unpooled.buffer(0, 0);
     }
+
     ByteBuf payload = null;
     ByteBuf digest = null;
     ByteBuf expectedDigest = null;
-    ByteBuf decryptedPayload = null;
     try {
-      payload = fromBase64(bufferAllocator, parts[0]);
-      digest = fromBase64(bufferAllocator, parts[1]);
+      payload = fromBase64(value, start, separator - start);
+      digest = fromBase64(value, separator + 1, end - separator - 1);
       expectedDigest = signer.sign(payload, bufferAllocator);
-      if (ByteBufUtil.equals(digest, expectedDigest)) {
-        decryptedPayload = crypto.decrypt(payload.resetReaderIndex(), bufferAllocator);
+      if (isEqual(digest, expectedDigest)) {
+        return crypto.decrypt(payload, bufferAllocator);
       } else {
-        decryptedPayload = Unpooled.buffer(0, 0);
+        return Unpooled.buffer(0, 0);
       }
     } finally {
-      if (payload != null) {
-        payload.release();
-      }
-      if (digest != null) {
-        digest.release();
-      }
-      if (expectedDigest != null) {
-        expectedDigest.release();
-      }
+      release(payload, digest, expectedDigest);
     }
-    return decryptedPayload;
   }
 
-  private String toBase64(ByteBuf byteBuf) {
-    ByteBuf encoded = Base64.encode(byteBuf, false, Base64Dialect.STANDARD);
+  private ByteBuf decryptAuthenticated(ByteBuf value) throws Exception {
+    ByteBuf payload = fromBase64(value, value.readerIndex(), value.readableBytes());
     try {
-      return encoded.toString(CharsetUtil.ISO_8859_1);
+      return crypto.decrypt(payload, bufferAllocator);
+    } catch (GeneralSecurityException | IndexOutOfBoundsException e) {
+      // tampered with, truncated or encrypted with a different key
+      return Unpooled.buffer(0, 0);
     } finally {
-      encoded.release();
+      payload.release();
     }
   }
 
-  private ByteBuf fromBase64(ByteBufAllocator bufferAllocator, String string) {
-    ByteBuf byteBuf = ByteBufUtil.encodeString(bufferAllocator, CharBuffer.wrap(string), CharsetUtil.ISO_8859_1);
-    try {
-      return Base64.decode(byteBuf, Base64Dialect.STANDARD);
-    } finally {
-      byteBuf.release();
+  // Compares in constant time, so as not to reveal how much of a forged signature is correct
+  private static boolean isEqual(ByteBuf left, ByteBuf right) {
+    int length = left.readableBytes();
+    if (length != right.readableBytes()) {
+      return false;
+    }
+    int result = 0;
+    for (int i = 0; i < length; i++) {
+      result |= left.getByte(left.readerIndex() + i) ^ right.getByte(right.readerIndex() + i);
+    }
+    return result == 0;
+  }
+
+  private ByteBuf toBase64(ByteBuf byteBuf) {
+    return Base64.encode(byteBuf, byteBuf.readerIndex(), byteBuf.readableBytes(), false, Base64Dialect.STANDARD, bufferAllocator);
+  }
+
+  private ByteBuf fromBase64(ByteBuf byteBuf, int index, int length) {
+    return Base64.decode(byteBuf, index, length, Base64Dialect.STANDARD, bufferAllocator);
+  }
+
+  private static void release(ByteBuf... buffers) {
+    for (ByteBuf buffer : buffers) {
+      if (buffer != null) {
+        buffer.release();
+      }
     }
   }
 
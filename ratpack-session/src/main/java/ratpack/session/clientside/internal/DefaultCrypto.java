@@ -18,94 +18,104 @@ package ratpack.session.clientside.internal;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
-import io.netty.buffer.Unpooled;
 import ratpack.session.clientside.Crypto;
+import ratpack.util.Exceptions;
 
-import javax.crypto.*;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.ByteBuffer;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+import java.security.spec.AlgorithmParameterSpec;
 
 public class DefaultCrypto implements Crypto {
 
+  private static final int GCM_TAG_LENGTH_BITS = 128;
+  private static final byte[] ZEROS = new byte[64];
+
   private final SecretKeySpec secretKeySpec;
-  private final String algorithm;
   private final boolean isInitializationVectorRequired;
+  private final boolean isAuthenticated;
+  private final boolean isZeroPadded;
+
+  // Cipher instances are expensive to obtain, and are not thread safe
+  private final ThreadLocal<Cipher> cipher;
 
   public DefaultCrypto(byte[] key, String algorithm) {
     String[] parts = algorithm.split("/");
     this.secretKeySpec = new SecretKeySpec(key, parts[0]);
-    this.algorithm = algorithm;
     this.isInitializationVectorRequired = parts.length > 1 && !parts[1].equalsIgnoreCase("ECB");
+    this.isAuthenticated = parts.length > 1 && parts[1].equalsIgnoreCase("GCM");
+    this.cipher = ThreadLocal.withInitial(() -> Exceptions.uncheck(() -> Cipher.getInstance(algorithm)));
+
+    // Block ciphers without padding need the message to be padded with zeros, which are removed on decryption
+    Cipher cipher = this.cipher.get();
+    Exceptions.uncheck(() -> cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec));
+    this.isZeroPadded = cipher.getBlockSize() > 1 && cipher.getOutputSize(1) == 1;
   }
 
   @Override
-  public ByteBuf encrypt(ByteBuf message, ByteBufAllocator allocator) throws InvalidKeyException, NoSuchPaddingException, NoSuchAlgorithmException, BadPaddingException, ShortBufferException, IllegalBlockSizeException {
-    Cipher cipher = Cipher.getInstance(algorithm);
+  public boolean isAuthenticated() {
+    return isAuthenticated;
+  }
+
+  @Override
+  public ByteBuf encrypt(ByteBuf message, ByteBufAllocator allocator) throws Exception {
+    Cipher cipher = this.cipher.get();
     cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec);
 
-    int blockSize = cipher.getBlockSize();
     int messageLength = message.readableBytes();
-    int encMessageLength = cipher.getOutputSize(messageLength);
-
-    ByteBuf paddedMessage = null;
-    if (messageLength == encMessageLength && (encMessageLength % blockSize) != 0) {
-      int paddedMessageSize = messageLength + blockSize - (messageLength % blockSize);
-      paddedMessage = allocator.buffer(paddedMessageSize);
-      paddedMessage.setZero(0, paddedMessageSize);
-      paddedMessage.setBytes(0, message, messageLength);
-      paddedMessage.writerIndex(paddedMessageSize);
-      encMessageLength = cipher.getOutputSize(paddedMessageSize);
+    int paddingLength = 0;
+    if (isZeroPadded) {
+      int blockSize = cipher.getBlockSize();
+      paddingLength = (blockSize - messageLength % blockSize) % blockSize;
     }
 
-    ByteBuf encMessage = allocator.buffer(encMessageLength);
-    ByteBuffer nioBuffer = encMessage.internalNioBuffer(0, encMessageLength);
-    cipher.doFinal(paddedMessage == null ? message.nioBuffer() : paddedMessage.nioBuffer(), nioBuffer);
-    encMessage.writerIndex(encMessageLength);
-
-    if (paddedMessage != null) {
-      paddedMessage.release();
-    }
-
-    if (isInitializationVectorRequired) {
-      byte[] ivBytes = cipher.getIV();
-      ByteBuf iv = allocator.buffer(1 + ivBytes.length);
-      iv.writeByte(ivBytes.length).writeBytes(ivBytes);
-      return Unpooled.wrappedBuffer(2, iv, encMessage);
-    } else {
-      return encMessage;
+    byte[] iv = isInitializationVectorRequired ? cipher.getIV() : null;
+    int encMessageLength = cipher.getOutputSize(messageLength + paddingLength);
+    ByteBuf encMessage = allocator.buffer((iv == null ? 0 : 1 + iv.length) + encMessageLength);
+    try {
+      if (iv != null) {
+        encMessage.writeByte(iv.length).writeBytes(iv);
+      }
+      ByteBuffer out = encMessage.internalNioBuffer(encMessage.writerIndex(), encMessageLength);
+      int count = cipher.update(message.nioBuffer(), out);
+      count += cipher.doFinal(ByteBuffer.wrap(ZEROS, 0, paddingLength), out);
+      return encMessage.writerIndex(encMessage.writerIndex() + count);
+    } catch (Throwable e) {
+      encMessage.release();
+      throw e;
     }
   }
 
   @Override
-  public ByteBuf decrypt(ByteBuf message, ByteBufAllocator allocator) throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeyException, BadPaddingException, ShortBufferException, IllegalBlockSizeException {
-    Cipher cipher = Cipher.getInstance(algorithm);
+  public ByteBuf decrypt(ByteBuf message, ByteBufAllocator allocator) throws Exception {
+    Cipher cipher = this.cipher.get();
 
     if (isInitializationVectorRequired) {
-      int ivByteLength = message.readByte();
-      ByteBuf ivBytes = message.readBytes(ivByteLength);
-      IvParameterSpec ivParameterSpec = new IvParameterSpec(ivBytes.array());
-      ivBytes.release();
-
-      cipher.init(Cipher.DECRYPT_MODE, secretKeySpec, ivParameterSpec);
+      byte[] iv = new byte[message.readUnsignedByte()];
+      message.readBytes(iv);
+      AlgorithmParameterSpec parameterSpec = isAuthenticated ? new GCMParameterSpec(GCM_TAG_LENGTH_BITS, iv) : new IvParameterSpec(iv);
+      cipher.init(Cipher.DECRYPT_MODE, secretKeySpec, parameterSpec);
     } else {
       cipher.init(Cipher.DECRYPT_MODE, secretKeySpec);
     }
 
     int messageLength = message.readableBytes();
-    ByteBuf decMessage = allocator.buffer(cipher.getOutputSize(messageLength));
-    int count = cipher.doFinal(message.readBytes(messageLength).nioBuffer(), decMessage.internalNioBuffer(0, messageLength));
-    for (int i = count - 1; i >= 0; i--) {
-      if (decMessage.getByte(i) == 0x00) {
-        count--;
-      } else {
-        break;
+    int decMessageLength = cipher.getOutputSize(messageLength);
+    ByteBuf decMessage = allocator.buffer(decMessageLength);
+    try {
+      int count = cipher.doFinal(message.nioBuffer(), decMessage.internalNioBuffer(0, decMessageLength));
+      message.skipBytes(messageLength);
+      if (isZeroPadded) {
+        while (count > 0 && decMessage.getByte(count - 1) == 0x00) {
+          count--;
+        }
       }
+      return decMessage.writerIndex(count);
+    } catch (Throwable e) {
+      decMessage.release();
+      throw e;
     }
-    decMessage.writerIndex(count);
-    return decMessage;
   }
 }
@@ -18,7 +18,6 @@ package ratpack.session.clientside.internal;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
-import io.netty.buffer.Unpooled;
 import ratpack.session.clientside.Signer;
 import ratpack.util.Exceptions;
 
@@ -29,18 +28,32 @@ public class DefaultSigner implements Signer {
 
   private final SecretKeySpec secretKeySpec;
 
+  // Mac instances are expensive to obtain and initialise, and are not thread safe
+  private final ThreadLocal<Mac> mac;
+
   public DefaultSigner(SecretKeySpec secretKeySpec) {
     this.secretKeySpec = secretKeySpec;
+    this.mac = ThreadLocal.withInitial(() -> Exceptions.uncheck(() -> {
+      Mac mac = Mac.getInstance(secretKeySpec.getAlgorithm());
+      mac.init(secretKeySpec);
+      return mac;
+    }));
   }
 
   @Override
   public ByteBuf sign(ByteBuf message, ByteBufAllocator byteBufAllocator) {
-    return Exceptions.uncheck(() -> {
-      Mac mac = Mac.getInstance(secretKeySpec.getAlgorithm());
-      mac.init(secretKeySpec);
+    Mac mac = this.mac.get();
+    int macLength = mac.getMacLength();
+    ByteBuf digest = byteBufAllocator.heapBuffer(macLength, macLength);
+    try {
       mac.update(message.nioBuffer());
-      return Unpooled.wrappedBuffer(mac.doFinal());
-    });
+      mac.doFinal(digest.array(), digest.arrayOffset());
+      return digest.writerIndex(macLength);
+    } catch (Exception e) {
+      mac.reset();
+      digest.release();
+      throw Exceptions.uncheck(e);
+    }
   }
 
 }
@@ -16,14 +16,11 @@
 
 package ratpack.session.internal;
 
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSortedMap;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Ordering;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufInputStream;
-import io.netty.buffer.ByteBufOutputStream;
 import ratpack.exec.Operation;
 import ratpack.exec.Promise;
 import ratpack.http.Response;
@@ -35,7 +32,7 @@ import java.util.*;
 
 public class DefaultSession implements Session {
 
-  private Map<SessionKey<?>, byte[]> entries;
+  private SessionEntries entries;
 
   private final SessionId sessionId;
   private final ByteBufAllocator bufferAllocator;
@@ -50,9 +47,11 @@ public class DefaultSession implements Session {
 
   private State state = State.NOT_LOADED;
   private boolean callbackAdded;
+  private boolean stored;
 
   private final SessionData data = new Data();
 
+  // The format used before SessionEntries, which is only read
   private static class SerializedForm implements Externalizable {
 
     private static final long serialVersionUID = 2;
@@ -154,6 +153,10 @@ public class DefaultSession implements Session {
     if (state == State.NOT_LOADED) {
       return storeAdapter.load(sessionId.getValue()).map(bytes -> {
         state = State.CLEAN;
+        stored = bytes.readableBytes() > 0;
+        if (stored) {
+          addBeforeSendCallback();
+        }
         try {
           hydrate(bytes);
         } finally {
@@ -167,11 +170,13 @@ public class DefaultSession implements Session {
   }
 
   private void hydrate(ByteBuf bytes) throws Exception {
-    if (bytes.readableBytes() > 0) {
-      SerializedForm deserialized = defaultSerializer.deserialize(SerializedForm.class, new ByteBufInputStream(bytes));
-      entries = deserialized.entries;
+    if (bytes.readableBytes() == 0) {
+      entries = new SessionEntries();
+    } else if (SessionEntries.isCompactForm(bytes)) {
+      entries = SessionEntries.read(bytes);
     } else {
-      this.entries = new HashMap<>();
+      SerializedForm deserialized = defaultSerializer.deserialize(SerializedForm.class, new ByteBufInputStream(bytes));
+      entries = SessionEntries.of(deserialized.entries);
     }
   }
 
@@ -190,29 +195,17 @@ public class DefaultSession implements Session {
     return state == State.DIRTY;
   }
 
-  private ByteBuf serialize() throws Exception {
-    SerializedForm serializable = new SerializedForm();
-    serializable.entries = entries;
-    ByteBuf buffer = bufferAllocator.buffer();
-    OutputStream outputStream = new ByteBufOutputStream(buffer);
-    try {
-      defaultSerializer.serialize(SerializedForm.class, serializable, outputStream);
-      outputStream.close();
-      return buffer;
-    } catch (Throwable e) {
-      buffer.release();
-      throw e;
-    }
-  }
-
   @Override
   public Operation save() {
     return Operation.of(() -> {
       if (state != State.NOT_LOADED) {
-        ByteBuf serialized = serialize();
+        ByteBuf serialized = entries.write(bufferAllocator);
         storeAdapter.store(sessionId.getValue(), serialized)
           .wiretap(o -> serialized.release())
-          .then(() -> state = State.CLEAN);
+          .then(() -> {
+            state = State.CLEAN;
+            stored = true;
+          });
       }
     });
   }
@@ -226,17 +219,24 @@ public class DefaultSession implements Session {
           entries.clear();
         }
         state = State.NOT_LOADED;
+        stored = false;
       });
   }
 
   private void markDirty() {
     state = State.DIRTY;
+    addBeforeSendCallback();
+  }
+
+  private void addBeforeSendCallback() {
     if (!callbackAdded) {
       callbackAdded = true;
       response.beforeSend(responseMetaData -> {
         callbackAdded = false; // another before send may try and use the session
         if (state == State.DIRTY) {
           save().then();
+        } else if (state == State.CLEAN && stored) {
+          storeAdapter.touch(sessionId.getValue()).then();
         }
       });
     }
@@ -254,27 +254,17 @@ public class DefaultSession implements Session {
         }
       }
 
-      byte[] bytes = entries.get(key);
-      if (bytes == null) {
+      InputStream value = entries.get(key);
+      if (value == null) {
         return Optional.empty();
       } else {
-        T deserialized = serializer.deserialize(key.getType(), new ByteArrayInputStream(bytes));
+        T deserialized = serializer.deserialize(key.getType(), value);
         return Optional.of(deserialized);
       }
     }
 
     private SessionKey<?> findKey(String name) {
-      List<Map.Entry<SessionKey<?>, byte[]>> entries = FluentIterable.from(DefaultSession.this.entries.entrySet())
-        .filter(e -> Objects.equals(e.getKey().getName(), name))
-        .toList();
-
-      if (entries.isEmpty()) {
-        return null;
-      } else if (entries.size() == 1) {
-        return entries.get(0).getKey();
-      } else {
-        throw new IllegalArgumentException("Found more than one session entry with name '" + name + "': " + Iterables.transform(entries, Map.Entry::getKey));
-      }
+      return entries.findKey(name);
     }
 
     @Override
@@ -291,7 +281,7 @@ public class DefaultSession implements Session {
 
     @Override
     public Set<SessionKey<?>> getKeys() {
-      return entries.keySet();
+      return entries.keys();
     }
 
     @Override
@@ -307,7 +297,7 @@ public class DefaultSession implements Session {
           return;
         }
       }
-      if (entries.remove(key) != null) {
+      if (entries.remove(key)) {
         markDirty();
       }
     }
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.session.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.api.Nullable;
+import ratpack.session.SessionKey;
+import ratpack.util.Types;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * The entries of a session, and their compact binary form.
+ * <p>
+ * The binary form is:
+ * <pre>
+ * magic (1 byte), version (1 byte)
+ * type dictionary: count (varint), then each type name (string)
+ * entries: count (varint), then each entry as: name (string), type (varint dictionary index + 1, 0 for none), value length (varint), value bytes
+ * </pre>
+ * Strings are written as the length of their UTF-8 form plus one (varint, 0 for null), followed by the UTF-8 bytes.
+ * <p>
+ * Values are kept in their serialized form until they are read, and the types of entries are only loaded when required.
+ * Entries that are unchanged since they were read are written back by copying their encoded form.
+ * The type dictionary of the read form is retained, with new types appended, so that copied entries remain valid.
+ * <p>
+ * Entries of a type that cannot be loaded (e.g. written by a different version of the application) are left out of the keys, but are retained.
+ */
+class SessionEntries {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SessionEntries.class);
+
+  static final byte MAGIC = (byte) 0xB5;
+  static final byte VERSION = 1;
+
+  private final Map<EntryKey, Entry> entries;
+  private final List<String> types;
+  private final byte[] source;
+
+  SessionEntries() {
+    this.entries = new LinkedHashMap<>();
+    this.types = new ArrayList<>();
+    this.source = null;
+  }
+
+  private SessionEntries(Map<EntryKey, Entry> entries, List<String> types, byte[] source) {
+    this.entries = entries;
+    this.types = types;
+    this.source = source;
+  }
+
+  static boolean isCompactForm(ByteBuf buffer) {
+    return buffer.readableBytes() >= 2
+      && buffer.getByte(buffer.readerIndex()) == MAGIC
+      && buffer.getByte(buffer.readerIndex() + 1) == VERSION;
+  }
+
+  static SessionEntries of(Map<SessionKey<?>, byte[]> values) {
+    SessionEntries entries = new SessionEntries();
+    values.forEach((key, bytes) -> entries.put(key, bytes));
+    return entries;
+  }
+
+  static SessionEntries read(ByteBuf buffer) {
+    byte[] source = new byte[buffer.readableBytes()];
+    buffer.getBytes(buffer.readerIndex(), source);
+
+    Reader reader = new Reader(source);
+    reader.position = 2; // magic and version
+
+    int typeCount = reader.readVarInt();
+    List<String> types = new ArrayList<>(typeCount);
+    for (int i = 0; i < typeCount; ++i) {
+      types.add(reader.readString());
+    }
+
+    int entryCount = reader.readVarInt();
+    Map<EntryKey, Entry> entries = new LinkedHashMap<>(Math.max(16, entryCount * 2));
+    for (int i = 0; i < entryCount; ++i) {
+      int start = reader.position;
+      String name = reader.readString();
+      int typeIndex = reader.readVarInt();
+      String typeName = typeIndex == 0 ? null : types.get(typeIndex - 1);
+      int length = reader.readVarInt();
+      int offset = reader.position;
+      reader.position += length;
+      if (reader.position > source.length) {
+        throw new IllegalStateException("Session data is truncated");
+      }
+      entries.put(new EntryKey(name, typeName), new Entry(name, typeName, null, source, offset, length, start, reader.position - start));
+    }
+
+    return new SessionEntries(entries, types, source);
+  }
+
+  ByteBuf write(ByteBufAllocator allocator) {
+    int typeCount = types.size();
+    for (Entry entry : entries.values()) {
+      if (!entry.isEncoded() && entry.typeName != null && !types.contains(entry.typeName)) {
+        types.add(entry.typeName);
+      }
+    }
+
+    ByteBuf buffer = allocator.buffer(source == null ? 256 : source.length + 64);
+    try {
+      buffer.writeByte(MAGIC);
+      buffer.writeByte(VERSION);
+
+      writeVarInt(buffer, types.size());
+      for (String type : types) {
+        writeString(buffer, type);
+      }
+
+      writeVarInt(buffer, entries.size());
+      for (Entry entry : entries.values()) {
+        if (entry.isEncoded()) {
+          buffer.writeBytes(entry.bytes, entry.recordOffset, entry.recordLength);
+        } else {
+          writeString(buffer, entry.name);
+          writeVarInt(buffer, entry.typeName == null ? 0 : types.indexOf(entry.typeName) + 1);
+          writeVarInt(buffer, entry.length);
+          buffer.writeBytes(entry.bytes, entry.offset, entry.length);
+        }
+      }
+      return buffer;
+    } catch (Throwable e) {
+      buffer.release();
+      types.subList(typeCount, types.size()).clear();
+      throw e;
+    }
+  }
+
+  @Nullable
+  InputStream get(SessionKey<?> key) {
+    Entry entry = entries.get(EntryKey.of(key));
+    return entry == null ? null : entry.value();
+  }
+
+  @Nullable
+  SessionKey<?> findKey(String name) {
+    List<SessionKey<?>> found = new ArrayList<>(1);
+    for (Entry entry : entries.values()) {
+      if (Objects.equals(entry.name, name)) {
+        SessionKey<?> key = entry.key();
+        if (key != null) {
+          found.add(key);
+        }
+      }
+    }
+    if (found.size() > 1) {
+      throw new IllegalArgumentException("Found more than one session entry with name '" + name + "': " + found);
+    }
+    return found.isEmpty() ? null : found.get(0);
+  }
+
+  void put(SessionKey<?> key, byte[] value) {
+    EntryKey entryKey = EntryKey.of(key);
+    entries.put(entryKey, new Entry(entryKey.name, entryKey.typeName, key.getType(), value, 0, value.length, -1, -1));
+  }
+
+  boolean remove(SessionKey<?> key) {
+    return entries.remove(EntryKey.of(key)) != null;
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  Set<SessionKey<?>> keys() {
+    Set<SessionKey<?>> keys = new LinkedHashSet<>(entries.size());
+    for (Entry entry : entries.values()) {
+      SessionKey<?> key = entry.key();
+      if (key != null) {
+        keys.add(key);
+      }
+    }
+    return Collections.unmodifiableSet(keys);
+  }
+
+  private static void writeString(ByteBuf buffer, @Nullable String string) {
+    if (string == null) {
+      writeVarInt(buffer, 0);
+    } else {
+      byte[] bytes = string.getBytes(CharsetUtil.UTF_8);
+      writeVarInt(buffer, bytes.length + 1);
+      buffer.writeBytes(bytes);
+    }
+  }
+
+  private static void writeVarInt(ByteBuf buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer.writeByte(value);
+  }
+
+  private static final class Reader {
+    private final byte[] bytes;
+    private int position;
+
+    private Reader(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    private int readVarInt() {
+      int value = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        byte b = bytes[position++];
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IllegalStateException("Malformed session data");
+    }
+
+    @Nullable
+    private String readString() {
+      int length = readVarInt() - 1;
+      if (length < 0) {
+        return null;
+      }
+      String string = new String(bytes, position, length, CharsetUtil.UTF_8);
+      position += length;
+      return string;
+    }
+  }
+
+  private static final class EntryKey {
+    private final String name;
+    private final String typeName;
+
+    private EntryKey(@Nullable String name, @Nullable String typeName) {
+      this.name = name;
+      this.typeName = typeName;
+    }
+
+    private static EntryKey of(SessionKey<?> key) {
+      Class<?> type = key.getType();
+      return new EntryKey(key.getName(), type == null ? null : type.getName());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      EntryKey that = (EntryKey) o;
+      return Objects.equals(name, that.name) && Objects.equals(typeName, that.typeName);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Objects.hashCode(name) + Objects.hashCode(typeName);
+    }
+  }
+
+  private static final class Entry {
+    private final String name;
+    private final String typeName;
+    private Class<?> type;
+    private boolean typeMissing;
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    // the range of the whole encoded entry within bytes, if read from the binary form
+    private final int recordOffset;
+    private final int recordLength;
+
+    private Entry(@Nullable String name, @Nullable String typeName, @Nullable Class<?> type, byte[] bytes, int offset, int length, int recordOffset, int recordLength) {
+      this.name = name;
+      this.typeName = typeName;
+      this.type = type;
+      this.bytes = bytes;
+      this.offset = offset;
+      this.length = length;
+      this.recordOffset = recordOffset;
+      this.recordLength = recordLength;
+    }
+
+    private boolean isEncoded() {
+      return recordOffset >= 0;
+    }
+
+    private InputStream value() {
+      return new ByteArrayInputStream(bytes, offset, length);
+    }
+
+    // null if the type of the entry cannot be loaded
+    @Nullable
+    private SessionKey<?> key() {
+      if (type == null && typeName != null) {
+        if (typeMissing) {
+          return null;
+        }
+        try {
+          type = Thread.currentThread().getContextClassLoader().loadClass(typeName);
+        } catch (ClassNotFoundException e) {
+          typeMissing = true;
+          LOGGER.warn("Ignoring session entry '{}' as its type {} cannot be loaded", name, typeName);
+          return null;
+        }
+      }
+      return new DefaultSessionKey<>(name, Types.<Class<Object>>cast(type));
+    }
+  }
+
+}
@@ -17,8 +17,12 @@
 package ratpack.session
 
 import com.google.inject.AbstractModule
+import io.netty.buffer.Unpooled
+import io.netty.util.AsciiString
 import ratpack.exec.Execution
 import ratpack.exec.Promise
+import ratpack.session.internal.DefaultSessionKey
+import ratpack.session.internal.JavaBuiltinSessionSerializer
 import ratpack.test.internal.RatpackGroovyDslSpec
 import ratpack.test.internal.SimpleErrorHandler
 
@@ -298,4 +302,141 @@ class SessionSpec extends RatpackGroovyDslSpec {
     then:
     text.contains "com.google.inject.OutOfScopeException: Cannot access Key[type=ratpack.session.Session, annotation=[none]] outside of a request"
   }
+
+  static class CountingSerializer implements SessionSerializer {
+    final delegate = new JavaBuiltinSessionSerializer()
+    int deserialized
+
+    @Override
+    <T> void serialize(Class<T> type, T value, OutputStream out) throws Exception {
+      delegate.serialize(type, value, out)
+    }
+
+    @Override
+    <T> T deserialize(Class<T> type, InputStream inputStream) throws Exception {
+      ++deserialized
+      delegate.deserialize(type, inputStream)
+    }
+  }
+
+  def "only entries that are read are deserialized"() {
+    given:
+    def serializer = new CountingSerializer()
+
+    when:
+    handlers {
+      get("write") { Session session ->
+        session.data.then {
+          it.set("a", "1", serializer)
+          it.set("b", "2", serializer)
+          it.set("c", "3", serializer)
+          render "ok"
+        }
+      }
+      get("change") { Session session ->
+        session.data.then {
+          it.set("b", "4", serializer)
+          render "ok"
+        }
+      }
+      get("read") { Session session ->
+        session.data.then {
+          render it.require("b", serializer)
+        }
+      }
+      get("all") { Session session ->
+        session.data.then { data ->
+          render data.keys.collect { it.name + data.require(it, serializer) }.sort().join(",")
+        }
+      }
+    }
+
+    then:
+    getText("write") == "ok"
+    getText("change") == "ok"
+    serializer.deserialized == 0
+    getText("read") == "4"
+    serializer.deserialized == 1
+    getText("all") == "a1,b4,c3"
+  }
+
+  def "can read sessions stored in the previous format"() {
+    given:
+    def serializer = new JavaBuiltinSessionSerializer()
+    def value = new ByteArrayOutputStream()
+    serializer.serialize(String, "bar", value)
+
+    def formType = Class.forName("ratpack.session.internal.DefaultSession\$SerializedForm")
+    def form = formType.getDeclaredConstructor().with { accessible = true; newInstance() }
+    form.entries = [(new DefaultSessionKey("foo", String)): value.toByteArray()]
+    def stored = new ByteArrayOutputStream()
+    serializer.serialize(formType, form, stored)
+
+    when:
+    handlers {
+      get("store") { SessionStore store ->
+        render store.store(AsciiString.of("legacy"), Unpooled.wrappedBuffer(stored.toByteArray())).map { "ok" }
+      }
+      get("read") { Session session ->
+        render session.require("foo")
+      }
+      get("write") { Session session ->
+        render session.set("other", "value").map { "ok" }
+      }
+    }
+
+    and:
+    requestSpec { it.headers.add("Cookie", "JSESSIONID=legacy") }
+
+    then:
+    getText("store") == "ok"
+    getText("read") == "bar"
+    getText("write") == "ok"
+    getText("read") == "bar"
+  }
+
+  def "entries whose type cannot be loaded are left out of the keys"() {
+    given:
+    def value = new ByteArrayOutputStream()
+    new JavaBuiltinSessionSerializer().serialize(String, "bar", value)
+    def stored = new ByteArrayOutputStream()
+    def writeString = { String string ->
+      def bytes = string.getBytes("UTF-8")
+      stored.write(bytes.length + 1)
+      stored.write(bytes)
+    }
+    stored.write([0xB5, 1] as byte[])
+    stored.write(2)
+    writeString("com.example.Missing")
+    writeString(String.name)
+    stored.write(2)
+    writeString("gone")
+    stored.write(1)
+    stored.write(0)
+    writeString("foo")
+    stored.write(2)
+    stored.write(value.size())
+    stored.write(value.toByteArray())
+
+    when:
+    handlers {
+      get("store") { SessionStore store ->
+        render store.store(AsciiString.of("unloadable"), Unpooled.wrappedBuffer(stored.toByteArray())).map { "ok" }
+      }
+      get("keys") { Session session ->
+        render session.keys.map { it*.name.join(",") }
+      }
+      get("read") { Session session ->
+        render session.require("foo")
+      }
+    }
+
+    and:
+    requestSpec { it.headers.add("Cookie", "JSESSIONID=unloadable") }
+
+    then:
+    getText("store") == "ok"
+    getText("keys") == "foo"
+    getText("read") == "bar"
+  }
 }
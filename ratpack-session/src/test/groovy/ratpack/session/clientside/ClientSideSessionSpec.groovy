@@ -341,10 +341,75 @@ class ClientSideSessionSpec extends SessionSpec {
       "DESede/CBC/NoPadding",
       "DESede/CBC/PKCS5Padding",
       "DESede/ECB/NoPadding",
-      "DESede/ECB/PKCS5Padding"
+      "DESede/ECB/PKCS5Padding",
+      "AES/GCM/NoPadding"
     ]
   }
 
+  def "values ending in zero bytes survive encryption with padding"() {
+    given:
+    key = "a" * 16
+    handlers {
+      get { Session session ->
+        render session.get(Integer).map { it.orElse(0).toString() }
+      }
+      get("set") { Session session ->
+        render session.set(Integer, 256).map { "ok" }
+      }
+    }
+
+    expect:
+    getText("set") == "ok"
+    text == "256"
+  }
+
+  def "an authenticated session cookie is not signed and tampering with it results in an empty session"() {
+    given:
+    modules.clear()
+    bindings {
+      module SessionModule
+      module ClientSideSessionModule, {
+        it.secretKey = "a" * 16
+        it.cipherAlgorithm = "AES/GCM/NoPadding"
+      }
+    }
+    handlers {
+      get { Session session ->
+        render session.get("value").map { it.orElse("null") }
+      }
+      get("set/:value") { Session session ->
+        render session.set("value", pathTokens.value).map { "ok" }
+      }
+    }
+
+    when:
+    getText("set/foo")
+
+    then:
+    text == "foo"
+    !getCookies("/").find { it.name() == "ratpack_session_0" }.value().contains(":")
+
+    when:
+    def cookies = getCookies("/").collect {
+      def value = it.value()
+      if (it.name() == "ratpack_session_0") {
+        // flip a bit of the authentication tag at the end of the message, leaving the initialization vector intact
+        def bytes = Base64.decoder.decode(value)
+        bytes[-1] = (byte) (bytes[-1] ^ 1)
+        value = Base64.encoder.encodeToString(bytes)
+      }
+      "${it.name()}=${value}"
+    }.join("; ")
+    requestSpec { RequestSpec spec ->
+      spec.headers { MutableHeaders headers ->
+        headers.set(HttpHeaderConstants.COOKIE, cookies)
+      }
+    }
+
+    then:
+    text == "null"
+  }
+
   def "changing the signing token invalidates the session"() {
     when:
     handlers {
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.websocket
+
+import groovy.transform.CompileStatic
+import io.netty.bootstrap.Bootstrap
+import io.netty.buffer.ByteBuf
+import io.netty.channel.*
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.SocketChannel
+import io.netty.channel.socket.nio.NioSocketChannel
+import io.netty.handler.codec.http.DefaultHttpHeaders
+import io.netty.handler.codec.http.FullHttpResponse
+import io.netty.handler.codec.http.HttpClientCodec
+import io.netty.handler.codec.http.HttpHeaderNames
+import io.netty.handler.codec.http.HttpObjectAggregator
+import io.netty.handler.codec.http.websocketx.*
+import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketClientCompressionHandler
+
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * A websocket client that can offer permessage-deflate compression, and records the number of bytes received over the wire.
+ */
+@CompileStatic
+class NettyWebSocketClient implements Closeable {
+
+  final LinkedBlockingQueue<String> received = new LinkedBlockingQueue<String>()
+  final AtomicLong wireBytesReceived = new AtomicLong()
+  String extensions
+
+  private final URI uri
+  private final boolean compression
+  private final EventLoopGroup group = new NioEventLoopGroup(1)
+  private Channel channel
+
+  NettyWebSocketClient(URI uri, boolean compression) {
+    this.uri = uri
+    this.compression = compression
+  }
+
+  void connect() {
+    def handshaker = WebSocketClientHandshakerFactory.newHandshaker(uri, WebSocketVersion.V13, null, compression, new DefaultHttpHeaders())
+    def handler = new Handler(handshaker)
+
+    channel = new Bootstrap()
+      .group(group)
+      .channel(NioSocketChannel)
+      .handler(new ChannelInitializer<SocketChannel>() {
+        @Override
+        protected void initChannel(SocketChannel ch) throws Exception {
+          def pipeline = ch.pipeline()
+          pipeline.addLast(new ChannelInboundHandlerAdapter() {
+            @Override
+            void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+              if (msg instanceof ByteBuf) {
+                wireBytesReceived.addAndGet(((ByteBuf) msg).readableBytes())
+              }
+              ctx.fireChannelRead(msg)
+            }
+          })
+          pipeline.addLast(new HttpClientCodec(), new HttpObjectAggregator(8192))
+          if (compression) {
+            pipeline.addLast(WebSocketClientCompressionHandler.INSTANCE)
+          }
+          pipeline.addLast(handler)
+        }
+      })
+      .connect(uri.host, uri.port)
+      .sync()
+      .channel()
+
+    assert handler.handshakeFuture.await(5, TimeUnit.SECONDS) && handler.handshakeFuture.isSuccess() : "websocket handshake did not complete"
+  }
+
+  void send(String text) {
+    channel.writeAndFlush(new TextWebSocketFrame(text)).sync()
+  }
+
+  @Override
+  void close() {
+    if (channel != null && channel.isOpen()) {
+      channel.writeAndFlush(new CloseWebSocketFrame()).await(5, TimeUnit.SECONDS)
+      channel.close().await(5, TimeUnit.SECONDS)
+    }
+    group.shutdownGracefully(0, 0, TimeUnit.SECONDS).await(5, TimeUnit.SECONDS)
+  }
+
+  private class Handler extends SimpleChannelInboundHandler<Object> {
+
+    private final WebSocketClientHandshaker handshaker
+    ChannelPromise handshakeFuture
+
+    Handler(WebSocketClientHandshaker handshaker) {
+      this.handshaker = handshaker
+    }
+
+    @Override
+    void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+      handshakeFuture = ctx.newPromise()
+    }
+
+    @Override
+    void channelActive(ChannelHandlerContext ctx) throws Exception {
+      handshaker.handshake(ctx.channel())
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {
+      if (!handshaker.isHandshakeComplete()) {
+        def response = (FullHttpResponse) msg
+        handshaker.finishHandshake(ctx.channel(), response)
+        extensions = response.headers().get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS)
+        handshakeFuture.setSuccess()
+      } else if (msg instanceof TextWebSocketFrame) {
+        received.put(((TextWebSocketFrame) msg).text())
+      } else if (msg instanceof CloseWebSocketFrame) {
+        ctx.channel().close()
+      }
+    }
+
+    @Override
+    void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+      if (!handshakeFuture.isDone()) {
+        handshakeFuture.setFailure(cause)
+      }
+      ctx.close()
+    }
+  }
+
+}
@@ -18,6 +18,7 @@ package ratpack.test.exec.internal;
 
 import ratpack.exec.*;
 import ratpack.exec.internal.ResultBackedExecResult;
+import ratpack.exec.internal.ThreadBinding;
 import ratpack.func.Action;
 import ratpack.func.Function;
 import ratpack.registry.RegistrySpec;
@@ -42,6 +43,7 @@ public class DefaultExecHarness implements ExecHarness {
 
   @Override
   public <T> ExecResult<T> yield(Action<? super RegistrySpec> registry, final Function<? super Execution, ? extends Promise<T>> func) throws Exception {
+    ThreadBinding.guardBlockingTestApi("ExecHarness.yield()");
     AtomicReference<ExecResult<T>> reference = new AtomicReference<>();
     CountDownLatch latch = new CountDownLatch(1);
 
@@ -64,6 +66,7 @@ public class DefaultExecHarness implements ExecHarness {
 
   @Override
   public void run(Action<? super RegistrySpec> registry, Action<? super Execution> action) throws Exception {
+    ThreadBinding.guardBlockingTestApi("ExecHarness.run()");
     final AtomicReference<Throwable> thrown = new AtomicReference<>();
     final CountDownLatch latch = new CountDownLatch(1);
 
@@ -23,6 +23,7 @@ import ratpack.exec.ExecController;
 import ratpack.exec.ExecResult;
 import ratpack.exec.Result;
 import ratpack.exec.internal.DefaultExecController;
+import ratpack.exec.internal.ThreadBinding;
 import ratpack.func.Action;
 import ratpack.http.TypedData;
 import ratpack.http.client.HttpClient;
@@ -45,13 +46,17 @@ import static io.netty.buffer.Unpooled.unreleasableBuffer;
 public class BlockingHttpClient {
 
   public ReceivedResponse request(URI uri, Duration duration, Action<? super RequestSpec> action) throws Throwable {
+    ThreadBinding.guardBlockingTestApi("BlockingHttpClient.request()");
     CountDownLatch latch = new CountDownLatch(1);
     AtomicReference<ExecResult<ReceivedResponse>> result = new AtomicReference<>();
 
-    try (ExecController execController = new DefaultExecController(2)) {
+    try (
+      ExecController execController = new DefaultExecController(2);
+      HttpClient httpClient = HttpClient.httpClient(new UnpooledByteBufAllocator(false), Integer.MAX_VALUE)
+    ) {
       execController.fork()
         .start(e ->
-          HttpClient.httpClient(new UnpooledByteBufAllocator(false), Integer.MAX_VALUE)
+          httpClient
             .request(uri, action.prepend(s -> s.readTimeout(Duration.ofHours(1))))
             .map(response -> {
               TypedData responseBody = response.getBody();